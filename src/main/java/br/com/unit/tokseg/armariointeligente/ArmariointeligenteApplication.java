@@ -2,8 +2,10 @@ package br.com.unit.tokseg.armariointeligente;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class ArmariointeligenteApplication {
 
 	public static void main(String[] args) {
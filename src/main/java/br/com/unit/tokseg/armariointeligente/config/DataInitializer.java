@@ -163,7 +163,7 @@ public class DataInitializer {
                                     // CORRIGIDO: &lt;= para <=
                                     compartimento.setTamanho(i <= 2 ? "P" : (i <= 4 ? "M" : "G"));
                                     compartimento.setOcupado(false);
-                                    compartimento.setCodigoAcesso("123456"); // Código de acesso de exemplo
+                                    compartimento.setCodigoAcesso(String.valueOf(123455 + i)); // Códigos de exemplo, distintos no armário
                                     compartimento.setArmario(armario1);
                                     compartimentoRepository.save(compartimento);
                                 }
@@ -175,7 +175,7 @@ public class DataInitializer {
                                     // CORRIGIDO: &lt;= para <=
                                     compartimento.setTamanho(i <= 2 ? "P" : "M");
                                     compartimento.setOcupado(false);
-                                    compartimento.setCodigoAcesso("654321"); // Código de acesso de exemplo
+                                    compartimento.setCodigoAcesso(String.valueOf(654320 + i)); // Códigos de exemplo, distintos no armário
                                     compartimento.setArmario(armario2);
                                     compartimentoRepository.save(compartimento);
                                 }
@@ -187,7 +187,7 @@ public class DataInitializer {
                                     // CORRIGIDO: &lt;= para <=
                                     compartimento.setTamanho(i <= 3 ? "P" : (i <= 6 ? "M" : "G"));
                                     compartimento.setOcupado(false);
-                                    compartimento.setCodigoAcesso("987654"); // Código de acesso de exemplo
+                                    compartimento.setCodigoAcesso(String.valueOf(987653 + i)); // Códigos de exemplo, distintos no armário
                                     compartimento.setArmario(armario3);
                                     compartimentoRepository.save(compartimento);
                                 }
@@ -1,16 +1,25 @@
 package br.com.unit.tokseg.armariointeligente.controller;
 
+import br.com.unit.tokseg.armariointeligente.exception.BadRequestException;
 import br.com.unit.tokseg.armariointeligente.exception.ResourceNotFoundException;
 import br.com.unit.tokseg.armariointeligente.model.Armario;
+import br.com.unit.tokseg.armariointeligente.security.UserDetailsImpl;
 import br.com.unit.tokseg.armariointeligente.service.ArmarioService;
+import br.com.unit.tokseg.armariointeligente.service.DisponibilidadeService;
+import br.com.unit.tokseg.armariointeligente.service.EntregaService;
+import br.com.unit.tokseg.armariointeligente.service.IndiceCodigosAcesso;
+import br.com.unit.tokseg.armariointeligente.service.LimiteTentativasRetirada;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @RestController
@@ -21,6 +30,18 @@ public class ArmarioController {
     @Autowired
     private ArmarioService armarioService;
 
+    @Autowired
+    private EntregaService entregaService;
+
+    @Autowired
+    private IndiceCodigosAcesso indiceCodigosAcesso;
+
+    @Autowired
+    private DisponibilidadeService disponibilidadeService;
+
+    @Autowired
+    private LimiteTentativasRetirada limiteTentativasRetirada;
+
     @PostMapping
     @PreAuthorize("hasRole('ADMINISTRADOR')")
     @Operation(summary = "Criar armário", description = "Cria um novo armário no sistema")
@@ -29,6 +50,25 @@ public class ArmarioController {
         return ResponseEntity.ok(novoArmario);
     }
 
+    @PostMapping("/{id}/retirada")
+    @PreAuthorize("hasRole('ADMINISTRADOR') or hasRole('CLIENTE') or hasRole('ENTREGADOR')")
+    @Operation(summary = "Retirar no terminal", description = "Registra a retirada da entrega guardada no compartimento cujo código de acesso foi digitado no terminal do armário")
+    public ResponseEntity<?> retirarPorCodigo(
+            @Parameter(description = "ID do armário") @PathVariable Long id,
+            @Parameter(description = "Código de acesso de 6 dígitos") @RequestParam String codigoAcesso,
+            @AuthenticationPrincipal UserDetailsImpl usuario) {
+        Long usuarioId = usuario != null ? usuario.getId() : null;
+        limiteTentativasRetirada.verificar(usuarioId, id);
+        // Resolvido em memória antes de abrir transação: código errado não chega ao banco
+        Long compartimentoId = indiceCodigosAcesso.resolver(id, codigoAcesso);
+        if (compartimentoId == null) {
+            limiteTentativasRetirada.registrarFalha(usuarioId, id);
+            throw new BadRequestException("Código de acesso inválido");
+        }
+        limiteTentativasRetirada.registrarSucesso(usuarioId);
+        return ResponseEntity.ok(entregaService.registrarRetiradaNoCompartimento(compartimentoId, codigoAcesso));
+    }
+
     @GetMapping
     @Operation(summary = "Listar armários", description = "Lista todos os armários cadastrados no sistema")
     public ResponseEntity<?> listarArmarios() {
@@ -54,6 +94,16 @@ public class ArmarioController {
         }
     }
 
+    @GetMapping("/{id}/disponibilidade")
+    @Operation(summary = "Disponibilidade do armário", description = "Lista os compartimentos que comportam o tamanho pedido e estão livres na janela informada, do melhor para o pior candidato")
+    public ResponseEntity<?> buscarDisponibilidade(
+            @Parameter(description = "ID do armário") @PathVariable Long id,
+            @Parameter(description = "Tamanho do pacote (P, M ou G)") @RequestParam String tamanho,
+            @Parameter(description = "Início da janela (formato ISO)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+            @Parameter(description = "Fim da janela (formato ISO)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fim) {
+        return ResponseEntity.ok(disponibilidadeService.buscar(id, tamanho, inicio, fim));
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMINISTRADOR')")
     @Operation(summary = "Atualizar armário", description = "Atualiza os dados de um armário existente")
@@ -1,25 +1,34 @@
 package br.com.unit.tokseg.armariointeligente.controller;
 
+import br.com.unit.tokseg.armariointeligente.exception.BadRequestException;
 import br.com.unit.tokseg.armariointeligente.model.Usuario;
 import br.com.unit.tokseg.armariointeligente.model.auth.AuthRequest;
 import br.com.unit.tokseg.armariointeligente.model.auth.AuthResponse;
 import br.com.unit.tokseg.armariointeligente.repository.UsuarioRepository;
+import br.com.unit.tokseg.armariointeligente.security.JwtKeyStore;
 import br.com.unit.tokseg.armariointeligente.security.JwtUtils;
+import br.com.unit.tokseg.armariointeligente.security.LoginExecutor;
+import br.com.unit.tokseg.armariointeligente.security.TokenClaims;
+import br.com.unit.tokseg.armariointeligente.security.TokenRevogacaoService;
 import br.com.unit.tokseg.armariointeligente.security.UserDetailsImpl;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
 @RestController
 @RequestMapping("/api/v1/auth")
 @Tag(name = "Autenticação", description = "Endpoints para autenticação de usuários")
@@ -36,27 +45,58 @@ public class AuthController {
     @Autowired
     JwtUtils jwtUtils;
 
+    @Autowired
+    JwtKeyStore jwtKeyStore;
+
+    @Autowired
+    LoginExecutor loginExecutor;
+
+    @Autowired
+    TokenRevogacaoService tokenRevogacaoService;
+
     @PostMapping("/login")
     @Operation(summary = "Autenticar usuário", description = "Autentica um usuário e retorna um token JWT")
-    public ResponseEntity<?> authenticateUser(@RequestBody AuthRequest loginRequest) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getSenha()));
-
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = jwtUtils.generateJwtToken(authentication);
-
-        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
-        String tipoUsuario = userDetails.getAuthorities().stream()
-                .findFirst()
-                .map(item -> item.getAuthority().replace("ROLE_", ""))
-                .orElse("");
-
-        return ResponseEntity.ok(new AuthResponse(
-                jwt,
-                "Bearer",
-                userDetails.getId(),
-                userDetails.getNome(),
-                userDetails.getEmail(),
-                tipoUsuario));
+    public CompletableFuture<ResponseEntity<?>> authenticateUser(@RequestBody AuthRequest loginRequest) {
+        // A verificação da senha roda no pool de login; a thread do Tomcat é liberada enquanto isso
+        return loginExecutor.autenticar(loginRequest.getEmail(), loginRequest.getSenha())
+                .<ResponseEntity<?>>thenApply(authentication -> {
+                    String jwt = jwtUtils.generateJwtToken(authentication);
+
+                    UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+                    String tipoUsuario = userDetails.getAuthorities().stream()
+                            .findFirst()
+                            .map(item -> item.getAuthority().replace("ROLE_", ""))
+                            .orElse("");
+
+                    return ResponseEntity.ok(new AuthResponse(
+                            jwt,
+                            "Bearer",
+                            userDetails.getId(),
+                            userDetails.getNome(),
+                            userDetails.getEmail(),
+                            tipoUsuario));
+                });
+    }
+
+    @PostMapping("/logout")
+    @Operation(summary = "Encerrar sessão", description = "Revoga o token JWT enviado no cabeçalho Authorization")
+    public ResponseEntity<?> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            throw new BadRequestException("Token não informado");
+        }
+        TokenClaims claims = jwtUtils.verificarToken(authorization.substring(7))
+                .orElseThrow(() -> new BadRequestException("Token inválido ou expirado"));
+
+        tokenRevogacaoService.revogar(claims);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/jwks")
+    @Operation(summary = "Chaves públicas", description = "Retorna as chaves públicas (JWKS) usadas para verificar os tokens ES256")
+    public ResponseEntity<?> jwks() {
+        // Outros serviços podem verificar tokens localmente; o cache curto acompanha a rotação de chaves
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES))
+                .body(jwtKeyStore.getJwks());
     }
 }
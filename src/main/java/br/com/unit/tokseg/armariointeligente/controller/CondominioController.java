@@ -47,6 +47,14 @@ public class CondominioController {
         }
     }
 
+    @GetMapping("/{id}/resumo")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    @Operation(summary = "Resumo do condomínio", description = "Compartimentos livres e ocupados, entregas por status e reservas por status do condomínio, mantidos em memória")
+    public ResponseEntity<?> obterResumo(
+            @Parameter(description = "ID do condomínio") @PathVariable Long id) {
+        return ResponseEntity.ok(condominioService.obterResumo(id));
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMINISTRADOR')")
     @Operation(summary = "Atualizar condomínio", description = "Atualiza os dados de um condomínio existente")
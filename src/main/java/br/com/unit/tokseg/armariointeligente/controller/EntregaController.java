@@ -1,18 +1,31 @@
 package br.com.unit.tokseg.armariointeligente.controller;
 
 import br.com.unit.tokseg.armariointeligente.exception.ResourceNotFoundException;
+import br.com.unit.tokseg.armariointeligente.model.AlocacaoEntregaRequest;
+import br.com.unit.tokseg.armariointeligente.model.ConsultaEntregasRequest;
 import br.com.unit.tokseg.armariointeligente.model.Entrega;
+import br.com.unit.tokseg.armariointeligente.model.EntregaLoteRequest;
+import br.com.unit.tokseg.armariointeligente.model.RastreioEntrega;
 import br.com.unit.tokseg.armariointeligente.model.StatusEntrega;
+import br.com.unit.tokseg.armariointeligente.security.UserDetailsImpl;
 import br.com.unit.tokseg.armariointeligente.service.EntregaService;
+import br.com.unit.tokseg.armariointeligente.service.ExportacaoEntregasService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Optional;
 
@@ -24,6 +37,12 @@ public class EntregaController {
     @Autowired
     private EntregaService entregaService;
 
+    @Autowired
+    private ExportacaoEntregasService exportacaoEntregasService;
+
+    @Value("${entregas.exportacao.tempo-limite:PT30M}")
+    private Duration tempoLimiteExportacao;
+
     @PostMapping
     @PreAuthorize("hasRole('ADMINISTRADOR') or hasRole('ENTREGADOR')")
     @Operation(summary = "Registrar entrega", description = "Registra uma nova entrega no sistema")
@@ -32,6 +51,29 @@ public class EntregaController {
         return ResponseEntity.ok(novaEntrega);
     }
 
+    @PostMapping("/alocar")
+    @PreAuthorize("hasRole('ADMINISTRADOR') or hasRole('ENTREGADOR')")
+    @Operation(summary = "Alocar entrega", description = "Registra uma entrega no menor compartimento livre do armário que comporta o pacote (P, M ou G)")
+    public ResponseEntity<?> alocarEntrega(@RequestBody AlocacaoEntregaRequest requisicao,
+                                           @AuthenticationPrincipal UserDetailsImpl usuario) {
+        if (requisicao.getEntregadorId() == null && usuario != null) {
+            requisicao.setEntregadorId(usuario.getId());
+        }
+        Entrega novaEntrega = entregaService.alocarEntrega(requisicao);
+        return ResponseEntity.ok(novaEntrega);
+    }
+
+    @PostMapping("/lote")
+    @PreAuthorize("hasRole('ADMINISTRADOR') or hasRole('ENTREGADOR')")
+    @Operation(summary = "Registrar entregas em lote", description = "Registra várias entregas em uma única transação; itens inválidos são rejeitados individualmente e o resultado de cada item é devolvido na ordem enviada")
+    public ResponseEntity<?> registrarLote(@RequestBody EntregaLoteRequest requisicao,
+                                           @AuthenticationPrincipal UserDetailsImpl usuario) {
+        if (requisicao.getEntregadorId() == null && usuario != null) {
+            requisicao.setEntregadorId(usuario.getId());
+        }
+        return ResponseEntity.ok(entregaService.registrarLote(requisicao));
+    }
+
     @PutMapping("/{id}/retirada")
     @PreAuthorize("hasRole('ADMINISTRADOR') or hasRole('CLIENTE') or hasRole('ENTREGADOR')")
     @Operation(summary = "Registrar retirada", description = "Registra a retirada de uma entrega")
@@ -53,41 +95,46 @@ public class EntregaController {
 
     @GetMapping
     @PreAuthorize("hasRole('ADMINISTRADOR') or hasRole('ENTREGADOR')")
-    @Operation(summary = "Listar entregas", description = "Lista todas as entregas registradas no sistema")
-    public ResponseEntity<?> listarEntregas() {
-        return ResponseEntity.ok(entregaService.listarEntregas());
+    @Operation(summary = "Listar entregas", description = "Lista as entregas registradas no sistema, da mais recente para a mais antiga, paginadas por cursor")
+    public ResponseEntity<?> listarEntregas(
+            @ParameterObject ConsultaEntregasRequest consulta) {
+        return ResponseEntity.ok(entregaService.listarEntregas(consulta));
     }
 
     @GetMapping("/compartimento/{compartimentoId}")
     @PreAuthorize("hasRole('ADMINISTRADOR') or hasRole('ENTREGADOR')")
     @Operation(summary = "Listar entregas por compartimento", description = "Lista entregas de um compartimento específico")
     public ResponseEntity<?> listarEntregasPorCompartimento(
-            @Parameter(description = "ID do compartimento") @PathVariable Long compartimentoId) {
-        return ResponseEntity.ok(entregaService.listarEntregasPorCompartimento(compartimentoId));
+            @Parameter(description = "ID do compartimento") @PathVariable Long compartimentoId,
+            @ParameterObject ConsultaEntregasRequest consulta) {
+        return ResponseEntity.ok(entregaService.listarEntregasPorCompartimento(compartimentoId, consulta));
     }
 
     @GetMapping("/entregador/{entregadorId}")
     @PreAuthorize("hasRole('ADMINISTRADOR') or hasRole('ENTREGADOR')")
     @Operation(summary = "Listar entregas por entregador", description = "Lista entregas realizadas por um entregador específico")
     public ResponseEntity<?> listarEntregasPorEntregador(
-            @Parameter(description = "ID do entregador") @PathVariable Long entregadorId) {
-        return ResponseEntity.ok(entregaService.listarEntregasPorEntregador(entregadorId));
+            @Parameter(description = "ID do entregador") @PathVariable Long entregadorId,
+            @ParameterObject ConsultaEntregasRequest consulta) {
+        return ResponseEntity.ok(entregaService.listarEntregasPorEntregador(entregadorId, consulta));
     }
 
     @GetMapping("/destinatario/{destinatarioId}")
     @PreAuthorize("hasRole('ADMINISTRADOR') or hasRole('ENTREGADOR') or @usuarioServiceImpl.isCurrentUser(#destinatarioId)")
     @Operation(summary = "Listar entregas por destinatário", description = "Lista entregas destinadas a um usuário específico")
     public ResponseEntity<?> listarEntregasPorDestinatario(
-            @Parameter(description = "ID do destinatário") @PathVariable Long destinatarioId) {
-        return ResponseEntity.ok(entregaService.listarEntregasPorDestinatario(destinatarioId));
+            @Parameter(description = "ID do destinatário") @PathVariable Long destinatarioId,
+            @ParameterObject ConsultaEntregasRequest consulta) {
+        return ResponseEntity.ok(entregaService.listarEntregasPorDestinatario(destinatarioId, consulta));
     }
 
     @GetMapping("/status/{status}")
     @PreAuthorize("hasRole('ADMINISTRADOR') or hasRole('ENTREGADOR')")
     @Operation(summary = "Listar entregas por status", description = "Lista entregas filtradas por status")
     public ResponseEntity<?> listarEntregasPorStatus(
-            @Parameter(description = "Status da entrega") @PathVariable StatusEntrega status) {
-        return ResponseEntity.ok(entregaService.listarEntregasPorStatus(status));
+            @Parameter(description = "Status da entrega") @PathVariable StatusEntrega status,
+            @ParameterObject ConsultaEntregasRequest consulta) {
+        return ResponseEntity.ok(entregaService.listarEntregasPorStatus(status, consulta));
     }
 
     @GetMapping("/{id}")
@@ -108,7 +155,7 @@ public class EntregaController {
     @Operation(summary = "Buscar entrega por código de rastreio", description = "Busca uma entrega pelo seu código de rastreio")
     public ResponseEntity<?> buscarEntregaPorCodigoRastreio(
             @Parameter(description = "Código de rastreio") @PathVariable String codigoRastreio) {
-        Optional<Entrega> entrega = entregaService.buscarEntregaPorCodigoRastreio(codigoRastreio);
+        Optional<RastreioEntrega> entrega = entregaService.buscarEntregaPorCodigoRastreio(codigoRastreio);
         if (entrega.isPresent()) {
             return ResponseEntity.ok(entrega.get());
         } else {
@@ -118,10 +165,31 @@ public class EntregaController {
 
     @GetMapping("/periodo")
     @PreAuthorize("hasRole('ADMINISTRADOR') or hasRole('ENTREGADOR')")
-    @Operation(summary = "Listar entregas por período", description = "Lista entregas realizadas em um período específico")
+    @Operation(summary = "Listar entregas por período", description = "Lista entregas realizadas em um período específico (início e fim obrigatórios)")
     public ResponseEntity<?> listarEntregasPorPeriodo(
+            @ParameterObject ConsultaEntregasRequest consulta) {
+        return ResponseEntity.ok(entregaService.listarEntregasPorPeriodo(consulta));
+    }
+
+    @GetMapping("/exportacao")
+    @PreAuthorize("hasRole('ADMINISTRADOR') or hasRole('ENTREGADOR')")
+    @Operation(summary = "Exportar entregas por período", description = "Exporta as entregas do período em NDJSON (uma entrega por linha) ou CSV, enviadas à medida que são lidas do banco")
+    public WebAsyncTask<ResponseEntity<Void>> exportarEntregas(
             @Parameter(description = "Data de início (formato ISO)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
-            @Parameter(description = "Data de fim (formato ISO)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fim) {
-        return ResponseEntity.ok(entregaService.listarEntregasPorPeriodo(inicio, fim));
+            @Parameter(description = "Data de fim (formato ISO)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fim,
+            @Parameter(description = "Formato: ndjson ou csv") @RequestParam(defaultValue = "ndjson") String formato,
+            HttpServletResponse response) {
+        // Validado antes do streaming, enquanto ainda é possível responder 400
+        ExportacaoEntregasService.Formato tipo = ExportacaoEntregasService.Formato.de(formato);
+        exportacaoEntregasService.validarPeriodo(inicio, fim);
+
+        // Tempo limite próprio: as demais requisições assíncronas continuam com o padrão do servidor.
+        // O corpo é escrito direto na resposta, então não há ResponseEntity a devolver.
+        return new WebAsyncTask<>(tempoLimiteExportacao.toMillis(), () -> {
+            response.setContentType(tipo.getTipoConteudo() + ";charset=UTF-8");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"entregas." + tipo.getExtensao() + "\"");
+            exportacaoEntregasService.exportar(inicio, fim, tipo, response.getOutputStream());
+            return null;
+        });
     }
 }
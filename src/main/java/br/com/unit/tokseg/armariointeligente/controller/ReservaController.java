@@ -2,7 +2,9 @@ package br.com.unit.tokseg.armariointeligente.controller;
 
 import br.com.unit.tokseg.armariointeligente.exception.ResourceNotFoundException;
 import br.com.unit.tokseg.armariointeligente.model.Reserva;
+import br.com.unit.tokseg.armariointeligente.model.ReservaRecorrente;
 import br.com.unit.tokseg.armariointeligente.model.StatusReserva;
+import br.com.unit.tokseg.armariointeligente.service.ReservaRecorrenteService;
 import br.com.unit.tokseg.armariointeligente.service.ReservaService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -24,6 +26,9 @@ public class ReservaController {
     @Autowired
     private ReservaService reservaService;
 
+    @Autowired
+    private ReservaRecorrenteService reservaRecorrenteService;
+
     @PostMapping
     @PreAuthorize("hasRole('ADMINISTRADOR') or hasRole('CLIENTE')")
     @Operation(summary = "Criar reserva", description = "Cria uma nova reserva de compartimento")
@@ -32,8 +37,43 @@ public class ReservaController {
         return ResponseEntity.ok(novaReserva);
     }
 
+    @PostMapping("/recorrentes")
+    @PreAuthorize("hasRole('ADMINISTRADOR') or hasRole('CLIENTE')")
+    @Operation(summary = "Criar reserva recorrente",
+            description = "Cria uma série de reservas (regra no formato RRULE, ex.: FREQ=WEEKLY;BYDAY=MO,TU,WE,TH,FR)")
+    public ResponseEntity<?> criarReservaRecorrente(@RequestBody ReservaRecorrente reservaRecorrente) {
+        return ResponseEntity.ok(reservaRecorrenteService.criarReservaRecorrente(reservaRecorrente));
+    }
+
+    @GetMapping("/recorrentes/{id}")
+    @PreAuthorize("hasRole('ADMINISTRADOR') or @reservaServiceImpl.isTitularRecorrente(#id)")
+    @Operation(summary = "Buscar reserva recorrente por ID", description = "Busca uma série de reservas pelo seu ID")
+    public ResponseEntity<?> buscarReservaRecorrentePorId(
+            @Parameter(description = "ID da reserva recorrente") @PathVariable Long id) {
+        return ResponseEntity.ok(reservaRecorrenteService.buscarReservaRecorrentePorId(id));
+    }
+
+    @GetMapping("/recorrentes/{id}/ocorrencias")
+    @PreAuthorize("hasRole('ADMINISTRADOR') or @reservaServiceImpl.isTitularRecorrente(#id)")
+    @Operation(summary = "Listar ocorrências de reserva recorrente",
+            description = "Lista as ocorrências da série que começam no período (as ainda não materializadas vêm sem id)")
+    public ResponseEntity<?> listarOcorrencias(
+            @Parameter(description = "ID da reserva recorrente") @PathVariable Long id,
+            @Parameter(description = "Data de início (formato ISO)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+            @Parameter(description = "Data de fim (formato ISO)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fim) {
+        return ResponseEntity.ok(reservaRecorrenteService.listarOcorrencias(id, inicio, fim));
+    }
+
+    @PutMapping("/recorrentes/{id}/cancelar")
+    @PreAuthorize("hasRole('ADMINISTRADOR') or @reservaServiceImpl.isTitularRecorrente(#id)")
+    @Operation(summary = "Cancelar reserva recorrente", description = "Cancela as ocorrências futuras de uma série")
+    public ResponseEntity<?> cancelarReservaRecorrente(
+            @Parameter(description = "ID da reserva recorrente") @PathVariable Long id) {
+        return ResponseEntity.ok(reservaRecorrenteService.cancelarReservaRecorrente(id));
+    }
+
     @PutMapping("/{id}/cancelar")
-    @PreAuthorize("hasRole('ADMINISTRADOR') or @usuarioServiceImpl.isCurrentUser(authentication.principal.id)")
+    @PreAuthorize("hasRole('ADMINISTRADOR') or @reservaServiceImpl.isTitular(#id)")
     @Operation(summary = "Cancelar reserva", description = "Cancela uma reserva existente")
     public ResponseEntity<?> cancelarReserva(
             @Parameter(description = "ID da reserva") @PathVariable Long id) {
@@ -79,7 +119,7 @@ public class ReservaController {
     }
 
     @GetMapping("/{id}")
-    @PreAuthorize("hasRole('ADMINISTRADOR') or @usuarioServiceImpl.isCurrentUser(authentication.principal.id)")
+    @PreAuthorize("hasRole('ADMINISTRADOR') or @reservaServiceImpl.isTitular(#id)")
     @Operation(summary = "Buscar reserva por ID", description = "Busca uma reserva pelo seu ID")
     public ResponseEntity<?> buscarReservaPorId(
             @Parameter(description = "ID da reserva") @PathVariable Long id) {
@@ -92,7 +132,7 @@ public class ReservaController {
     }
 
     @GetMapping("/periodo")
-    @Operation(summary = "Listar reservas por período", description = "Lista reservas realizadas em um período específico")
+    @Operation(summary = "Listar reservas por período", description = "Lista reservas realizadas em um período específico, incluindo ocorrências de reservas recorrentes")
     public ResponseEntity<?> listarReservasPorPeriodo(
             @Parameter(description = "Data de início (formato ISO)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
             @Parameter(description = "Data de fim (formato ISO)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fim) {
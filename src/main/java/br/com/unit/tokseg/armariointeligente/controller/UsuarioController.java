@@ -91,6 +91,15 @@ public class UsuarioController {
         return ResponseEntity.ok(usuarioAtivado);
     }
 
+    @PostMapping("/{id}/revogar-tokens")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    @Operation(summary = "Revogar tokens do usuário", description = "Invalida todos os tokens JWT já emitidos para o usuário (requer permissão de ADMINISTRADOR)")
+    public ResponseEntity<?> revogarTokens(
+            @Parameter(description = "ID do usuário") @PathVariable Long id) {
+        usuarioService.revogarTodosTokens(id);
+        return ResponseEntity.noContent().build();
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMINISTRADOR')")
     @Operation(summary = "Deletar usuário", description = "Remove um usuário do sistema (requer permissão de ADMINISTRADOR)")
@@ -4,9 +4,10 @@ import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
 @ResponseStatus(HttpStatus.BAD_REQUEST)
+// Sem stack trace: é um resultado esperado do domínio, respondido ao cliente
 public class BadRequestException extends RuntimeException {
     
     public BadRequestException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
@@ -0,0 +1,84 @@
+package br.com.unit.tokseg.armariointeligente.exception;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+
+// Corpos de erro montados a partir de fragmentos já serializados: status, título e mensagem
+// se repetem muito (código inválido, não encontrado...) e só timestamp e path variam
+@Component
+public class CorpoErro {
+
+    private static final byte[] INICIO_TIMESTAMP = "{\"timestamp\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] INICIO_PATH = ",\"path\":".getBytes(StandardCharsets.UTF_8);
+
+    private final ObjectMapper objectMapper;
+
+    private final Cache<Chave, byte[]> fragmentos = Caffeine.newBuilder()
+            .maximumSize(1000)
+            .build();
+
+    public CorpoErro(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    // Mesmo formato de ErrorResponse: timestamp, status, error, message, path
+    public byte[] renderizar(HttpStatus status, String erro, String mensagem, String path) {
+        return montar(serializar(new Date()), status, erro, mensagem, path);
+    }
+
+    // Formato sem timestamp, usado pelas respostas 401 do filtro de segurança
+    public byte[] renderizarSemTimestamp(HttpStatus status, String erro, String mensagem, String path) {
+        return montar(null, status, erro, mensagem, path);
+    }
+
+    private byte[] montar(byte[] timestamp, HttpStatus status, String erro, String mensagem, String path) {
+        byte[] fragmento = fragmentos.get(new Chave(status.value(), erro, mensagem), this::renderizarFragmento);
+        byte[] pathSerializado = serializar(path);
+
+        ByteArrayOutputStream saida = new ByteArrayOutputStream(
+                fragmento.length + pathSerializado.length + (timestamp != null ? timestamp.length + 24 : 10));
+        if (timestamp != null) {
+            saida.writeBytes(INICIO_TIMESTAMP);
+            saida.writeBytes(timestamp);
+            saida.write(',');
+        } else {
+            saida.write('{');
+        }
+        saida.writeBytes(fragmento);
+        saida.writeBytes(INICIO_PATH);
+        saida.writeBytes(pathSerializado);
+        saida.write('}');
+        return saida.toByteArray();
+    }
+
+    // "status":...,"error":...,"message":... sem as chaves externas
+    private byte[] renderizarFragmento(Chave chave) {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("status", chave.status());
+        node.put("error", chave.erro());
+        node.put("message", chave.mensagem());
+        byte[] objeto = serializar(node);
+        return Arrays.copyOfRange(objeto, 1, objeto.length - 1);
+    }
+
+    private byte[] serializar(Object valor) {
+        try {
+            return objectMapper.writeValueAsBytes(valor);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Não foi possível serializar o corpo de erro", e);
+        }
+    }
+
+    private record Chave(int status, String erro, String mensagem) {
+    }
+}
@@ -2,7 +2,10 @@ package br.com.unit.tokseg.armariointeligente.exception;
 
 import java.util.Date;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -11,28 +14,35 @@ import org.springframework.web.context.request.WebRequest;
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
+    @Autowired
+    private CorpoErro corpoErro;
+
     @ExceptionHandler(ResourceNotFoundException.class)
     public ResponseEntity<?> resourceNotFoundException(ResourceNotFoundException ex, WebRequest request) {
-        ErrorResponse errorDetails = new ErrorResponse(new Date(), HttpStatus.NOT_FOUND.value(), "Não encontrado", ex.getMessage(), request.getDescription(false));
-        return new ResponseEntity<>(errorDetails, HttpStatus.NOT_FOUND);
+        return resposta(HttpStatus.NOT_FOUND, "Não encontrado", ex, request);
     }
 
     @ExceptionHandler(ResourceAlreadyExistsException.class)
     public ResponseEntity<?> resourceAlreadyExistsException(ResourceAlreadyExistsException ex, WebRequest request) {
-        ErrorResponse errorDetails = new ErrorResponse(new Date(), HttpStatus.CONFLICT.value(), "Conflito", ex.getMessage(), request.getDescription(false));
-        return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
+        return resposta(HttpStatus.CONFLICT, "Conflito", ex, request);
     }
 
     @ExceptionHandler(BadRequestException.class)
     public ResponseEntity<?> badRequestException(BadRequestException ex, WebRequest request) {
-        ErrorResponse errorDetails = new ErrorResponse(new Date(), HttpStatus.BAD_REQUEST.value(), "Requisição inválida", ex.getMessage(), request.getDescription(false));
-        return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
+        return resposta(HttpStatus.BAD_REQUEST, "Requisição inválida", ex, request);
     }
 
     @ExceptionHandler(RelatedResourceException.class)
     public ResponseEntity<?> relatedResourceException(RelatedResourceException ex, WebRequest request) {
-        ErrorResponse errorDetails = new ErrorResponse(new Date(), HttpStatus.CONFLICT.value(), "Conflito", ex.getMessage(), request.getDescription(false));
-        return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
+        return resposta(HttpStatus.CONFLICT, "Conflito", ex, request);
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<?> tooManyRequestsException(TooManyRequestsException ex, WebRequest request) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSegundos()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(corpoErro.renderizar(HttpStatus.TOO_MANY_REQUESTS, "Muitas requisições", ex.getMessage(), request.getDescription(false)));
     }
 
     @ExceptionHandler(Exception.class)
@@ -40,4 +50,11 @@ public class GlobalExceptionHandler {
         ErrorResponse errorDetails = new ErrorResponse(new Date(), HttpStatus.INTERNAL_SERVER_ERROR.value(), "Erro interno do servidor", ex.getMessage(), request.getDescription(false));
         return new ResponseEntity<>(errorDetails, HttpStatus.INTERNAL_SERVER_ERROR);
     }
+
+    // Erros de domínio são frequentes: o corpo sai de fragmentos pré-serializados, sem montar ErrorResponse
+    private ResponseEntity<byte[]> resposta(HttpStatus status, String erro, Exception ex, WebRequest request) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(corpoErro.renderizar(status, erro, ex.getMessage(), request.getDescription(false)));
+    }
 }
@@ -7,10 +7,10 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 public class RelatedResourceException extends RuntimeException {
     
     public RelatedResourceException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
     
     public RelatedResourceException(String resourceName, String relatedResourceName) {
-        super(String.format("Não é possível excluir %s pois existem %s vinculados a ele", resourceName, relatedResourceName));
+        super(String.format("Não é possível excluir %s pois existem %s vinculados a ele", resourceName, relatedResourceName), null, false, false);
     }
 }
@@ -7,10 +7,10 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 public class ResourceAlreadyExistsException extends RuntimeException {
     
     public ResourceAlreadyExistsException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
     
     public ResourceAlreadyExistsException(String resourceName, String fieldName, Object fieldValue) {
-        super(String.format("%s já existe com %s: '%s'", resourceName, fieldName, fieldValue));
+        super(String.format("%s já existe com %s: '%s'", resourceName, fieldName, fieldValue), null, false, false);
     }
 }
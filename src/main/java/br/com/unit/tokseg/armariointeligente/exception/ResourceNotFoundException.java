@@ -7,10 +7,10 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 public class ResourceNotFoundException extends RuntimeException {
     
     public ResourceNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
     
     public ResourceNotFoundException(String resourceName, String fieldName, Object fieldValue) {
-        super(String.format("%s não encontrado com %s: '%s'", resourceName, fieldName, fieldValue));
+        super(String.format("%s não encontrado com %s: '%s'", resourceName, fieldName, fieldValue), null, false, false);
     }
 }
@@ -0,0 +1,19 @@
+package br.com.unit.tokseg.armariointeligente.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class TooManyRequestsException extends RuntimeException {
+
+    private final long retryAfterSegundos;
+
+    public TooManyRequestsException(String message, long retryAfterSegundos) {
+        super(message, null, false, false);
+        this.retryAfterSegundos = retryAfterSegundos;
+    }
+
+    public long getRetryAfterSegundos() {
+        return retryAfterSegundos;
+    }
+}
@@ -0,0 +1,17 @@
+package br.com.unit.tokseg.armariointeligente.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AlocacaoEntregaRequest {
+    private Long armarioId;
+    private String tamanho; // P, M ou G
+    private String codigoRastreio;
+    private Long entregadorId; // opcional: por padrão, o usuário autenticado
+    private Long destinatarioId;
+    private String observacao;
+}
@@ -2,8 +2,10 @@ package br.com.unit.tokseg.armariointeligente.model;
 
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
 import java.util.List;
 
@@ -11,7 +13,9 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 
 @Entity
 @Table(name = "armarios")
-@Data
+@Getter
+@Setter
+@ToString(exclude = {"condominio", "compartimentos"})
 @NoArgsConstructor
 @AllArgsConstructor
 public class Armario {
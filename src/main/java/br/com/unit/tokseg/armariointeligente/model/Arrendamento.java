@@ -0,0 +1,29 @@
+package br.com.unit.tokseg.armariointeligente.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Posse temporária de uma tarefa agendada entre instâncias: quem detém o arrendamento executa,
+// as demais esperam ele expirar
+@Entity
+@Table(name = "arrendamentos")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Arrendamento {
+
+    @Id
+    @Column(length = 64)
+    private String nome;
+
+    // Instância que detém o arrendamento
+    @Column(nullable = false, length = 128)
+    private String dono;
+
+    @Column(name = "expira_em", nullable = false)
+    private LocalDateTime expiraEm;
+}
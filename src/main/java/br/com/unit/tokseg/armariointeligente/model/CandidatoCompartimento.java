@@ -0,0 +1,17 @@
+package br.com.unit.tokseg.armariointeligente.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CandidatoCompartimento {
+    private Long compartimentoId;
+    private String numero;
+    private String tamanho;
+    private boolean livreAgora; // falso quando ocupado por uma reserva que termina antes da janela
+    private Long folgaAntesMinutos; // até a reserva anterior; nulo se não houver
+    private Long folgaDepoisMinutos; // até a próxima reserva; nulo se não houver
+}
@@ -2,16 +2,23 @@ package br.com.unit.tokseg.armariointeligente.model;
 
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
 import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 @Entity
-@Table(name = "compartimentos")
-@Data
+// Salvaguarda para o alocador em memória: o código de acesso não se repete dentro do armário
+@Table(name = "compartimentos", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_compartimentos_armario_codigo", columnNames = {"armario_id", "codigoAcesso"})
+})
+@Getter
+@Setter
+@ToString(exclude = {"armario", "entregas"})
 @NoArgsConstructor
 @AllArgsConstructor
 public class Compartimento {
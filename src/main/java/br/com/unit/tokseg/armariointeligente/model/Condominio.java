@@ -2,8 +2,10 @@ package br.com.unit.tokseg.armariointeligente.model;
 
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
 import java.util.List;
 
@@ -11,7 +13,9 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 
 @Entity
 @Table(name = "condominios")
-@Data
+@Getter
+@Setter
+@ToString(exclude = "armarios")
 @NoArgsConstructor
 @AllArgsConstructor
 public class Condominio {
@@ -41,6 +45,9 @@ public class Condominio {
     @Column
     private String email;
 
+    @Column
+    private Integer diasRetencao; // dias até uma entrega não retirada expirar; nulo usa o padrão do sistema
+
     @OneToMany(mappedBy = "condominio", cascade = CascadeType.ALL)
     @JsonIgnore
     private List<Armario> armarios;
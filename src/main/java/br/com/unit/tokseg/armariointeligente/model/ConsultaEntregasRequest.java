@@ -0,0 +1,30 @@
+package br.com.unit.tokseg.armariointeligente.model;
+
+import io.swagger.v3.oas.annotations.Parameter;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+// Parâmetros comuns das listagens de entregas paginadas por cursor, validados em EntregaService
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ConsultaEntregasRequest {
+
+    @Parameter(description = "Cursor devolvido na página anterior (proximoCursor)")
+    private String cursor;
+
+    @Parameter(description = "Itens por página (limitado pelo máximo configurado)")
+    private Integer tamanho;
+
+    @Parameter(description = "Entregas a partir desta data (formato ISO)")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime inicio;
+
+    @Parameter(description = "Entregas até esta data (formato ISO)")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime fim;
+}
@@ -2,20 +2,39 @@ package br.com.unit.tokseg.armariointeligente.model;
 
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "entregas")
-@Data
+@Table(name = "entregas", uniqueConstraints = {
+        @UniqueConstraint(name = Entrega.UK_CODIGO_RASTREIO, columnNames = "codigoRastreio")
+}, indexes = {
+        // Um índice por filtro das listagens, terminando na chave de paginação (dataEntrega, id)
+        @Index(name = "idx_entregas_data_id", columnList = "dataEntrega, id"),
+        @Index(name = "idx_entregas_status_data_id", columnList = "status, dataEntrega, id"),
+        @Index(name = "idx_entregas_compartimento_data_id", columnList = "compartimento_id, dataEntrega, id"),
+        @Index(name = "idx_entregas_entregador_data_id", columnList = "entregador_id, dataEntrega, id"),
+        @Index(name = "idx_entregas_destinatario_data_id", columnList = "destinatario_id, dataEntrega, id")
+})
+// Sem equals/hashCode gerados: dentro de um contexto de persistência a identidade do objeto já é
+// a da linha, e os gerados pelo @Data percorreriam associações preguiçosas e coleções bidirecionais
+@Getter
+@Setter
+@ToString(exclude = {"compartimento", "entregador", "destinatario"})
 @NoArgsConstructor
 @AllArgsConstructor
 public class Entrega {
 
+    public static final String UK_CODIGO_RASTREIO = "uk_entregas_codigo_rastreio";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Sequência com alocação em blocos: o id é conhecido antes do INSERT, o que permite inserções em lote
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "entregas_seq")
+    @SequenceGenerator(name = "entregas_seq", sequenceName = "entregas_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -34,15 +53,15 @@ public class Entrega {
     @Column(nullable = false)
     private StatusEntrega status;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "compartimento_id", nullable = false)
     private Compartimento compartimento;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "entregador_id", nullable = false)
     private Usuario entregador;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "destinatario_id", nullable = false)
     private Usuario destinatario;
 }
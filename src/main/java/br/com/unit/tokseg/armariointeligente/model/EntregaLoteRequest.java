@@ -0,0 +1,25 @@
+package br.com.unit.tokseg.armariointeligente.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EntregaLoteRequest {
+    private Long entregadorId; // opcional: por padrão, o usuário autenticado
+    private List<Item> itens;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Item {
+        private Long compartimentoId;
+        private String codigoRastreio;
+        private Long destinatarioId;
+        private String observacao;
+    }
+}
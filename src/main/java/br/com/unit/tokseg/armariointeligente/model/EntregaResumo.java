@@ -0,0 +1,30 @@
+package br.com.unit.tokseg.armariointeligente.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Linha das listagens de entregas: só colunas, montada direto na consulta, sem grafo de entidades
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EntregaResumo {
+    private Long id;
+    private String codigoRastreio;
+    private StatusEntrega status;
+    private LocalDateTime dataEntrega;
+    private LocalDateTime dataRetirada;
+    private String observacao;
+    private Long compartimentoId;
+    private String compartimentoNumero;
+    private Long armarioId;
+    private String armarioIdentificacao;
+    private Long condominioId;
+    private String condominioNome;
+    private Long entregadorId;
+    private String entregadorNome;
+    private Long destinatarioId;
+    private String destinatarioNome;
+}
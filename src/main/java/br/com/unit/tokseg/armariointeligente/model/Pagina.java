@@ -0,0 +1,15 @@
+package br.com.unit.tokseg.armariointeligente.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class Pagina<T> {
+    private List<T> itens;
+    private String proximoCursor; // nulo na última página; enviado como ?cursor= para obter a seguinte
+}
@@ -0,0 +1,27 @@
+package br.com.unit.tokseg.armariointeligente.model;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+// Resposta da consulta por código de rastreio: imutável, montada direto na consulta, pode ser
+// compartilhada pelo cache de rastreio entre requisições sem expor nenhuma entidade gerenciada
+@Value
+public class RastreioEntrega {
+    Long id;
+    String codigoRastreio;
+    StatusEntrega status;
+    LocalDateTime dataEntrega;
+    LocalDateTime dataRetirada;
+    String observacao;
+    Long compartimentoId;
+    String compartimentoNumero;
+    Long armarioId;
+    String armarioIdentificacao;
+    Long condominioId;
+    String condominioNome;
+    Long entregadorId;
+    String entregadorNome;
+    Long destinatarioId;
+    String destinatarioNome;
+}
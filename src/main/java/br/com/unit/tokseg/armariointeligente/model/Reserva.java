@@ -2,14 +2,26 @@ package br.com.unit.tokseg.armariointeligente.model;
 
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "reservas")
-@Data
+@Table(name = "reservas", indexes = {
+        // Conferência de sobreposição: faixa do compartimento ordenada pelo início da janela
+        @Index(name = "idx_reservas_compartimento_inicio_fim", columnList = "compartimento_id, dataInicio, dataFim"),
+        @Index(name = "idx_reservas_status_inicio", columnList = "status, dataInicio"),
+        @Index(name = "idx_reservas_status_fim", columnList = "status, dataFim")
+}, uniqueConstraints = {
+        // Cada ocorrência de uma série vira no máximo uma reserva
+        @UniqueConstraint(name = "uk_reservas_recorrencia_inicio", columnNames = {"recorrencia_id", "dataInicio"})
+})
+@Getter
+@Setter
+@ToString(exclude = {"compartimento", "usuario"})
 @NoArgsConstructor
 @AllArgsConstructor
 public class Reserva {
@@ -31,11 +43,15 @@ public class Reserva {
     @Column(nullable = false)
     private StatusReserva status;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "compartimento_id", nullable = false)
     private Compartimento compartimento;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "usuario_id", nullable = false)
     private Usuario usuario;
+
+    // Série (ReservaRecorrente) de que esta reserva é uma ocorrência materializada; nulo para reservas avulsas
+    @Column(name = "recorrencia_id")
+    private Long recorrenciaId;
 }
@@ -0,0 +1,65 @@
+package br.com.unit.tokseg.armariointeligente.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+// Uma série de reservas guardada em uma única linha: a regra (subconjunto do RRULE, ver RegraRecorrencia)
+// diz em quais dias há ocorrência e cada ocorrência vai de horaInicio a horaFim, no mesmo dia.
+// As ocorrências só viram linhas em "reservas" quando começam (CicloReservas).
+@Entity
+@Table(name = "reservas_recorrentes", indexes = {
+        @Index(name = "idx_reservas_recorrentes_compartimento", columnList = "compartimento_id, status"),
+        @Index(name = "idx_reservas_recorrentes_status_hora", columnList = "status, horaInicio")
+})
+@Getter
+@Setter
+@ToString(exclude = {"compartimento", "usuario"})
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservaRecorrente {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Ex.: FREQ=WEEKLY;BYDAY=MO,TU,WE,TH,FR
+    @Column(nullable = false, length = 100)
+    private String regra;
+
+    // Primeiro dia da série
+    @Column(nullable = false)
+    private LocalDate dataInicio;
+
+    // Último dia da série (inclusive)
+    @Column(nullable = false)
+    private LocalDate dataFim;
+
+    @Column(nullable = false)
+    private LocalTime horaInicio;
+
+    @Column(nullable = false)
+    private LocalTime horaFim;
+
+    @Column
+    private String observacao;
+
+    // CONFIRMADA enquanto a série vale; CANCELADA encerra as ocorrências futuras
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private StatusReserva status;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "compartimento_id", nullable = false)
+    private Compartimento compartimento;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "usuario_id", nullable = false)
+    private Usuario usuario;
+}
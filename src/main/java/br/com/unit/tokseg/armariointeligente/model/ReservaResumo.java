@@ -0,0 +1,25 @@
+package br.com.unit.tokseg.armariointeligente.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReservaResumo {
+    private Long id;
+    private StatusReserva status;
+    private LocalDateTime dataInicio;
+    private LocalDateTime dataFim;
+    private String observacao;
+    private Long compartimentoId;
+    private String compartimentoNumero;
+    private Long armarioId;
+    private Long usuarioId;
+    private String usuarioNome;
+    // Série de origem; com id nulo, é uma ocorrência ainda não materializada
+    private Long recorrenciaId;
+}
@@ -0,0 +1,28 @@
+package br.com.unit.tokseg.armariointeligente.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResultadoEntregaLote {
+    private int registradas;
+    private int rejeitadas;
+    private List<Item> itens; // na mesma ordem da requisição
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Item {
+        private int indice;
+        private String codigoRastreio;
+        private boolean sucesso;
+        private Long entregaId;
+        private Long compartimentoId;
+        private String erro;
+    }
+}
@@ -0,0 +1,18 @@
+package br.com.unit.tokseg.armariointeligente.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResumoCondominio {
+    private Long condominioId;
+    private long compartimentosLivres;
+    private long compartimentosOcupados;
+    private Map<StatusEntrega, Long> entregas; // todos os status, inclusive os zerados
+    private Map<StatusReserva, Long> reservas;
+}
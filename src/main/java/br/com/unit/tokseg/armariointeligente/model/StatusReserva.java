@@ -1,9 +1,16 @@
 package br.com.unit.tokseg.armariointeligente.model;
 
+import java.util.List;
+
 public enum StatusReserva {
     PENDENTE,
     CONFIRMADA,
     CANCELADA,
     CONCLUIDA,
-    ATIVA
+    ATIVA,
+    // A janela terminou sem a reserva começar: o compartimento estava ocupado (por exemplo, por uma entrega)
+    NAO_ATENDIDA;
+
+    // Reservas que ainda seguram a sua janela no compartimento
+    public static final List<StatusReserva> VIGENTES = List.of(PENDENTE, CONFIRMADA, ATIVA);
 }
@@ -8,14 +8,18 @@ import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 import java.util.List;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 @Entity
 @Table(name = "tipo_usuario")
-@Data
+@Getter
+@Setter
+@ToString(exclude = "usuarios")
 @NoArgsConstructor
 @AllArgsConstructor
 public class TipoUsuario {
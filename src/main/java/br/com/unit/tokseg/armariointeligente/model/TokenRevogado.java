@@ -0,0 +1,34 @@
+package br.com.unit.tokseg.armariointeligente.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "tokens_revogados", indexes = {
+        @Index(name = "idx_tokens_revogados_expira_em", columnList = "expira_em"),
+        @Index(name = "idx_tokens_revogados_revogado_em", columnList = "revogado_em")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenRevogado {
+
+    // Identificador do token (claim jti)
+    @Id
+    @Column(length = 36)
+    private String jti;
+
+    @Column(name = "usuario_id")
+    private Long usuarioId;
+
+    // Depois desta data o token já seria recusado pela expiração, e o registro pode ser apagado
+    @Column(name = "expira_em", nullable = false)
+    private LocalDateTime expiraEm;
+
+    @Column(name = "revogado_em", nullable = false)
+    private LocalDateTime revogadoEm;
+}
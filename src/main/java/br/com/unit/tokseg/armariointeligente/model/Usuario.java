@@ -1,5 +1,6 @@
 package br.com.unit.tokseg.armariointeligente.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -9,6 +10,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
 @Table(name = "usuarios")
@@ -34,6 +36,12 @@ public class Usuario {
     @Column(nullable = false)
     private boolean ativo = true;
 
+    // Incrementada sempre que os tokens já emitidos para o usuário devem deixar de valer
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    @JsonIgnore
+    private long versaoToken = 0;
+
     @ManyToOne
     @JoinColumn(name = "tipo_usuario_id", nullable = false)
     private TipoUsuario tipoUsuario;
@@ -94,6 +102,14 @@ public class Usuario {
         this.ativo = ativo;
     }
 
+    public long getVersaoToken() {
+        return versaoToken;
+    }
+
+    public void incrementarVersaoToken() {
+        this.versaoToken++;
+    }
+
     public void setTipoUsuario(TipoUsuario tipoUsuario) {
         this.tipoUsuario = tipoUsuario;
     }
@@ -2,6 +2,7 @@ package br.com.unit.tokseg.armariointeligente.repository;
 
 import br.com.unit.tokseg.armariointeligente.model.Armario;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,4 +12,12 @@ import java.util.Optional;
 public interface ArmarioRepository extends JpaRepository<Armario, Long> {
     List<Armario> findByCondominioId(Long condominioId);
     Optional<Armario> findByIdentificacaoAndCondominioId(String identificacao, Long condominioId);
+
+    @Query("select a.id as armarioId, a.condominio.id as condominioId from Armario a")
+    List<CondominioArmario> findCondominiosDosArmarios();
+
+    interface CondominioArmario {
+        Long getArmarioId();
+        Long getCondominioId();
+    }
 }
@@ -0,0 +1,29 @@
+package br.com.unit.tokseg.armariointeligente.repository;
+
+import br.com.unit.tokseg.armariointeligente.model.Arrendamento;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ArrendamentoRepository extends JpaRepository<Arrendamento, String> {
+
+    // Renova o próprio arrendamento ou toma um que já expirou; devolve 0 se outra instância o detém
+    @Modifying
+    @Query("update Arrendamento a set a.dono = :dono, a.expiraEm = :expiraEm "
+            + "where a.nome = :nome and (a.dono = :dono or a.expiraEm < :agora)")
+    int renovar(String nome, String dono, LocalDateTime expiraEm, LocalDateTime agora);
+
+    // INSERT puro (sem o merge do save): se duas instâncias criarem ao mesmo tempo, uma viola a chave
+    @Modifying
+    @Query(value = "insert into arrendamentos (nome, dono, expira_em) values (:nome, :dono, :expiraEm)",
+            nativeQuery = true)
+    int criar(String nome, String dono, LocalDateTime expiraEm);
+
+    @Modifying
+    @Query("delete from Arrendamento a where a.nome = :nome and a.dono = :dono")
+    int liberar(String nome, String dono);
+}
@@ -1,9 +1,14 @@
 package br.com.unit.tokseg.armariointeligente.repository;
 
 import br.com.unit.tokseg.armariointeligente.model.Compartimento;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,4 +17,48 @@ public interface CompartimentoRepository extends JpaRepository<Compartimento, Lo
     List<Compartimento> findByArmarioId(Long armarioId);
     List<Compartimento> findByOcupado(Boolean ocupado);
     Optional<Compartimento> findByNumeroAndArmarioId(String numero, Long armarioId);
+
+    // Ocupa o compartimento somente se ainda estiver livre; devolve 0 se outra transação chegou antes
+    @Modifying
+    @Query("update Compartimento c set c.ocupado = true where c.id = :id and (c.ocupado = false or c.ocupado is null)")
+    int ocuparSeLivre(Long id);
+
+    // Bloqueia os compartimentos de um lote (sempre na ordem do id, para evitar deadlock entre lotes)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from Compartimento c where c.id in :ids order by c.id")
+    List<Compartimento> findAllByIdParaOcupacao(Collection<Long> ids);
+
+    @Modifying
+    @Query("update Compartimento c set c.ocupado = true where c.id in :ids and (c.ocupado = false or c.ocupado is null)")
+    int ocuparTodosSeLivres(Collection<Long> ids);
+
+    @Modifying
+    @Query("update Compartimento c set c.ocupado = false where c.id in :ids")
+    int liberarTodos(Collection<Long> ids);
+
+    // Serializa as reservas de um mesmo compartimento entre instâncias: a conferência de sobreposição
+    // e a gravação acontecem com a linha bloqueada
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from Compartimento c where c.id = :id")
+    Optional<Compartimento> findByIdParaReserva(Long id);
+
+    @Query("select c.id as id, c.armario.id as armarioId, c.numero as numero, c.tamanho as tamanho, c.ocupado as ocupado "
+            + "from Compartimento c")
+    List<EstadoCompartimento> findEstados();
+
+    @Query("select c.armario.id as armarioId, c.codigoAcesso as codigoAcesso from Compartimento c")
+    List<CodigoCompartimento> findCodigos();
+
+    interface CodigoCompartimento {
+        Long getArmarioId();
+        String getCodigoAcesso();
+    }
+
+    interface EstadoCompartimento {
+        Long getId();
+        Long getArmarioId();
+        String getNumero();
+        String getTamanho();
+        Boolean getOcupado();
+    }
 }
@@ -1,20 +1,146 @@
 package br.com.unit.tokseg.armariointeligente.repository;
 
 import br.com.unit.tokseg.armariointeligente.model.Entrega;
+import br.com.unit.tokseg.armariointeligente.model.EntregaResumo;
+import br.com.unit.tokseg.armariointeligente.model.RastreioEntrega;
 import br.com.unit.tokseg.armariointeligente.model.StatusEntrega;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface EntregaRepository extends JpaRepository<Entrega, Long> {
-    List<Entrega> findByCompartimentoId(Long compartimentoId);
-    List<Entrega> findByEntregadorId(Long entregadorId);
-    List<Entrega> findByDestinatarioId(Long destinatarioId);
-    List<Entrega> findByStatus(StatusEntrega status);
-    Optional<Entrega> findByCodigoRastreio(String codigoRastreio);
-    List<Entrega> findByDataEntregaBetween(LocalDateTime inicio, LocalDateTime fim);
+
+    // Paginação por chave em (dataEntrega, id), da mais recente para a mais antiga: cada página começa
+    // logo depois da posição (data, id) do cursor e percorre o índice composto correspondente ao filtro,
+    // então o custo não cresce com a profundidade. O primeiro termo do where delimita a faixa do índice.
+    // Cada linha já sai como EntregaResumo: uma única consulta por página, nada entra no contexto de
+    // persistência e a resposta não carrega compartimento, armário e usuários inteiros.
+    String PAGINA = "select new br.com.unit.tokseg.armariointeligente.model.EntregaResumo(e.id, e.codigoRastreio, "
+            + "e.status, e.dataEntrega, e.dataRetirada, e.observacao, c.id, c.numero, a.id, a.identificacao, "
+            + "co.id, co.nome, en.id, en.nome, de.id, de.nome) "
+            + "from Entrega e join e.compartimento c join c.armario a join a.condominio co "
+            + "join e.entregador en join e.destinatario de "
+            + "where e.dataEntrega <= :data and (e.dataEntrega < :data or e.id < :id) and e.dataEntrega >= :inicio ";
+    String ORDEM_PAGINA = " order by e.dataEntrega desc, e.id desc";
+
+    @Query(PAGINA + ORDEM_PAGINA)
+    List<EntregaResumo> findPagina(LocalDateTime inicio, LocalDateTime data, Long id, Limit limite);
+
+    @Query(PAGINA + "and e.compartimento.id = :compartimentoId" + ORDEM_PAGINA)
+    List<EntregaResumo> findPaginaPorCompartimento(Long compartimentoId, LocalDateTime inicio, LocalDateTime data, Long id, Limit limite);
+
+    @Query(PAGINA + "and e.entregador.id = :entregadorId" + ORDEM_PAGINA)
+    List<EntregaResumo> findPaginaPorEntregador(Long entregadorId, LocalDateTime inicio, LocalDateTime data, Long id, Limit limite);
+
+    @Query(PAGINA + "and e.destinatario.id = :destinatarioId" + ORDEM_PAGINA)
+    List<EntregaResumo> findPaginaPorDestinatario(Long destinatarioId, LocalDateTime inicio, LocalDateTime data, Long id, Limit limite);
+
+    @Query(PAGINA + "and e.status = :status" + ORDEM_PAGINA)
+    List<EntregaResumo> findPaginaPorStatus(StatusEntrega status, LocalDateTime inicio, LocalDateTime data, Long id, Limit limite);
+
+    // As associações são preguiçosas; quem devolve a entrega inteira na resposta traz compartimento,
+    // armário, condomínio e usuários na mesma consulta
+    @Override
+    @EntityGraph(attributePaths = {"compartimento.armario.condominio", "entregador", "destinatario"})
+    Optional<Entrega> findById(Long id);
+
+    @Query("select new br.com.unit.tokseg.armariointeligente.model.RastreioEntrega(e.id, e.codigoRastreio, "
+            + "e.status, e.dataEntrega, e.dataRetirada, e.observacao, c.id, c.numero, a.id, a.identificacao, "
+            + "co.id, co.nome, en.id, en.nome, de.id, de.nome) "
+            + "from Entrega e join e.compartimento c join c.armario a join a.condominio co "
+            + "join e.entregador en join e.destinatario de "
+            + "where e.codigoRastreio = :codigoRastreio")
+    Optional<RastreioEntrega> findRastreio(String codigoRastreio);
+
+    boolean existsByCodigoRastreio(String codigoRastreio);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select e.codigoRastreio from Entrega e")
+    Stream<String> streamCodigosRastreio();
+
+    @Query("select e.codigoRastreio from Entrega e where e.dataEntrega >= :desde")
+    List<String> findCodigosRastreioDesde(LocalDateTime desde);
+
+    // Exportação: cursor somente de avanço, lido em blocos do tamanho do fetch size, sem snapshot para
+    // dirty checking. Tudo que a linha exportada usa vem na mesma consulta.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select e from Entrega e join fetch e.compartimento c join fetch c.armario a join fetch a.condominio "
+            + "join fetch e.entregador en join fetch en.tipoUsuario join fetch e.destinatario de join fetch de.tipoUsuario "
+            + "where e.dataEntrega between :inicio and :fim order by e.dataEntrega, e.id")
+    Stream<Entrega> streamPorPeriodo(LocalDateTime inicio, LocalDateTime fim);
+
+    @Query("select e.destinatario.id from Entrega e where e.id = :id")
+    Optional<Long> findDestinatarioIdById(Long id);
+
+    // Compartimento (com armário e condomínio), entregador e destinatário em uma única consulta; os tipos
+    // de usuário vêm na mesma linha, já no contexto de persistência, e não geram consultas adicionais.
+    // Cada linha traz [compartimento, entregador, destinatario, tipos...] e nada vem se algum não existir
+    @Query("select c, e, d, te, td from Compartimento c join fetch c.armario a join fetch a.condominio, "
+            + "Usuario e join e.tipoUsuario te, Usuario d join d.tipoUsuario td "
+            + "where c.id = :compartimentoId and e.id = :entregadorId and d.id = :destinatarioId")
+    List<Object[]> findReferenciasRegistro(Long compartimentoId, Long entregadorId, Long destinatarioId);
+
+    @Query("select e.codigoRastreio from Entrega e where e.codigoRastreio in :codigos")
+    List<String> findCodigosRastreioExistentes(Collection<String> codigos);
+
+    @EntityGraph(attributePaths = {"compartimento.armario.condominio", "entregador", "destinatario"})
+    Optional<Entrega> findFirstByCompartimentoIdAndStatus(Long compartimentoId, StatusEntrega status);
+
+    @Query("select c.id as compartimentoId, c.armario.id as armarioId, c.codigoAcesso as codigoAcesso "
+            + "from Entrega e join e.compartimento c where e.status = :status")
+    List<CodigoAtivo> findCodigosAtivos(StatusEntrega status);
+
+    // Entregas a expirar, bloqueadas e com tudo que a expiração altera ou consulta já carregado
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select e from Entrega e join fetch e.compartimento c join fetch c.armario a join fetch a.condominio "
+            + "join fetch e.entregador join fetch e.destinatario where e.id in :ids and e.status = :status order by e.id")
+    List<Entrega> findParaExpiracao(Collection<Long> ids, StatusEntrega status);
+
+    @Query("select e.id as id, e.dataEntrega as dataEntrega, co.diasRetencao as diasRetencao "
+            + "from Entrega e join e.compartimento c join c.armario a join a.condominio co where e.status = :status")
+    List<PrazoRetencao> findPrazosRetencao(StatusEntrega status);
+
+    @Query("select e.id as id, e.dataEntrega as dataEntrega, co.diasRetencao as diasRetencao "
+            + "from Entrega e join e.compartimento c join c.armario a join a.condominio co "
+            + "where e.status = :status and co.id = :condominioId")
+    List<PrazoRetencao> findPrazosRetencaoPorCondominio(StatusEntrega status, Long condominioId);
+
+    @Query("select c.armario.id as armarioId, e.status as status, count(e) as total "
+            + "from Entrega e join e.compartimento c group by c.armario.id, e.status")
+    List<ContagemEntregas> contarPorArmarioEStatus();
+
+    interface ContagemEntregas {
+        Long getArmarioId();
+        StatusEntrega getStatus();
+        Long getTotal();
+    }
+
+    interface PrazoRetencao {
+        Long getId();
+        LocalDateTime getDataEntrega();
+        Integer getDiasRetencao();
+    }
+
+    interface CodigoAtivo {
+        Long getCompartimentoId();
+        Long getArmarioId();
+        String getCodigoAcesso();
+    }
 }
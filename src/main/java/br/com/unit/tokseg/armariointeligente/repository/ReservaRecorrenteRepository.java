@@ -0,0 +1,69 @@
+package br.com.unit.tokseg.armariointeligente.repository;
+
+import br.com.unit.tokseg.armariointeligente.model.ReservaRecorrente;
+import br.com.unit.tokseg.armariointeligente.model.StatusReserva;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ReservaRecorrenteRepository extends JpaRepository<ReservaRecorrente, Long> {
+    // Séries que podem ter ocorrências entre os dias de e ate; a expansão fica por conta do serviço.
+    // Só as conferências de conflito usam a entidade, e nelas o compartimento não é carregado.
+    String VIGENTES_NO_PERIODO = "select s from ReservaRecorrente s join s.compartimento c "
+            + "where s.status = :status and s.dataInicio <= :ate and s.dataFim >= :de ";
+
+    // Listagens montam as ocorrências a partir de SerieResumo: um único select, sem carregar compartimento,
+    // armário e condomínio (associações EAGER) de cada série
+    String RESUMO = "select s.id as id, s.regra as regra, s.dataInicio as dataInicio, s.dataFim as dataFim, "
+            + "s.horaInicio as horaInicio, s.horaFim as horaFim, s.observacao as observacao, s.status as status, "
+            + "c.id as compartimentoId, c.numero as compartimentoNumero, c.armario.id as armarioId, "
+            + "u.id as usuarioId, u.nome as usuarioNome "
+            + "from ReservaRecorrente s join s.compartimento c join s.usuario u ";
+
+    @Query(VIGENTES_NO_PERIODO + "and c.id = :compartimentoId")
+    List<ReservaRecorrente> findVigentesPorCompartimento(Long compartimentoId, StatusReserva status, LocalDate de, LocalDate ate);
+
+    @Query(VIGENTES_NO_PERIODO + "and c.armario.id = :armarioId")
+    List<ReservaRecorrente> findVigentesPorArmario(Long armarioId, StatusReserva status, LocalDate de, LocalDate ate);
+
+    @Query(RESUMO + "where s.status = :status and s.dataInicio <= :ate and s.dataFim >= :de")
+    List<SerieResumo> findResumosVigentesNoPeriodo(StatusReserva status, LocalDate de, LocalDate ate);
+
+    @Query(RESUMO + "where s.id = :id")
+    Optional<SerieResumo> findResumoById(Long id);
+
+    // Séries cujo horário diário contém o instante; se o dia tem ocorrência, a regra decide
+    @Query("select s from ReservaRecorrente s join fetch s.compartimento c where s.status = :status "
+            + "and s.horaInicio <= :hora and s.horaFim > :hora and s.dataInicio <= :dia and s.dataFim >= :dia")
+    List<ReservaRecorrente> findEmHorario(StatusReserva status, LocalDate dia, LocalTime hora);
+
+    @Override
+    @EntityGraph(attributePaths = {"compartimento.armario.condominio", "usuario"})
+    Optional<ReservaRecorrente> findById(Long id);
+
+    @Query("select s.usuario.id from ReservaRecorrente s where s.id = :id")
+    Optional<Long> findUsuarioIdById(Long id);
+
+    interface SerieResumo {
+        Long getId();
+        String getRegra();
+        LocalDate getDataInicio();
+        LocalDate getDataFim();
+        LocalTime getHoraInicio();
+        LocalTime getHoraFim();
+        String getObservacao();
+        StatusReserva getStatus();
+        Long getCompartimentoId();
+        String getCompartimentoNumero();
+        Long getArmarioId();
+        Long getUsuarioId();
+        String getUsuarioNome();
+    }
+}
@@ -1,17 +1,125 @@
 package br.com.unit.tokseg.armariointeligente.repository;
 
 import br.com.unit.tokseg.armariointeligente.model.Reserva;
+import br.com.unit.tokseg.armariointeligente.model.ReservaResumo;
 import br.com.unit.tokseg.armariointeligente.model.StatusReserva;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ReservaRepository extends JpaRepository<Reserva, Long> {
-    List<Reserva> findByCompartimentoId(Long compartimentoId);
-    List<Reserva> findByUsuarioId(Long usuarioId);
-    List<Reserva> findByStatus(StatusReserva status);
-    List<Reserva> findByDataInicioBetween(LocalDateTime inicio, LocalDateTime fim);
+    // Listagens montam ReservaResumo direto na consulta: um único select com os joins, sem carregar
+    // compartimento e usuário de cada reserva
+    String RESUMO = "select new br.com.unit.tokseg.armariointeligente.model.ReservaResumo(r.id, r.status, "
+            + "r.dataInicio, r.dataFim, r.observacao, c.id, c.numero, c.armario.id, u.id, u.nome, r.recorrenciaId) "
+            + "from Reserva r join r.compartimento c join r.usuario u ";
+    String ORDEM_RESUMO = " order by r.dataInicio, r.id";
+
+    @Query(RESUMO + ORDEM_RESUMO)
+    List<ReservaResumo> findResumos();
+
+    @Query(RESUMO + "where c.id = :compartimentoId" + ORDEM_RESUMO)
+    List<ReservaResumo> findResumosPorCompartimento(Long compartimentoId);
+
+    @Query(RESUMO + "where u.id = :usuarioId" + ORDEM_RESUMO)
+    List<ReservaResumo> findResumosPorUsuario(Long usuarioId);
+
+    @Query(RESUMO + "where r.status = :status" + ORDEM_RESUMO)
+    List<ReservaResumo> findResumosPorStatus(StatusReserva status);
+
+    @Query(RESUMO + "where r.dataInicio between :inicio and :fim" + ORDEM_RESUMO)
+    List<ReservaResumo> findResumosPorPeriodo(LocalDateTime inicio, LocalDateTime fim);
+
+    @Query(RESUMO + "where r.recorrenciaId = :recorrenciaId and r.dataInicio between :inicio and :fim" + ORDEM_RESUMO)
+    List<ReservaResumo> findResumosPorRecorrenciaEPeriodo(Long recorrenciaId, LocalDateTime inicio, LocalDateTime fim);
+
+    @Override
+    @EntityGraph(attributePaths = {"compartimento.armario.condominio", "usuario"})
+    Optional<Reserva> findById(Long id);
+
+    // Intervalos semiabertos [dataInicio, dataFim): encostar no fim de outra reserva não é conflito
+    @Query("select count(r) > 0 from Reserva r where r.compartimento.id = :compartimentoId and r.status in :status "
+            + "and r.dataInicio < :fim and r.dataFim > :inicio")
+    boolean existsSobreposicao(Long compartimentoId, Collection<StatusReserva> status, LocalDateTime inicio, LocalDateTime fim);
+
+    @Query("select r.id as id, r.compartimento.id as compartimentoId, r.dataInicio as dataInicio, r.dataFim as dataFim "
+            + "from Reserva r where r.status in :status and r.dataFim > :agora")
+    List<IntervaloReserva> findIntervalosVigentes(Collection<StatusReserva> status, LocalDateTime agora);
+
+    @Query("select r.id as id, r.compartimento.id as compartimentoId, r.dataInicio as dataInicio, r.dataFim as dataFim "
+            + "from Reserva r where r.compartimento.id = :compartimentoId and r.status in :status "
+            + "and r.dataInicio < :fim and r.dataFim > :inicio")
+    List<IntervaloReserva> findIntervalosPorCompartimento(Long compartimentoId, Collection<StatusReserva> status,
+                                                          LocalDateTime inicio, LocalDateTime fim);
+
+    // Séries que já têm ocorrência materializada começando no período
+    @Query("select r.recorrenciaId from Reserva r where r.recorrenciaId in :recorrenciaIds "
+            + "and r.dataInicio >= :inicio and r.dataInicio < :fim")
+    List<Long> findRecorrenciasMaterializadas(Collection<Long> recorrenciaIds, LocalDateTime inicio, LocalDateTime fim);
+
+    // Ocorrências já materializadas (em qualquer status) começando no período: a série não conta mais nesses dias
+    @Query("select r.recorrenciaId as recorrenciaId, r.dataInicio as dataInicio from Reserva r "
+            + "where r.recorrenciaId in :recorrenciaIds and r.dataInicio >= :inicio and r.dataInicio < :fim")
+    List<OcorrenciaMaterializada> findOcorrenciasMaterializadas(Collection<Long> recorrenciaIds, LocalDateTime inicio,
+                                                                LocalDateTime fim);
+
+    // Transições do ciclo de reservas, em lotes. Os filtros seguem os índices (status, dataInicio) e
+    // (status, dataFim): cada ciclo lê só as reservas que mudam de estado, não a tabela inteira.
+    String TRANSICAO = "select r.id as id, r.status as status, r.dataInicio as dataInicio, "
+            + "c.id as compartimentoId, c.armario.id as armarioId from Reserva r join r.compartimento c ";
+
+    // Paginado pelo id: as que ficam para o próximo ciclo (compartimento ocupado) não voltam no lote seguinte
+    @Query(TRANSICAO + "where r.status = :status and r.dataInicio <= :agora and r.dataFim > :agora "
+            + "and r.id > :depoisDe order by r.id")
+    List<TransicaoReserva> findParaIniciar(StatusReserva status, LocalDateTime agora, Long depoisDe, Limit limite);
+
+    @Query(TRANSICAO + "where r.status in :status and r.dataFim <= :agora order by r.dataFim")
+    List<TransicaoReserva> findParaEncerrar(Collection<StatusReserva> status, LocalDateTime agora, Limit limite);
+
+    // Só muda as que ainda estão no estado lido: um cancelamento concorrente não é sobrescrito
+    @Modifying
+    @Query("update Reserva r set r.status = :nova where r.id in :ids and r.status in :anteriores")
+    int atualizarStatus(Collection<Long> ids, Collection<StatusReserva> anteriores, StatusReserva nova);
+
+    @Query("select r.usuario.id from Reserva r where r.id = :id")
+    Optional<Long> findUsuarioIdById(Long id);
+
+    @Query("select c.armario.id as armarioId, r.status as status, count(r) as total "
+            + "from Reserva r join r.compartimento c group by c.armario.id, r.status")
+    List<ContagemReservas> contarPorArmarioEStatus();
+
+    interface IntervaloReserva {
+        Long getId();
+        Long getCompartimentoId();
+        LocalDateTime getDataInicio();
+        LocalDateTime getDataFim();
+    }
+
+    interface OcorrenciaMaterializada {
+        Long getRecorrenciaId();
+        LocalDateTime getDataInicio();
+    }
+
+    interface ContagemReservas {
+        Long getArmarioId();
+        StatusReserva getStatus();
+        Long getTotal();
+    }
+
+    interface TransicaoReserva {
+        Long getId();
+        StatusReserva getStatus();
+        LocalDateTime getDataInicio();
+        Long getCompartimentoId();
+        Long getArmarioId();
+    }
 }
@@ -0,0 +1,20 @@
+package br.com.unit.tokseg.armariointeligente.repository;
+
+import br.com.unit.tokseg.armariointeligente.model.TokenRevogado;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TokenRevogadoRepository extends JpaRepository<TokenRevogado, String> {
+    List<TokenRevogado> findByExpiraEmAfter(LocalDateTime data);
+    List<TokenRevogado> findByRevogadoEmAfter(LocalDateTime data);
+
+    @Modifying
+    @Query("delete from TokenRevogado t where t.expiraEm < :data")
+    int deleteByExpiraEmBefore(LocalDateTime data);
+}
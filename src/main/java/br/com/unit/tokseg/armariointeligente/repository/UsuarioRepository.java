@@ -1,9 +1,26 @@
 package br.com.unit.tokseg.armariointeligente.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import br.com.unit.tokseg.armariointeligente.model.Usuario;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
-Optional<Usuario> findByEmail(String email);
+    // Tipo de usuário no mesmo select (é EAGER: sem o grafo, cada carga faz uma segunda consulta)
+    @EntityGraph(attributePaths = "tipoUsuario")
+    Optional<Usuario> findByEmail(String email);
+
+    @Query("select u.versaoToken from Usuario u where u.id = :id")
+    Optional<Long> findVersaoTokenById(Long id);
+
+    @Query("select u.id as id, u.versaoToken as versaoToken from Usuario u where u.id in :ids")
+    List<VersaoToken> findVersoesTokenByIdIn(Collection<Long> ids);
+
+    interface VersaoToken {
+        Long getId();
+        long getVersaoToken();
+    }
 }
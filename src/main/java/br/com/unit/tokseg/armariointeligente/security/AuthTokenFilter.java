@@ -23,6 +23,15 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private TokenVersionService tokenVersionService;
+
+    @Autowired
+    private TokenRevogacaoService tokenRevogacaoService;
+
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
     @Override
@@ -30,15 +39,31 @@ public class AuthTokenFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUsernameFromJwtToken(jwt);
+            TokenClaims claims = jwt != null ? jwtUtils.verificarToken(jwt).orElse(null) : null;
+            if (claims != null && tokenRevogacaoService.isRevogado(claims)) {
+                logger.warn("Token revogado apresentado por {}", claims.getSubject());
+            } else if (claims != null) {
+                UserDetails userDetails;
+                boolean valido;
+                if (claims.isSelfContained()) {
+                    UserDetailsImpl principal = claims.toUserDetails();
+                    valido = tokenVersionService.isVersaoValida(principal.getId(), principal.getVersaoToken());
+                    userDetails = principal;
+                } else {
+                    userDetails = principalCache.obter(claims.getSubject(), claims.getEmitidoEm(),
+                            username -> (UserDetailsImpl) userDetailsService.loadUserByUsername(username));
+                    valido = userDetails.isEnabled();
+                }
 
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                if (valido) {
+                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                            userDetails, null, userDetails.getAuthorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                } else {
+                    logger.warn("Token revogado ou de usuário desativado: {}", userDetails.getUsername());
+                }
             }
         } catch (Exception e) {
             logger.error("Não foi possível autenticar o usuário: {}", e.getMessage());
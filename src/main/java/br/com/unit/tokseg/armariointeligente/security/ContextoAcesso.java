@@ -0,0 +1,40 @@
+package br.com.unit.tokseg.armariointeligente.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+// Memo das verificações de propriedade feitas durante uma requisição: cada expressão
+// do @PreAuthorize que pergunta pelo dono do mesmo recurso reaproveita a primeira consulta
+@Component
+@RequestScope
+public class ContextoAcesso {
+
+    private final Map<String, Optional<Long>> donos = new HashMap<>();
+
+    public Optional<Long> getUsuarioId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return Optional.empty();
+        }
+        if (authentication.getPrincipal() instanceof UserDetailsImpl principal) {
+            return Optional.ofNullable(principal.getId());
+        }
+        return Optional.empty();
+    }
+
+    public Optional<Long> obterDono(String recurso, Long id, Function<Long, Optional<Long>> consulta) {
+        return donos.computeIfAbsent(recurso + ":" + id, chave -> consulta.apply(id));
+    }
+
+    public boolean isDono(String recurso, Long id, Function<Long, Optional<Long>> consulta) {
+        Optional<Long> usuarioId = getUsuarioId();
+        return usuarioId.isPresent() && usuarioId.equals(obterDono(recurso, id, consulta));
+    }
+}
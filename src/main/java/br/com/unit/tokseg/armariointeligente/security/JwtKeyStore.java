@@ -0,0 +1,197 @@
+package br.com.unit.tokseg.armariointeligente.security;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Chaves de assinatura dos tokens. Com ES256 cada chave é identificada por um kid: a ativa assina
+// e todas as públicas configuradas continuam verificando. Rotação sem indisponibilidade: publicar a
+// nova chave em todas as instâncias, trocar a ativa e remover a antiga só após a expiração dos tokens.
+@Component
+@ConfigurationProperties(prefix = "jwt")
+public class JwtKeyStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtKeyStore.class);
+
+    public static final String HS512 = "HS512";
+    public static final String ES256 = "ES256";
+
+    private String algoritmo = HS512;
+
+    private String chaveAtiva;
+
+    private Map<String, ParChaves> chaves = new LinkedHashMap<>();
+
+    // Chaves decodificadas uma única vez, por kid
+    private final Map<String, PublicKey> chavesPublicas = new LinkedHashMap<>();
+
+    private PrivateKey chavePrivadaAtiva;
+
+    @PostConstruct
+    public void init() {
+        if (!isAssimetrico()) {
+            return;
+        }
+
+        if (chaves.isEmpty()) {
+            gerarChaveEfemera();
+            return;
+        }
+
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance("EC");
+            for (Map.Entry<String, ParChaves> entrada : chaves.entrySet()) {
+                ParChaves par = entrada.getValue();
+                if (par.getPublica() == null || par.getPublica().isBlank()) {
+                    throw new IllegalStateException("Chave pública ausente para o kid " + entrada.getKey());
+                }
+                chavesPublicas.put(entrada.getKey(), keyFactory.generatePublic(
+                        new X509EncodedKeySpec(Base64.getDecoder().decode(par.getPublica().trim()))));
+            }
+
+            if (chaveAtiva != null && !chaveAtiva.isBlank()) {
+                ParChaves ativa = chaves.get(chaveAtiva);
+                if (ativa == null) {
+                    throw new IllegalStateException("Chave ativa não configurada: " + chaveAtiva);
+                }
+                if (ativa.getPrivada() != null && !ativa.getPrivada().isBlank()) {
+                    chavePrivadaAtiva = keyFactory.generatePrivate(
+                            new PKCS8EncodedKeySpec(Base64.getDecoder().decode(ativa.getPrivada().trim())));
+                }
+            }
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Não foi possível carregar as chaves JWT", e);
+        }
+
+        logger.info("Chaves JWT carregadas: {} (ativa: {})", chavesPublicas.keySet(), chaveAtiva);
+    }
+
+    public boolean isAssimetrico() {
+        return ES256.equalsIgnoreCase(algoritmo);
+    }
+
+    public boolean podeAssinar() {
+        return chavePrivadaAtiva != null;
+    }
+
+    public PrivateKey getChavePrivadaAtiva() {
+        if (chavePrivadaAtiva == null) {
+            throw new IllegalStateException("Esta instância não possui a chave privada ativa para emitir tokens");
+        }
+        return chavePrivadaAtiva;
+    }
+
+    public PublicKey getChavePublica(String kid) {
+        return kid != null ? chavesPublicas.get(kid) : null;
+    }
+
+    // Conjunto de chaves públicas no formato JWKS (RFC 7517)
+    public Map<String, Object> getJwks() {
+        List<Map<String, Object>> keys = new ArrayList<>();
+        for (Map.Entry<String, PublicKey> entrada : chavesPublicas.entrySet()) {
+            ECPublicKey chave = (ECPublicKey) entrada.getValue();
+            Map<String, Object> jwk = new LinkedHashMap<>();
+            jwk.put("kty", "EC");
+            jwk.put("crv", "P-256");
+            jwk.put("use", "sig");
+            jwk.put("alg", ES256);
+            jwk.put("kid", entrada.getKey());
+            jwk.put("x", coordenada(chave.getW().getAffineX()));
+            jwk.put("y", coordenada(chave.getW().getAffineY()));
+            keys.add(jwk);
+        }
+        return Collections.singletonMap("keys", keys);
+    }
+
+    private void gerarChaveEfemera() {
+        try {
+            KeyPairGenerator gerador = KeyPairGenerator.getInstance("EC");
+            gerador.initialize(new ECGenParameterSpec("secp256r1"));
+            KeyPair par = gerador.generateKeyPair();
+            chaveAtiva = "efemera-" + UUID.randomUUID().toString().substring(0, 8);
+            chavesPublicas.put(chaveAtiva, par.getPublic());
+            chavePrivadaAtiva = par.getPrivate();
+            logger.warn("Nenhuma chave ES256 configurada; usando a chave efêmera {}. "
+                    + "Tokens emitidos não serão aceitos por outras instâncias nem após reinício.", chaveAtiva);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Não foi possível gerar a chave JWT efêmera", e);
+        }
+    }
+
+    private static String coordenada(BigInteger valor) {
+        byte[] bytes = valor.toByteArray();
+        byte[] fixo = new byte[32];
+        int copiar = Math.min(bytes.length, 32);
+        System.arraycopy(bytes, bytes.length - copiar, fixo, 32 - copiar, copiar);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(fixo);
+    }
+
+    public String getAlgoritmo() {
+        return algoritmo;
+    }
+
+    public void setAlgoritmo(String algoritmo) {
+        this.algoritmo = algoritmo;
+    }
+
+    public String getChaveAtiva() {
+        return chaveAtiva;
+    }
+
+    public void setChaveAtiva(String chaveAtiva) {
+        this.chaveAtiva = chaveAtiva;
+    }
+
+    public Map<String, ParChaves> getChaves() {
+        return chaves;
+    }
+
+    public void setChaves(Map<String, ParChaves> chaves) {
+        this.chaves = chaves;
+    }
+
+    public static class ParChaves {
+        // PKCS#8 em Base64; necessária apenas nas instâncias que emitem tokens
+        private String privada;
+
+        // X.509 (SubjectPublicKeyInfo) em Base64
+        private String publica;
+
+        public String getPrivada() {
+            return privada;
+        }
+
+        public void setPrivada(String privada) {
+            this.privada = privada;
+        }
+
+        public String getPublica() {
+            return publica;
+        }
+
+        public void setPublica(String publica) {
+            this.publica = publica;
+        }
+    }
+}
@@ -1,61 +1,185 @@
 package br.com.unit.tokseg.armariointeligente.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
 import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Component
 public class JwtUtils {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
-    @Value("${jwt.secret}")
+    public static final String CLAIM_USUARIO_ID = "uid";
+    public static final String CLAIM_NOME = "nome";
+    public static final String CLAIM_TIPO_USUARIO = "tipo";
+    public static final String CLAIM_VERSAO = "ver";
+
+    // Opcional com ES256: sem segredo, tokens HS512 antigos deixam de ser aceitos
+    @Value("${jwt.secret:}")
     private String jwtSecret;
 
     @Value("${jwt.expiration}")
     private int jwtExpirationMs;
 
+    @Value("${jwt.cache-verificacao.tamanho-maximo:10000}")
+    private long tamanhoCacheVerificacao = 10000;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JwtKeyStore jwtKeyStore;
+
+    // Chave e parser são imutáveis e seguros entre threads: montados uma única vez
+    private Key signingKey;
+
+    private JwtParser parser;
+
+    // Tokens já verificados, indexados pela assinatura (o próprio hash do token)
+    private Cache<String, TokenVerificado> tokensVerificados;
+
+    @PostConstruct
+    void init() {
+        if (jwtSecret != null && !jwtSecret.isEmpty()) {
+            signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        }
+        parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return resolverChaveVerificacao(header);
+                    }
+                })
+                .build();
+        tokensVerificados = Caffeine.newBuilder()
+                .maximumSize(tamanhoCacheVerificacao)
+                .expireAfter(new Expiry<String, TokenVerificado>() {
+                    @Override
+                    public long expireAfterCreate(String assinatura, TokenVerificado verificado, long currentTime) {
+                        long restante = verificado.claims().getExpiraEm().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(restante, 0L));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String assinatura, TokenVerificado verificado, long currentTime,
+                                                  long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String assinatura, TokenVerificado verificado, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, tokensVerificados, "tokens-verificados");
+        }
+    }
+
     public String generateJwtToken(Authentication authentication) {
-        UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
+        UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
+        String tipoUsuario = userPrincipal.getAuthorities().stream()
+                .findFirst()
+                .map(item -> item.getAuthority().replace("ROLE_", ""))
+                .orElse("");
 
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(userPrincipal.getUsername())
+                .claim(CLAIM_USUARIO_ID, userPrincipal.getId())
+                .claim(CLAIM_NOME, userPrincipal.getNome())
+                .claim(CLAIM_TIPO_USUARIO, tipoUsuario)
+                .claim(CLAIM_VERSAO, userPrincipal.getVersaoToken())
                 .setIssuedAt(new Date())
-                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
+                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs));
+
+        if (jwtKeyStore.isAssimetrico()) {
+            return builder
+                    .setHeaderParam(JwsHeader.KEY_ID, jwtKeyStore.getChaveAtiva())
+                    .signWith(jwtKeyStore.getChavePrivadaAtiva(), SignatureAlgorithm.ES256)
+                    .compact();
+        }
+        return builder
                 .signWith(getSigningKey(), SignatureAlgorithm.HS512)
                 .compact();
     }
 
     private Key getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+        if (signingKey == null) {
+            throw new IllegalStateException("jwt.secret não configurado");
+        }
+        return signingKey;
+    }
+
+    // Chamado pelo parser a cada token: HS512 usa o segredo, ES256 busca a chave pública pelo kid
+    private Key resolverChaveVerificacao(JwsHeader<?> header) {
+        String algoritmo = header.getAlgorithm();
+        if (SignatureAlgorithm.HS512.getValue().equals(algoritmo) && signingKey != null) {
+            return signingKey;
+        }
+        if (SignatureAlgorithm.ES256.getValue().equals(algoritmo)) {
+            Key chave = jwtKeyStore.getChavePublica(header.getKeyId());
+            if (chave != null) {
+                return chave;
+            }
+            throw new SignatureException("Chave de verificação desconhecida: " + header.getKeyId());
+        }
+        throw new UnsupportedJwtException("Algoritmo de assinatura não aceito: " + algoritmo);
     }
 
     public String getUsernameFromJwtToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return verificarToken(token).map(TokenClaims::getSubject).orElse(null);
     }
 
     public boolean validateJwtToken(String authToken) {
+        return verificarToken(authToken).isPresent();
+    }
+
+    // Verifica assinatura e expiração com um único parse; tokens recentes saem do cache sem recalcular o HMAC
+    public Optional<TokenClaims> verificarToken(String authToken) {
+        if (authToken == null || authToken.isEmpty()) {
+            logger.error("JWT claims string is empty");
+            return Optional.empty();
+        }
+
+        long agora = System.currentTimeMillis();
+        String assinatura = authToken.substring(authToken.lastIndexOf('.') + 1);
+        TokenVerificado verificado = tokensVerificados.getIfPresent(assinatura);
+        if (verificado != null && verificado.confere(authToken)) {
+            if (verificado.claims().isExpirado(agora)) {
+                logger.error("JWT token is expired");
+                return Optional.empty();
+            }
+            return Optional.of(verificado.claims());
+        }
+
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(authToken);
-            return true;
+            TokenClaims claims = TokenClaims.of(parser.parseClaimsJws(authToken).getBody());
+            tokensVerificados.put(assinatura, new TokenVerificado(authToken, claims));
+            return Optional.of(claims);
         } catch (SignatureException e) {
             logger.error("Invalid JWT signature: {}", e.getMessage());
         } catch (MalformedJwtException e) {
@@ -68,7 +192,7 @@ public class JwtUtils {
             logger.error("JWT claims string is empty: {}", e.getMessage());
         }
 
-        return false;
+        return Optional.empty();
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
@@ -77,11 +201,7 @@ public class JwtUtils {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
 
     public Date extractExpiration(String token) {
@@ -91,4 +211,13 @@ public class JwtUtils {
     public boolean isTokenExpired(String token) {
         return extractExpiration(token).before(new Date());
     }
+
+    private record TokenVerificado(String token, TokenClaims claims) {
+
+        // A assinatura é só a chave de busca: o token inteiro precisa ser idêntico ao verificado
+        boolean confere(String outro) {
+            return MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8),
+                    outro.getBytes(StandardCharsets.UTF_8));
+        }
+    }
 }
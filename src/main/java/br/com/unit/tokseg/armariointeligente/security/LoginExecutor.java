@@ -0,0 +1,127 @@
+package br.com.unit.tokseg.armariointeligente.security;
+
+import br.com.unit.tokseg.armariointeligente.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Autenticações (BCrypt) rodam em um pool próprio e limitado, fora das threads do Tomcat:
+// uma onda de logins não consome os workers que atendem os demais endpoints
+@Component
+public class LoginExecutor {
+
+    private final AuthenticationManager authenticationManager;
+
+    private final ThreadPoolExecutor executor;
+
+    private final long retryAfterSegundos;
+
+    // Logins em andamento por email + hash da senha: tentativas simultâneas idênticas compartilham uma verificação
+    private final ConcurrentHashMap<String, CompletableFuture<Authentication>> emAndamento = new ConcurrentHashMap<>();
+
+    private final Timer latencia;
+    private final Counter rejeitados;
+    private final Counter compartilhados;
+
+    public LoginExecutor(AuthenticationManager authenticationManager,
+                         @Value("${auth.login.threads:0}") int threads,
+                         @Value("${auth.login.fila:100}") int tamanhoFila,
+                         @Value("${auth.login.retry-after-segundos:1}") long retryAfterSegundos,
+                         MeterRegistry meterRegistry) {
+        this.authenticationManager = authenticationManager;
+        this.retryAfterSegundos = retryAfterSegundos;
+
+        // BCrypt é limitado por CPU: por padrão, uma thread por núcleo
+        int tamanhoPool = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(tamanhoPool, tamanhoPool, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(tamanhoFila),
+                tarefa -> {
+                    Thread thread = new Thread(tarefa, "login-" + contador.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        new ExecutorServiceMetrics(executor, "login", Tags.empty()).bindTo(meterRegistry);
+        this.latencia = Timer.builder("auth.login.latencia")
+                .description("Tempo entre a chegada do login e o fim da verificação, incluindo a fila")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.rejeitados = Counter.builder("auth.login.rejeitados")
+                .description("Logins recusados com 429 por fila cheia")
+                .register(meterRegistry);
+        this.compartilhados = Counter.builder("auth.login.compartilhados")
+                .description("Logins que reaproveitaram uma verificação idêntica em andamento")
+                .register(meterRegistry);
+    }
+
+    public CompletableFuture<Authentication> autenticar(String email, String senha) {
+        String chave = chave(email, senha);
+        CompletableFuture<Authentication> futuro = new CompletableFuture<>();
+        CompletableFuture<Authentication> existente = emAndamento.putIfAbsent(chave, futuro);
+        if (existente != null) {
+            compartilhados.increment();
+            return existente;
+        }
+
+        long chegada = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                try {
+                    futuro.complete(authenticationManager.authenticate(
+                            new UsernamePasswordAuthenticationToken(email, senha)));
+                } catch (Throwable e) {
+                    futuro.completeExceptionally(e);
+                } finally {
+                    emAndamento.remove(chave, futuro);
+                    latencia.record(System.nanoTime() - chegada, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Fila cheia: recusa imediata, sem prender a thread da requisição
+            TooManyRequestsException recusa = new TooManyRequestsException(
+                    "Muitas tentativas de login simultâneas. Tente novamente em instantes.", retryAfterSegundos);
+            emAndamento.remove(chave, futuro);
+            futuro.completeExceptionally(recusa);
+            rejeitados.increment();
+            throw recusa;
+        }
+        return futuro;
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdown();
+    }
+
+    private static String chave(String email, String senha) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(String.valueOf(senha).getBytes(StandardCharsets.UTF_8));
+            return email + ":" + HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package br.com.unit.tokseg.armariointeligente.security;
+
+import br.com.unit.tokseg.armariointeligente.util.TransacaoUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.function.Function;
+
+@Component
+public class PrincipalCache {
+
+    private final Cache<Chave, UserDetailsImpl> cache;
+
+    public PrincipalCache(@Value("${auth.principal-cache.tamanho-maximo:10000}") long tamanhoMaximo,
+                          @Value("${auth.principal-cache.ttl:5m}") Duration ttl,
+                          MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "principais");
+    }
+
+    public UserDetailsImpl obter(String email, Date emitidoEm, Function<String, UserDetailsImpl> carregador) {
+        long emissao = emitidoEm != null ? emitidoEm.getTime() : 0L;
+        return cache.get(new Chave(email, emissao), chave -> carregador.apply(chave.email()));
+    }
+
+    // Remove todas as entradas do usuário agora e novamente após o commit,
+    // evitando que uma requisição concorrente recoloque o estado antigo no cache
+    public void invalidar(String email) {
+        if (email == null) {
+            return;
+        }
+        remover(email);
+        TransacaoUtils.executarAposCommit(() -> remover(email));
+    }
+
+    private void remover(String email) {
+        cache.asMap().keySet().removeIf(chave -> chave.email().equals(email));
+    }
+
+    private record Chave(String email, long emitidoEm) {
+    }
+}
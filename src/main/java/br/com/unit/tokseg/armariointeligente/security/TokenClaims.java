@@ -0,0 +1,89 @@
+package br.com.unit.tokseg.armariointeligente.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Date;
+
+// Cópia imutável das claims de um token já verificado
+public final class TokenClaims {
+
+    private final String id;
+    private final String subject;
+    private final Long usuarioId;
+    private final String nome;
+    private final String tipoUsuario;
+    private final Long versaoToken;
+    private final long emitidoEm;
+    private final long expiraEm;
+
+    private TokenClaims(String id, String subject, Long usuarioId, String nome, String tipoUsuario,
+                        Long versaoToken, long emitidoEm, long expiraEm) {
+        this.id = id;
+        this.subject = subject;
+        this.usuarioId = usuarioId;
+        this.nome = nome;
+        this.tipoUsuario = tipoUsuario;
+        this.versaoToken = versaoToken;
+        this.emitidoEm = emitidoEm;
+        this.expiraEm = expiraEm;
+    }
+
+    public static TokenClaims of(Claims claims) {
+        Date emissao = claims.getIssuedAt();
+        Date expiracao = claims.getExpiration();
+        return new TokenClaims(
+                claims.getId(),
+                claims.getSubject(),
+                claims.get(JwtUtils.CLAIM_USUARIO_ID, Long.class),
+                claims.get(JwtUtils.CLAIM_NOME, String.class),
+                claims.get(JwtUtils.CLAIM_TIPO_USUARIO, String.class),
+                claims.get(JwtUtils.CLAIM_VERSAO, Long.class),
+                emissao != null ? emissao.getTime() : 0L,
+                expiracao != null ? expiracao.getTime() : Long.MAX_VALUE);
+    }
+
+    // Tokens emitidos antes das claims de usuário precisam do caminho antigo, via banco
+    public boolean isSelfContained() {
+        return usuarioId != null && tipoUsuario != null && versaoToken != null;
+    }
+
+    public boolean isExpirado(long agora) {
+        return agora >= expiraEm;
+    }
+
+    public UserDetailsImpl toUserDetails() {
+        return UserDetailsImpl.build(usuarioId, nome, subject, tipoUsuario, versaoToken);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public Long getUsuarioId() {
+        return usuarioId;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public String getTipoUsuario() {
+        return tipoUsuario;
+    }
+
+    public Long getVersaoToken() {
+        return versaoToken;
+    }
+
+    public Date getEmitidoEm() {
+        return new Date(emitidoEm);
+    }
+
+    public Date getExpiraEm() {
+        return new Date(expiraEm);
+    }
+}
@@ -0,0 +1,144 @@
+package br.com.unit.tokseg.armariointeligente.security;
+
+import br.com.unit.tokseg.armariointeligente.exception.BadRequestException;
+import br.com.unit.tokseg.armariointeligente.model.TokenRevogado;
+import br.com.unit.tokseg.armariointeligente.repository.TokenRevogadoRepository;
+import br.com.unit.tokseg.armariointeligente.util.BloomFilter;
+import br.com.unit.tokseg.armariointeligente.util.TransacaoUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+@Service
+public class TokenRevogacaoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevogacaoService.class);
+
+    // Tolerância para diferenças de relógio entre instâncias na sincronização incremental
+    private static final Duration MARGEM_SINCRONIZACAO = Duration.ofMinutes(1);
+
+    private final TokenRevogadoRepository tokenRevogadoRepository;
+
+    private final int capacidadePorJanela;
+    private final double taxaFalsoPositivo;
+    private final long larguraJanelaMs;
+
+    // Um filtro por janela de expiração: quando todos os tokens de uma janela expiram,
+    // o filtro inteiro é descartado e a memória não cresce com o tempo
+    private final ConcurrentSkipListMap<Long, BloomFilter> filtros = new ConcurrentSkipListMap<>();
+
+    private volatile LocalDateTime ultimaSincronizacao;
+
+    private final Counter descartadosPeloFiltro;
+    private final Counter consultasExatas;
+
+    public TokenRevogacaoService(TokenRevogadoRepository tokenRevogadoRepository,
+                                 @Value("${auth.revogacao.capacidade-por-janela:10000}") int capacidadePorJanela,
+                                 @Value("${auth.revogacao.taxa-falso-positivo:0.01}") double taxaFalsoPositivo,
+                                 @Value("${auth.revogacao.largura-janela:1h}") Duration larguraJanela,
+                                 MeterRegistry meterRegistry) {
+        this.tokenRevogadoRepository = tokenRevogadoRepository;
+        this.capacidadePorJanela = capacidadePorJanela;
+        this.taxaFalsoPositivo = taxaFalsoPositivo;
+        this.larguraJanelaMs = larguraJanela.toMillis();
+        this.descartadosPeloFiltro = Counter.builder("auth.revogacao.consultas")
+                .tag("resultado", "filtro")
+                .description("Tokens liberados pelo filtro de Bloom, sem consulta ao banco")
+                .register(meterRegistry);
+        this.consultasExatas = Counter.builder("auth.revogacao.consultas")
+                .tag("resultado", "banco")
+                .description("Possíveis revogações confirmadas no banco")
+                .register(meterRegistry);
+    }
+
+    @Transactional
+    public void revogar(TokenClaims claims) {
+        if (claims.getId() == null) {
+            throw new BadRequestException("Token sem identificador não pode ser revogado");
+        }
+        long expiraEm = claims.getExpiraEm().getTime();
+        if (expiraEm <= System.currentTimeMillis()) {
+            return;
+        }
+        if (!tokenRevogadoRepository.existsById(claims.getId())) {
+            tokenRevogadoRepository.save(new TokenRevogado(claims.getId(), claims.getUsuarioId(),
+                    paraLocalDateTime(expiraEm), LocalDateTime.now()));
+        }
+        TransacaoUtils.executarAposCommit(() -> adicionarAoFiltro(claims.getId(), expiraEm));
+    }
+
+    // O filtro responde a grande maioria das requisições; o banco só é consultado em possíveis acertos
+    public boolean isRevogado(TokenClaims claims) {
+        if (claims.getId() == null) {
+            return false;
+        }
+        BloomFilter filtro = filtros.get(janela(claims.getExpiraEm().getTime()));
+        if (filtro == null || !filtro.podeConter(claims.getId())) {
+            descartadosPeloFiltro.increment();
+            return false;
+        }
+        consultasExatas.increment();
+        return tokenRevogadoRepository.existsById(claims.getId());
+    }
+
+    // Traz para o filtro as revogações feitas em outras instâncias (na primeira execução, todas as vigentes)
+    @Scheduled(fixedDelayString = "${auth.revogacao.intervalo-sincronizacao:PT30S}")
+    public void sincronizar() {
+        LocalDateTime inicio = LocalDateTime.now();
+        try {
+            List<TokenRevogado> revogados = ultimaSincronizacao == null
+                    ? tokenRevogadoRepository.findByExpiraEmAfter(inicio)
+                    : tokenRevogadoRepository.findByRevogadoEmAfter(ultimaSincronizacao.minus(MARGEM_SINCRONIZACAO));
+            for (TokenRevogado revogado : revogados) {
+                adicionarAoFiltro(revogado.getJti(), paraEpochMilli(revogado.getExpiraEm()));
+            }
+            ultimaSincronizacao = inicio;
+        } catch (Exception e) {
+            logger.warn("Falha ao sincronizar tokens revogados: {}", e.getMessage());
+        }
+        descartarJanelasVencidas();
+    }
+
+    @Scheduled(fixedDelayString = "${auth.revogacao.intervalo-limpeza:PT10M}")
+    @Transactional
+    public void limpar() {
+        int removidos = tokenRevogadoRepository.deleteByExpiraEmBefore(LocalDateTime.now());
+        if (removidos > 0) {
+            logger.info("{} tokens revogados já expirados removidos", removidos);
+        }
+    }
+
+    private void adicionarAoFiltro(String jti, long expiraEm) {
+        filtros.computeIfAbsent(janela(expiraEm), janela -> new BloomFilter(capacidadePorJanela, taxaFalsoPositivo))
+                .adicionar(jti);
+    }
+
+    // Janelas anteriores à atual só contêm tokens que já expiraram
+    private void descartarJanelasVencidas() {
+        filtros.headMap(janela(System.currentTimeMillis())).clear();
+    }
+
+    private long janela(long expiraEm) {
+        return expiraEm / larguraJanelaMs;
+    }
+
+    private static LocalDateTime paraLocalDateTime(long epochMilli) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMilli), ZoneId.systemDefault());
+    }
+
+    private static long paraEpochMilli(LocalDateTime data) {
+        return data.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
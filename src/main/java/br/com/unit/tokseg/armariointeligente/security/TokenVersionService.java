@@ -0,0 +1,92 @@
+package br.com.unit.tokseg.armariointeligente.security;
+
+import br.com.unit.tokseg.armariointeligente.repository.UsuarioRepository;
+import br.com.unit.tokseg.armariointeligente.util.TransacaoUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Service
+public class TokenVersionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenVersionService.class);
+
+    // Versão usada para usuários removidos: nenhum token confere com ela
+    private static final long USUARIO_REMOVIDO = -1L;
+
+    private static final int TAMANHO_LOTE = 500;
+
+    private final UsuarioRepository usuarioRepository;
+
+    private final Cache<Long, Long> versoes;
+
+    public TokenVersionService(UsuarioRepository usuarioRepository,
+                               @Value("${auth.versao-token.tamanho-maximo:50000}") long tamanhoMaximo,
+                               @Value("${auth.versao-token.expiracao:1h}") Duration expiracao,
+                               MeterRegistry meterRegistry) {
+        this.usuarioRepository = usuarioRepository;
+        this.versoes = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterAccess(expiracao)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, versoes, "versoes-token");
+    }
+
+    public boolean isVersaoValida(Long usuarioId, long versaoToken) {
+        Long atual = versoes.get(usuarioId, id -> usuarioRepository.findVersaoTokenById(id).orElse(USUARIO_REMOVIDO));
+        return atual != null && atual == versaoToken;
+    }
+
+    // Atualiza esta instância assim que a transação que alterou a versão for confirmada;
+    // as demais instâncias recebem a mudança na próxima sincronização
+    public void registrarNovaVersao(Long usuarioId, long versaoToken) {
+        TransacaoUtils.executarAposCommit(() -> atualizar(usuarioId, versaoToken));
+    }
+
+    public void registrarRemocao(Long usuarioId) {
+        TransacaoUtils.executarAposCommit(() -> versoes.put(usuarioId, USUARIO_REMOVIDO));
+    }
+
+    // Revalida em lote, com uma consulta por bloco de ids, todas as versões mantidas em memória
+    @Scheduled(fixedDelayString = "${auth.versao-token.intervalo-sincronizacao:PT30S}")
+    public void sincronizar() {
+        List<Long> ids = new ArrayList<>(versoes.asMap().keySet());
+        for (int inicio = 0; inicio < ids.size(); inicio += TAMANHO_LOTE) {
+            List<Long> lote = ids.subList(inicio, Math.min(inicio + TAMANHO_LOTE, ids.size()));
+            Set<Long> encontrados = new HashSet<>();
+            try {
+                for (UsuarioRepository.VersaoToken versao : usuarioRepository.findVersoesTokenByIdIn(lote)) {
+                    atualizar(versao.getId(), versao.getVersaoToken());
+                    encontrados.add(versao.getId());
+                }
+            } catch (Exception e) {
+                logger.warn("Falha ao sincronizar versões de token: {}", e.getMessage());
+                return;
+            }
+            for (Long id : lote) {
+                if (!encontrados.contains(id)) {
+                    versoes.put(id, USUARIO_REMOVIDO);
+                }
+            }
+        }
+    }
+
+    // Versões só crescem: uma leitura antiga da sincronização não desfaz um incremento recente
+    private void atualizar(Long usuarioId, long versaoToken) {
+        versoes.asMap().merge(usuarioId, versaoToken,
+                (atual, nova) -> atual == USUARIO_REMOVIDO ? atual : Math.max(atual, nova));
+    }
+}
@@ -20,14 +20,28 @@ public class UserDetailsImpl implements UserDetails {
     @JsonIgnore
     private String senha;
     private Collection<? extends GrantedAuthority> authorities;
+    private boolean ativo;
+    private long versaoToken;
 
     public UserDetailsImpl(Long id, String nome, String email, String senha,
                            Collection<? extends GrantedAuthority> authorities) {
+        this(id, nome, email, senha, authorities, true);
+    }
+
+    public UserDetailsImpl(Long id, String nome, String email, String senha,
+                           Collection<? extends GrantedAuthority> authorities, boolean ativo) {
         this.id = id;
         this.nome = nome;
         this.email = email;
         this.senha = senha;
         this.authorities = authorities;
+        this.ativo = ativo;
+    }
+
+    public UserDetailsImpl(Long id, String nome, String email, String senha,
+                           Collection<? extends GrantedAuthority> authorities, boolean ativo, long versaoToken) {
+        this(id, nome, email, senha, authorities, ativo);
+        this.versaoToken = versaoToken;
     }
 
     public static UserDetailsImpl build(Usuario usuario) {
@@ -39,7 +53,17 @@ public class UserDetailsImpl implements UserDetails {
                 usuario.getNome(),
                 usuario.getEmail(),
                 usuario.getSenha(),
-                authorities);
+                authorities,
+                usuario.isAtivo(),
+                usuario.getVersaoToken());
+    }
+
+    // Principal montado apenas com as claims de um token já verificado, sem consultar o banco
+    public static UserDetailsImpl build(Long id, String nome, String email, String tipoUsuario, long versaoToken) {
+        List<GrantedAuthority> authorities = Collections.singletonList(
+                new SimpleGrantedAuthority("ROLE_" + tipoUsuario));
+
+        return new UserDetailsImpl(id, nome, email, null, authorities, true, versaoToken);
     }
 
     @Override
@@ -59,6 +83,10 @@ public class UserDetailsImpl implements UserDetails {
         return email;
     }
 
+    public long getVersaoToken() {
+        return versaoToken;
+    }
+
     @Override
     public String getPassword() {
         return senha;
@@ -86,7 +114,7 @@ public class UserDetailsImpl implements UserDetails {
 
     @Override
     public boolean isEnabled() {
-        return true;
+        return ativo;
     }
 
     @Override
@@ -0,0 +1,103 @@
+package br.com.unit.tokseg.armariointeligente.service;
+
+import br.com.unit.tokseg.armariointeligente.model.Compartimento;
+import br.com.unit.tokseg.armariointeligente.model.Entrega;
+import br.com.unit.tokseg.armariointeligente.model.StatusEntrega;
+import br.com.unit.tokseg.armariointeligente.repository.EntregaRepository;
+import br.com.unit.tokseg.armariointeligente.util.RodaTemporal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+
+// Prazos de expiração das entregas aguardando retirada, em uma roda temporal de tiques de um minuto
+// (64 posições por nível, 4 níveis: ~31 anos de alcance). A roda é reconstruída do banco na subida;
+// a cada execução só as entregas cujo prazo chegou vão ao banco, em lotes.
+// Retiradas e cancelamentos não são removidos da roda: a expiração só altera entregas ainda ENTREGUE.
+@Service
+public class AgendaExpiracaoEntregas {
+
+    private static final Logger logger = LoggerFactory.getLogger(AgendaExpiracaoEntregas.class);
+
+    private static final long TIQUE_MS = 60_000;
+
+    @Autowired
+    private EntregaRepository entregaRepository;
+
+    @Autowired
+    private ExpiracaoEntregaService expiracaoEntregaService;
+
+    @Value("${entregas.expiracao.tamanho-lote:500}")
+    private int tamanhoLote;
+
+    private final RodaTemporal roda = new RodaTemporal(TIQUE_MS, 64, 4, System.currentTimeMillis());
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        List<EntregaRepository.PrazoRetencao> prazos = entregaRepository.findPrazosRetencao(StatusEntrega.ENTREGUE);
+        agendarTodos(prazos);
+        logger.info("Agenda de expiração carregada: {} entregas aguardando retirada", prazos.size());
+    }
+
+    public void agendar(Entrega entrega) {
+        Compartimento compartimento = entrega.getCompartimento();
+        agendar(entrega.getId(), expiracaoEntregaService.calcularPrazo(entrega.getDataEntrega(),
+                compartimento.getArmario().getCondominio().getDiasRetencao()));
+    }
+
+    // Retenção do condomínio alterada: os prazos são recalculados. Entradas antigas que ficarem na
+    // roda são inofensivas, porque o prazo é conferido de novo quando vencem.
+    public void reagendarCondominio(Long condominioId) {
+        agendarTodos(entregaRepository.findPrazosRetencaoPorCondominio(StatusEntrega.ENTREGUE, condominioId));
+    }
+
+    @Scheduled(fixedDelayString = "${entregas.expiracao.intervalo:PT1M}")
+    public void processar() {
+        List<Long> vencidas;
+        synchronized (roda) {
+            vencidas = roda.avancar(System.currentTimeMillis());
+        }
+        for (int inicio = 0; inicio < vencidas.size(); inicio += tamanhoLote) {
+            List<Long> lote = vencidas.subList(inicio, Math.min(inicio + tamanhoLote, vencidas.size()));
+            try {
+                Map<Long, LocalDateTime> adiadas = expiracaoEntregaService.expirar(lote);
+                adiadas.forEach(this::agendar);
+            } catch (Exception e) {
+                // O lote volta para a roda e é tentado de novo no próximo tique
+                logger.warn("Falha ao expirar lote de {} entregas: {}", lote.size(), e.getMessage());
+                long novaTentativa = System.currentTimeMillis() + TIQUE_MS;
+                synchronized (roda) {
+                    lote.forEach(id -> roda.agendar(id, novaTentativa));
+                }
+            }
+        }
+    }
+
+    public int contarAgendadas() {
+        synchronized (roda) {
+            return roda.tamanho();
+        }
+    }
+
+    private void agendarTodos(List<EntregaRepository.PrazoRetencao> prazos) {
+        for (EntregaRepository.PrazoRetencao prazo : prazos) {
+            agendar(prazo.getId(), expiracaoEntregaService.calcularPrazo(prazo.getDataEntrega(), prazo.getDiasRetencao()));
+        }
+    }
+
+    private void agendar(Long entregaId, LocalDateTime prazo) {
+        long prazoMs = prazo.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        synchronized (roda) {
+            roda.agendar(entregaId, prazoMs);
+        }
+    }
+}
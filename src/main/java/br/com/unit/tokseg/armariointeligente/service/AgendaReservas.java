@@ -0,0 +1,120 @@
+package br.com.unit.tokseg.armariointeligente.service;
+
+import br.com.unit.tokseg.armariointeligente.model.StatusReserva;
+import br.com.unit.tokseg.armariointeligente.repository.ReservaRepository;
+import br.com.unit.tokseg.armariointeligente.util.ArvoreIntervalos;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Janelas das reservas vigentes, uma árvore de intervalos por compartimento: conflitos de horário são
+// respondidos da memória em O(log n). O banco continua sendo a palavra final (a reserva só é gravada
+// depois de conferir a sobreposição com o compartimento bloqueado) e a reconciliação periódica traz
+// o que outras instâncias gravaram ou cancelaram.
+@Service
+public class AgendaReservas {
+
+    private static final Logger logger = LoggerFactory.getLogger(AgendaReservas.class);
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    // Substituído inteiro a cada reconciliação
+    private volatile Map<Long, ArvoreIntervalos> porCompartimento = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        reconciliar();
+    }
+
+    @Scheduled(fixedDelayString = "${reservas.agenda.intervalo-reconciliacao:PT5M}")
+    public void reconciliar() {
+        try {
+            List<ReservaRepository.IntervaloReserva> intervalos =
+                    reservaRepository.findIntervalosVigentes(StatusReserva.VIGENTES, LocalDateTime.now());
+            Map<Long, ArvoreIntervalos> novo = new ConcurrentHashMap<>();
+            for (ReservaRepository.IntervaloReserva intervalo : intervalos) {
+                novo.computeIfAbsent(intervalo.getCompartimentoId(), id -> new ArvoreIntervalos())
+                        .inserir(intervalo.getId(), instante(intervalo.getDataInicio()), instante(intervalo.getDataFim()));
+            }
+            porCompartimento = novo;
+            logger.debug("Agenda de reservas reconciliada: {} janelas em {} compartimentos",
+                    intervalos.size(), novo.size());
+        } catch (Exception e) {
+            logger.warn("Falha ao reconciliar a agenda de reservas: {}", e.getMessage());
+        }
+    }
+
+    public boolean haConflito(Long compartimentoId, LocalDateTime inicio, LocalDateTime fim) {
+        ArvoreIntervalos arvore = porCompartimento.get(compartimentoId);
+        if (arvore == null) {
+            return false;
+        }
+        synchronized (arvore) {
+            return arvore.sobrepoe(instante(inicio), instante(fim));
+        }
+    }
+
+    // Sem conflito, devolve a folga até a reserva anterior e até a próxima (nula quando não há vizinha);
+    // com conflito, devolve null. Uma única passagem pela árvore, sob um único bloqueio.
+    public Folga folga(Long compartimentoId, LocalDateTime inicio, LocalDateTime fim) {
+        ArvoreIntervalos arvore = porCompartimento.get(compartimentoId);
+        if (arvore == null) {
+            return new Folga(null, null);
+        }
+        long inicioMs = instante(inicio);
+        long fimMs = instante(fim);
+        synchronized (arvore) {
+            if (arvore.sobrepoe(inicioMs, fimMs)) {
+                return null;
+            }
+            OptionalLong anterior = arvore.fimDoAnterior(inicioMs);
+            OptionalLong proximo = arvore.inicioDoProximo(fimMs);
+            return new Folga(anterior.isPresent() ? Duration.ofMillis(inicioMs - anterior.getAsLong()) : null,
+                    proximo.isPresent() ? Duration.ofMillis(proximo.getAsLong() - fimMs) : null);
+        }
+    }
+
+    // Alguma janela contém o instante (reserva em andamento)?
+    public boolean emJanela(Long compartimentoId, LocalDateTime instante) {
+        return haConflito(compartimentoId, instante, instante.plusNanos(1_000_000));
+    }
+
+    // Idempotente: registrar de novo a mesma reserva não duplica a janela
+    public void registrar(Long reservaId, Long compartimentoId, LocalDateTime inicio, LocalDateTime fim) {
+        ArvoreIntervalos arvore = porCompartimento.computeIfAbsent(compartimentoId, id -> new ArvoreIntervalos());
+        synchronized (arvore) {
+            arvore.remover(reservaId, instante(inicio));
+            arvore.inserir(reservaId, instante(inicio), instante(fim));
+        }
+    }
+
+    public void remover(Long reservaId, Long compartimentoId, LocalDateTime inicio) {
+        ArvoreIntervalos arvore = porCompartimento.get(compartimentoId);
+        if (arvore != null) {
+            synchronized (arvore) {
+                arvore.remover(reservaId, instante(inicio));
+            }
+        }
+    }
+
+    public record Folga(Duration antes, Duration depois) {
+    }
+
+    // Só a ordem importa: a data local vira um número sem passar por fuso (sem saltos de horário de verão)
+    private static long instante(LocalDateTime data) {
+        return data.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
@@ -0,0 +1,254 @@
+package br.com.unit.tokseg.armariointeligente.service;
+
+import br.com.unit.tokseg.armariointeligente.exception.BadRequestException;
+import br.com.unit.tokseg.armariointeligente.exception.ResourceNotFoundException;
+import br.com.unit.tokseg.armariointeligente.model.Compartimento;
+import br.com.unit.tokseg.armariointeligente.repository.ArmarioRepository;
+import br.com.unit.tokseg.armariointeligente.repository.CompartimentoRepository;
+import br.com.unit.tokseg.armariointeligente.util.TransacaoUtils;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+// Índice em memória dos compartimentos livres de cada armário, agrupados por tamanho.
+// A alocação retira um compartimento do índice sem consultar o banco; a ocupação no banco
+// continua sendo a fonte da verdade e o índice é corrigido sempre que ela muda.
+@Service
+public class AlocacaoCompartimentoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlocacaoCompartimentoService.class);
+
+    // Do menor para o maior: um pacote cabe no seu tamanho ou em qualquer um dos seguintes
+    private static final List<String> TAMANHOS = List.of("P", "M", "G");
+
+    @Autowired
+    private CompartimentoRepository compartimentoRepository;
+
+    @Autowired
+    private ArmarioRepository armarioRepository;
+
+    @Autowired
+    private ContadoresCondominio contadoresCondominio;
+
+    private final Map<Long, LivresArmario> armarios = new ConcurrentHashMap<>();
+
+    private final Map<Long, Posicao> posicoes = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        List<CompartimentoRepository.EstadoCompartimento> estados = compartimentoRepository.findEstados();
+        for (CompartimentoRepository.EstadoCompartimento estado : estados) {
+            registrar(estado.getId(), estado.getArmarioId(), estado.getNumero(), estado.getTamanho(),
+                    Boolean.TRUE.equals(estado.getOcupado()));
+        }
+        logger.info("Índice de compartimentos livres carregado: {} compartimentos em {} armários",
+                estados.size(), armarios.size());
+    }
+
+    public static String normalizarTamanho(String tamanho) {
+        String normalizado = tamanho != null ? tamanho.trim().toUpperCase() : null;
+        if (normalizado == null || !TAMANHOS.contains(normalizado)) {
+            throw new BadRequestException("Tamanho inválido. Use P, M ou G");
+        }
+        return normalizado;
+    }
+
+    // Ocupa o menor compartimento livre do armário que comporta o pacote
+    @Transactional
+    public Compartimento reservar(Long armarioId, String tamanho) {
+        return reservar(armarioId, tamanho, compartimentoId -> false);
+    }
+
+    // Idem, pulando os compartimentos recusados (por exemplo, os que têm reserva prestes a começar);
+    // os pulados continuam livres no índice
+    @Transactional
+    public Compartimento reservar(Long armarioId, String tamanho, Predicate<Long> recusado) {
+        String normalizado = normalizarTamanho(tamanho);
+        while (true) {
+            Optional<Long> candidato = retirarLivre(armarioId, normalizado, recusado);
+            if (candidato.isEmpty()) {
+                if (!armarioRepository.existsById(armarioId)) {
+                    throw new ResourceNotFoundException("Armário", "id", armarioId);
+                }
+                throw new BadRequestException("Nenhum compartimento livre de tamanho " + normalizado
+                        + " ou maior neste armário");
+            }
+
+            Long compartimentoId = candidato.get();
+            // Índice desatualizado (compartimento ocupado por outra instância ou removido): já saiu do índice
+            if (compartimentoRepository.ocuparSeLivre(compartimentoId) == 0) {
+                continue;
+            }
+
+            TransacaoUtils.executarAposRollback(() -> atualizarOcupacao(compartimentoId, false));
+            TransacaoUtils.executarAposCommit(() -> atualizarOcupacao(compartimentoId, true));
+            Optional<Compartimento> compartimento = compartimentoRepository.findById(compartimentoId);
+            if (compartimento.isPresent()) {
+                return compartimento.get();
+            }
+        }
+    }
+
+    // Retira do índice o menor compartimento livre que comporta o pacote
+    public Optional<Long> retirarLivre(Long armarioId, String tamanho) {
+        return retirarLivre(armarioId, tamanho, compartimentoId -> false);
+    }
+
+    public Optional<Long> retirarLivre(Long armarioId, String tamanho, Predicate<Long> recusado) {
+        LivresArmario livres = armarios.get(armarioId);
+        if (livres == null) {
+            return Optional.empty();
+        }
+        return livres.retirar(TAMANHOS.indexOf(normalizarTamanho(tamanho)), recusado);
+    }
+
+    public void registrar(Long compartimentoId, Long armarioId, String numero, String tamanho, boolean ocupado) {
+        remover(compartimentoId);
+        String normalizado = tamanho != null ? tamanho.trim().toUpperCase() : "";
+        posicoes.put(compartimentoId, new Posicao(armarioId, numero, normalizado));
+        contadoresCondominio.compartimentoAtualizado(compartimentoId, armarioId, ocupado);
+        LivresArmario livres = armarios.computeIfAbsent(armarioId, id -> new LivresArmario());
+        livres.incluir(normalizado, compartimentoId);
+        if (!ocupado) {
+            livres.adicionar(normalizado, compartimentoId);
+        }
+    }
+
+    public void atualizarOcupacao(Long compartimentoId, boolean ocupado) {
+        Posicao posicao = posicoes.get(compartimentoId);
+        if (posicao == null) {
+            return;
+        }
+        contadoresCondominio.compartimentoAtualizado(compartimentoId, posicao.armarioId(), ocupado);
+        LivresArmario livres = armarios.computeIfAbsent(posicao.armarioId(), id -> new LivresArmario());
+        if (ocupado) {
+            livres.remover(posicao.tamanho(), compartimentoId);
+        } else {
+            livres.adicionar(posicao.tamanho(), compartimentoId);
+        }
+    }
+
+    public void remover(Long compartimentoId) {
+        Posicao posicao = posicoes.remove(compartimentoId);
+        contadoresCondominio.compartimentoRemovido(compartimentoId);
+        if (posicao != null) {
+            LivresArmario livres = armarios.get(posicao.armarioId());
+            if (livres != null) {
+                livres.excluir(posicao.tamanho(), compartimentoId);
+            }
+        }
+    }
+
+    public int contarLivres(Long armarioId, String tamanho) {
+        LivresArmario livres = armarios.get(armarioId);
+        return livres != null ? livres.contar(normalizarTamanho(tamanho)) : 0;
+    }
+
+    // Todos os compartimentos do armário que comportam o pacote, livres ou não, do menor tamanho para o maior
+    public List<SituacaoCompartimento> listarCompativeis(Long armarioId, String tamanho) {
+        LivresArmario livres = armarios.get(armarioId);
+        if (livres == null) {
+            return List.of();
+        }
+        List<SituacaoCompartimento> compativeis = new ArrayList<>();
+        livres.listar(TAMANHOS.indexOf(normalizarTamanho(tamanho)), (compartimentoId, livre) -> {
+            Posicao posicao = posicoes.get(compartimentoId);
+            if (posicao != null) {
+                compativeis.add(new SituacaoCompartimento(compartimentoId, posicao.numero(), posicao.tamanho(), livre));
+            }
+        });
+        return compativeis;
+    }
+
+    public static int indiceTamanho(String tamanho) {
+        return TAMANHOS.indexOf(tamanho);
+    }
+
+    public record SituacaoCompartimento(Long id, String numero, String tamanho, boolean livre) {
+    }
+
+    private record Posicao(Long armarioId, String numero, String tamanho) {
+    }
+
+    // Conjuntos ordenados por inserção: adicionar, remover e retirar o primeiro são O(1).
+    // Além dos livres, guarda todos os compartimentos do armário por tamanho.
+    private static final class LivresArmario {
+
+        private final Map<String, LinkedHashSet<Long>> porTamanho = new HashMap<>();
+        private final Map<String, LinkedHashSet<Long>> todos = new HashMap<>();
+
+        synchronized void incluir(String tamanho, Long compartimentoId) {
+            todos.computeIfAbsent(tamanho, t -> new LinkedHashSet<>()).add(compartimentoId);
+        }
+
+        synchronized void excluir(String tamanho, Long compartimentoId) {
+            remover(tamanho, compartimentoId);
+            LinkedHashSet<Long> doTamanho = todos.get(tamanho);
+            if (doTamanho != null) {
+                doTamanho.remove(compartimentoId);
+            }
+        }
+
+        synchronized void listar(int menorTamanho, BiConsumer<Long, Boolean> consumidor) {
+            for (int i = menorTamanho; i < TAMANHOS.size(); i++) {
+                LinkedHashSet<Long> doTamanho = todos.get(TAMANHOS.get(i));
+                if (doTamanho == null) {
+                    continue;
+                }
+                LinkedHashSet<Long> livres = porTamanho.get(TAMANHOS.get(i));
+                for (Long compartimentoId : doTamanho) {
+                    consumidor.accept(compartimentoId, livres != null && livres.contains(compartimentoId));
+                }
+            }
+        }
+
+        synchronized void adicionar(String tamanho, Long compartimentoId) {
+            porTamanho.computeIfAbsent(tamanho, t -> new LinkedHashSet<>()).add(compartimentoId);
+        }
+
+        synchronized void remover(String tamanho, Long compartimentoId) {
+            LinkedHashSet<Long> livres = porTamanho.get(tamanho);
+            if (livres != null) {
+                livres.remove(compartimentoId);
+            }
+        }
+
+        synchronized Optional<Long> retirar(int menorTamanho, Predicate<Long> recusado) {
+            for (int i = menorTamanho; i < TAMANHOS.size(); i++) {
+                LinkedHashSet<Long> livres = porTamanho.get(TAMANHOS.get(i));
+                if (livres == null) {
+                    continue;
+                }
+                Iterator<Long> iterator = livres.iterator();
+                while (iterator.hasNext()) {
+                    Long compartimentoId = iterator.next();
+                    if (!recusado.test(compartimentoId)) {
+                        iterator.remove();
+                        return Optional.of(compartimentoId);
+                    }
+                }
+            }
+            return Optional.empty();
+        }
+
+        synchronized int contar(String tamanho) {
+            LinkedHashSet<Long> livres = porTamanho.get(tamanho);
+            return livres != null ? livres.size() : 0;
+        }
+    }
+}
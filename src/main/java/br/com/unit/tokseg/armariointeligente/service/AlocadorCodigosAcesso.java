@@ -0,0 +1,202 @@
+package br.com.unit.tokseg.armariointeligente.service;
+
+import br.com.unit.tokseg.armariointeligente.exception.BadRequestException;
+import br.com.unit.tokseg.armariointeligente.repository.CompartimentoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Códigos de acesso de 6 dígitos em uso em cada armário, em um mapa de bits (900 mil bits, ~110 KB
+// por armário). Um código sorteado nunca repete outro do mesmo armário, sem consulta ao banco.
+@Service
+public class AlocadorCodigosAcesso {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlocadorCodigosAcesso.class);
+
+    public static final int MENOR_CODIGO = 100000;
+    public static final int TOTAL_CODIGOS = 900000;
+
+    // Sorteios independentes antes de procurar o próximo livre: mantém a distribuição uniforme
+    // enquanto o armário não estiver quase cheio
+    private static final int TENTATIVAS_SORTEIO = 8;
+
+    // Um sorteador por thread, cada um com seu gerador e seu estoque de bytes aleatórios
+    private static final ThreadLocal<Sorteador> SORTEADORES = ThreadLocal.withInitial(Sorteador::new);
+
+    @Autowired
+    private CompartimentoRepository compartimentoRepository;
+
+    private final Map<Long, CodigosArmario> armarios = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        List<CompartimentoRepository.CodigoCompartimento> codigos = compartimentoRepository.findCodigos();
+        int repetidos = 0;
+        for (CompartimentoRepository.CodigoCompartimento codigo : codigos) {
+            if (codigo.getCodigoAcesso() != null && !reservar(codigo.getArmarioId(), codigo.getCodigoAcesso())) {
+                repetidos++;
+            }
+        }
+        if (repetidos > 0) {
+            logger.warn("{} compartimentos compartilham código de acesso com outro do mesmo armário", repetidos);
+        }
+        logger.info("Códigos de acesso em uso carregados para {} armários", armarios.size());
+    }
+
+    // Códigos fora de 100000..999999 não são aceitos
+    public static int paraPosicao(String codigo) {
+        int valor = IndiceCodigosAcesso.paraChave(codigo);
+        return valor >= MENOR_CODIGO ? valor - MENOR_CODIGO : -1;
+    }
+
+    public static void validar(String codigo) {
+        if (paraPosicao(codigo) < 0) {
+            throw new BadRequestException("Código de acesso deve ter 6 dígitos, de 100000 a 999999");
+        }
+    }
+
+    public String alocar(Long armarioId) {
+        int posicao = armarios.computeIfAbsent(armarioId, id -> new CodigosArmario()).alocar(SORTEADORES.get());
+        if (posicao < 0) {
+            throw new IllegalStateException("Não há códigos de acesso livres no armário " + armarioId);
+        }
+        return String.valueOf(MENOR_CODIGO + posicao);
+    }
+
+    // Marca um código escolhido pelo chamador; false se já estiver em uso no armário
+    public boolean reservar(Long armarioId, String codigo) {
+        int posicao = paraPosicao(codigo);
+        if (posicao < 0) {
+            return false;
+        }
+        return armarios.computeIfAbsent(armarioId, id -> new CodigosArmario()).marcar(posicao);
+    }
+
+    public void liberar(Long armarioId, String codigo) {
+        int posicao = paraPosicao(codigo);
+        CodigosArmario codigos = armarioId != null ? armarios.get(armarioId) : null;
+        if (posicao >= 0 && codigos != null) {
+            codigos.desmarcar(posicao);
+        }
+    }
+
+    public boolean emUso(Long armarioId, String codigo) {
+        int posicao = paraPosicao(codigo);
+        CodigosArmario codigos = armarios.get(armarioId);
+        return posicao >= 0 && codigos != null && codigos.marcado(posicao);
+    }
+
+    public int contarEmUso(Long armarioId) {
+        CodigosArmario codigos = armarios.get(armarioId);
+        return codigos != null ? codigos.emUso() : 0;
+    }
+
+    private static final class CodigosArmario {
+
+        private final long[] palavras = new long[(TOTAL_CODIGOS + 63) / 64];
+        private int emUso;
+
+        synchronized int alocar(Sorteador sorteador) {
+            if (emUso >= TOTAL_CODIGOS) {
+                return -1;
+            }
+            int sorteio = sorteador.proximo();
+            for (int i = 0; i < TENTATIVAS_SORTEIO && marcadoSemLock(sorteio); i++) {
+                sorteio = sorteador.proximo();
+            }
+            int posicao = marcadoSemLock(sorteio) ? proximoLivre(sorteio) : sorteio;
+            marcarSemLock(posicao);
+            return posicao;
+        }
+
+        synchronized boolean marcar(int posicao) {
+            if (marcadoSemLock(posicao)) {
+                return false;
+            }
+            marcarSemLock(posicao);
+            return true;
+        }
+
+        synchronized void desmarcar(int posicao) {
+            if (marcadoSemLock(posicao)) {
+                palavras[posicao >>> 6] &= ~(1L << (posicao & 63));
+                emUso--;
+            }
+        }
+
+        synchronized boolean marcado(int posicao) {
+            return marcadoSemLock(posicao);
+        }
+
+        synchronized int emUso() {
+            return emUso;
+        }
+
+        // Varre 64 códigos por vez a partir da posição sorteada, dando a volta no fim
+        private int proximoLivre(int inicio) {
+            int palavra = inicio >>> 6;
+            long livres = ~palavras[palavra] & (-1L << (inicio & 63));
+            for (int i = 0; i <= palavras.length; i++) {
+                if (livres != 0) {
+                    int posicao = (palavra << 6) + Long.numberOfTrailingZeros(livres);
+                    if (posicao < TOTAL_CODIGOS) {
+                        return posicao;
+                    }
+                }
+                palavra = (palavra + 1) % palavras.length;
+                livres = ~palavras[palavra];
+            }
+            throw new IllegalStateException("Mapa de códigos inconsistente");
+        }
+
+        private boolean marcadoSemLock(int posicao) {
+            return (palavras[posicao >>> 6] & (1L << (posicao & 63))) != 0;
+        }
+
+        private void marcarSemLock(int posicao) {
+            palavras[posicao >>> 6] |= 1L << (posicao & 63);
+            emUso++;
+        }
+    }
+
+    // Pedir 4 bytes por vez ao SecureRandom custa caro; o estoque é reabastecido em blocos.
+    // Cada sorteio usa 20 bits e descarta valores >= 900000, o que mantém a distribuição uniforme.
+    private static final class Sorteador {
+
+        private final SecureRandom gerador = novoGerador();
+        private final byte[] estoque = new byte[3 * 512];
+        private int posicao = estoque.length;
+
+        int proximo() {
+            while (true) {
+                if (posicao == estoque.length) {
+                    gerador.nextBytes(estoque);
+                    posicao = 0;
+                }
+                int valor = ((estoque[posicao] & 0x0F) << 16) | ((estoque[posicao + 1] & 0xFF) << 8)
+                        | (estoque[posicao + 2] & 0xFF);
+                posicao += 3;
+                if (valor < TOTAL_CODIGOS) {
+                    return valor;
+                }
+            }
+        }
+
+        private static SecureRandom novoGerador() {
+            try {
+                return SecureRandom.getInstance("DRBG");
+            } catch (NoSuchAlgorithmException e) {
+                return new SecureRandom();
+            }
+        }
+    }
+}
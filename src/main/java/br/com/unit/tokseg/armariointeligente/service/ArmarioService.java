@@ -8,6 +8,7 @@ import br.com.unit.tokseg.armariointeligente.model.Armario;
 import br.com.unit.tokseg.armariointeligente.model.Condominio;
 import br.com.unit.tokseg.armariointeligente.repository.ArmarioRepository;
 import br.com.unit.tokseg.armariointeligente.repository.CondominioRepository;
+import br.com.unit.tokseg.armariointeligente.util.TransacaoUtils;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -24,6 +25,12 @@ public class ArmarioService {
     @Autowired
     private CondominioRepository condominioRepository;
 
+    @Autowired
+    private ContadoresCondominio contadoresCondominio;
+
+    @Autowired
+    private CacheReferencia cacheReferencia;
+
     @Transactional
     public Armario criarArmario(Armario armario) {
         if (armario == null) {
@@ -36,16 +43,19 @@ public class ArmarioService {
             throw new BadRequestException("Condomínio é obrigatório");
         }
 
-        Condominio condominio = condominioRepository.findById(armario.getCondominio().getId())
+        Condominio condominio = cacheReferencia.condominio(armario.getCondominio().getId(), condominioRepository::findById)
                 .orElseThrow(() -> new ResourceNotFoundException("Condomínio", "id", armario.getCondominio().getId()));
 
-        armarioRepository.findByIdentificacaoAndCondominioId(armario.getIdentificacao(), condominio.getId())
+        cacheReferencia.armarioPorIdentificacao(armario.getIdentificacao(), condominio.getId(),
+                        armarioRepository::findByIdentificacaoAndCondominioId)
                 .ifPresent(a -> {
                     throw new ResourceAlreadyExistsException("Armário", "identificação", armario.getIdentificacao());
                 });
 
         armario.setCondominio(condominio);
-        return armarioRepository.save(armario);
+        Armario salvo = armarioRepository.save(armario);
+        TransacaoUtils.executarAposCommit(() -> contadoresCondominio.armarioRegistrado(salvo.getId(), condominio.getId()));
+        return salvo;
     }
 
     @Transactional
@@ -55,7 +65,7 @@ public class ArmarioService {
 
     @Transactional
     public List<Armario> listarArmariosPorCondominio(Long condominioId) {
-        if (!condominioRepository.existsById(condominioId)) {
+        if (cacheReferencia.condominio(condominioId, condominioRepository::findById).isEmpty()) {
             throw new ResourceNotFoundException("Condomínio", "id", condominioId);
         }
         return armarioRepository.findByCondominioId(condominioId);
@@ -76,8 +86,8 @@ public class ArmarioService {
             Long condominioId = armario.getCondominio() != null && armario.getCondominio().getId() != null ?
                     armario.getCondominio().getId() : armarioExistente.getCondominio().getId();
 
-            Optional<Armario> armarioComMesmaIdentificacao = armarioRepository
-                    .findByIdentificacaoAndCondominioId(armario.getIdentificacao(), condominioId);
+            Optional<Armario> armarioComMesmaIdentificacao = cacheReferencia.armarioPorIdentificacao(
+                    armario.getIdentificacao(), condominioId, armarioRepository::findByIdentificacaoAndCondominioId);
 
             if (armarioComMesmaIdentificacao.isPresent() && !armarioComMesmaIdentificacao.get().getId().equals(id)) {
                 throw new ResourceAlreadyExistsException("Armário", "identificação", armario.getIdentificacao());
@@ -87,9 +97,10 @@ public class ArmarioService {
 
         // Atualiza o condomínio se fornecido
         if (armario.getCondominio() != null && armario.getCondominio().getId() != null) {
-            Condominio condominio = condominioRepository.findById(armario.getCondominio().getId())
+            Condominio condominio = cacheReferencia.condominio(armario.getCondominio().getId(), condominioRepository::findById)
                     .orElseThrow(() -> new ResourceNotFoundException("Condomínio", "id", armario.getCondominio().getId()));
             armarioExistente.setCondominio(condominio);
+            TransacaoUtils.executarAposCommit(() -> contadoresCondominio.armarioRegistrado(id, condominio.getId()));
         }
 
         if (armario.getLocalizacao() != null) {
@@ -104,6 +115,7 @@ public class ArmarioService {
             armarioExistente.setAtivo(armario.getAtivo());
         }
 
+        cacheReferencia.invalidarArmario(id);
         return armarioRepository.save(armarioExistente);
     }
 
@@ -117,5 +129,7 @@ public class ArmarioService {
         }
 
         armarioRepository.deleteById(id);
+        cacheReferencia.invalidarArmario(id);
+        TransacaoUtils.executarAposCommit(() -> contadoresCondominio.armarioRemovido(id));
     }
 }
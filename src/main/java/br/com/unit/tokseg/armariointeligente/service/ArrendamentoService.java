@@ -0,0 +1,68 @@
+package br.com.unit.tokseg.armariointeligente.service;
+
+import br.com.unit.tokseg.armariointeligente.repository.ArrendamentoRepository;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Eleição de líder pelo banco: cada tarefa agendada que não pode rodar em paralelo entre instâncias
+// tem uma linha em "arrendamentos". A instância que renova a linha antes de ela expirar continua
+// dona; se cair, outra assume depois da expiração. A duração deve ser maior que o intervalo da tarefa.
+@Service
+public class ArrendamentoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArrendamentoService.class);
+
+    private final ArrendamentoRepository arrendamentoRepository;
+
+    // Sem a propriedade, cada processo se identifica por um UUID novo
+    private final String instancia;
+
+    private final Clock relogio;
+
+    private final Set<String> detidos = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public ArrendamentoService(ArrendamentoRepository arrendamentoRepository,
+                               @Value("${arrendamento.instancia:#{T(java.util.UUID).randomUUID().toString()}}") String instancia) {
+        this(arrendamentoRepository, instancia, Clock.systemDefaultZone());
+    }
+
+    ArrendamentoService(ArrendamentoRepository arrendamentoRepository, String instancia, Clock relogio) {
+        this.arrendamentoRepository = arrendamentoRepository;
+        this.instancia = instancia;
+        this.relogio = relogio;
+    }
+
+    // Renova ou toma o arrendamento; false quando outra instância o detém. Uma falha ao criar a linha
+    // (outra instância criou ao mesmo tempo) chega ao chamador como exceção no commit.
+    @Transactional
+    public boolean adquirir(String nome, Duration duracao) {
+        LocalDateTime agora = LocalDateTime.now(relogio);
+        boolean adquirido = arrendamentoRepository.renovar(nome, instancia, agora.plus(duracao), agora) > 0
+                || (!arrendamentoRepository.existsById(nome)
+                        && arrendamentoRepository.criar(nome, instancia, agora.plus(duracao)) > 0);
+        if (adquirido && detidos.add(nome)) {
+            logger.info("Arrendamento '{}' adquirido pela instância {}", nome, instancia);
+        } else if (!adquirido) {
+            detidos.remove(nome);
+        }
+        return adquirido;
+    }
+
+    // Devolve o arrendamento antes da expiração, para outra instância assumir de imediato (no desligamento)
+    @Transactional
+    public void liberar(String nome) {
+        detidos.remove(nome);
+        arrendamentoRepository.liberar(nome, instancia);
+    }
+}
@@ -0,0 +1,39 @@
+package br.com.unit.tokseg.armariointeligente.service;
+
+import br.com.unit.tokseg.armariointeligente.model.RastreioEntrega;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+// Consultas recentes por código de rastreio, consultado repetidamente pelos aplicativos dos moradores.
+// Toda mudança de status invalida a entrada após o commit; a expiração por tempo cobre as mudanças
+// feitas por outras instâncias. Só entregas encontradas são guardadas, e como RastreioEntrega imutável:
+// o mesmo valor é devolvido a várias requisições, então não pode ser uma entidade de alguma sessão.
+@Service
+public class CacheRastreio {
+
+    private final Cache<String, RastreioEntrega> entregas;
+
+    public CacheRastreio(@Value("${entregas.rastreio.cache.tamanho-maximo:10000}") long tamanhoMaximo,
+                         @Value("${entregas.rastreio.cache.expiracao:PT30S}") Duration expiracao) {
+        this.entregas = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(expiracao)
+                .build();
+    }
+
+    // A consulta roda dentro do carregamento atômico da chave: uma invalidação que chegue durante a
+    // leitura espera o fim do carregamento e remove o valor antigo, em vez de ser sobrescrita por ele
+    public Optional<RastreioEntrega> buscar(String codigoRastreio, Function<String, Optional<RastreioEntrega>> consulta) {
+        return Optional.ofNullable(entregas.get(codigoRastreio, codigo -> consulta.apply(codigo).orElse(null)));
+    }
+
+    public void invalidar(String codigoRastreio) {
+        entregas.invalidate(codigoRastreio);
+    }
+}
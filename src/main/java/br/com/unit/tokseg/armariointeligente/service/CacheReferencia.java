@@ -0,0 +1,197 @@
+package br.com.unit.tokseg.armariointeligente.service;
+
+import br.com.unit.tokseg.armariointeligente.model.Armario;
+import br.com.unit.tokseg.armariointeligente.model.Compartimento;
+import br.com.unit.tokseg.armariointeligente.model.Condominio;
+import br.com.unit.tokseg.armariointeligente.model.TipoUsuario;
+import br.com.unit.tokseg.armariointeligente.util.TransacaoUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+// Dados de referência (condomínios, armários, tipos de usuário) relidos a cada escrita que os cita, por id
+// e pela chave natural. Só o que foi encontrado é guardado, então um cadastro novo nunca esbarra em uma
+// ausência antiga. O cache guarda uma cópia desligada da sessão (só os campos simples e, no armário, o
+// condomínio) e entrega uma cópia nova a cada acesso: a entidade gerenciada de quem consultou não é
+// compartilhada, e alterar o que foi devolvido não altera o cache. Os serviços invalidam as entradas ao
+// alterar ou excluir; a expiração por tempo cobre as alterações feitas por outras instâncias. Do
+// compartimento só se guarda o id pelo número: ocupação e código de acesso mudam o tempo todo.
+// Taxa de acerto em /actuator/metrics/cache.gets (tag cache=referencia.*).
+@Service
+public class CacheReferencia {
+
+    private final Referencias<Condominio> condominios;
+    private final Referencias<Armario> armarios;
+    private final Referencias<TipoUsuario> tiposUsuario;
+    private final Referencias<Long> compartimentos;
+
+    public CacheReferencia(@Value("${referencia.cache.tamanho-maximo:10000}") long tamanhoMaximo,
+                           @Value("${referencia.cache.expiracao:PT10M}") Duration expiracao,
+                           MeterRegistry meterRegistry) {
+        this.condominios = new Referencias<>("condominios", Condominio::getId, CacheReferencia::copiar,
+                tamanhoMaximo, expiracao, meterRegistry);
+        this.armarios = new Referencias<>("armarios", Armario::getId, CacheReferencia::copiar,
+                tamanhoMaximo, expiracao, meterRegistry);
+        this.tiposUsuario = new Referencias<>("tipos-usuario", TipoUsuario::getId, CacheReferencia::copiar,
+                tamanhoMaximo, expiracao, meterRegistry);
+        // Long é imutável: não precisa de cópia
+        this.compartimentos = new Referencias<>("compartimentos", Function.identity(), UnaryOperator.identity(),
+                tamanhoMaximo, expiracao, meterRegistry);
+    }
+
+    public Optional<Condominio> condominio(Long id, Function<Long, Optional<Condominio>> consulta) {
+        return condominios.buscar(id, consulta);
+    }
+
+    public Optional<Condominio> condominioPorNome(String nome, Function<String, Optional<Condominio>> consulta) {
+        return condominios.buscarPorChave(nome, chave -> consulta.apply((String) chave));
+    }
+
+    public Optional<Armario> armario(Long id, Function<Long, Optional<Armario>> consulta) {
+        return armarios.buscar(id, consulta);
+    }
+
+    public Optional<Armario> armarioPorIdentificacao(String identificacao, Long condominioId,
+                                                     BiFunction<String, Long, Optional<Armario>> consulta) {
+        return armarios.buscarPorChave(new ChaveArmario(identificacao, condominioId),
+                chave -> consulta.apply(identificacao, condominioId));
+    }
+
+    public Optional<TipoUsuario> tipoUsuario(Long id, Function<Long, Optional<TipoUsuario>> consulta) {
+        return tiposUsuario.buscar(id, consulta);
+    }
+
+    public Optional<TipoUsuario> tipoUsuarioPorNome(String nome, Function<String, Optional<TipoUsuario>> consulta) {
+        return tiposUsuario.buscarPorChave(nome, chave -> consulta.apply((String) chave));
+    }
+
+    // Id do compartimento com o número no armário
+    public Optional<Long> compartimentoPorNumero(String numero, Long armarioId,
+                                                 BiFunction<String, Long, Optional<Compartimento>> consulta) {
+        return compartimentos.buscarPorChave(new ChaveCompartimento(numero, armarioId),
+                chave -> consulta.apply(numero, armarioId).map(Compartimento::getId));
+    }
+
+    // Os armários guardam uma cópia do condomínio, então os dele saem também
+    public void invalidarCondominio(Long id) {
+        invalidarAgoraEAposCommit(() -> {
+            condominios.invalidar(id);
+            armarios.invalidarSe(armario -> armario.getCondominio() != null && id.equals(armario.getCondominio().getId()));
+        });
+    }
+
+    public void invalidarArmario(Long id) {
+        invalidarAgoraEAposCommit(() -> armarios.invalidar(id));
+    }
+
+    public void invalidarTipoUsuario(Long id) {
+        invalidarAgoraEAposCommit(() -> tiposUsuario.invalidar(id));
+    }
+
+    public void invalidarCompartimento(Long id) {
+        invalidarAgoraEAposCommit(() -> compartimentos.invalidar(id));
+    }
+
+    // Remove agora e novamente após o commit, evitando que uma leitura concorrente recoloque o estado antigo
+    private static void invalidarAgoraEAposCommit(Runnable invalidacao) {
+        invalidacao.run();
+        TransacaoUtils.executarAposCommit(invalidacao);
+    }
+
+    private static Condominio copiar(Condominio condominio) {
+        Condominio copia = new Condominio();
+        copia.setId(condominio.getId());
+        copia.setNome(condominio.getNome());
+        copia.setEndereco(condominio.getEndereco());
+        copia.setCep(condominio.getCep());
+        copia.setCidade(condominio.getCidade());
+        copia.setEstado(condominio.getEstado());
+        copia.setTelefone(condominio.getTelefone());
+        copia.setEmail(condominio.getEmail());
+        copia.setDiasRetencao(condominio.getDiasRetencao());
+        return copia;
+    }
+
+    private static Armario copiar(Armario armario) {
+        Armario copia = new Armario();
+        copia.setId(armario.getId());
+        copia.setIdentificacao(armario.getIdentificacao());
+        copia.setLocalizacao(armario.getLocalizacao());
+        copia.setDescricao(armario.getDescricao());
+        copia.setAtivo(armario.getAtivo());
+        copia.setCondominio(armario.getCondominio() != null ? copiar(armario.getCondominio()) : null);
+        return copia;
+    }
+
+    private static TipoUsuario copiar(TipoUsuario tipoUsuario) {
+        TipoUsuario copia = new TipoUsuario();
+        copia.setId(tipoUsuario.getId());
+        copia.setNome(tipoUsuario.getNome());
+        copia.setDescricao(tipoUsuario.getDescricao());
+        return copia;
+    }
+
+    private record ChaveArmario(String identificacao, Long condominioId) {
+    }
+
+    private record ChaveCompartimento(String numero, Long armarioId) {
+    }
+
+    // Um cache por id e outro pela chave natural, invalidados juntos pelo id. Copia ao guardar e ao devolver.
+    private static final class Referencias<V> {
+
+        private final Function<V, Long> idDe;
+        private final UnaryOperator<V> copiar;
+        private final Cache<Long, V> porId;
+        private final Cache<Object, V> porChave;
+
+        Referencias(String nome, Function<V, Long> idDe, UnaryOperator<V> copiar, long tamanhoMaximo,
+                    Duration expiracao, MeterRegistry meterRegistry) {
+            this.idDe = idDe;
+            this.copiar = copiar;
+            this.porId = Caffeine.newBuilder()
+                    .maximumSize(tamanhoMaximo)
+                    .expireAfterWrite(expiracao)
+                    .recordStats()
+                    .build();
+            this.porChave = Caffeine.newBuilder()
+                    .maximumSize(tamanhoMaximo)
+                    .expireAfterWrite(expiracao)
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, porId, "referencia." + nome);
+            CaffeineCacheMetrics.monitor(meterRegistry, porChave, "referencia." + nome + ".chave");
+        }
+
+        Optional<V> buscar(Long id, Function<Long, Optional<V>> consulta) {
+            if (id == null) {
+                return Optional.empty();
+            }
+            return Optional.ofNullable(porId.get(id, chave -> consulta.apply(chave).map(copiar).orElse(null))).map(copiar);
+        }
+
+        Optional<V> buscarPorChave(Object chave, Function<Object, Optional<V>> consulta) {
+            return Optional.ofNullable(porChave.get(chave, c -> consulta.apply(c).map(copiar).orElse(null))).map(copiar);
+        }
+
+        void invalidar(Long id) {
+            porId.invalidate(id);
+            porChave.asMap().values().removeIf(valor -> id.equals(idDe.apply(valor)));
+        }
+
+        void invalidarSe(Predicate<V> condicao) {
+            porId.asMap().values().removeIf(condicao);
+            porChave.asMap().values().removeIf(condicao);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package br.com.unit.tokseg.armariointeligente.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+// Aplica as janelas das reservas: em dataInicio a reserva passa a ATIVA e ocupa o compartimento,
+// em dataFim passa a CONCLUIDA e o libera; ocorrências de reservas recorrentes em andamento viram
+// reservas ATIVA. As mudanças são feitas em lotes (um UPDATE por tabela por lote), e só a instância
+// que detém o arrendamento "ciclo-reservas" executa o ciclo.
+@Service
+public class CicloReservas {
+
+    private static final Logger logger = LoggerFactory.getLogger(CicloReservas.class);
+
+    static final String ARRENDAMENTO = "ciclo-reservas";
+
+    @Autowired
+    private ReservaService reservaService;
+
+    @Autowired
+    private ArrendamentoService arrendamentoService;
+
+    @Autowired
+    private ReservaRecorrenteService reservaRecorrenteService;
+
+    @Value("${reservas.ciclo.tamanho-lote:500}")
+    private int tamanhoLote;
+
+    @Value("${reservas.ciclo.arrendamento:PT3M}")
+    private Duration duracaoArrendamento;
+
+    @Scheduled(fixedDelayString = "${reservas.ciclo.intervalo:PT1M}")
+    public void processar() {
+        if (!lider()) {
+            return;
+        }
+        LocalDateTime agora = LocalDateTime.now();
+        Totais totais = new Totais();
+        // Cada fase tem o seu tratamento de falha: um lote desfeito não impede as demais fases.
+        // Encerrar antes de iniciar: uma reserva que começa quando a anterior termina encontra o compartimento livre
+        fase("encerramento", () -> encerrar(agora, totais));
+        fase("materialização de recorrentes", () -> totais.iniciadas += reservaRecorrenteService.materializar(agora));
+        fase("início", () -> iniciar(agora, totais));
+        if (totais.encerradas > 0 || totais.iniciadas > 0 || totais.adiadas > 0) {
+            logger.info("Ciclo de reservas: {} iniciadas, {} encerradas, {} aguardando compartimento ocupado",
+                    totais.iniciadas, totais.encerradas, totais.adiadas);
+        }
+    }
+
+    // Devolve o arrendamento ao parar, para outra instância assumir sem esperar a expiração
+    @PreDestroy
+    public void liberarArrendamento() {
+        try {
+            arrendamentoService.liberar(ARRENDAMENTO);
+        } catch (Exception e) {
+            logger.debug("Arrendamento '{}' não liberado: {}", ARRENDAMENTO, e.getMessage());
+        }
+    }
+
+    private void encerrar(LocalDateTime agora, Totais totais) {
+        ReservaService.LoteReservas lote;
+        do {
+            lote = reservaService.encerrarReservas(agora, tamanhoLote);
+            totais.encerradas += lote.alteradas();
+        } while (lote.lidas() == tamanhoLote);
+    }
+
+    private void iniciar(LocalDateTime agora, Totais totais) {
+        Long depoisDe = 0L;
+        ReservaService.LoteReservas lote;
+        do {
+            lote = reservaService.iniciarReservas(agora, depoisDe, tamanhoLote);
+            totais.iniciadas += lote.alteradas();
+            totais.adiadas += lote.adiadas();
+            depoisDe = lote.ultimoId();
+        } while (lote.lidas() == tamanhoLote);
+    }
+
+    private void fase(String nome, Runnable execucao) {
+        try {
+            execucao.run();
+        } catch (Exception e) {
+            // O lote com falha foi desfeito e volta no próximo ciclo; os anteriores ficam
+            logger.warn("Falha no ciclo de reservas ({}): {}", nome, e.getMessage());
+        }
+    }
+
+    private boolean lider() {
+        try {
+            return arrendamentoService.adquirir(ARRENDAMENTO, duracaoArrendamento);
+        } catch (Exception e) {
+            // Outra instância criou o arrendamento ao mesmo tempo
+            logger.debug("Arrendamento '{}' não adquirido: {}", ARRENDAMENTO, e.getMessage());
+            return false;
+        }
+    }
+
+    // Contagens de um ciclo, somadas lote a lote
+    private static final class Totais {
+        int encerradas;
+        int iniciadas;
+        int adiadas;
+    }
+}
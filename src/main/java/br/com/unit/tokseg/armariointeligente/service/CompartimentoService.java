@@ -8,13 +8,14 @@ import br.com.unit.tokseg.armariointeligente.model.Armario;
 import br.com.unit.tokseg.armariointeligente.model.Compartimento;
 import br.com.unit.tokseg.armariointeligente.repository.ArmarioRepository;
 import br.com.unit.tokseg.armariointeligente.repository.CompartimentoRepository;
+import br.com.unit.tokseg.armariointeligente.util.TransacaoUtils;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.Random;
 
 @Service
 public class CompartimentoService {
@@ -25,6 +26,18 @@ public class CompartimentoService {
     @Autowired
     private ArmarioRepository armarioRepository;
 
+    @Autowired
+    private AlocacaoCompartimentoService alocacaoCompartimentoService;
+
+    @Autowired
+    private IndiceCodigosAcesso indiceCodigosAcesso;
+
+    @Autowired
+    private AlocadorCodigosAcesso alocadorCodigosAcesso;
+
+    @Autowired
+    private CacheReferencia cacheReferencia;
+
     @Transactional
     public Compartimento criarCompartimento(Compartimento compartimento) {
         if (compartimento == null) {
@@ -37,21 +50,26 @@ public class CompartimentoService {
             throw new BadRequestException("Armário é obrigatório");
         }
 
-        Armario armario = armarioRepository.findById(compartimento.getArmario().getId())
+        Armario armario = cacheReferencia.armario(compartimento.getArmario().getId(), armarioRepository::findById)
                 .orElseThrow(() -> new ResourceNotFoundException("Armário", "id", compartimento.getArmario().getId()));
 
-        compartimentoRepository.findByNumeroAndArmarioId(compartimento.getNumero(), armario.getId())
+        cacheReferencia.compartimentoPorNumero(compartimento.getNumero(), armario.getId(),
+                        compartimentoRepository::findByNumeroAndArmarioId)
                 .ifPresent(c -> {
                     throw new ResourceAlreadyExistsException("Compartimento", "número", compartimento.getNumero());
                 });
 
         // Gerar código de acesso aleatório se não for fornecido
         if (compartimento.getCodigoAcesso() == null || compartimento.getCodigoAcesso().isEmpty()) {
-            compartimento.setCodigoAcesso(gerarCodigoAcesso());
+            compartimento.setCodigoAcesso(gerarCodigoAcesso(armario.getId()));
+        } else {
+            reservarCodigoAcesso(armario.getId(), compartimento.getCodigoAcesso());
         }
 
         compartimento.setArmario(armario);
-        return compartimentoRepository.save(compartimento);
+        Compartimento salvo = compartimentoRepository.save(compartimento);
+        atualizarIndice(salvo);
+        return salvo;
     }
 
     @Transactional
@@ -61,7 +79,7 @@ public class CompartimentoService {
 
     @Transactional
     public List<Compartimento> listarCompartimentosPorArmario(Long armarioId) {
-        if (!armarioRepository.existsById(armarioId)) {
+        if (cacheReferencia.armario(armarioId, armarioRepository::findById).isEmpty()) {
             throw new ResourceNotFoundException("Armário", "id", armarioId);
         }
         return compartimentoRepository.findByArmarioId(armarioId);
@@ -87,18 +105,21 @@ public class CompartimentoService {
             Long armarioId = compartimento.getArmario() != null && compartimento.getArmario().getId() != null ?
                     compartimento.getArmario().getId() : compartimentoExistente.getArmario().getId();
 
-            Optional<Compartimento> compartimentoComMesmoNumero = compartimentoRepository
-                    .findByNumeroAndArmarioId(compartimento.getNumero(), armarioId);
+            Optional<Long> compartimentoComMesmoNumero = cacheReferencia.compartimentoPorNumero(
+                    compartimento.getNumero(), armarioId, compartimentoRepository::findByNumeroAndArmarioId);
 
-            if (compartimentoComMesmoNumero.isPresent() && !compartimentoComMesmoNumero.get().getId().equals(id)) {
+            if (compartimentoComMesmoNumero.isPresent() && !compartimentoComMesmoNumero.get().equals(id)) {
                 throw new ResourceAlreadyExistsException("Compartimento", "número", compartimento.getNumero());
             }
             compartimentoExistente.setNumero(compartimento.getNumero());
         }
 
+        Long armarioAnteriorId = compartimentoExistente.getArmario().getId();
+        String codigoAnterior = compartimentoExistente.getCodigoAcesso();
+
         // Atualiza o armário se fornecido
         if (compartimento.getArmario() != null && compartimento.getArmario().getId() != null) {
-            Armario armario = armarioRepository.findById(compartimento.getArmario().getId())
+            Armario armario = cacheReferencia.armario(compartimento.getArmario().getId(), armarioRepository::findById)
                     .orElseThrow(() -> new ResourceNotFoundException("Armário", "id", compartimento.getArmario().getId()));
             compartimentoExistente.setArmario(armario);
         }
@@ -115,7 +136,22 @@ public class CompartimentoService {
             compartimentoExistente.setCodigoAcesso(compartimento.getCodigoAcesso());
         }
 
-        return compartimentoRepository.save(compartimentoExistente);
+        // Troca de código ou de armário: o novo par é reservado agora e o anterior só é liberado no commit
+        Long armarioId = compartimentoExistente.getArmario().getId();
+        String codigoAcesso = compartimentoExistente.getCodigoAcesso();
+        if (!armarioId.equals(armarioAnteriorId) || !Objects.equals(codigoAcesso, codigoAnterior)) {
+            if (codigoAcesso == null) {
+                compartimentoExistente.setCodigoAcesso(gerarCodigoAcesso(armarioId));
+            } else {
+                reservarCodigoAcesso(armarioId, codigoAcesso);
+            }
+            TransacaoUtils.executarAposCommit(() -> alocadorCodigosAcesso.liberar(armarioAnteriorId, codigoAnterior));
+        }
+
+        cacheReferencia.invalidarCompartimento(id);
+        Compartimento salvo = compartimentoRepository.save(compartimentoExistente);
+        atualizarIndice(salvo);
+        return salvo;
     }
 
     @Transactional
@@ -127,7 +163,26 @@ public class CompartimentoService {
             throw new RelatedResourceException("compartimento", "entregas");
         }
 
+        Long armarioId = compartimento.getArmario().getId();
+        String codigoAcesso = compartimento.getCodigoAcesso();
         compartimentoRepository.deleteById(id);
+        cacheReferencia.invalidarCompartimento(id);
+        TransacaoUtils.executarAposCommit(() -> {
+            alocacaoCompartimentoService.remover(id);
+            alocadorCodigosAcesso.liberar(armarioId, codigoAcesso);
+        });
+    }
+
+    // Uma única instrução decide a disputa: sem leitura prévia, dois pedidos simultâneos não ocupam o mesmo compartimento
+    @Transactional
+    public void ocupar(Long id) {
+        if (compartimentoRepository.ocuparSeLivre(id) == 0) {
+            if (!compartimentoRepository.existsById(id)) {
+                throw new ResourceNotFoundException("Compartimento", "id", id);
+            }
+            throw new BadRequestException("O compartimento selecionado já está ocupado");
+        }
+        TransacaoUtils.executarAposCommit(() -> alocacaoCompartimentoService.atualizarOcupacao(id, true));
     }
 
     @Transactional
@@ -136,6 +191,7 @@ public class CompartimentoService {
                 .orElseThrow(() -> new ResourceNotFoundException("Compartimento", "id", id));
 
         compartimento.setOcupado(ocupado);
+        TransacaoUtils.executarAposCommit(() -> alocacaoCompartimentoService.atualizarOcupacao(id, ocupado));
         return compartimentoRepository.save(compartimento);
     }
 
@@ -144,13 +200,42 @@ public class CompartimentoService {
         Compartimento compartimento = compartimentoRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Compartimento", "id", id));
 
-        compartimento.setCodigoAcesso(gerarCodigoAcesso());
-        return compartimentoRepository.save(compartimento);
+        // O código antigo continua reservado até o commit, para não ser sorteado de novo antes disso
+        Long armarioId = compartimento.getArmario().getId();
+        String codigoAnterior = compartimento.getCodigoAcesso();
+        compartimento.setCodigoAcesso(gerarCodigoAcesso(armarioId));
+        TransacaoUtils.executarAposCommit(() -> alocadorCodigosAcesso.liberar(armarioId, codigoAnterior));
+        Compartimento salvo = compartimentoRepository.save(compartimento);
+        atualizarIndice(salvo);
+        return salvo;
+    }
+
+    // Os índices de livres e de códigos ativos só enxergam o novo estado depois do commit
+    private void atualizarIndice(Compartimento compartimento) {
+        Long id = compartimento.getId();
+        Long armarioId = compartimento.getArmario().getId();
+        String numero = compartimento.getNumero();
+        String tamanho = compartimento.getTamanho();
+        boolean ocupado = Boolean.TRUE.equals(compartimento.getOcupado());
+        String codigoAcesso = compartimento.getCodigoAcesso();
+        TransacaoUtils.executarAposCommit(() -> {
+            alocacaoCompartimentoService.registrar(id, armarioId, numero, tamanho, ocupado);
+            indiceCodigosAcesso.atualizar(id, armarioId, codigoAcesso);
+        });
     }
 
-    private String gerarCodigoAcesso() {
-        Random random = new Random();
-        int codigo = 100000 + random.nextInt(900000); // Gera um número de 6 dígitos
-        return String.valueOf(codigo);
+    // Código único no armário; se a transação for desfeita, volta a ficar livre
+    private String gerarCodigoAcesso(Long armarioId) {
+        String codigo = alocadorCodigosAcesso.alocar(armarioId);
+        TransacaoUtils.executarAposRollback(() -> alocadorCodigosAcesso.liberar(armarioId, codigo));
+        return codigo;
+    }
+
+    private void reservarCodigoAcesso(Long armarioId, String codigo) {
+        AlocadorCodigosAcesso.validar(codigo);
+        if (!alocadorCodigosAcesso.reservar(armarioId, codigo)) {
+            throw new ResourceAlreadyExistsException("Compartimento", "código de acesso", codigo);
+        }
+        TransacaoUtils.executarAposRollback(() -> alocadorCodigosAcesso.liberar(armarioId, codigo));
     }
 }
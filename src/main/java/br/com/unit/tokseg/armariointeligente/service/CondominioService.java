@@ -5,12 +5,18 @@ import br.com.unit.tokseg.armariointeligente.exception.RelatedResourceException;
 import br.com.unit.tokseg.armariointeligente.exception.ResourceAlreadyExistsException;
 import br.com.unit.tokseg.armariointeligente.exception.ResourceNotFoundException;
 import br.com.unit.tokseg.armariointeligente.model.Condominio;
+import br.com.unit.tokseg.armariointeligente.model.ResumoCondominio;
+import br.com.unit.tokseg.armariointeligente.model.StatusEntrega;
+import br.com.unit.tokseg.armariointeligente.model.StatusReserva;
 import br.com.unit.tokseg.armariointeligente.repository.CondominioRepository;
+import br.com.unit.tokseg.armariointeligente.util.TransacaoUtils;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -19,6 +25,15 @@ public class CondominioService {
     @Autowired
     private CondominioRepository condominioRepository;
 
+    @Autowired
+    private AgendaExpiracaoEntregas agendaExpiracaoEntregas;
+
+    @Autowired
+    private ContadoresCondominio contadoresCondominio;
+
+    @Autowired
+    private CacheReferencia cacheReferencia;
+
     @Transactional
     public Condominio criarCondominio(Condominio condominio) {
         if (condominio == null) {
@@ -30,8 +45,9 @@ public class CondominioService {
         if (condominio.getEndereco() == null || condominio.getEndereco().isEmpty()) {
             throw new BadRequestException("Endereço do condomínio não pode ser nulo ou vazio");
         }
+        validarDiasRetencao(condominio.getDiasRetencao());
 
-        condominioRepository.findByNome(condominio.getNome()).ifPresent(c -> {
+        cacheReferencia.condominioPorNome(condominio.getNome(), condominioRepository::findByNome).ifPresent(c -> {
             throw new ResourceAlreadyExistsException("Condomínio", "nome", condominio.getNome());
         });
 
@@ -55,7 +71,8 @@ public class CondominioService {
 
         // Verifica se o novo nome já existe para outro condomínio
         if (condominio.getNome() != null && !condominio.getNome().isEmpty()) {
-            Optional<Condominio> condominioComMesmoNome = condominioRepository.findByNome(condominio.getNome());
+            Optional<Condominio> condominioComMesmoNome =
+                    cacheReferencia.condominioPorNome(condominio.getNome(), condominioRepository::findByNome);
             if (condominioComMesmoNome.isPresent() && !condominioComMesmoNome.get().getId().equals(id)) {
                 throw new ResourceAlreadyExistsException("Condomínio", "nome", condominio.getNome());
             }
@@ -86,8 +103,18 @@ public class CondominioService {
             condominioExistente.setEmail(condominio.getEmail());
         }
 
+        if (condominio.getDiasRetencao() != null) {
+            validarDiasRetencao(condominio.getDiasRetencao());
+            if (!condominio.getDiasRetencao().equals(condominioExistente.getDiasRetencao())) {
+                condominioExistente.setDiasRetencao(condominio.getDiasRetencao());
+                // Os prazos das entregas aguardando retirada passam a usar a nova retenção
+                TransacaoUtils.executarAposCommit(() -> agendaExpiracaoEntregas.reagendarCondominio(id));
+            }
+        }
+
         // Removida a referência ao atributo responsavel que não existe mais no modelo
 
+        cacheReferencia.invalidarCondominio(id);
         return condominioRepository.save(condominioExistente);
     }
 
@@ -101,5 +128,31 @@ public class CondominioService {
         }
 
         condominioRepository.deleteById(id);
+        cacheReferencia.invalidarCondominio(id);
+        TransacaoUtils.executarAposCommit(() -> contadoresCondominio.condominioRemovido(id));
+    }
+
+    // Respondido pelos contadores em memória; o banco só é consultado para um condomínio sem armários
+    public ResumoCondominio obterResumo(Long id) {
+        return contadoresCondominio.resumo(id).orElseGet(() -> {
+            if (!condominioRepository.existsById(id)) {
+                throw new ResourceNotFoundException("Condomínio", "id", id);
+            }
+            return new ResumoCondominio(id, 0, 0, zerados(StatusEntrega.class), zerados(StatusReserva.class));
+        });
+    }
+
+    private static <E extends Enum<E>> Map<E, Long> zerados(Class<E> tipo) {
+        Map<E, Long> contagens = new EnumMap<>(tipo);
+        for (E status : tipo.getEnumConstants()) {
+            contagens.put(status, 0L);
+        }
+        return contagens;
+    }
+
+    private void validarDiasRetencao(Integer diasRetencao) {
+        if (diasRetencao != null && diasRetencao < 1) {
+            throw new BadRequestException("Dias de retenção deve ser maior que zero");
+        }
     }
 }
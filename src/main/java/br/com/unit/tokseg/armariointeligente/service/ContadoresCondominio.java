@@ -0,0 +1,275 @@
+package br.com.unit.tokseg.armariointeligente.service;
+
+import br.com.unit.tokseg.armariointeligente.model.ResumoCondominio;
+import br.com.unit.tokseg.armariointeligente.model.StatusEntrega;
+import br.com.unit.tokseg.armariointeligente.model.StatusReserva;
+import br.com.unit.tokseg.armariointeligente.repository.ArmarioRepository;
+import br.com.unit.tokseg.armariointeligente.repository.CompartimentoRepository;
+import br.com.unit.tokseg.armariointeligente.repository.EntregaRepository;
+import br.com.unit.tokseg.armariointeligente.repository.ReservaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+// Contadores por armário e por condomínio: compartimentos livres/ocupados, entregas por StatusEntrega
+// e reservas por StatusReserva. Os serviços aplicam cada mudança de estado depois do commit e o resumo
+// é respondido da memória. Uma reconciliação periódica recalcula tudo no banco (consultas agrupadas) e
+// corrige desvios, como mudanças feitas por outras instâncias. As mudanças aplicadas enquanto ela
+// recalcula são registradas e repetidas no estado novo na troca, para não se perderem até a seguinte.
+@Service
+public class ContadoresCondominio {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContadoresCondominio.class);
+
+    @Autowired
+    private ArmarioRepository armarioRepository;
+
+    @Autowired
+    private CompartimentoRepository compartimentoRepository;
+
+    @Autowired
+    private EntregaRepository entregaRepository;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    // Substituído inteiro a cada reconciliação
+    private volatile Estado estado = new Estado();
+
+    // Mudanças aplicam sob a leitura; o início da reconciliação e a troca do estado, sob a escrita
+    private final ReadWriteLock trava = new ReentrantReadWriteLock();
+
+    // Não nula enquanto uma reconciliação recalcula o estado novo
+    private volatile Reconstrucao reconstrucao;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        reconciliar();
+    }
+
+    @Scheduled(fixedDelayString = "${contadores.intervalo-reconciliacao:PT10M}")
+    public synchronized void reconciliar() {
+        Reconstrucao atual = new Reconstrucao();
+        comTravaDeEscrita(() -> reconstrucao = atual);
+        try {
+            Estado novo = new Estado();
+            for (ArmarioRepository.CondominioArmario armario : armarioRepository.findCondominiosDosArmarios()) {
+                novo.registrarArmario(armario.getArmarioId(), armario.getCondominioId());
+            }
+            for (CompartimentoRepository.EstadoCompartimento compartimento : compartimentoRepository.findEstados()) {
+                novo.atualizarCompartimento(compartimento.getId(), compartimento.getArmarioId(),
+                        Boolean.TRUE.equals(compartimento.getOcupado()));
+            }
+            // As variações de entregas e reservas só são registradas a partir da consulta de cada uma:
+            // as anteriores já estão no que a consulta devolve e contariam duas vezes
+            atual.entregas = true;
+            for (EntregaRepository.ContagemEntregas contagem : entregaRepository.contarPorArmarioEStatus()) {
+                long total = contagem.getTotal();
+                novo.aplicar(contagem.getArmarioId(), c -> c.entregas.addAndGet(contagem.getStatus().ordinal(), total));
+            }
+            atual.reservas = true;
+            for (ReservaRepository.ContagemReservas contagem : reservaRepository.contarPorArmarioEStatus()) {
+                long total = contagem.getTotal();
+                novo.aplicar(contagem.getArmarioId(), c -> c.reservas.addAndGet(contagem.getStatus().ordinal(), total));
+            }
+            comTravaDeEscrita(() -> {
+                atual.alteracoes.forEach(alteracao -> alteracao.accept(novo));
+                estado = novo;
+            });
+            logger.info("Contadores reconciliados: {} condomínios, {} armários, {} mudanças durante o recálculo",
+                    novo.porCondominio.size(), novo.porArmario.size(), atual.alteracoes.size());
+        } catch (Exception e) {
+            logger.warn("Falha ao reconciliar contadores: {}", e.getMessage());
+        } finally {
+            comTravaDeEscrita(() -> reconstrucao = null);
+        }
+    }
+
+    public Optional<ResumoCondominio> resumo(Long condominioId) {
+        Contagem contagem = estado.porCondominio.get(condominioId);
+        if (contagem == null) {
+            return Optional.empty();
+        }
+        Map<StatusEntrega, Long> entregas = new EnumMap<>(StatusEntrega.class);
+        for (StatusEntrega status : StatusEntrega.values()) {
+            entregas.put(status, contagem.entregas.get(status.ordinal()));
+        }
+        Map<StatusReserva, Long> reservas = new EnumMap<>(StatusReserva.class);
+        for (StatusReserva status : StatusReserva.values()) {
+            reservas.put(status, contagem.reservas.get(status.ordinal()));
+        }
+        return Optional.of(new ResumoCondominio(condominioId, contagem.livres.get(), contagem.ocupados.get(),
+                entregas, reservas));
+    }
+
+    public void armarioRegistrado(Long armarioId, Long condominioId) {
+        alterar(r -> true, e -> e.registrarArmario(armarioId, condominioId));
+    }
+
+    public void armarioRemovido(Long armarioId) {
+        alterar(r -> true, e -> e.removerArmario(armarioId));
+    }
+
+    public void condominioRemovido(Long condominioId) {
+        alterar(r -> true, e -> e.porCondominio.remove(condominioId));
+    }
+
+    // Idempotente: só a mudança efetiva de estado altera os contadores
+    public void compartimentoAtualizado(Long compartimentoId, Long armarioId, boolean ocupado) {
+        alterar(r -> true, e -> e.atualizarCompartimento(compartimentoId, armarioId, ocupado));
+    }
+
+    public void compartimentoRemovido(Long compartimentoId) {
+        alterar(r -> true, e -> e.removerCompartimento(compartimentoId));
+    }
+
+    // anterior nulo para uma entrega nova
+    public void entregaAlterada(Long armarioId, StatusEntrega anterior, StatusEntrega novo) {
+        alterar(r -> r.entregas, e -> e.aplicar(armarioId, c -> {
+            if (anterior != null) {
+                c.entregas.decrementAndGet(anterior.ordinal());
+            }
+            c.entregas.incrementAndGet(novo.ordinal());
+        }));
+    }
+
+    public void reservaAlterada(Long armarioId, StatusReserva anterior, StatusReserva nova) {
+        alterar(r -> r.reservas, e -> e.aplicar(armarioId, c -> {
+            if (anterior != null) {
+                c.reservas.decrementAndGet(anterior.ordinal());
+            }
+            c.reservas.incrementAndGet(nova.ordinal());
+        }));
+    }
+
+    // Aplica no estado atual e, se houver reconciliação em andamento, registra para repetir no novo
+    private void alterar(Predicate<Reconstrucao> registrar, Consumer<Estado> alteracao) {
+        trava.readLock().lock();
+        try {
+            alteracao.accept(estado);
+            Reconstrucao atual = reconstrucao;
+            if (atual != null && registrar.test(atual)) {
+                atual.alteracoes.add(alteracao);
+            }
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    private void comTravaDeEscrita(Runnable acao) {
+        trava.writeLock().lock();
+        try {
+            acao.run();
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    private static final class Reconstrucao {
+
+        private final Queue<Consumer<Estado>> alteracoes = new ConcurrentLinkedQueue<>();
+        private volatile boolean entregas;
+        private volatile boolean reservas;
+    }
+
+    private static final class Estado {
+
+        private final Map<Long, Contagem> porArmario = new ConcurrentHashMap<>();
+        private final Map<Long, Contagem> porCondominio = new ConcurrentHashMap<>();
+        private final Map<Long, Long> condominioDoArmario = new ConcurrentHashMap<>();
+        private final Map<Long, Ocupacao> compartimentos = new ConcurrentHashMap<>();
+
+        // Aplica no armário e no condomínio dele; um armário ainda sem condomínio conhecido
+        // entra no condomínio na próxima reconciliação
+        void aplicar(Long armarioId, Consumer<Contagem> alteracao) {
+            alteracao.accept(porArmario.computeIfAbsent(armarioId, id -> new Contagem()));
+            Long condominioId = condominioDoArmario.get(armarioId);
+            if (condominioId != null) {
+                alteracao.accept(porCondominio.computeIfAbsent(condominioId, id -> new Contagem()));
+            }
+        }
+
+        // Armário que muda de condomínio leva suas contagens junto
+        synchronized void registrarArmario(Long armarioId, Long condominioId) {
+            Long anterior = condominioDoArmario.put(armarioId, condominioId);
+            porCondominio.computeIfAbsent(condominioId, id -> new Contagem());
+            Contagem doArmario = porArmario.get(armarioId);
+            if (doArmario != null && !condominioId.equals(anterior)) {
+                if (anterior != null) {
+                    porCondominio.computeIfAbsent(anterior, id -> new Contagem()).somar(doArmario, -1);
+                }
+                porCondominio.get(condominioId).somar(doArmario, 1);
+            }
+        }
+
+        synchronized void removerArmario(Long armarioId) {
+            Long condominioId = condominioDoArmario.remove(armarioId);
+            Contagem doArmario = porArmario.remove(armarioId);
+            if (condominioId != null && doArmario != null) {
+                Contagem doCondominio = porCondominio.get(condominioId);
+                if (doCondominio != null) {
+                    doCondominio.somar(doArmario, -1);
+                }
+            }
+        }
+
+        void atualizarCompartimento(Long compartimentoId, Long armarioId, boolean ocupado) {
+            compartimentos.compute(compartimentoId, (id, anterior) -> {
+                if (anterior != null && anterior.armarioId().equals(armarioId) && anterior.ocupado() == ocupado) {
+                    return anterior;
+                }
+                if (anterior != null) {
+                    aplicar(anterior.armarioId(), c -> (anterior.ocupado() ? c.ocupados : c.livres).decrementAndGet());
+                }
+                aplicar(armarioId, c -> (ocupado ? c.ocupados : c.livres).incrementAndGet());
+                return new Ocupacao(armarioId, ocupado);
+            });
+        }
+
+        void removerCompartimento(Long compartimentoId) {
+            compartimentos.computeIfPresent(compartimentoId, (id, anterior) -> {
+                aplicar(anterior.armarioId(), c -> (anterior.ocupado() ? c.ocupados : c.livres).decrementAndGet());
+                return null;
+            });
+        }
+    }
+
+    private record Ocupacao(Long armarioId, boolean ocupado) {
+    }
+
+    private static final class Contagem {
+
+        private final AtomicLong livres = new AtomicLong();
+        private final AtomicLong ocupados = new AtomicLong();
+        private final AtomicLongArray entregas = new AtomicLongArray(StatusEntrega.values().length);
+        private final AtomicLongArray reservas = new AtomicLongArray(StatusReserva.values().length);
+
+        void somar(Contagem outra, int sinal) {
+            livres.addAndGet(sinal * outra.livres.get());
+            ocupados.addAndGet(sinal * outra.ocupados.get());
+            for (int i = 0; i < entregas.length(); i++) {
+                entregas.addAndGet(i, sinal * outra.entregas.get(i));
+            }
+            for (int i = 0; i < reservas.length(); i++) {
+                reservas.addAndGet(i, sinal * outra.reservas.get(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package br.com.unit.tokseg.armariointeligente.service;
+
+import br.com.unit.tokseg.armariointeligente.exception.BadRequestException;
+import br.com.unit.tokseg.armariointeligente.exception.ResourceNotFoundException;
+import br.com.unit.tokseg.armariointeligente.model.CandidatoCompartimento;
+import br.com.unit.tokseg.armariointeligente.repository.ArmarioRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+// Compartimentos de um armário livres para uma janela, respondidos da memória: os compatíveis com o
+// tamanho vêm do índice de alocação e as janelas das reservas, da agenda. O banco é consultado uma vez
+// pelas reservas recorrentes do armário (expandidas só na janela) e para distinguir um armário sem
+// compartimentos de um armário inexistente.
+@Service
+public class DisponibilidadeService {
+
+    // Folgas acima disso (ou sem reserva vizinha) empatam
+    private static final long FOLGA_MAXIMA = (1L << 38) - 1;
+
+    @Autowired
+    private AlocacaoCompartimentoService alocacaoCompartimentoService;
+
+    @Autowired
+    private AgendaReservas agendaReservas;
+
+    @Autowired
+    private ArmarioRepository armarioRepository;
+
+    @Autowired
+    private ReservaRecorrenteService reservaRecorrenteService;
+
+    public List<CandidatoCompartimento> buscar(Long armarioId, String tamanho, LocalDateTime inicio, LocalDateTime fim) {
+        if (inicio == null || fim == null) {
+            throw new BadRequestException("Início e fim da janela são obrigatórios");
+        }
+        if (!inicio.isBefore(fim)) {
+            throw new BadRequestException("Data de início deve ser anterior à data de fim");
+        }
+        String normalizado = AlocacaoCompartimentoService.normalizarTamanho(tamanho);
+        List<AlocacaoCompartimentoService.SituacaoCompartimento> compativeis =
+                alocacaoCompartimentoService.listarCompativeis(armarioId, normalizado);
+        if (compativeis.isEmpty() && !armarioRepository.existsById(armarioId)) {
+            throw new ResourceNotFoundException("Armário", "id", armarioId);
+        }
+
+        Set<Long> emConflito = compativeis.isEmpty() ? Set.of()
+                : reservaRecorrenteService.compartimentosEmConflito(armarioId, inicio, fim);
+        LocalDateTime agora = LocalDateTime.now();
+        List<Ranqueado> candidatos = new ArrayList<>();
+        for (AlocacaoCompartimentoService.SituacaoCompartimento compartimento : compativeis) {
+            // Ocupado agora só serve se for por uma reserva em andamento, que então termina antes da janela
+            // (senão seria conflito); uma entrega não tem hora para sair
+            if (!compartimento.livre() && !agendaReservas.emJanela(compartimento.id(), agora)) {
+                continue;
+            }
+            if (emConflito.contains(compartimento.id())) {
+                continue;
+            }
+            AgendaReservas.Folga folga = agendaReservas.folga(compartimento.id(), inicio, fim);
+            if (folga == null) {
+                continue;
+            }
+            CandidatoCompartimento candidato = new CandidatoCompartimento(compartimento.id(), compartimento.numero(),
+                    compartimento.tamanho(), compartimento.livre(), minutos(folga.antes()), minutos(folga.depois()));
+            candidatos.add(new Ranqueado(chave(candidato), candidato));
+        }
+        // A lista já vem do menor tamanho para o maior e a ordenação é estável
+        candidatos.sort(Comparator.comparingLong(Ranqueado::chave));
+        List<CandidatoCompartimento> ordenados = new ArrayList<>(candidatos.size());
+        for (Ranqueado ranqueado : candidatos) {
+            ordenados.add(ranqueado.candidato());
+        }
+        return ordenados;
+    }
+
+    // Primeiro o menor tamanho que comporta o pacote; depois a janela que mais encosta nas reservas
+    // vizinhas (deixa menos sobras inaproveitáveis na agenda); depois o que já está livre agora.
+    // Tudo num único long, calculado uma vez por candidato: tamanho nos bits altos, folga em minutos
+    // (limitada) no meio e a ocupação atual no bit mais baixo.
+    private static long chave(CandidatoCompartimento candidato) {
+        long antes = candidato.getFolgaAntesMinutos() != null ? candidato.getFolgaAntesMinutos() : FOLGA_MAXIMA;
+        long depois = candidato.getFolgaDepoisMinutos() != null ? candidato.getFolgaDepoisMinutos() : FOLGA_MAXIMA;
+        long folga = Math.min(Math.min(antes, depois), FOLGA_MAXIMA);
+        return ((long) AlocacaoCompartimentoService.indiceTamanho(candidato.getTamanho()) << 40)
+                | (folga << 1)
+                | (candidato.isLivreAgora() ? 0 : 1);
+    }
+
+    private record Ranqueado(long chave, CandidatoCompartimento candidato) {
+    }
+
+    private static Long minutos(Duration duracao) {
+        return duracao != null ? duracao.toMinutes() : null;
+    }
+}
@@ -7,17 +7,41 @@ import br.com.unit.tokseg.armariointeligente.model.*;
 import br.com.unit.tokseg.armariointeligente.repository.CompartimentoRepository;
 import br.com.unit.tokseg.armariointeligente.repository.EntregaRepository;
 import br.com.unit.tokseg.armariointeligente.repository.UsuarioRepository;
+import br.com.unit.tokseg.armariointeligente.util.CursorPaginacao;
+import br.com.unit.tokseg.armariointeligente.util.TransacaoUtils;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class EntregaService {
 
+    // Limites usados quando a listagem não informa período
+    private static final LocalDateTime DATA_MINIMA = LocalDateTime.of(1, 1, 1, 0, 0);
+    private static final LocalDateTime DATA_MAXIMA = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    private static final String COMPARTIMENTO_RESERVADO =
+            "O compartimento selecionado tem reserva confirmada durante a permanência esperada da entrega";
+
+    // Tentativas de um lote cujo INSERT esbarra em código de rastreio registrado em paralelo
+    private static final int TENTATIVAS_LOTE = 3;
+
     @Autowired
     private EntregaRepository entregaRepository;
 
@@ -30,6 +54,46 @@ public class EntregaService {
     @Autowired
     private CompartimentoService compartimentoService;
 
+    @Autowired
+    private AlocacaoCompartimentoService alocacaoCompartimentoService;
+
+    @Autowired
+    private IndiceCodigosAcesso indiceCodigosAcesso;
+
+    @Autowired
+    private AgendaExpiracaoEntregas agendaExpiracaoEntregas;
+
+    @Autowired
+    private FiltroCodigosRastreio filtroCodigosRastreio;
+
+    @Autowired
+    private CacheRastreio cacheRastreio;
+
+    @Autowired
+    private ContadoresCondominio contadoresCondominio;
+
+    @Autowired
+    private AgendaReservas agendaReservas;
+
+    @Autowired
+    private ReservaRecorrenteService reservaRecorrenteService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Quanto tempo uma entrega alocada automaticamente deve ficar no compartimento até a retirada
+    @Value("${entregas.alocacao.permanencia-esperada:P1D}")
+    private Duration permanenciaEsperada;
+
+    @Value("${entregas.lote.tamanho-maximo:200}")
+    private int tamanhoMaximoLote;
+
+    @Value("${entregas.paginacao.tamanho-padrao:50}")
+    private int tamanhoPadraoPagina;
+
+    @Value("${entregas.paginacao.tamanho-maximo:500}")
+    private int tamanhoMaximoPagina;
+
     @Transactional
     public Entrega registrarEntrega(Entrega entrega) {
         if (entrega == null) {
@@ -48,28 +112,257 @@ public class EntregaService {
             throw new BadRequestException("Destinatário é obrigatório");
         }
 
-        entregaRepository.findByCodigoRastreio(entrega.getCodigoRastreio()).ifPresent(e -> {
-            throw new ResourceAlreadyExistsException("Entrega", "código de rastreio", entrega.getCodigoRastreio());
-        });
+        Long compartimentoId = entrega.getCompartimento().getId();
+        Long entregadorId = entrega.getEntregador().getId();
+        Long destinatarioId = entrega.getDestinatario().getId();
 
-        Compartimento compartimento = compartimentoRepository.findById(entrega.getCompartimento().getId())
-                .orElseThrow(() -> new ResourceNotFoundException("Compartimento", "id", entrega.getCompartimento().getId()));
+        // Plano fixo de quatro instruções: SELECT das séries recorrentes do compartimento, UPDATE de
+        // ocupação, SELECT das referências e INSERT. A duplicidade do código de rastreio é decidida
+        // pela restrição única, sem consulta prévia.
+        LocalDateTime agora = LocalDateTime.now();
+        if (reservadoDuranteAPermanencia(compartimentoId, agora)) {
+            throw new BadRequestException(COMPARTIMENTO_RESERVADO);
+        }
+        compartimentoService.ocupar(compartimentoId);
+
+        List<Object[]> referencias = entregaRepository.findReferenciasRegistro(compartimentoId, entregadorId, destinatarioId);
+        if (referencias.isEmpty()) {
+            // Só no caminho de erro: descobrir qual usuário não existe (o compartimento já foi ocupado acima)
+            if (!usuarioRepository.existsById(entregadorId)) {
+                throw new ResourceNotFoundException("Entregador", "id", entregadorId);
+            }
+            throw new ResourceNotFoundException("Destinatário", "id", destinatarioId);
+        }
+        Compartimento compartimento = (Compartimento) referencias.get(0)[0];
+        Usuario entregador = (Usuario) referencias.get(0)[1];
+        Usuario destinatario = (Usuario) referencias.get(0)[2];
+        verificarPermissaoEntregador(entregador);
+
+        entrega.setDataEntrega(agora);
+        entrega.setStatus(StatusEntrega.ENTREGUE);
+        entrega.setCompartimento(compartimento);
+        entrega.setEntregador(entregador);
+        entrega.setDestinatario(destinatario);
+        return inserir(entrega);
+    }
 
-        if (compartimento.getOcupado()) {
-            throw new BadRequestException("O compartimento selecionado já está ocupado");
+    // As mesmas reservas que alocarEntrega evita: avulsas pela agenda em memória, recorrentes no banco
+    private boolean reservadoDuranteAPermanencia(Long compartimentoId, LocalDateTime agora) {
+        LocalDateTime ate = agora.plus(permanenciaEsperada);
+        return agendaReservas.haConflito(compartimentoId, agora, ate)
+                || reservaRecorrenteService.haConflito(compartimentoId, agora, ate);
+    }
+
+    // O entregador informa apenas o armário e o tamanho do pacote; o compartimento é escolhido pelo sistema
+    @Transactional
+    public Entrega alocarEntrega(AlocacaoEntregaRequest requisicao) {
+        if (requisicao == null) {
+            throw new BadRequestException("Requisição de alocação não pode ser nula");
+        }
+        if (requisicao.getArmarioId() == null) {
+            throw new BadRequestException("Armário é obrigatório");
+        }
+        if (requisicao.getCodigoRastreio() == null || requisicao.getCodigoRastreio().isEmpty()) {
+            throw new BadRequestException("Código de rastreio não pode ser nulo ou vazio");
+        }
+        if (requisicao.getEntregadorId() == null) {
+            throw new BadRequestException("Entregador é obrigatório");
+        }
+        if (requisicao.getDestinatarioId() == null) {
+            throw new BadRequestException("Destinatário é obrigatório");
         }
 
-        Usuario entregador = usuarioRepository.findById(entrega.getEntregador().getId())
-                .orElseThrow(() -> new ResourceNotFoundException("Entregador", "id", entrega.getEntregador().getId()));
+        // Evita ocupar um compartimento à toa; códigos certamente novos nem vão ao banco
+        if (filtroCodigosRastreio.podeExistir(requisicao.getCodigoRastreio())
+                && entregaRepository.existsByCodigoRastreio(requisicao.getCodigoRastreio())) {
+            throw new ResourceAlreadyExistsException("Entrega", "código de rastreio", requisicao.getCodigoRastreio());
+        }
 
-        Usuario destinatario = usuarioRepository.findById(entrega.getDestinatario().getId())
-                .orElseThrow(() -> new ResourceNotFoundException("Destinatário", "id", entrega.getDestinatario().getId()));
+        // Compartimento com reserva (avulsa ou ocorrência de recorrente) começando durante a permanência
+        // esperada fica para a reserva
+        LocalDateTime agora = LocalDateTime.now();
+        LocalDateTime ate = agora.plus(permanenciaEsperada);
+        Set<Long> recorrentes = reservaRecorrenteService.compartimentosEmConflito(requisicao.getArmarioId(), agora, ate);
+        Compartimento compartimento = alocacaoCompartimentoService.reservar(requisicao.getArmarioId(), requisicao.getTamanho(),
+                compartimentoId -> recorrentes.contains(compartimentoId)
+                        || agendaReservas.haConflito(compartimentoId, agora, ate));
+
+        Entrega entrega = new Entrega();
+        entrega.setCodigoRastreio(requisicao.getCodigoRastreio());
+        entrega.setObservacao(requisicao.getObservacao());
+        return salvarEntrega(entrega, compartimento, requisicao.getEntregadorId(), requisicao.getDestinatarioId());
+    }
 
-        // Verificar se o entregador tem permissão
-        if (!entregador.getTipoUsuario().getNome().equals("Entregador") && 
-            !entregador.getTipoUsuario().getNome().equals("Administrador")) {
-            throw new BadRequestException("O usuário não tem permissão para registrar entregas");
+    // Registra várias entregas de um mesmo entregador em uma transação. As consultas são feitas por
+    // conjunto (compartimentos, destinatários e códigos já existentes), a ocupação é um único UPDATE
+    // e os INSERTs vão em lote. Itens inválidos são rejeitados individualmente sem afetar os demais.
+    // Um código registrado por outra instância entre a consulta e o INSERT viola a restrição única e
+    // desfaz a tentativa; a seguinte já enxerga o código e o rejeita só no item dele.
+    public ResultadoEntregaLote registrarLote(EntregaLoteRequest requisicao) {
+        for (int tentativa = 1; ; tentativa++) {
+            try {
+                return transactionTemplate.execute(status -> registrarLoteEmTransacao(requisicao));
+            } catch (DataIntegrityViolationException e) {
+                if (!violaCodigoRastreio(e)) {
+                    throw e;
+                }
+                if (tentativa == TENTATIVAS_LOTE) {
+                    throw new ResourceAlreadyExistsException(
+                            "Códigos de rastreio do lote registrados em paralelo; envie o lote novamente");
+                }
+            }
         }
+    }
+
+    private ResultadoEntregaLote registrarLoteEmTransacao(EntregaLoteRequest requisicao) {
+        if (requisicao == null || requisicao.getItens() == null || requisicao.getItens().isEmpty()) {
+            throw new BadRequestException("O lote deve conter ao menos uma entrega");
+        }
+        if (requisicao.getItens().size() > tamanhoMaximoLote) {
+            throw new BadRequestException("O lote pode conter no máximo " + tamanhoMaximoLote + " entregas");
+        }
+        if (requisicao.getEntregadorId() == null) {
+            throw new BadRequestException("Entregador é obrigatório");
+        }
+
+        Usuario entregador = usuarioRepository.findById(requisicao.getEntregadorId())
+                .orElseThrow(() -> new ResourceNotFoundException("Entregador", "id", requisicao.getEntregadorId()));
+        verificarPermissaoEntregador(entregador);
+
+        List<EntregaLoteRequest.Item> itens = requisicao.getItens();
+        String[] erros = new String[itens.size()];
+
+        // Validação de cada item e de repetições dentro do próprio lote
+        Set<String> codigosNoLote = new HashSet<>();
+        Set<Long> compartimentosNoLote = new HashSet<>();
+        for (int i = 0; i < itens.size(); i++) {
+            EntregaLoteRequest.Item item = itens.get(i);
+            if (item == null) {
+                erros[i] = "Entrega não pode ser nula";
+            } else if (item.getCodigoRastreio() == null || item.getCodigoRastreio().isEmpty()) {
+                erros[i] = "Código de rastreio não pode ser nulo ou vazio";
+            } else if (item.getCompartimentoId() == null) {
+                erros[i] = "Compartimento é obrigatório";
+            } else if (item.getDestinatarioId() == null) {
+                erros[i] = "Destinatário é obrigatório";
+            } else if (!codigosNoLote.add(item.getCodigoRastreio())) {
+                erros[i] = "Código de rastreio repetido no lote";
+            } else if (!compartimentosNoLote.add(item.getCompartimentoId())) {
+                erros[i] = "Compartimento repetido no lote";
+            }
+        }
+
+        // Uma consulta para todos os códigos do lote: o filtro só conhece os códigos de outras
+        // instâncias depois da próxima recarga, e aqui ele não economizaria consulta alguma
+        Set<String> codigosExistentes = codigosNoLote.isEmpty() ? Set.of()
+                : new HashSet<>(entregaRepository.findCodigosRastreioExistentes(codigosNoLote));
+
+        Set<Long> destinatarioIds = new HashSet<>();
+        for (int i = 0; i < itens.size(); i++) {
+            if (erros[i] == null) {
+                destinatarioIds.add(itens.get(i).getDestinatarioId());
+            }
+        }
+        Map<Long, Usuario> destinatarios = usuarioRepository.findAllById(destinatarioIds).stream()
+                .collect(Collectors.toMap(Usuario::getId, Function.identity()));
+
+        Map<Long, Compartimento> compartimentos = compartimentosNoLote.isEmpty() ? Map.of()
+                : compartimentoRepository.findAllByIdParaOcupacao(compartimentosNoLote).stream()
+                        .collect(Collectors.toMap(Compartimento::getId, Function.identity()));
+
+        // Séries recorrentes em conflito: uma consulta por armário do lote
+        LocalDateTime agora = LocalDateTime.now();
+        LocalDateTime ate = agora.plus(permanenciaEsperada);
+        Set<Long> recorrentes = new HashSet<>();
+        compartimentos.values().stream()
+                .map(compartimento -> compartimento.getArmario().getId())
+                .distinct()
+                .forEach(armarioId -> recorrentes.addAll(
+                        reservaRecorrenteService.compartimentosEmConflito(armarioId, agora, ate)));
+
+        for (int i = 0; i < itens.size(); i++) {
+            if (erros[i] != null) {
+                continue;
+            }
+            EntregaLoteRequest.Item item = itens.get(i);
+            Compartimento compartimento = compartimentos.get(item.getCompartimentoId());
+            if (codigosExistentes.contains(item.getCodigoRastreio())) {
+                erros[i] = String.format("Entrega já existe com código de rastreio: '%s'", item.getCodigoRastreio());
+            } else if (!destinatarios.containsKey(item.getDestinatarioId())) {
+                erros[i] = String.format("Destinatário não encontrado com id: '%s'", item.getDestinatarioId());
+            } else if (compartimento == null) {
+                erros[i] = String.format("Compartimento não encontrado com id: '%s'", item.getCompartimentoId());
+            } else if (Boolean.TRUE.equals(compartimento.getOcupado())) {
+                erros[i] = "O compartimento selecionado já está ocupado";
+            } else if (recorrentes.contains(compartimento.getId())
+                    || agendaReservas.haConflito(compartimento.getId(), agora, ate)) {
+                erros[i] = COMPARTIMENTO_RESERVADO;
+            }
+        }
+
+        List<Long> ocupar = new ArrayList<>();
+        List<Entrega> novas = new ArrayList<>();
+        Map<Integer, Entrega> porIndice = new HashMap<>();
+        for (int i = 0; i < itens.size(); i++) {
+            if (erros[i] != null) {
+                continue;
+            }
+            EntregaLoteRequest.Item item = itens.get(i);
+            Entrega entrega = new Entrega();
+            entrega.setCodigoRastreio(item.getCodigoRastreio());
+            entrega.setObservacao(item.getObservacao());
+            entrega.setDataEntrega(agora);
+            entrega.setStatus(StatusEntrega.ENTREGUE);
+            entrega.setCompartimento(compartimentos.get(item.getCompartimentoId()));
+            entrega.setEntregador(entregador);
+            entrega.setDestinatario(destinatarios.get(item.getDestinatarioId()));
+            ocupar.add(item.getCompartimentoId());
+            novas.add(entrega);
+            porIndice.put(i, entrega);
+        }
+
+        if (!novas.isEmpty()) {
+            // Os compartimentos estão bloqueados desde a consulta, então todos devem ser ocupados.
+            // O UPDATE não passa pelo contexto de persistência: as instâncias carregadas não ficam
+            // sujas e não geram um UPDATE por compartimento no flush.
+            int ocupados = compartimentoRepository.ocuparTodosSeLivres(ocupar);
+            if (ocupados != ocupar.size()) {
+                throw new IllegalStateException("Compartimentos do lote ocupados durante o registro");
+            }
+            // Flush aqui para que uma violação da restrição única chegue a registrarLote, que repete o lote
+            entregaRepository.saveAllAndFlush(novas);
+            TransacaoUtils.executarAposCommit(() -> {
+                ocupar.forEach(id -> alocacaoCompartimentoService.atualizarOcupacao(id, true));
+                novas.forEach(this::ativarCodigo);
+                novas.forEach(agendaExpiracaoEntregas::agendar);
+                novas.forEach(entrega -> filtroCodigosRastreio.adicionar(entrega.getCodigoRastreio()));
+                novas.forEach(entrega -> contadoresCondominio.entregaAlterada(
+                        entrega.getCompartimento().getArmario().getId(), null, StatusEntrega.ENTREGUE));
+            });
+        }
+
+        List<ResultadoEntregaLote.Item> resultados = new ArrayList<>(itens.size());
+        for (int i = 0; i < itens.size(); i++) {
+            EntregaLoteRequest.Item item = itens.get(i);
+            Entrega entrega = porIndice.get(i);
+            resultados.add(new ResultadoEntregaLote.Item(i,
+                    item != null ? item.getCodigoRastreio() : null,
+                    entrega != null,
+                    entrega != null ? entrega.getId() : null,
+                    item != null ? item.getCompartimentoId() : null,
+                    erros[i]));
+        }
+        return new ResultadoEntregaLote(novas.size(), itens.size() - novas.size(), resultados);
+    }
+
+    private Entrega salvarEntrega(Entrega entrega, Compartimento compartimento, Long entregadorId, Long destinatarioId) {
+        Usuario entregador = usuarioRepository.findById(entregadorId)
+                .orElseThrow(() -> new ResourceNotFoundException("Entregador", "id", entregadorId));
+
+        Usuario destinatario = usuarioRepository.findById(destinatarioId)
+                .orElseThrow(() -> new ResourceNotFoundException("Destinatário", "id", destinatarioId));
+
+        verificarPermissaoEntregador(entregador);
 
         // Definir valores padrão
         entrega.setDataEntrega(LocalDateTime.now());
@@ -78,10 +371,39 @@ public class EntregaService {
         entrega.setEntregador(entregador);
         entrega.setDestinatario(destinatario);
 
-        // Atualizar status do compartimento
-        compartimentoService.atualizarStatusCompartimento(compartimento.getId(), true);
+        return inserir(entrega);
+    }
 
-        return entregaRepository.save(entrega);
+    // O flush antecipa o INSERT para que um código de rastreio repetido vire 409 aqui, e não no commit
+    private Entrega inserir(Entrega entrega) {
+        try {
+            Entrega salva = entregaRepository.saveAndFlush(entrega);
+            TransacaoUtils.executarAposCommit(() -> {
+                ativarCodigo(salva);
+                agendaExpiracaoEntregas.agendar(salva);
+                filtroCodigosRastreio.adicionar(salva.getCodigoRastreio());
+                contadoresCondominio.entregaAlterada(salva.getCompartimento().getArmario().getId(),
+                        null, StatusEntrega.ENTREGUE);
+            });
+            return salva;
+        } catch (DataIntegrityViolationException e) {
+            if (violaCodigoRastreio(e)) {
+                throw new ResourceAlreadyExistsException("Entrega", "código de rastreio", entrega.getCodigoRastreio());
+            }
+            throw e;
+        }
+    }
+
+    private static boolean violaCodigoRastreio(DataIntegrityViolationException e) {
+        String mensagem = e.getMostSpecificCause().getMessage();
+        return mensagem != null && mensagem.toLowerCase().contains(Entrega.UK_CODIGO_RASTREIO);
+    }
+
+    private void verificarPermissaoEntregador(Usuario entregador) {
+        if (!entregador.getTipoUsuario().getNome().equals("Entregador") && 
+            !entregador.getTipoUsuario().getNome().equals("Administrador")) {
+            throw new BadRequestException("O usuário não tem permissão para registrar entregas");
+        }
     }
 
     @Transactional
@@ -93,6 +415,19 @@ public class EntregaService {
             throw new BadRequestException("Esta entrega não está disponível para retirada");
         }
 
+        return concluirRetirada(entrega, codigoAcesso);
+    }
+
+    // Retirada no terminal do armário: o compartimento já foi resolvido pelo índice de códigos ativos
+    @Transactional
+    public Entrega registrarRetiradaNoCompartimento(Long compartimentoId, String codigoAcesso) {
+        Entrega entrega = entregaRepository.findFirstByCompartimentoIdAndStatus(compartimentoId, StatusEntrega.ENTREGUE)
+                .orElseThrow(() -> new BadRequestException("Código de acesso inválido"));
+
+        return concluirRetirada(entrega, codigoAcesso);
+    }
+
+    private Entrega concluirRetirada(Entrega entrega, String codigoAcesso) {
         Compartimento compartimento = entrega.getCompartimento();
         if (!compartimento.getCodigoAcesso().equals(codigoAcesso)) {
             throw new BadRequestException("Código de acesso inválido");
@@ -107,6 +442,12 @@ public class EntregaService {
         // Gerar novo código de acesso para o compartimento
         compartimentoService.gerarNovoCodigoAcesso(compartimento.getId());
 
+        TransacaoUtils.executarAposCommit(() -> {
+            indiceCodigosAcesso.desativar(compartimento.getId());
+            cacheRastreio.invalidar(entrega.getCodigoRastreio());
+            contadoresCondominio.entregaAlterada(compartimento.getArmario().getId(),
+                    StatusEntrega.ENTREGUE, StatusEntrega.RETIRADO);
+        });
         return entregaRepository.save(entrega);
     }
 
@@ -119,48 +460,67 @@ public class EntregaService {
             throw new BadRequestException("Esta entrega não pode ser cancelada");
         }
 
-        entrega.setStatus(StatusEntrega.CANCELADO);
-
         // Liberar o compartimento se a entrega já estava no compartimento
         if (entrega.getStatus() == StatusEntrega.ENTREGUE) {
-            compartimentoService.atualizarStatusCompartimento(entrega.getCompartimento().getId(), false);
+            Long compartimentoId = entrega.getCompartimento().getId();
+            compartimentoService.atualizarStatusCompartimento(compartimentoId, false);
+            TransacaoUtils.executarAposCommit(() -> indiceCodigosAcesso.desativar(compartimentoId));
         }
 
+        StatusEntrega anterior = entrega.getStatus();
+        entrega.setStatus(StatusEntrega.CANCELADO);
+        Long armarioId = entrega.getCompartimento().getArmario().getId();
+        TransacaoUtils.executarAposCommit(() -> {
+            cacheRastreio.invalidar(entrega.getCodigoRastreio());
+            contadoresCondominio.entregaAlterada(armarioId, anterior, StatusEntrega.CANCELADO);
+        });
+
         return entregaRepository.save(entrega);
     }
 
+    // Só entregas aguardando retirada têm o código do compartimento ativo no terminal
+    private void ativarCodigo(Entrega entrega) {
+        Compartimento compartimento = entrega.getCompartimento();
+        indiceCodigosAcesso.ativar(compartimento.getId(), compartimento.getArmario().getId(),
+                compartimento.getCodigoAcesso());
+    }
+
     @Transactional
-    public List<Entrega> listarEntregas() {
-        return entregaRepository.findAll();
+    public Pagina<EntregaResumo> listarEntregas(ConsultaEntregasRequest requisicao) {
+        return paginar(requisicao, entregaRepository::findPagina);
     }
 
     @Transactional
-    public List<Entrega> listarEntregasPorCompartimento(Long compartimentoId) {
+    public Pagina<EntregaResumo> listarEntregasPorCompartimento(Long compartimentoId, ConsultaEntregasRequest requisicao) {
         if (!compartimentoRepository.existsById(compartimentoId)) {
             throw new ResourceNotFoundException("Compartimento", "id", compartimentoId);
         }
-        return entregaRepository.findByCompartimentoId(compartimentoId);
+        return paginar(requisicao, (desde, data, id, limite) ->
+                entregaRepository.findPaginaPorCompartimento(compartimentoId, desde, data, id, limite));
     }
 
     @Transactional
-    public List<Entrega> listarEntregasPorEntregador(Long entregadorId) {
+    public Pagina<EntregaResumo> listarEntregasPorEntregador(Long entregadorId, ConsultaEntregasRequest requisicao) {
         if (!usuarioRepository.existsById(entregadorId)) {
             throw new ResourceNotFoundException("Entregador", "id", entregadorId);
         }
-        return entregaRepository.findByEntregadorId(entregadorId);
+        return paginar(requisicao, (desde, data, id, limite) ->
+                entregaRepository.findPaginaPorEntregador(entregadorId, desde, data, id, limite));
     }
 
     @Transactional
-    public List<Entrega> listarEntregasPorDestinatario(Long destinatarioId) {
+    public Pagina<EntregaResumo> listarEntregasPorDestinatario(Long destinatarioId, ConsultaEntregasRequest requisicao) {
         if (!usuarioRepository.existsById(destinatarioId)) {
             throw new ResourceNotFoundException("Destinatário", "id", destinatarioId);
         }
-        return entregaRepository.findByDestinatarioId(destinatarioId);
+        return paginar(requisicao, (desde, data, id, limite) ->
+                entregaRepository.findPaginaPorDestinatario(destinatarioId, desde, data, id, limite));
     }
 
     @Transactional
-    public List<Entrega> listarEntregasPorStatus(StatusEntrega status) {
-        return entregaRepository.findByStatus(status);
+    public Pagina<EntregaResumo> listarEntregasPorStatus(StatusEntrega status, ConsultaEntregasRequest requisicao) {
+        return paginar(requisicao, (desde, data, id, limite) ->
+                entregaRepository.findPaginaPorStatus(status, desde, data, id, limite));
     }
 
     @Transactional
@@ -169,12 +529,49 @@ public class EntregaService {
     }
 
     @Transactional
-    public Optional<Entrega> buscarEntregaPorCodigoRastreio(String codigoRastreio) {
-        return entregaRepository.findByCodigoRastreio(codigoRastreio);
+    public Optional<RastreioEntrega> buscarEntregaPorCodigoRastreio(String codigoRastreio) {
+        return cacheRastreio.buscar(codigoRastreio, entregaRepository::findRastreio);
     }
 
     @Transactional
-    public List<Entrega> listarEntregasPorPeriodo(LocalDateTime inicio, LocalDateTime fim) {
-        return entregaRepository.findByDataEntregaBetween(inicio, fim);
+    public Pagina<EntregaResumo> listarEntregasPorPeriodo(ConsultaEntregasRequest requisicao) {
+        if (requisicao.getInicio() == null || requisicao.getFim() == null) {
+            throw new BadRequestException("Data de início e data de fim são obrigatórias");
+        }
+        return paginar(requisicao, entregaRepository::findPagina);
+    }
+
+    // Sem cursor, a primeira página começa no fim do período (ou no topo do índice); com cursor, logo
+    // depois do último item já entregue. Um item a mais é buscado só para saber se há próxima página.
+    private Pagina<EntregaResumo> paginar(ConsultaEntregasRequest requisicao, ConsultaPagina consulta) {
+        LocalDateTime inicio = requisicao.getInicio();
+        LocalDateTime fim = requisicao.getFim();
+        if (inicio != null && fim != null && inicio.isAfter(fim)) {
+            throw new BadRequestException("Data de início deve ser anterior à data de fim");
+        }
+        int limite = requisicao.getTamanho() != null ? requisicao.getTamanho() : tamanhoPadraoPagina;
+        if (limite < 1) {
+            throw new BadRequestException("Tamanho da página deve ser maior que zero");
+        }
+        limite = Math.min(limite, tamanhoMaximoPagina);
+
+        String cursor = requisicao.getCursor();
+        CursorPaginacao.Posicao posicao = cursor != null && !cursor.isBlank()
+                ? CursorPaginacao.decodificar(cursor)
+                : new CursorPaginacao.Posicao(fim != null ? fim : DATA_MAXIMA, Long.MAX_VALUE);
+
+        List<EntregaResumo> encontradas = consulta.buscar(inicio != null ? inicio : DATA_MINIMA,
+                posicao.data(), posicao.id(), Limit.of(limite + 1));
+        if (encontradas.size() <= limite) {
+            return new Pagina<>(encontradas, null);
+        }
+        List<EntregaResumo> itens = new ArrayList<>(encontradas.subList(0, limite));
+        EntregaResumo ultima = itens.get(limite - 1);
+        return new Pagina<>(itens, CursorPaginacao.codificar(ultima.getDataEntrega(), ultima.getId()));
+    }
+
+    @FunctionalInterface
+    private interface ConsultaPagina {
+        List<EntregaResumo> buscar(LocalDateTime inicio, LocalDateTime data, Long id, Limit limite);
     }
 }
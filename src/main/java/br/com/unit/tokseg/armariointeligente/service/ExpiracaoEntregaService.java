@@ -0,0 +1,92 @@
+package br.com.unit.tokseg.armariointeligente.service;
+
+import br.com.unit.tokseg.armariointeligente.model.Compartimento;
+import br.com.unit.tokseg.armariointeligente.model.Entrega;
+import br.com.unit.tokseg.armariointeligente.model.StatusEntrega;
+import br.com.unit.tokseg.armariointeligente.repository.EntregaRepository;
+import br.com.unit.tokseg.armariointeligente.util.TransacaoUtils;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class ExpiracaoEntregaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpiracaoEntregaService.class);
+
+    @Autowired
+    private EntregaRepository entregaRepository;
+
+    @Autowired
+    private CompartimentoService compartimentoService;
+
+    @Autowired
+    private IndiceCodigosAcesso indiceCodigosAcesso;
+
+    @Autowired
+    private CacheRastreio cacheRastreio;
+
+    @Autowired
+    private ContadoresCondominio contadoresCondominio;
+
+    @Value("${entregas.expiracao.dias-retencao-padrao:7}")
+    private int diasRetencaoPadrao;
+
+    public LocalDateTime calcularPrazo(LocalDateTime dataEntrega, Integer diasRetencao) {
+        return dataEntrega.plusDays(diasRetencao != null ? diasRetencao : diasRetencaoPadrao);
+    }
+
+    // Expira as entregas vencidas entre as informadas e libera seus compartimentos. As linhas são
+    // bloqueadas e carregadas em uma consulta; as alterações saem em lote no flush (hibernate.jdbc.batch_size).
+    // Devolve as que ainda não venceram (retenção aumentada depois do agendamento), com o prazo atual.
+    @Transactional
+    public Map<Long, LocalDateTime> expirar(Collection<Long> ids) {
+        Map<Long, LocalDateTime> adiadas = new HashMap<>();
+        if (ids.isEmpty()) {
+            return adiadas;
+        }
+
+        LocalDateTime agora = LocalDateTime.now();
+        List<Long> liberados = new ArrayList<>();
+        List<String> codigosRastreio = new ArrayList<>();
+        List<Long> armarios = new ArrayList<>();
+        for (Entrega entrega : entregaRepository.findParaExpiracao(ids, StatusEntrega.ENTREGUE)) {
+            Compartimento compartimento = entrega.getCompartimento();
+            LocalDateTime prazo = calcularPrazo(entrega.getDataEntrega(),
+                    compartimento.getArmario().getCondominio().getDiasRetencao());
+            if (prazo.isAfter(agora)) {
+                adiadas.put(entrega.getId(), prazo);
+                continue;
+            }
+
+            entrega.setStatus(StatusEntrega.EXPIRADO);
+            compartimentoService.atualizarStatusCompartimento(compartimento.getId(), false);
+            // O código conhecido pelo destinatário não pode abrir o compartimento para o próximo pacote
+            compartimentoService.gerarNovoCodigoAcesso(compartimento.getId());
+            liberados.add(compartimento.getId());
+            codigosRastreio.add(entrega.getCodigoRastreio());
+            armarios.add(compartimento.getArmario().getId());
+        }
+
+        if (!liberados.isEmpty()) {
+            TransacaoUtils.executarAposCommit(() -> {
+                liberados.forEach(indiceCodigosAcesso::desativar);
+                codigosRastreio.forEach(cacheRastreio::invalidar);
+                armarios.forEach(armarioId -> contadoresCondominio.entregaAlterada(armarioId,
+                        StatusEntrega.ENTREGUE, StatusEntrega.EXPIRADO));
+                logger.info("{} entregas expiradas e compartimentos liberados", liberados.size());
+            });
+        }
+        return adiadas;
+    }
+}
@@ -0,0 +1,187 @@
+package br.com.unit.tokseg.armariointeligente.service;
+
+import br.com.unit.tokseg.armariointeligente.exception.BadRequestException;
+import br.com.unit.tokseg.armariointeligente.model.Compartimento;
+import br.com.unit.tokseg.armariointeligente.model.Entrega;
+import br.com.unit.tokseg.armariointeligente.repository.EntregaRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+// Exportação de entregas por período com memória constante: as linhas saem do cursor do banco direto
+// para a resposta, e o contexto de persistência é limpo a cada bloco para não acumular entidades
+@Service
+public class ExportacaoEntregasService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportacaoEntregasService.class);
+
+    // Mesmo valor do fetch size da consulta: um bloco lido do banco, um bloco escrito
+    private static final int LINHAS_POR_BLOCO = 500;
+
+    private static final String CABECALHO_CSV = "id,codigoRastreio,status,dataEntrega,dataRetirada,condominio,armario,"
+            + "compartimento,entregadorId,entregador,destinatarioId,destinatario,observacao";
+
+    @Autowired
+    private EntregaRepository entregaRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public enum Formato {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String tipoConteudo;
+        private final String extensao;
+
+        Formato(String tipoConteudo, String extensao) {
+            this.tipoConteudo = tipoConteudo;
+            this.extensao = extensao;
+        }
+
+        public String getTipoConteudo() {
+            return tipoConteudo;
+        }
+
+        public String getExtensao() {
+            return extensao;
+        }
+
+        public static Formato de(String valor) {
+            if (valor != null) {
+                for (Formato formato : values()) {
+                    if (formato.extensao.equals(valor.trim().toLowerCase(Locale.ROOT))) {
+                        return formato;
+                    }
+                }
+            }
+            throw new BadRequestException("Formato de exportação inválido. Use ndjson ou csv");
+        }
+    }
+
+    public void validarPeriodo(LocalDateTime inicio, LocalDateTime fim) {
+        if (inicio.isAfter(fim)) {
+            throw new BadRequestException("Data de início deve ser anterior à data de fim");
+        }
+    }
+
+    // O stream do Spring Data exige uma transação aberta enquanto é consumido
+    @Transactional
+    public long exportar(LocalDateTime inicio, LocalDateTime fim, Formato formato, OutputStream saida) throws IOException {
+        validarPeriodo(inicio, fim);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+        long linhas = 0;
+        try (Stream<Entrega> entregas = entregaRepository.streamPorPeriodo(inicio, fim)) {
+            JsonGenerator json = null;
+            if (formato == Formato.NDJSON) {
+                json = objectMapper.getFactory().createGenerator(writer);
+                json.setRootValueSeparator(null);
+                // O flush do gerador só passa a linha para o buffer; o envio é controlado abaixo
+                json.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+            } else {
+                writer.write(CABECALHO_CSV);
+                writer.write('\n');
+            }
+
+            Iterator<Entrega> iterator = entregas.iterator();
+            while (iterator.hasNext()) {
+                Entrega entrega = iterator.next();
+                if (json != null) {
+                    escreverJson(json, entrega);
+                    json.flush();
+                    writer.write('\n');
+                } else {
+                    escreverCsv(writer, entrega);
+                }
+                linhas++;
+
+                // A primeira linha sai imediatamente; depois, um envio por bloco
+                if (linhas == 1 || linhas % LINHAS_POR_BLOCO == 0) {
+                    writer.flush();
+                }
+                if (linhas % LINHAS_POR_BLOCO == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        writer.flush();
+        logger.info("Exportação {} de {} a {}: {} entregas", formato.getExtensao(), inicio, fim, linhas);
+        return linhas;
+    }
+
+    private void escreverJson(JsonGenerator json, Entrega entrega) throws IOException {
+        Compartimento compartimento = entrega.getCompartimento();
+        json.writeStartObject();
+        json.writeNumberField("id", entrega.getId());
+        json.writeStringField("codigoRastreio", entrega.getCodigoRastreio());
+        json.writeStringField("status", entrega.getStatus().name());
+        json.writeStringField("dataEntrega", texto(entrega.getDataEntrega()));
+        json.writeStringField("dataRetirada", texto(entrega.getDataRetirada()));
+        json.writeStringField("condominio", compartimento.getArmario().getCondominio().getNome());
+        json.writeStringField("armario", compartimento.getArmario().getIdentificacao());
+        json.writeStringField("compartimento", compartimento.getNumero());
+        json.writeNumberField("entregadorId", entrega.getEntregador().getId());
+        json.writeStringField("entregador", entrega.getEntregador().getNome());
+        json.writeNumberField("destinatarioId", entrega.getDestinatario().getId());
+        json.writeStringField("destinatario", entrega.getDestinatario().getNome());
+        json.writeStringField("observacao", entrega.getObservacao());
+        json.writeEndObject();
+    }
+
+    private void escreverCsv(Writer writer, Entrega entrega) throws IOException {
+        Compartimento compartimento = entrega.getCompartimento();
+        writer.write(String.valueOf(entrega.getId()));
+        campo(writer, entrega.getCodigoRastreio());
+        campo(writer, entrega.getStatus().name());
+        campo(writer, texto(entrega.getDataEntrega()));
+        campo(writer, texto(entrega.getDataRetirada()));
+        campo(writer, compartimento.getArmario().getCondominio().getNome());
+        campo(writer, compartimento.getArmario().getIdentificacao());
+        campo(writer, compartimento.getNumero());
+        campo(writer, String.valueOf(entrega.getEntregador().getId()));
+        campo(writer, entrega.getEntregador().getNome());
+        campo(writer, String.valueOf(entrega.getDestinatario().getId()));
+        campo(writer, entrega.getDestinatario().getNome());
+        campo(writer, entrega.getObservacao());
+        writer.write('\n');
+    }
+
+    // RFC 4180: aspas só quando o valor tem separador, aspas ou quebra de linha
+    private static void campo(Writer writer, String valor) throws IOException {
+        writer.write(',');
+        if (valor == null) {
+            return;
+        }
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            writer.write(valor);
+            return;
+        }
+        writer.write('"');
+        writer.write(valor.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private static String texto(LocalDateTime data) {
+        return data != null ? data.toString() : null;
+    }
+}
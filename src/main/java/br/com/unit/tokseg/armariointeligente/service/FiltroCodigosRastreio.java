@@ -0,0 +1,96 @@
+package br.com.unit.tokseg.armariointeligente.service;
+
+import br.com.unit.tokseg.armariointeligente.repository.EntregaRepository;
+import br.com.unit.tokseg.armariointeligente.util.BloomFilter;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+// Filtro de Bloom dos códigos de rastreio já registrados. Um código novo (o caso comum no registro)
+// é reconhecido sem consulta ao banco; "pode existir" é confirmado no banco, e o índice único
+// continua sendo a garantia final contra duplicidade.
+@Service
+public class FiltroCodigosRastreio {
+
+    private static final Logger logger = LoggerFactory.getLogger(FiltroCodigosRastreio.class);
+
+    // Tolerância para transações longas e diferenças de relógio na sincronização incremental
+    private static final Duration MARGEM_SINCRONIZACAO = Duration.ofMinutes(1);
+
+    @Autowired
+    private EntregaRepository entregaRepository;
+
+    @Value("${entregas.rastreio.filtro.capacidade:1000000}")
+    private int capacidadeMinima;
+
+    @Value("${entregas.rastreio.filtro.taxa-falso-positivo:0.01}")
+    private double taxaFalsoPositivo;
+
+    // Até a carga, tudo "pode existir" e a verificação vai ao banco como antes
+    private volatile BloomFilter filtro;
+
+    private volatile LocalDateTime ultimaSincronizacao;
+
+    private int capacidade;
+
+    private final AtomicLong adicionados = new AtomicLong();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void carregar() {
+        LocalDateTime inicio = LocalDateTime.now();
+        // Folga para crescer: acima da capacidade a taxa de falso positivo sobe, mas o filtro continua correto
+        long existentes = entregaRepository.count();
+        capacidade = (int) Math.min(Integer.MAX_VALUE / 2, Math.max(capacidadeMinima, existentes * 2));
+        BloomFilter novo = new BloomFilter(capacidade, taxaFalsoPositivo);
+        try (Stream<String> codigos = entregaRepository.streamCodigosRastreio()) {
+            codigos.forEach(novo::adicionar);
+        }
+        adicionados.set(existentes);
+        filtro = novo;
+        ultimaSincronizacao = inicio;
+        logger.info("Filtro de códigos de rastreio carregado: {} códigos, capacidade {}", existentes, capacidade);
+    }
+
+    public boolean podeExistir(String codigoRastreio) {
+        BloomFilter atual = filtro;
+        return atual == null || atual.podeConter(codigoRastreio);
+    }
+
+    public void adicionar(String codigoRastreio) {
+        BloomFilter atual = filtro;
+        if (atual != null) {
+            atual.adicionar(codigoRastreio);
+            if (adicionados.incrementAndGet() == capacidade) {
+                logger.warn("Filtro de códigos de rastreio atingiu a capacidade ({}); será redimensionado na próxima carga", capacidade);
+            }
+        }
+    }
+
+    // Traz para o filtro os códigos registrados por outras instâncias
+    @Scheduled(fixedDelayString = "${entregas.rastreio.filtro.intervalo-sincronizacao:PT30S}")
+    public void sincronizar() {
+        LocalDateTime desde = ultimaSincronizacao;
+        if (desde == null) {
+            return;
+        }
+        LocalDateTime inicio = LocalDateTime.now();
+        try {
+            entregaRepository.findCodigosRastreioDesde(desde.minus(MARGEM_SINCRONIZACAO)).forEach(this::adicionar);
+            ultimaSincronizacao = inicio;
+        } catch (Exception e) {
+            logger.warn("Falha ao sincronizar o filtro de códigos de rastreio: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package br.com.unit.tokseg.armariointeligente.service;
+
+import br.com.unit.tokseg.armariointeligente.model.StatusEntrega;
+import br.com.unit.tokseg.armariointeligente.repository.EntregaRepository;
+import br.com.unit.tokseg.armariointeligente.util.MapaIntLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Códigos de acesso ativos (compartimentos com entrega aguardando retirada) de cada armário.
+// O terminal resolve código -> compartimento aqui; um código errado é recusado sem ir ao banco.
+// O banco continua sendo a fonte da verdade: o código é conferido de novo na retirada.
+@Service
+public class IndiceCodigosAcesso {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndiceCodigosAcesso.class);
+
+    private static final long AUSENTE = -1L;
+
+    @Autowired
+    private EntregaRepository entregaRepository;
+
+    private final Map<Long, MapaIntLong> armarios = new ConcurrentHashMap<>();
+
+    private final Map<Long, Ativo> ativos = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        List<EntregaRepository.CodigoAtivo> codigos = entregaRepository.findCodigosAtivos(StatusEntrega.ENTREGUE);
+        for (EntregaRepository.CodigoAtivo codigo : codigos) {
+            ativar(codigo.getCompartimentoId(), codigo.getArmarioId(), codigo.getCodigoAcesso());
+        }
+        logger.info("Índice de códigos de acesso carregado: {} códigos ativos em {} armários",
+                ativos.size(), armarios.size());
+    }
+
+    // Códigos válidos têm exatamente 6 dígitos; qualquer outra coisa vira -1
+    public static int paraChave(String codigo) {
+        if (codigo == null || codigo.length() != 6) {
+            return -1;
+        }
+        int chave = 0;
+        for (int i = 0; i < 6; i++) {
+            char c = codigo.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            chave = chave * 10 + (c - '0');
+        }
+        return chave;
+    }
+
+    // Compartimento com o código ativo no armário, ou null
+    public Long resolver(Long armarioId, String codigo) {
+        int chave = paraChave(codigo);
+        MapaIntLong codigos = armarios.get(armarioId);
+        if (chave < 0 || codigos == null) {
+            return null;
+        }
+        long compartimentoId;
+        synchronized (codigos) {
+            compartimentoId = codigos.obter(chave, AUSENTE);
+        }
+        return compartimentoId != AUSENTE ? compartimentoId : null;
+    }
+
+    public void ativar(Long compartimentoId, Long armarioId, String codigo) {
+        desativar(compartimentoId);
+        int chave = paraChave(codigo);
+        if (chave < 0 || armarioId == null) {
+            return;
+        }
+        MapaIntLong codigos = armarios.computeIfAbsent(armarioId, id -> new MapaIntLong(64));
+        synchronized (codigos) {
+            long anterior = codigos.colocar(chave, compartimentoId, AUSENTE);
+            if (anterior != AUSENTE && anterior != compartimentoId) {
+                logger.warn("Código de acesso repetido no armário {}: compartimento {} substitui {}",
+                        armarioId, compartimentoId, anterior);
+                ativos.remove(anterior);
+            }
+        }
+        ativos.put(compartimentoId, new Ativo(armarioId, chave));
+    }
+
+    public void desativar(Long compartimentoId) {
+        Ativo ativo = ativos.remove(compartimentoId);
+        if (ativo == null) {
+            return;
+        }
+        MapaIntLong codigos = armarios.get(ativo.armarioId());
+        if (codigos != null) {
+            synchronized (codigos) {
+                // Só remove se o código ainda apontar para este compartimento
+                if (codigos.obter(ativo.chave(), AUSENTE) == compartimentoId) {
+                    codigos.remover(ativo.chave(), AUSENTE);
+                }
+            }
+        }
+    }
+
+    // Troca de código ou de armário: só importa se o compartimento tiver um código ativo
+    public void atualizar(Long compartimentoId, Long armarioId, String codigo) {
+        if (ativos.containsKey(compartimentoId)) {
+            ativar(compartimentoId, armarioId, codigo);
+        }
+    }
+
+    public int contarAtivos(Long armarioId) {
+        MapaIntLong codigos = armarios.get(armarioId);
+        if (codigos == null) {
+            return 0;
+        }
+        synchronized (codigos) {
+            return codigos.tamanho();
+        }
+    }
+
+    private record Ativo(Long armarioId, int chave) {
+    }
+}
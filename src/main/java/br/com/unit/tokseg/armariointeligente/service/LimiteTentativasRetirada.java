@@ -0,0 +1,88 @@
+package br.com.unit.tokseg.armariointeligente.service;
+
+import br.com.unit.tokseg.armariointeligente.exception.TooManyRequestsException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Códigos de acesso errados digitados no terminal, por usuário e por armário. Um código errado custa
+// só uma consulta em memória, então sem limite qualquer usuário autenticado poderia percorrer os códigos
+// de um armário até acertar a entrega de outro morador. Atingido o limite, toda tentativa (certa ou não)
+// recebe 429 até o fim da janela, que começa na primeira falha.
+@Service
+public class LimiteTentativasRetirada {
+
+    private final Cache<Long, Falhas> porUsuario;
+    private final Cache<Long, Falhas> porArmario;
+
+    private final int maximoPorUsuario;
+    private final int maximoPorArmario;
+    private final long janelaNanos;
+    private final Ticker ticker;
+
+    @Autowired
+    public LimiteTentativasRetirada(@Value("${armarios.retirada.falhas-por-usuario:5}") int maximoPorUsuario,
+                                    @Value("${armarios.retirada.falhas-por-armario:50}") int maximoPorArmario,
+                                    @Value("${armarios.retirada.janela:PT15M}") Duration janela) {
+        this(maximoPorUsuario, maximoPorArmario, janela, Ticker.systemTicker());
+    }
+
+    LimiteTentativasRetirada(int maximoPorUsuario, int maximoPorArmario, Duration janela, Ticker ticker) {
+        this.maximoPorUsuario = maximoPorUsuario;
+        this.maximoPorArmario = maximoPorArmario;
+        this.janelaNanos = janela.toNanos();
+        this.ticker = ticker;
+        this.porUsuario = Caffeine.newBuilder().expireAfterWrite(janela).ticker(ticker).build();
+        this.porArmario = Caffeine.newBuilder().expireAfterWrite(janela).ticker(ticker).build();
+    }
+
+    // Chamado antes de resolver o código; usuarioId nulo (sem principal) só conta para o armário
+    public void verificar(Long usuarioId, Long armarioId) {
+        long espera = Math.max(restante(porUsuario, usuarioId, maximoPorUsuario),
+                restante(porArmario, armarioId, maximoPorArmario));
+        if (espera > 0) {
+            throw new TooManyRequestsException(
+                    "Muitas tentativas com código de acesso inválido. Tente novamente mais tarde.", espera);
+        }
+    }
+
+    public void registrarFalha(Long usuarioId, Long armarioId) {
+        if (usuarioId != null) {
+            porUsuario.get(usuarioId, id -> new Falhas(ticker.read())).quantidade.incrementAndGet();
+        }
+        porArmario.get(armarioId, id -> new Falhas(ticker.read())).quantidade.incrementAndGet();
+    }
+
+    // Acerto zera só o usuário: as falhas do armário podem ser de outras pessoas
+    public void registrarSucesso(Long usuarioId) {
+        if (usuarioId != null) {
+            porUsuario.invalidate(usuarioId);
+        }
+    }
+
+    // Segundos até o fim da janela, arredondados para cima; 0 se ainda abaixo do limite
+    private long restante(Cache<Long, Falhas> falhasPorChave, Long chave, int maximo) {
+        Falhas falhas = chave != null ? falhasPorChave.getIfPresent(chave) : null;
+        if (falhas == null || falhas.quantidade.get() < maximo) {
+            return 0;
+        }
+        long restanteNanos = janelaNanos - (ticker.read() - falhas.inicio);
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(restanteNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    private static final class Falhas {
+        private final long inicio;
+        private final AtomicInteger quantidade = new AtomicInteger();
+
+        private Falhas(long inicio) {
+            this.inicio = inicio;
+        }
+    }
+}
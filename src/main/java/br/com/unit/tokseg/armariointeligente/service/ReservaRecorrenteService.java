@@ -0,0 +1,353 @@
+package br.com.unit.tokseg.armariointeligente.service;
+
+import br.com.unit.tokseg.armariointeligente.exception.BadRequestException;
+import br.com.unit.tokseg.armariointeligente.exception.ResourceNotFoundException;
+import br.com.unit.tokseg.armariointeligente.model.Compartimento;
+import br.com.unit.tokseg.armariointeligente.model.Reserva;
+import br.com.unit.tokseg.armariointeligente.model.ReservaRecorrente;
+import br.com.unit.tokseg.armariointeligente.model.ReservaResumo;
+import br.com.unit.tokseg.armariointeligente.model.StatusReserva;
+import br.com.unit.tokseg.armariointeligente.model.Usuario;
+import br.com.unit.tokseg.armariointeligente.repository.CompartimentoRepository;
+import br.com.unit.tokseg.armariointeligente.repository.ReservaRecorrenteRepository;
+import br.com.unit.tokseg.armariointeligente.repository.ReservaRepository;
+import br.com.unit.tokseg.armariointeligente.repository.UsuarioRepository;
+import br.com.unit.tokseg.armariointeligente.util.RegraRecorrencia;
+import br.com.unit.tokseg.armariointeligente.util.TransacaoUtils;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Reservas recorrentes: a série é gravada uma vez e as ocorrências são calculadas só dentro da janela
+// consultada (conferência de sobreposição e listagens). Uma ocorrência vira linha em "reservas" apenas
+// quando começa, já ATIVA e ocupando o compartimento (ou CONFIRMADA, se ele ainda estiver ocupado); daí
+// em diante segue o ciclo das reservas avulsas. Dias com ocorrência materializada, inclusive cancelada,
+// deixam de ser calculados pela série.
+@Service
+public class ReservaRecorrenteService {
+
+    @Autowired
+    private ReservaRecorrenteRepository reservaRecorrenteRepository;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    @Autowired
+    private CompartimentoRepository compartimentoRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private AlocacaoCompartimentoService alocacaoCompartimentoService;
+
+    @Autowired
+    private ContadoresCondominio contadoresCondominio;
+
+    @Autowired
+    private AgendaReservas agendaReservas;
+
+    // Limita o custo da conferência na criação, que percorre a série inteira uma única vez
+    @Value("${reservas.recorrencia.dias-maximos:366}")
+    private int diasMaximos;
+
+    @Transactional
+    public ReservaRecorrente criarReservaRecorrente(ReservaRecorrente serie) {
+        if (serie == null) {
+            throw new BadRequestException("Reserva recorrente não pode ser nula");
+        }
+        if (serie.getDataInicio() == null || serie.getDataFim() == null) {
+            throw new BadRequestException("Datas de início e de fim da série são obrigatórias");
+        }
+        if (serie.getHoraInicio() == null || serie.getHoraFim() == null) {
+            throw new BadRequestException("Horários de início e de fim são obrigatórios");
+        }
+        if (serie.getCompartimento() == null || serie.getCompartimento().getId() == null) {
+            throw new BadRequestException("Compartimento é obrigatório");
+        }
+        if (serie.getUsuario() == null || serie.getUsuario().getId() == null) {
+            throw new BadRequestException("Usuário é obrigatório");
+        }
+        // Cada ocorrência começa e termina no mesmo dia
+        if (!serie.getHoraInicio().isBefore(serie.getHoraFim())) {
+            throw new BadRequestException("Horário de início deve ser anterior ao horário de fim");
+        }
+        if (serie.getDataFim().isBefore(serie.getDataInicio())) {
+            throw new BadRequestException("Data de fim da série não pode ser anterior à data de início");
+        }
+        if (serie.getDataInicio().isBefore(LocalDate.now())) {
+            throw new BadRequestException("Data de início não pode ser no passado");
+        }
+        if (ChronoUnit.DAYS.between(serie.getDataInicio(), serie.getDataFim()) >= diasMaximos) {
+            throw new BadRequestException(String.format("A série pode ter no máximo %d dias", diasMaximos));
+        }
+        RegraRecorrencia regra = regra(serie.getRegra());
+        if (regra.dias(serie.getDataInicio(), serie.getDataFim(), serie.getDataInicio(), serie.getDataFim()).isEmpty()) {
+            throw new BadRequestException("A regra não gera nenhuma ocorrência no período da série");
+        }
+
+        Long compartimentoId = serie.getCompartimento().getId();
+        // Mesmo bloqueio das reservas avulsas: séries e reservas do compartimento são conferidas em fila
+        Compartimento compartimento = compartimentoRepository.findByIdParaReserva(compartimentoId)
+                .orElseThrow(() -> new ResourceNotFoundException("Compartimento", "id", compartimentoId));
+        Usuario usuario = usuarioRepository.findById(serie.getUsuario().getId())
+                .orElseThrow(() -> new ResourceNotFoundException("Usuário", "id", serie.getUsuario().getId()));
+        verificarSobreposicaoSerie(compartimentoId, serie, regra);
+
+        serie.setRegra(regra.toString());
+        serie.setStatus(StatusReserva.CONFIRMADA);
+        serie.setCompartimento(compartimento);
+        serie.setUsuario(usuario);
+        return reservaRecorrenteRepository.save(serie);
+    }
+
+    @Transactional
+    public ReservaRecorrente cancelarReservaRecorrente(Long id) {
+        ReservaRecorrente serie = reservaRecorrenteRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Reserva recorrente", "id", id));
+        if (serie.getStatus() != StatusReserva.CONFIRMADA) {
+            throw new BadRequestException("Esta reserva recorrente não pode ser cancelada");
+        }
+        // Ocorrências já materializadas seguem como reservas avulsas
+        serie.setStatus(StatusReserva.CANCELADA);
+        return reservaRecorrenteRepository.save(serie);
+    }
+
+    @Transactional
+    public ReservaRecorrente buscarReservaRecorrentePorId(Long id) {
+        return reservaRecorrenteRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Reserva recorrente", "id", id));
+    }
+
+    // Ocorrências de uma série que começam no período, materializadas ou não
+    @Transactional
+    public List<ReservaResumo> listarOcorrencias(Long id, LocalDateTime inicio, LocalDateTime fim) {
+        validarPeriodo(inicio, fim);
+        ReservaRecorrenteRepository.SerieResumo serie = reservaRecorrenteRepository.findResumoById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Reserva recorrente", "id", id));
+        return mesclar(reservaRepository.findResumosPorRecorrenciaEPeriodo(id, inicio, fim),
+                serie.getStatus() == StatusReserva.CONFIRMADA ? List.of(serie) : List.of(), inicio, fim);
+    }
+
+    // Completa uma listagem de reservas com as ocorrências ainda não materializadas que começam no período
+    public List<ReservaResumo> incluirOcorrencias(List<ReservaResumo> reservas, LocalDateTime inicio, LocalDateTime fim) {
+        validarPeriodo(inicio, fim);
+        List<ReservaRecorrenteRepository.SerieResumo> series = reservaRecorrenteRepository.findResumosVigentesNoPeriodo(
+                StatusReserva.CONFIRMADA, inicio.toLocalDate(), fim.toLocalDate());
+        return series.isEmpty() ? reservas : mesclar(reservas, series, inicio, fim);
+    }
+
+    // Alguma ocorrência ainda não materializada das séries do compartimento sobrepõe [inicio, fim)?
+    // As materializadas são reservas comuns, conferidas com as demais.
+    public boolean haConflito(Long compartimentoId, LocalDateTime inicio, LocalDateTime fim) {
+        List<ReservaRecorrente> series = reservaRecorrenteRepository.findVigentesPorCompartimento(compartimentoId,
+                StatusReserva.CONFIRMADA, inicio.toLocalDate(), fim.toLocalDate());
+        if (series.isEmpty()) {
+            return false;
+        }
+        Set<String> materializadas = materializadas(series, inicio.toLocalDate(), fim.toLocalDate());
+        return series.stream().anyMatch(serie -> sobrepoe(serie, regra(serie.getRegra()), inicio, fim, materializadas));
+    }
+
+    // Compartimentos do armário com alguma ocorrência sobrepondo [inicio, fim): duas consultas para o armário todo
+    public Set<Long> compartimentosEmConflito(Long armarioId, LocalDateTime inicio, LocalDateTime fim) {
+        List<ReservaRecorrente> series = reservaRecorrenteRepository.findVigentesPorArmario(armarioId,
+                StatusReserva.CONFIRMADA, inicio.toLocalDate(), fim.toLocalDate());
+        if (series.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> materializadas = materializadas(series, inicio.toLocalDate(), fim.toLocalDate());
+        return series.stream()
+                .filter(serie -> sobrepoe(serie, regra(serie.getRegra()), inicio, fim, materializadas))
+                .map(serie -> serie.getCompartimento().getId())
+                .collect(Collectors.toSet());
+    }
+
+    // Materializa as ocorrências em andamento no instante: cada uma vira uma reserva ATIVA e ocupa o
+    // compartimento. Com o compartimento ainda ocupado, a reserva nasce CONFIRMADA e o início fica com
+    // o ciclo das avulsas (adiada e registrada a cada ciclo; NAO_ATENDIDA se a janela acabar antes).
+    // Devolve quantas começaram.
+    @Transactional
+    public int materializar(LocalDateTime agora) {
+        LocalDate hoje = agora.toLocalDate();
+        List<ReservaRecorrente> emHorario = reservaRecorrenteRepository.findEmHorario(StatusReserva.CONFIRMADA,
+                        hoje, agora.toLocalTime()).stream()
+                .filter(serie -> regra(serie.getRegra()).ocorreEm(hoje, serie.getDataInicio()))
+                .toList();
+        if (emHorario.isEmpty()) {
+            return 0;
+        }
+        Set<Long> materializadas = new HashSet<>(reservaRepository.findRecorrenciasMaterializadas(
+                emHorario.stream().map(ReservaRecorrente::getId).toList(),
+                hoje.atStartOfDay(), hoje.plusDays(1).atStartOfDay()));
+        List<ReservaRecorrente> pendentes = emHorario.stream()
+                .filter(serie -> !materializadas.contains(serie.getId()))
+                .toList();
+        if (pendentes.isEmpty()) {
+            return 0;
+        }
+
+        Set<Long> livres = compartimentoRepository.findAllByIdParaOcupacao(pendentes.stream()
+                        .map(serie -> serie.getCompartimento().getId()).toList()).stream()
+                .filter(compartimento -> !Boolean.TRUE.equals(compartimento.getOcupado()))
+                .map(Compartimento::getId)
+                .collect(Collectors.toSet());
+        List<Reserva> novas = new ArrayList<>();
+        for (ReservaRecorrente serie : pendentes) {
+            Reserva reserva = new Reserva();
+            reserva.setDataInicio(hoje.atTime(serie.getHoraInicio()));
+            reserva.setDataFim(hoje.atTime(serie.getHoraFim()));
+            reserva.setObservacao(serie.getObservacao());
+            reserva.setStatus(livres.contains(serie.getCompartimento().getId())
+                    ? StatusReserva.ATIVA : StatusReserva.CONFIRMADA);
+            reserva.setCompartimento(serie.getCompartimento());
+            reserva.setUsuario(serie.getUsuario());
+            reserva.setRecorrenciaId(serie.getId());
+            novas.add(reserva);
+        }
+
+        // Compartimentos bloqueados desde a consulta, então todos os livres devem ser ocupados
+        List<Long> ocupar = novas.stream()
+                .filter(reserva -> reserva.getStatus() == StatusReserva.ATIVA)
+                .map(reserva -> reserva.getCompartimento().getId())
+                .toList();
+        if (!ocupar.isEmpty() && compartimentoRepository.ocuparTodosSeLivres(ocupar) != ocupar.size()) {
+            throw new IllegalStateException("Compartimentos ocupados durante a materialização das reservas recorrentes");
+        }
+        reservaRepository.saveAll(novas);
+        TransacaoUtils.executarAposCommit(() -> novas.forEach(reserva -> {
+            Long compartimentoId = reserva.getCompartimento().getId();
+            if (reserva.getStatus() == StatusReserva.ATIVA) {
+                alocacaoCompartimentoService.atualizarOcupacao(compartimentoId, true);
+            }
+            contadoresCondominio.reservaAlterada(reserva.getCompartimento().getArmario().getId(), null, reserva.getStatus());
+            agendaReservas.registrar(reserva.getId(), compartimentoId, reserva.getDataInicio(), reserva.getDataFim());
+        }));
+        return ocupar.size();
+    }
+
+    private void verificarSobreposicaoSerie(Long compartimentoId, ReservaRecorrente serie, RegraRecorrencia regra) {
+        String mensagem = "Já existe uma reserva para este compartimento em alguma ocorrência da série";
+        // Reservas avulsas (e ocorrências já materializadas) no período da série
+        for (ReservaRepository.IntervaloReserva intervalo : reservaRepository.findIntervalosPorCompartimento(
+                compartimentoId, StatusReserva.VIGENTES, serie.getDataInicio().atStartOfDay(),
+                serie.getDataFim().plusDays(1).atStartOfDay())) {
+            if (sobrepoe(serie, regra, intervalo.getDataInicio(), intervalo.getDataFim())) {
+                throw new BadRequestException(mensagem);
+            }
+        }
+        // Outras séries: só importam as de horário sobreposto, e só nos dias que as duas têm em comum e em que
+        // a outra ainda não foi materializada (essas ocorrências já foram conferidas acima, como reservas)
+        List<ReservaRecorrente> outras = reservaRecorrenteRepository.findVigentesPorCompartimento(compartimentoId,
+                        StatusReserva.CONFIRMADA, serie.getDataInicio(), serie.getDataFim()).stream()
+                .filter(outra -> serie.getHoraInicio().isBefore(outra.getHoraFim())
+                        && outra.getHoraInicio().isBefore(serie.getHoraFim()))
+                .toList();
+        if (outras.isEmpty()) {
+            return;
+        }
+        Set<String> materializadas = materializadas(outras, serie.getDataInicio(), serie.getDataFim());
+        for (ReservaRecorrente outra : outras) {
+            RegraRecorrencia regraOutra = regra(outra.getRegra());
+            LocalDate de = max(serie.getDataInicio(), outra.getDataInicio());
+            LocalDate ate = min(serie.getDataFim(), outra.getDataFim());
+            for (LocalDate dia : regra.dias(serie.getDataInicio(), serie.getDataFim(), de, ate)) {
+                if (regraOutra.ocorreEm(dia, outra.getDataInicio())
+                        && !materializadas.contains(chave(outra.getId(), dia.atTime(outra.getHoraInicio())))) {
+                    throw new BadRequestException(mensagem);
+                }
+            }
+        }
+    }
+
+    // Ocorrências das séries já materializadas entre os dias de e ate (inclusive), pela chave de chave()
+    private Set<String> materializadas(List<ReservaRecorrente> series, LocalDate de, LocalDate ate) {
+        return reservaRepository.findOcorrenciasMaterializadas(series.stream().map(ReservaRecorrente::getId).toList(),
+                        de.atStartOfDay(), ate.plusDays(1).atStartOfDay()).stream()
+                .map(ocorrencia -> chave(ocorrencia.getRecorrenciaId(), ocorrencia.getDataInicio()))
+                .collect(Collectors.toSet());
+    }
+
+    private static String chave(Long serieId, LocalDateTime inicioOcorrencia) {
+        return serieId + "@" + inicioOcorrencia;
+    }
+
+    private static boolean sobrepoe(ReservaRecorrente serie, RegraRecorrencia regra, LocalDateTime inicio, LocalDateTime fim) {
+        return sobrepoe(serie, regra, inicio, fim, Set.of());
+    }
+
+    // Só os dias de [inicio, fim) são testados: o custo acompanha a janela, não a série
+    private static boolean sobrepoe(ReservaRecorrente serie, RegraRecorrencia regra, LocalDateTime inicio, LocalDateTime fim,
+                                    Set<String> materializadas) {
+        for (LocalDate dia : regra.dias(serie.getDataInicio(), serie.getDataFim(), inicio.toLocalDate(), fim.toLocalDate())) {
+            LocalDateTime inicioOcorrencia = dia.atTime(serie.getHoraInicio());
+            if (inicioOcorrencia.isBefore(fim) && dia.atTime(serie.getHoraFim()).isAfter(inicio)
+                    && !materializadas.contains(chave(serie.getId(), inicioOcorrencia))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<ReservaResumo> mesclar(List<ReservaResumo> reservas, List<ReservaRecorrenteRepository.SerieResumo> series,
+                                        LocalDateTime inicio, LocalDateTime fim) {
+        Set<String> materializadas = reservas.stream()
+                .filter(reserva -> reserva.getRecorrenciaId() != null)
+                .map(reserva -> chave(reserva.getRecorrenciaId(), reserva.getDataInicio()))
+                .collect(Collectors.toSet());
+        List<ReservaResumo> todas = new ArrayList<>(reservas);
+        for (ReservaRecorrenteRepository.SerieResumo serie : series) {
+            RegraRecorrencia regra = regra(serie.getRegra());
+            for (LocalDate dia : regra.dias(serie.getDataInicio(), serie.getDataFim(), inicio.toLocalDate(), fim.toLocalDate())) {
+                LocalDateTime inicioOcorrencia = dia.atTime(serie.getHoraInicio());
+                // Mesmo critério da listagem por período: o início da ocorrência dentro de [inicio, fim]
+                if (inicioOcorrencia.isBefore(inicio) || inicioOcorrencia.isAfter(fim)
+                        || materializadas.contains(chave(serie.getId(), inicioOcorrencia))) {
+                    continue;
+                }
+                todas.add(new ReservaResumo(null, StatusReserva.CONFIRMADA, inicioOcorrencia, dia.atTime(serie.getHoraFim()),
+                        serie.getObservacao(), serie.getCompartimentoId(), serie.getCompartimentoNumero(),
+                        serie.getArmarioId(), serie.getUsuarioId(), serie.getUsuarioNome(), serie.getId()));
+            }
+        }
+        todas.sort(Comparator.comparing(ReservaResumo::getDataInicio)
+                .thenComparing(ReservaResumo::getId, Comparator.nullsLast(Comparator.naturalOrder())));
+        return todas;
+    }
+
+    private static RegraRecorrencia regra(String regra) {
+        try {
+            return RegraRecorrencia.interpretar(regra);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+    }
+
+    private static void validarPeriodo(LocalDateTime inicio, LocalDateTime fim) {
+        if (inicio == null || fim == null) {
+            throw new BadRequestException("Início e fim do período são obrigatórios");
+        }
+        if (fim.isBefore(inicio)) {
+            throw new BadRequestException("Data de fim não pode ser anterior à data de início");
+        }
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
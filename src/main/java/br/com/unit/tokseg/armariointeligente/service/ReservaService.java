@@ -4,22 +4,32 @@ import br.com.unit.tokseg.armariointeligente.exception.BadRequestException;
 import br.com.unit.tokseg.armariointeligente.exception.ResourceNotFoundException;
 import br.com.unit.tokseg.armariointeligente.model.Compartimento;
 import br.com.unit.tokseg.armariointeligente.model.Reserva;
+import br.com.unit.tokseg.armariointeligente.model.ReservaResumo;
 import br.com.unit.tokseg.armariointeligente.model.StatusReserva;
 import br.com.unit.tokseg.armariointeligente.model.Usuario;
 import br.com.unit.tokseg.armariointeligente.repository.CompartimentoRepository;
 import br.com.unit.tokseg.armariointeligente.repository.ReservaRepository;
 import br.com.unit.tokseg.armariointeligente.repository.UsuarioRepository;
+import br.com.unit.tokseg.armariointeligente.util.TransacaoUtils;
 import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class ReservaService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ReservaService.class);
+
     @Autowired
     private ReservaRepository reservaRepository;
 
@@ -32,6 +42,18 @@ public class ReservaService {
     @Autowired
     private CompartimentoService compartimentoService;
 
+    @Autowired
+    private ContadoresCondominio contadoresCondominio;
+
+    @Autowired
+    private AgendaReservas agendaReservas;
+
+    @Autowired
+    private AlocacaoCompartimentoService alocacaoCompartimentoService;
+
+    @Autowired
+    private ReservaRecorrenteService reservaRecorrenteService;
+
     @Transactional
     public Reserva criarReserva(Reserva reserva) {
         if (reserva == null) {
@@ -51,33 +73,40 @@ public class ReservaService {
         }
 
         // Verificar se as datas são válidas
-        if (reserva.getDataInicio().isAfter(reserva.getDataFim())) {
-            throw new BadRequestException("Data de início não pode ser posterior à data de fim");
+        if (!reserva.getDataInicio().isBefore(reserva.getDataFim())) {
+            throw new BadRequestException("Data de início deve ser anterior à data de fim");
         }
         if (reserva.getDataInicio().isBefore(LocalDateTime.now())) {
             throw new BadRequestException("Data de início não pode ser no passado");
         }
 
-        Compartimento compartimento = compartimentoRepository.findById(reserva.getCompartimento().getId())
-                .orElseThrow(() -> new ResourceNotFoundException("Compartimento", "id", reserva.getCompartimento().getId()));
+        Long compartimentoId = reserva.getCompartimento().getId();
+        // Conflito já conhecido em memória é confirmado no banco sem bloquear nada (a agenda pode ter
+        // uma janela cancelada em outra instância); o caminho que grava confere de novo com a linha
+        // do compartimento bloqueada, o que serializa reservas concorrentes do mesmo compartimento
+        if (agendaReservas.haConflito(compartimentoId, reserva.getDataInicio(), reserva.getDataFim())) {
+            verificarSobreposicao(compartimentoId, reserva.getDataInicio(), reserva.getDataFim());
+        }
+        Compartimento compartimento = compartimentoRepository.findByIdParaReserva(compartimentoId)
+                .orElseThrow(() -> new ResourceNotFoundException("Compartimento", "id", compartimentoId));
+        verificarSobreposicao(compartimentoId, reserva.getDataInicio(), reserva.getDataFim());
+        if (reservaRecorrenteService.haConflito(compartimentoId, reserva.getDataInicio(), reserva.getDataFim())) {
+            throw new BadRequestException("Já existe uma reserva recorrente para este compartimento no período informado");
+        }
 
         Usuario usuario = usuarioRepository.findById(reserva.getUsuario().getId())
                 .orElseThrow(() -> new ResourceNotFoundException("Usuário", "id", reserva.getUsuario().getId()));
 
-        // Verificar se o compartimento está disponível para o período
-        if (compartimento.getOcupado()) {
-            throw new BadRequestException("O compartimento selecionado está ocupado");
-        }
-
-        // Definir valores padrão
+        // O compartimento só é ocupado quando a janela começa (CicloReservas)
         reserva.setStatus(StatusReserva.CONFIRMADA);
         reserva.setCompartimento(compartimento);
         reserva.setUsuario(usuario);
+        registrarTransicao(reserva, null, StatusReserva.CONFIRMADA);
 
-        // Atualizar status do compartimento
-        compartimentoService.atualizarStatusCompartimento(compartimento.getId(), true);
-
-        return reservaRepository.save(reserva);
+        Reserva salva = reservaRepository.save(reserva);
+        TransacaoUtils.executarAposCommit(() -> agendaReservas.registrar(salva.getId(), compartimentoId,
+                salva.getDataInicio(), salva.getDataFim()));
+        return salva;
     }
 
     @Transactional
@@ -85,16 +114,11 @@ public class ReservaService {
         Reserva reserva = reservaRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Reserva", "id", id));
 
-        if (reserva.getStatus() != StatusReserva.CONFIRMADA && reserva.getStatus() != StatusReserva.PENDENTE) {
+        if (!StatusReserva.VIGENTES.contains(reserva.getStatus())) {
             throw new BadRequestException("Esta reserva não pode ser cancelada");
         }
 
-        reserva.setStatus(StatusReserva.CANCELADA);
-
-        // Liberar o compartimento
-        compartimentoService.atualizarStatusCompartimento(reserva.getCompartimento().getId(), false);
-
-        return reservaRepository.save(reserva);
+        return encerrar(reserva, StatusReserva.CANCELADA);
     }
 
     @Transactional
@@ -102,42 +126,157 @@ public class ReservaService {
         Reserva reserva = reservaRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Reserva", "id", id));
 
-        if (reserva.getStatus() != StatusReserva.CONFIRMADA) {
+        if (reserva.getStatus() != StatusReserva.CONFIRMADA && reserva.getStatus() != StatusReserva.ATIVA) {
             throw new BadRequestException("Esta reserva não pode ser concluída");
         }
 
-        reserva.setStatus(StatusReserva.CONCLUIDA);
+        return encerrar(reserva, StatusReserva.CONCLUIDA);
+    }
+
+    // Início das janelas, em lote: as reservas confirmadas cuja janela já começou passam a ATIVA e ocupam
+    // os compartimentos com dois UPDATEs. Compartimento ainda ocupado (por exemplo, por uma entrega)
+    // deixa a reserva para o próximo ciclo.
+    @Transactional
+    public LoteReservas iniciarReservas(LocalDateTime agora, Long depoisDe, int limite) {
+        List<ReservaRepository.TransicaoReserva> lote =
+                reservaRepository.findParaIniciar(StatusReserva.CONFIRMADA, agora, depoisDe, Limit.of(limite));
+        if (lote.isEmpty()) {
+            return new LoteReservas(0, 0, 0, depoisDe);
+        }
+        Long ultimoId = lote.get(lote.size() - 1).getId();
 
-        // Liberar o compartimento
-        compartimentoService.atualizarStatusCompartimento(reserva.getCompartimento().getId(), false);
+        Set<Long> livres = compartimentoRepository.findAllByIdParaOcupacao(lote.stream()
+                        .map(ReservaRepository.TransicaoReserva::getCompartimentoId).toList()).stream()
+                .filter(compartimento -> !Boolean.TRUE.equals(compartimento.getOcupado()))
+                .map(Compartimento::getId)
+                .collect(Collectors.toSet());
+        Map<Boolean, List<ReservaRepository.TransicaoReserva>> porCompartimentoLivre = lote.stream()
+                .collect(Collectors.partitioningBy(transicao -> livres.contains(transicao.getCompartimentoId())));
+        List<ReservaRepository.TransicaoReserva> iniciadas = porCompartimentoLivre.get(true);
+        List<ReservaRepository.TransicaoReserva> adiadas = porCompartimentoLivre.get(false);
+        if (!adiadas.isEmpty()) {
+            logger.warn("{} reservas aguardando compartimento ocupado: {}", adiadas.size(),
+                    adiadas.stream().map(ReservaRepository.TransicaoReserva::getId).toList());
+        }
+        if (iniciadas.isEmpty()) {
+            return new LoteReservas(lote.size(), 0, adiadas.size(), ultimoId);
+        }
 
+        // Compartimentos bloqueados desde a consulta; uma reserva que mudou de estado nesse meio-tempo
+        // desfaz o lote, que é refeito no próximo ciclo
+        compartimentoRepository.ocuparTodosSeLivres(livres);
+        int alteradas = reservaRepository.atualizarStatus(
+                iniciadas.stream().map(ReservaRepository.TransicaoReserva::getId).toList(),
+                List.of(StatusReserva.CONFIRMADA), StatusReserva.ATIVA);
+        if (alteradas != iniciadas.size()) {
+            throw new IllegalStateException("Reservas do lote alteradas durante o início das janelas");
+        }
+        TransacaoUtils.executarAposCommit(() -> iniciadas.forEach(transicao -> {
+            alocacaoCompartimentoService.atualizarOcupacao(transicao.getCompartimentoId(), true);
+            contadoresCondominio.reservaAlterada(transicao.getArmarioId(), StatusReserva.CONFIRMADA, StatusReserva.ATIVA);
+        }));
+        return new LoteReservas(lote.size(), alteradas, adiadas.size(), ultimoId);
+    }
+
+    // Fim das janelas, em lote: as reservas ativas vencidas passam a CONCLUIDA e liberam os compartimentos;
+    // as que nunca começaram (compartimento ocupado durante toda a janela) passam a NAO_ATENDIDA.
+    // Um UPDATE por status de destino e um para os compartimentos.
+    @Transactional
+    public LoteReservas encerrarReservas(LocalDateTime agora, int limite) {
+        List<ReservaRepository.TransicaoReserva> lote = reservaRepository.findParaEncerrar(
+                List.of(StatusReserva.CONFIRMADA, StatusReserva.ATIVA), agora, Limit.of(limite));
+        if (lote.isEmpty()) {
+            return new LoteReservas(0, 0, 0, null);
+        }
+
+        Map<Boolean, List<ReservaRepository.TransicaoReserva>> porInicio = lote.stream()
+                .collect(Collectors.partitioningBy(transicao -> transicao.getStatus() == StatusReserva.ATIVA));
+        List<ReservaRepository.TransicaoReserva> ativas = porInicio.get(true);
+        List<ReservaRepository.TransicaoReserva> naoIniciadas = porInicio.get(false);
+        int alteradas = atualizarLote(ativas, StatusReserva.ATIVA, StatusReserva.CONCLUIDA)
+                + atualizarLote(naoIniciadas, StatusReserva.CONFIRMADA, StatusReserva.NAO_ATENDIDA);
+        if (alteradas != lote.size()) {
+            throw new IllegalStateException("Reservas do lote alteradas durante o fim das janelas");
+        }
+        if (!naoIniciadas.isEmpty()) {
+            logger.warn("{} reservas terminaram sem começar (compartimento ocupado): {}", naoIniciadas.size(),
+                    naoIniciadas.stream().map(ReservaRepository.TransicaoReserva::getId).toList());
+        }
+        // Só uma reserva ativa está segurando o compartimento
+        List<Long> liberar = ativas.stream()
+                .map(ReservaRepository.TransicaoReserva::getCompartimentoId)
+                .toList();
+        if (!liberar.isEmpty()) {
+            compartimentoRepository.liberarTodos(liberar);
+        }
+        TransacaoUtils.executarAposCommit(() -> {
+            liberar.forEach(id -> alocacaoCompartimentoService.atualizarOcupacao(id, false));
+            lote.forEach(transicao -> {
+                contadoresCondominio.reservaAlterada(transicao.getArmarioId(), transicao.getStatus(),
+                        transicao.getStatus() == StatusReserva.ATIVA ? StatusReserva.CONCLUIDA : StatusReserva.NAO_ATENDIDA);
+                agendaReservas.remover(transicao.getId(), transicao.getCompartimentoId(), transicao.getDataInicio());
+            });
+        });
+        return new LoteReservas(lote.size(), alteradas, 0, lote.get(lote.size() - 1).getId());
+    }
+
+    private int atualizarLote(List<ReservaRepository.TransicaoReserva> transicoes, StatusReserva anterior, StatusReserva nova) {
+        if (transicoes.isEmpty()) {
+            return 0;
+        }
+        return reservaRepository.atualizarStatus(transicoes.stream().map(ReservaRepository.TransicaoReserva::getId).toList(),
+                List.of(anterior), nova);
+    }
+
+    // Resultado de um lote do ciclo: reservas lidas, reservas alteradas, reservas adiadas por compartimento
+    // ocupado e o id da última lida
+    public record LoteReservas(int lidas, int alteradas, int adiadas, Long ultimoId) {
+    }
+
+    private Reserva encerrar(Reserva reserva, StatusReserva nova) {
+        Long compartimentoId = reserva.getCompartimento().getId();
+        // Só uma reserva ativa está segurando o compartimento
+        if (reserva.getStatus() == StatusReserva.ATIVA) {
+            compartimentoService.atualizarStatusCompartimento(compartimentoId, false);
+        }
+
+        registrarTransicao(reserva, reserva.getStatus(), nova);
+        reserva.setStatus(nova);
+        TransacaoUtils.executarAposCommit(() -> agendaReservas.remover(reserva.getId(), compartimentoId,
+                reserva.getDataInicio()));
         return reservaRepository.save(reserva);
     }
 
+    private void verificarSobreposicao(Long compartimentoId, LocalDateTime inicio, LocalDateTime fim) {
+        if (reservaRepository.existsSobreposicao(compartimentoId, StatusReserva.VIGENTES, inicio, fim)) {
+            throw new BadRequestException("Já existe uma reserva para este compartimento no período informado");
+        }
+    }
+
     @Transactional
-    public List<Reserva> listarReservas() {
-        return reservaRepository.findAll();
+    public List<ReservaResumo> listarReservas() {
+        return reservaRepository.findResumos();
     }
 
     @Transactional
-    public List<Reserva> listarReservasPorCompartimento(Long compartimentoId) {
+    public List<ReservaResumo> listarReservasPorCompartimento(Long compartimentoId) {
         if (!compartimentoRepository.existsById(compartimentoId)) {
             throw new ResourceNotFoundException("Compartimento", "id", compartimentoId);
         }
-        return reservaRepository.findByCompartimentoId(compartimentoId);
+        return reservaRepository.findResumosPorCompartimento(compartimentoId);
     }
 
     @Transactional
-    public List<Reserva> listarReservasPorUsuario(Long usuarioId) {
+    public List<ReservaResumo> listarReservasPorUsuario(Long usuarioId) {
         if (!usuarioRepository.existsById(usuarioId)) {
             throw new ResourceNotFoundException("Usuário", "id", usuarioId);
         }
-        return reservaRepository.findByUsuarioId(usuarioId);
+        return reservaRepository.findResumosPorUsuario(usuarioId);
     }
 
     @Transactional
-    public List<Reserva> listarReservasPorStatus(StatusReserva status) {
-        return reservaRepository.findByStatus(status);
+    public List<ReservaResumo> listarReservasPorStatus(StatusReserva status) {
+        return reservaRepository.findResumosPorStatus(status);
     }
 
     @Transactional
@@ -146,7 +285,13 @@ public class ReservaService {
     }
 
     @Transactional
-    public List<Reserva> listarReservasPorPeriodo(LocalDateTime inicio, LocalDateTime fim) {
-        return reservaRepository.findByDataInicioBetween(inicio, fim);
+    public List<ReservaResumo> listarReservasPorPeriodo(LocalDateTime inicio, LocalDateTime fim) {
+        // Inclui as ocorrências das reservas recorrentes que ainda não viraram reserva
+        return reservaRecorrenteService.incluirOcorrencias(reservaRepository.findResumosPorPeriodo(inicio, fim), inicio, fim);
+    }
+
+    private void registrarTransicao(Reserva reserva, StatusReserva anterior, StatusReserva nova) {
+        Long armarioId = reserva.getCompartimento().getArmario().getId();
+        TransacaoUtils.executarAposCommit(() -> contadoresCondominio.reservaAlterada(armarioId, anterior, nova));
     }
 }
@@ -0,0 +1,29 @@
+package br.com.unit.tokseg.armariointeligente.service;
+
+import br.com.unit.tokseg.armariointeligente.repository.ReservaRecorrenteRepository;
+import br.com.unit.tokseg.armariointeligente.repository.ReservaRepository;
+import br.com.unit.tokseg.armariointeligente.security.ContextoAcesso;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+@Service
+public class ReservaServiceImpl {
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    @Autowired
+    private ReservaRecorrenteRepository reservaRecorrenteRepository;
+
+    @Autowired
+    private ContextoAcesso contextoAcesso;
+
+    // Consulta apenas o id do titular, sem carregar a reserva e suas associações
+    public boolean isTitular(Long reservaId) {
+        return contextoAcesso.isDono("reserva", reservaId, reservaRepository::findUsuarioIdById);
+    }
+
+    public boolean isTitularRecorrente(Long reservaRecorrenteId) {
+        return contextoAcesso.isDono("reservaRecorrente", reservaRecorrenteId, reservaRecorrenteRepository::findUsuarioIdById);
+    }
+}
@@ -17,6 +17,9 @@ public class TipoUsuarioService {
     @Autowired
     private TipoUsuarioRepository tipoUsuarioRepository;
 
+    @Autowired
+    private CacheReferencia cacheReferencia;
+
     @Transactional
     public TipoUsuario criarTipoUsuario(TipoUsuario tipoUsuario) {
         if (tipoUsuario == null) {
@@ -26,7 +29,7 @@ public class TipoUsuarioService {
             throw new BadRequestException("O nome do tipo de usuário não pode ser nulo ou vazio");
         }
 
-        tipoUsuarioRepository.findByNome(tipoUsuario.getNome()).ifPresent(t -> {
+        cacheReferencia.tipoUsuarioPorNome(tipoUsuario.getNome(), tipoUsuarioRepository::findByNome).ifPresent(t -> {
             throw new ResourceAlreadyExistsException("Tipo de usuário", "nome",
                     tipoUsuario.getNome());
         });
@@ -51,7 +54,7 @@ public class TipoUsuarioService {
         // Verifica se o novo nome já existe para outro tipo de usuário
         if (tipoUsuario.getNome() != null && !tipoUsuario.getNome().isEmpty()) {
             Optional<TipoUsuario> tipoComMesmoNome =
-                    tipoUsuarioRepository.findByNome(tipoUsuario.getNome());
+                    cacheReferencia.tipoUsuarioPorNome(tipoUsuario.getNome(), tipoUsuarioRepository::findByNome);
             if (tipoComMesmoNome.isPresent() && !tipoComMesmoNome.get().getId().equals(id)) {
                 throw new ResourceAlreadyExistsException("Tipo de usuário", "nome",
                         tipoUsuario.getNome());
@@ -63,6 +66,7 @@ public class TipoUsuarioService {
             tipoExistente.setDescricao(tipoUsuario.getDescricao());
         }
 
+        cacheReferencia.invalidarTipoUsuario(id);
         return tipoUsuarioRepository.save(tipoExistente);
     }
 
@@ -76,5 +80,6 @@ public class TipoUsuarioService {
         }
 
         tipoUsuarioRepository.deleteById(id);
+        cacheReferencia.invalidarTipoUsuario(id);
     }
 }
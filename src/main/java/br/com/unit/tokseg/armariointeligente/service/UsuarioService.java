@@ -15,9 +15,8 @@ import br.com.unit.tokseg.armariointeligente.repository.TipoUsuarioRepository;
 import br.com.unit.tokseg.armariointeligente.repository.UsuarioRepository;
 import jakarta.transaction.Transactional;
 import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import br.com.unit.tokseg.armariointeligente.security.UserDetailsImpl;
+import br.com.unit.tokseg.armariointeligente.security.PrincipalCache;
+import br.com.unit.tokseg.armariointeligente.security.TokenVersionService;
 
 @Service
 public class UsuarioService {
@@ -31,6 +30,15 @@ public class UsuarioService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private TokenVersionService tokenVersionService;
+
+    @Autowired
+    private CacheReferencia cacheReferencia;
+
     @Transactional
     public Usuario criarUsuario(Usuario usuario) {
         if (usuario == null) {
@@ -51,7 +59,7 @@ public class UsuarioService {
             throw new BadRequestException("Tipo de usuário é obrigatório");
         }
 
-        TipoUsuario tipoUsuario = tipoUsuarioRepository.findById(usuario.getTipoUsuario().getId())
+        TipoUsuario tipoUsuario = cacheReferencia.tipoUsuario(usuario.getTipoUsuario().getId(), tipoUsuarioRepository::findById)
                 .orElseThrow(() -> new ResourceNotFoundException("Tipo de usuário", "id",
                         usuario.getTipoUsuario().getId()));
 
@@ -84,6 +92,8 @@ public class UsuarioService {
     public Usuario atualizarUsuario(Long id, Usuario usuario) {
         Usuario usuarioExistente = usuarioRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuário", "id", id));
+        String emailAnterior = usuarioExistente.getEmail();
+        Long tipoAnterior = usuarioExistente.getTipoUsuario().getId();
 
         // Verifica se o email já está em uso por outro usuário
         if (usuario.getEmail() != null && !usuario.getEmail().isEmpty()) {
@@ -99,7 +109,7 @@ public class UsuarioService {
         // Atualiza o tipo de usuário se fornecido
         if (usuario.getTipoUsuario() != null && usuario.getTipoUsuario().getId() != null) {
             TipoUsuario tipoUsuario =
-                    tipoUsuarioRepository.findById(usuario.getTipoUsuario().getId())
+                    cacheReferencia.tipoUsuario(usuario.getTipoUsuario().getId(), tipoUsuarioRepository::findById)
                             .orElseThrow(() -> new ResourceNotFoundException("Tipo de usuário",
                                     "id", usuario.getTipoUsuario().getId()));
             usuarioExistente.setTipoUsuario(tipoUsuario);
@@ -119,6 +129,15 @@ public class UsuarioService {
             usuarioExistente.setSenha(passwordEncoder.encode(usuario.getSenha()));
         }
 
+        // Papel, email ou senha podem ter mudado: o principal em cache não vale mais
+        principalCache.invalidar(emailAnterior);
+
+        // Tokens carregam email e papel nas claims; se mudaram, os já emitidos são revogados
+        if (!usuarioExistente.getEmail().equals(emailAnterior)
+                || !usuarioExistente.getTipoUsuario().getId().equals(tipoAnterior)) {
+            revogarTokens(usuarioExistente);
+        }
+
         return usuarioRepository.save(usuarioExistente);
     }
     
@@ -128,6 +147,8 @@ public class UsuarioService {
                 .orElseThrow(() -> new ResourceNotFoundException("Usuário", "id", id));
         
         usuario.setAtivo(false);
+        principalCache.invalidar(usuario.getEmail());
+        revogarTokens(usuario);
         return usuarioRepository.save(usuario);
     }
     
@@ -137,28 +158,33 @@ public class UsuarioService {
                 .orElseThrow(() -> new ResourceNotFoundException("Usuário", "id", id));
         
         usuario.setAtivo(true);
+        principalCache.invalidar(usuario.getEmail());
         return usuarioRepository.save(usuario);
     }
 
+    // Invalida de uma vez todos os tokens já emitidos para o usuário
+    @Transactional
+    public void revogarTodosTokens(Long id) {
+        Usuario usuario = usuarioRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Usuário", "id", id));
+
+        principalCache.invalidar(usuario.getEmail());
+        revogarTokens(usuario);
+        usuarioRepository.save(usuario);
+    }
+
     @Transactional
     public void deletarUsuario(Long id) {
-        if (!usuarioRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Usuário", "id", id);
-        }
-        usuarioRepository.deleteById(id);
+        Usuario usuario = usuarioRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Usuário", "id", id));
+
+        principalCache.invalidar(usuario.getEmail());
+        tokenVersionService.registrarRemocao(id);
+        usuarioRepository.delete(usuario);
     }
 
-    public boolean isCurrentUser(Long userId) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated()) {
-            return false;
-        }
-        
-        Object principal = authentication.getPrincipal();
-        if (principal instanceof UserDetailsImpl) {
-            return ((UserDetailsImpl) principal).getId().equals(userId);
-        }
-        
-        return false;
+    private void revogarTokens(Usuario usuario) {
+        usuario.incrementarVersaoToken();
+        tokenVersionService.registrarNovaVersao(usuario.getId(), usuario.getVersaoToken());
     }
 }
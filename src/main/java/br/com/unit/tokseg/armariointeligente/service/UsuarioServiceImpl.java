@@ -0,0 +1,17 @@
+package br.com.unit.tokseg.armariointeligente.service;
+
+import br.com.unit.tokseg.armariointeligente.security.ContextoAcesso;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+@Service
+public class UsuarioServiceImpl {
+
+    @Autowired
+    private ContextoAcesso contextoAcesso;
+
+    // O id do usuário vem do próprio token: a verificação não consulta o banco
+    public boolean isCurrentUser(Long userId) {
+        return userId != null && contextoAcesso.getUsuarioId().map(userId::equals).orElse(false);
+    }
+}
@@ -0,0 +1,223 @@
+package br.com.unit.tokseg.armariointeligente.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+
+// Árvore de intervalos semiabertos [inicio, fim) ordenada por (inicio, id) e balanceada como AVL.
+// Cada nó guarda o maior fim da sua subárvore, o que permite descartar ramos inteiros na busca:
+// inserir, remover e responder se há sobreposição custam O(log n). Não é segura entre threads.
+public final class ArvoreIntervalos {
+
+    private No raiz;
+    private int tamanho;
+
+    public void inserir(long id, long inicio, long fim) {
+        if (fim <= inicio) {
+            throw new IllegalArgumentException("Intervalo vazio");
+        }
+        raiz = inserir(raiz, new No(id, inicio, fim));
+        tamanho++;
+    }
+
+    public boolean remover(long id, long inicio) {
+        int antes = tamanho;
+        raiz = remover(raiz, id, inicio);
+        return tamanho < antes;
+    }
+
+    // Dois intervalos semiabertos se sobrepõem quando cada um começa antes de o outro terminar
+    public boolean sobrepoe(long inicio, long fim) {
+        No no = raiz;
+        while (no != null) {
+            if (no.inicio < fim && inicio < no.fim) {
+                return true;
+            }
+            // Se algo à esquerda sobrepõe, o máximo da esquerda passa do início; senão só resta a direita
+            if (no.esquerda != null && no.esquerda.maiorFim > inicio) {
+                no = no.esquerda;
+            } else if (no.inicio < fim) {
+                no = no.direita;
+            } else {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    // Ids de todos os intervalos que sobrepõem [inicio, fim), em ordem de início
+    public List<Long> sobrepostos(long inicio, long fim) {
+        List<Long> ids = new ArrayList<>();
+        coletar(raiz, inicio, fim, ids);
+        return ids;
+    }
+
+    // Fim do intervalo de maior início antes do instante. Com intervalos que não se sobrepõem
+    // (as reservas de um compartimento), é o fim do intervalo imediatamente anterior.
+    public OptionalLong fimDoAnterior(long instante) {
+        No no = raiz;
+        No anterior = null;
+        while (no != null) {
+            if (no.inicio < instante) {
+                anterior = no;
+                no = no.direita;
+            } else {
+                no = no.esquerda;
+            }
+        }
+        return anterior != null ? OptionalLong.of(anterior.fim) : OptionalLong.empty();
+    }
+
+    // Início do primeiro intervalo que começa no instante ou depois dele
+    public OptionalLong inicioDoProximo(long instante) {
+        No no = raiz;
+        No proximo = null;
+        while (no != null) {
+            if (no.inicio >= instante) {
+                proximo = no;
+                no = no.esquerda;
+            } else {
+                no = no.direita;
+            }
+        }
+        return proximo != null ? OptionalLong.of(proximo.inicio) : OptionalLong.empty();
+    }
+
+    public int tamanho() {
+        return tamanho;
+    }
+
+    private void coletar(No no, long inicio, long fim, List<Long> ids) {
+        if (no == null || no.maiorFim <= inicio) {
+            return;
+        }
+        coletar(no.esquerda, inicio, fim, ids);
+        if (no.inicio >= fim) {
+            return;
+        }
+        if (inicio < no.fim) {
+            ids.add(no.id);
+        }
+        coletar(no.direita, inicio, fim, ids);
+    }
+
+    private static int comparar(long inicioA, long idA, long inicioB, long idB) {
+        int porInicio = Long.compare(inicioA, inicioB);
+        return porInicio != 0 ? porInicio : Long.compare(idA, idB);
+    }
+
+    private No inserir(No no, No novo) {
+        if (no == null) {
+            return novo;
+        }
+        if (comparar(novo.inicio, novo.id, no.inicio, no.id) < 0) {
+            no.esquerda = inserir(no.esquerda, novo);
+        } else {
+            no.direita = inserir(no.direita, novo);
+        }
+        return balancear(no);
+    }
+
+    private No remover(No no, long id, long inicio) {
+        if (no == null) {
+            return null;
+        }
+        int comparacao = comparar(inicio, id, no.inicio, no.id);
+        if (comparacao < 0) {
+            no.esquerda = remover(no.esquerda, id, inicio);
+        } else if (comparacao > 0) {
+            no.direita = remover(no.direita, id, inicio);
+        } else {
+            tamanho--;
+            if (no.esquerda == null || no.direita == null) {
+                return no.esquerda != null ? no.esquerda : no.direita;
+            }
+            // Dois filhos: o sucessor (menor da direita) ocupa o lugar do nó removido
+            No sucessor = no.direita;
+            while (sucessor.esquerda != null) {
+                sucessor = sucessor.esquerda;
+            }
+            sucessor.direita = removerMenor(no.direita);
+            sucessor.esquerda = no.esquerda;
+            return balancear(sucessor);
+        }
+        return balancear(no);
+    }
+
+    private No removerMenor(No no) {
+        if (no.esquerda == null) {
+            return no.direita;
+        }
+        no.esquerda = removerMenor(no.esquerda);
+        return balancear(no);
+    }
+
+    private No balancear(No no) {
+        atualizar(no);
+        int fator = altura(no.esquerda) - altura(no.direita);
+        if (fator > 1) {
+            if (altura(no.esquerda.esquerda) < altura(no.esquerda.direita)) {
+                no.esquerda = girarEsquerda(no.esquerda);
+            }
+            return girarDireita(no);
+        }
+        if (fator < -1) {
+            if (altura(no.direita.direita) < altura(no.direita.esquerda)) {
+                no.direita = girarDireita(no.direita);
+            }
+            return girarEsquerda(no);
+        }
+        return no;
+    }
+
+    private No girarDireita(No no) {
+        No esquerda = no.esquerda;
+        no.esquerda = esquerda.direita;
+        esquerda.direita = no;
+        atualizar(no);
+        atualizar(esquerda);
+        return esquerda;
+    }
+
+    private No girarEsquerda(No no) {
+        No direita = no.direita;
+        no.direita = direita.esquerda;
+        direita.esquerda = no;
+        atualizar(no);
+        atualizar(direita);
+        return direita;
+    }
+
+    private static void atualizar(No no) {
+        no.altura = 1 + Math.max(altura(no.esquerda), altura(no.direita));
+        long maior = no.fim;
+        if (no.esquerda != null) {
+            maior = Math.max(maior, no.esquerda.maiorFim);
+        }
+        if (no.direita != null) {
+            maior = Math.max(maior, no.direita.maiorFim);
+        }
+        no.maiorFim = maior;
+    }
+
+    private static int altura(No no) {
+        return no != null ? no.altura : 0;
+    }
+
+    private static final class No {
+        final long id;
+        final long inicio;
+        final long fim;
+        long maiorFim;
+        int altura = 1;
+        No esquerda;
+        No direita;
+
+        No(long id, long inicio, long fim) {
+            this.id = id;
+            this.inicio = inicio;
+            this.fim = fim;
+            this.maiorFim = fim;
+        }
+    }
+}
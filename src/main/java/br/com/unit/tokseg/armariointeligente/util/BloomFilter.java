@@ -0,0 +1,67 @@
+package br.com.unit.tokseg.armariointeligente.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Filtro de Bloom seguro entre threads: "não contém" é definitivo, "pode conter" exige confirmação
+public final class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final int numeroBits;
+    private final int numeroHashes;
+
+    public BloomFilter(int capacidadeEsperada, double taxaFalsoPositivo) {
+        if (capacidadeEsperada <= 0 || taxaFalsoPositivo <= 0 || taxaFalsoPositivo >= 1) {
+            throw new IllegalArgumentException("Capacidade e taxa de falso positivo inválidas");
+        }
+        double ln2 = Math.log(2);
+        long m = (long) Math.ceil(-capacidadeEsperada * Math.log(taxaFalsoPositivo) / (ln2 * ln2));
+        this.numeroBits = (int) Math.max(64, Math.min(m, Integer.MAX_VALUE - 64));
+        this.numeroHashes = Math.max(1, (int) Math.round((double) numeroBits / capacidadeEsperada * ln2));
+        this.bits = new AtomicLongArray((numeroBits + 63) / 64);
+    }
+
+    public void adicionar(String valor) {
+        long h1 = hash(valor);
+        long h2 = misturar(h1 ^ 0x9E3779B97F4A7C15L);
+        for (int i = 0; i < numeroHashes; i++) {
+            int posicao = posicao(h1 + i * h2);
+            long mascara = 1L << (posicao & 63);
+            bits.getAndAccumulate(posicao >>> 6, mascara, (atual, m) -> atual | m);
+        }
+    }
+
+    public boolean podeConter(String valor) {
+        long h1 = hash(valor);
+        long h2 = misturar(h1 ^ 0x9E3779B97F4A7C15L);
+        for (int i = 0; i < numeroHashes; i++) {
+            int posicao = posicao(h1 + i * h2);
+            if ((bits.get(posicao >>> 6) & (1L << (posicao & 63))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int posicao(long combinado) {
+        return (int) Long.remainderUnsigned(combinado, numeroBits);
+    }
+
+    // FNV-1a de 64 bits seguido da finalização do MurmurHash3 para espalhar os bits
+    private static long hash(String valor) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < valor.length(); i++) {
+            h ^= valor.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return misturar(h);
+    }
+
+    private static long misturar(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,44 @@
+package br.com.unit.tokseg.armariointeligente.util;
+
+import br.com.unit.tokseg.armariointeligente.exception.BadRequestException;
+
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+// Cursor opaco de paginação por chave: a posição (data, id) do último item entregue ao cliente.
+// O cliente só devolve o texto recebido; o formato pode mudar sem quebrar a API.
+public final class CursorPaginacao {
+
+    private static final int TAMANHO = Long.BYTES + Integer.BYTES + Long.BYTES;
+
+    private CursorPaginacao() {
+    }
+
+    public static String codificar(LocalDateTime data, long id) {
+        ByteBuffer buffer = ByteBuffer.allocate(TAMANHO)
+                .putLong(data.toEpochSecond(ZoneOffset.UTC))
+                .putInt(data.getNano())
+                .putLong(id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    public static Posicao decodificar(String cursor) {
+        try {
+            byte[] bytes = Base64.getUrlDecoder().decode(cursor);
+            if (bytes.length != TAMANHO) {
+                throw new BadRequestException("Cursor de paginação inválido");
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            LocalDateTime data = LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+            return new Posicao(data, buffer.getLong());
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new BadRequestException("Cursor de paginação inválido");
+        }
+    }
+
+    public record Posicao(LocalDateTime data, long id) {
+    }
+}
@@ -0,0 +1,117 @@
+package br.com.unit.tokseg.armariointeligente.util;
+
+// Mapa int -> long com endereçamento aberto e sondagem linear, sem boxing nem objetos por entrada.
+// Não é seguro entre threads: quem compartilha a instância deve sincronizar o acesso.
+public final class MapaIntLong {
+
+    private int[] chaves;
+    private long[] valores;
+    private boolean[] usadas;
+    private int tamanho;
+
+    public MapaIntLong(int capacidadeInicial) {
+        int capacidade = Integer.highestOneBit(Math.max(8, capacidadeInicial * 2 - 1)) << 1;
+        alocar(capacidade);
+    }
+
+    public long obter(int chave, long padrao) {
+        int mascara = chaves.length - 1;
+        for (int i = indice(chave, mascara); usadas[i]; i = (i + 1) & mascara) {
+            if (chaves[i] == chave) {
+                return valores[i];
+            }
+        }
+        return padrao;
+    }
+
+    public boolean contem(int chave) {
+        int mascara = chaves.length - 1;
+        for (int i = indice(chave, mascara); usadas[i]; i = (i + 1) & mascara) {
+            if (chaves[i] == chave) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Devolve o valor anterior, ou padrao se a chave não existia
+    public long colocar(int chave, long valor, long padrao) {
+        int mascara = chaves.length - 1;
+        int i = indice(chave, mascara);
+        for (; usadas[i]; i = (i + 1) & mascara) {
+            if (chaves[i] == chave) {
+                long anterior = valores[i];
+                valores[i] = valor;
+                return anterior;
+            }
+        }
+        chaves[i] = chave;
+        valores[i] = valor;
+        usadas[i] = true;
+        if (++tamanho * 2 > chaves.length) {
+            redimensionar();
+        }
+        return padrao;
+    }
+
+    // Remoção com deslocamento para trás: não deixa marcadores e as buscas continuam curtas
+    public long remover(int chave, long padrao) {
+        int mascara = chaves.length - 1;
+        int i = indice(chave, mascara);
+        while (usadas[i] && chaves[i] != chave) {
+            i = (i + 1) & mascara;
+        }
+        if (!usadas[i]) {
+            return padrao;
+        }
+        long removido = valores[i];
+        int vazio = i;
+        for (int j = (i + 1) & mascara; usadas[j]; j = (j + 1) & mascara) {
+            int ideal = indice(chaves[j], mascara);
+            // Move a entrada j para a lacuna se a lacuna estiver entre a posição ideal de j e j
+            if (((j - ideal) & mascara) >= ((j - vazio) & mascara)) {
+                chaves[vazio] = chaves[j];
+                valores[vazio] = valores[j];
+                vazio = j;
+            }
+        }
+        usadas[vazio] = false;
+        tamanho--;
+        return removido;
+    }
+
+    public int tamanho() {
+        return tamanho;
+    }
+
+    private void redimensionar() {
+        int[] chavesAntigas = chaves;
+        long[] valoresAntigos = valores;
+        boolean[] usadasAntigas = usadas;
+        alocar(chavesAntigas.length * 2);
+        int mascara = chaves.length - 1;
+        for (int j = 0; j < chavesAntigas.length; j++) {
+            if (usadasAntigas[j]) {
+                int i = indice(chavesAntigas[j], mascara);
+                while (usadas[i]) {
+                    i = (i + 1) & mascara;
+                }
+                chaves[i] = chavesAntigas[j];
+                valores[i] = valoresAntigos[j];
+                usadas[i] = true;
+            }
+        }
+    }
+
+    private void alocar(int capacidade) {
+        chaves = new int[capacidade];
+        valores = new long[capacidade];
+        usadas = new boolean[capacidade];
+    }
+
+    // Espalha chaves sequenciais (códigos de 6 dígitos são densos) pelos buckets
+    private static int indice(int chave, int mascara) {
+        int h = chave * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mascara;
+    }
+}
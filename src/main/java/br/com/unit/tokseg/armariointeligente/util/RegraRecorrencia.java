@@ -0,0 +1,134 @@
+package br.com.unit.tokseg.armariointeligente.util;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Subconjunto do RRULE (RFC 5545) usado pelas reservas recorrentes: FREQ=DAILY|WEEKLY, INTERVAL e BYDAY,
+// por exemplo "FREQ=WEEKLY;BYDAY=MO,TU,WE,TH,FR". O início e o fim da série ficam fora da regra.
+// As ocorrências nunca são listadas desde o início da série: cada dia é testado com aritmética de datas,
+// então expandir uma janela custa O(dias da janela), não importa há quanto tempo a série existe.
+public final class RegraRecorrencia {
+
+    public enum Frequencia {
+        DAILY, WEEKLY
+    }
+
+    private static final List<String> DIAS = List.of("MO", "TU", "WE", "TH", "FR", "SA", "SU");
+
+    private final Frequencia frequencia;
+    private final int intervalo;
+    // Vazio: semanal repete o dia da semana do início da série; diária vale todos os dias
+    private final Set<DayOfWeek> dias;
+
+    private RegraRecorrencia(Frequencia frequencia, int intervalo, Set<DayOfWeek> dias) {
+        this.frequencia = frequencia;
+        this.intervalo = intervalo;
+        this.dias = dias;
+    }
+
+    public static RegraRecorrencia interpretar(String regra) {
+        if (regra == null || regra.isBlank()) {
+            throw new IllegalArgumentException("Regra de recorrência não pode ser vazia");
+        }
+        Frequencia frequencia = null;
+        int intervalo = 1;
+        Set<DayOfWeek> dias = EnumSet.noneOf(DayOfWeek.class);
+        for (String parte : regra.trim().toUpperCase(Locale.ROOT).split(";")) {
+            String[] chaveValor = parte.split("=", 2);
+            if (chaveValor.length != 2) {
+                throw new IllegalArgumentException("Parte inválida na regra de recorrência: '" + parte + "'");
+            }
+            String valor = chaveValor[1].trim();
+            switch (chaveValor[0].trim()) {
+                case "FREQ" -> {
+                    try {
+                        frequencia = Frequencia.valueOf(valor);
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalArgumentException("Frequência não suportada: '" + valor + "'");
+                    }
+                }
+                case "INTERVAL" -> {
+                    try {
+                        intervalo = Integer.parseInt(valor);
+                    } catch (NumberFormatException e) {
+                        intervalo = 0;
+                    }
+                    if (intervalo < 1) {
+                        throw new IllegalArgumentException("Intervalo deve ser um inteiro positivo");
+                    }
+                }
+                case "BYDAY" -> {
+                    for (String dia : valor.split(",")) {
+                        int indice = DIAS.indexOf(dia.trim());
+                        if (indice < 0) {
+                            throw new IllegalArgumentException("Dia da semana inválido: '" + dia + "'");
+                        }
+                        dias.add(DayOfWeek.of(indice + 1));
+                    }
+                }
+                default -> throw new IllegalArgumentException("Parte não suportada na regra de recorrência: '"
+                        + chaveValor[0] + "'");
+            }
+        }
+        if (frequencia == null) {
+            throw new IllegalArgumentException("Regra de recorrência sem FREQ");
+        }
+        return new RegraRecorrencia(frequencia, intervalo, dias);
+    }
+
+    // A série começa em inicioSerie; o dia só ocorre se estiver no passo do intervalo e nos dias da regra
+    public boolean ocorreEm(LocalDate dia, LocalDate inicioSerie) {
+        if (dia.isBefore(inicioSerie)) {
+            return false;
+        }
+        if (frequencia == Frequencia.DAILY) {
+            return ChronoUnit.DAYS.between(inicioSerie, dia) % intervalo == 0
+                    && (dias.isEmpty() || dias.contains(dia.getDayOfWeek()));
+        }
+        boolean diaDaSemana = dias.isEmpty()
+                ? dia.getDayOfWeek() == inicioSerie.getDayOfWeek()
+                : dias.contains(dia.getDayOfWeek());
+        // Semanas contadas a partir da segunda-feira (WKST=MO, o padrão do RRULE)
+        return diaDaSemana && ChronoUnit.WEEKS.between(segunda(inicioSerie), segunda(dia)) % intervalo == 0;
+    }
+
+    // Dias de ocorrência entre de e ate (inclusive), limitados ao início e ao fim (opcional) da série
+    public List<LocalDate> dias(LocalDate inicioSerie, LocalDate fimSerie, LocalDate de, LocalDate ate) {
+        LocalDate dia = de.isBefore(inicioSerie) ? inicioSerie : de;
+        LocalDate ultimo = fimSerie != null && fimSerie.isBefore(ate) ? fimSerie : ate;
+        List<LocalDate> ocorrencias = new ArrayList<>();
+        for (; !dia.isAfter(ultimo); dia = dia.plusDays(1)) {
+            if (ocorreEm(dia, inicioSerie)) {
+                ocorrencias.add(dia);
+            }
+        }
+        return ocorrencias;
+    }
+
+    // Forma canônica, a que é gravada
+    @Override
+    public String toString() {
+        StringBuilder regra = new StringBuilder("FREQ=").append(frequencia);
+        if (intervalo != 1) {
+            regra.append(";INTERVAL=").append(intervalo);
+        }
+        if (!dias.isEmpty()) {
+            regra.append(";BYDAY=").append(dias.stream()
+                    .map(dia -> DIAS.get(dia.getValue() - 1))
+                    .collect(Collectors.joining(",")));
+        }
+        return regra.toString();
+    }
+
+    private static LocalDate segunda(LocalDate dia) {
+        return dia.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+}
@@ -0,0 +1,109 @@
+package br.com.unit.tokseg.armariointeligente.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Roda temporal hierárquica: cada nível tem o mesmo número de posições e cada posição de um nível
+// cobre uma volta inteira do nível abaixo. Agendar é O(1); avançar custa O(1) por tique mais o que
+// vence, e um item só desce de nível quando sua posição é alcançada. Não é segura entre threads.
+public final class RodaTemporal {
+
+    private final long tiqueMs;
+    private final int posicoes;
+    private final int bitsPorNivel;
+    private final List<Agendado>[][] niveis;
+
+    // Tempo atual em tiques do nível 0; tudo com tique <= atual já venceu
+    private long atual;
+    private int tamanho;
+
+    private final List<Long> vencidosPendentes = new ArrayList<>();
+
+    @SuppressWarnings("unchecked")
+    public RodaTemporal(long tiqueMs, int posicoesPorNivel, int numeroNiveis, long inicioMs) {
+        if (tiqueMs <= 0 || Integer.bitCount(posicoesPorNivel) != 1 || numeroNiveis < 1
+                || (long) Integer.numberOfTrailingZeros(posicoesPorNivel) * numeroNiveis > 62) {
+            throw new IllegalArgumentException("Configuração inválida da roda temporal");
+        }
+        this.tiqueMs = tiqueMs;
+        this.posicoes = posicoesPorNivel;
+        this.bitsPorNivel = Integer.numberOfTrailingZeros(posicoesPorNivel);
+        this.niveis = new List[numeroNiveis][posicoesPorNivel];
+        this.atual = inicioMs / tiqueMs;
+    }
+
+    // Um prazo já vencido sai no próximo avançar
+    public void agendar(long id, long prazoMs) {
+        long tique = Math.floorDiv(prazoMs + tiqueMs - 1, tiqueMs);
+        tamanho++;
+        inserir(new Agendado(id, tique));
+    }
+
+    // Avança até o instante informado e devolve os ids cujo prazo chegou
+    public List<Long> avancar(long agoraMs) {
+        List<Long> vencidos = new ArrayList<>();
+        long alvo = agoraMs / tiqueMs;
+        while (atual < alvo) {
+            atual++;
+            cascatear(1);
+            List<Agendado> posicao = niveis[0][(int) (atual & (posicoes - 1))];
+            if (posicao != null && !posicao.isEmpty()) {
+                for (Agendado agendado : posicao) {
+                    vencidos.add(agendado.id());
+                }
+                posicao.clear();
+            }
+        }
+        // Inclui os agendados já vencidos e os que desceram de nível exatamente no seu tique
+        vencidos.addAll(vencidosPendentes);
+        vencidosPendentes.clear();
+        tamanho -= vencidos.size();
+        return vencidos;
+    }
+
+    public int tamanho() {
+        return tamanho;
+    }
+
+    // Quando um nível completa a volta, a próxima posição do nível de cima é redistribuída para baixo
+    private void cascatear(int nivel) {
+        if (nivel >= niveis.length || (atual & ((1L << (bitsPorNivel * nivel)) - 1)) != 0) {
+            return;
+        }
+        cascatear(nivel + 1);
+        int indice = (int) ((atual >>> (bitsPorNivel * nivel)) & (posicoes - 1));
+        List<Agendado> posicao = niveis[nivel][indice];
+        if (posicao != null && !posicao.isEmpty()) {
+            niveis[nivel][indice] = null;
+            for (Agendado agendado : posicao) {
+                inserir(agendado);
+            }
+        }
+    }
+
+    private void inserir(Agendado agendado) {
+        long distancia = agendado.tique() - atual;
+        if (distancia <= 0) {
+            vencidosPendentes.add(agendado.id());
+            return;
+        }
+        int nivel = 0;
+        while (nivel < niveis.length - 1 && distancia >= 1L << (bitsPorNivel * (nivel + 1))) {
+            nivel++;
+        }
+        // Além do alcance do último nível: fica na posição mais distante e é reinserido ao passar por ela
+        long tique = distancia >= 1L << (bitsPorNivel * niveis.length)
+                ? atual + (1L << (bitsPorNivel * niveis.length)) - 1
+                : agendado.tique();
+        int indice = (int) ((tique >>> (bitsPorNivel * nivel)) & (posicoes - 1));
+        List<Agendado> posicao = niveis[nivel][indice];
+        if (posicao == null) {
+            posicao = new ArrayList<>();
+            niveis[nivel][indice] = posicao;
+        }
+        posicao.add(agendado);
+    }
+
+    private record Agendado(long id, long tique) {
+    }
+}
@@ -0,0 +1,38 @@
+package br.com.unit.tokseg.armariointeligente.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public final class TransacaoUtils {
+
+    private TransacaoUtils() {
+    }
+
+    // Executa a ação após o commit da transação atual, ou imediatamente se não houver transação ativa
+    public static void executarAposCommit(Runnable acao) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    acao.run();
+                }
+            });
+        } else {
+            acao.run();
+        }
+    }
+
+    // Executa a ação somente se a transação atual for desfeita
+    public static void executarAposRollback(Runnable acao) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        acao.run();
+                    }
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package br.com.unit.tokseg.armariointeligente.controller;
+
+import br.com.unit.tokseg.armariointeligente.exception.BadRequestException;
+import br.com.unit.tokseg.armariointeligente.exception.TooManyRequestsException;
+import br.com.unit.tokseg.armariointeligente.model.Entrega;
+import br.com.unit.tokseg.armariointeligente.security.UserDetailsImpl;
+import br.com.unit.tokseg.armariointeligente.service.EntregaService;
+import br.com.unit.tokseg.armariointeligente.service.IndiceCodigosAcesso;
+import br.com.unit.tokseg.armariointeligente.service.LimiteTentativasRetirada;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class ArmarioControllerTest {
+
+    @Mock
+    private EntregaService entregaService;
+
+    @Mock
+    private IndiceCodigosAcesso indiceCodigosAcesso;
+
+    @InjectMocks
+    private ArmarioController armarioController;
+
+    private UserDetailsImpl morador;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(armarioController, "limiteTentativasRetirada",
+                new LimiteTentativasRetirada(3, 50, Duration.ofMinutes(15)));
+        morador = new UserDetailsImpl(7L, "Morador", "morador@exemplo.com", "senha", Collections.emptyList(), true, 0L);
+
+        when(indiceCodigosAcesso.resolver(anyLong(), anyString())).thenReturn(null);
+        when(indiceCodigosAcesso.resolver(1L, "123456")).thenReturn(100L);
+        when(entregaService.registrarRetiradaNoCompartimento(100L, "123456")).thenReturn(new Entrega());
+    }
+
+    @Test
+    public void testRetirarPorCodigo() {
+        ResponseEntity<?> response = armarioController.retirarPorCodigo(1L, "123456", morador);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(entregaService, times(1)).registrarRetiradaNoCompartimento(100L, "123456");
+    }
+
+    @Test
+    public void testCodigosErradosBloqueiamOCodigoCerto() {
+        for (String codigo : new String[]{"000001", "000002", "000003"}) {
+            assertThrows(BadRequestException.class, () -> armarioController.retirarPorCodigo(1L, codigo, morador));
+        }
+
+        TooManyRequestsException recusa = assertThrows(TooManyRequestsException.class,
+                () -> armarioController.retirarPorCodigo(1L, "123456", morador));
+        assertTrue(recusa.getRetryAfterSegundos() > 0);
+        verify(entregaService, never()).registrarRetiradaNoCompartimento(anyLong(), anyString());
+    }
+}
@@ -0,0 +1,68 @@
+package br.com.unit.tokseg.armariointeligente.exception;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CorpoErroTest {
+
+    private ObjectMapper objectMapper;
+
+    private CorpoErro corpoErro;
+
+    @BeforeEach
+    public void setup() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        corpoErro = new CorpoErro(objectMapper);
+    }
+
+    @Test
+    public void testCorpoEquivaleAoErrorResponse() throws Exception {
+        String mensagem = new ResourceNotFoundException("Entrega", "id", 42L).getMessage();
+
+        JsonNode corpo = objectMapper.readTree(corpoErro.renderizar(HttpStatus.NOT_FOUND, "Não encontrado",
+                mensagem, "uri=/api/v1/entregas/42"));
+        JsonNode esperado = objectMapper.valueToTree(new ErrorResponse(new Date(), 404, "Não encontrado",
+                mensagem, "uri=/api/v1/entregas/42"));
+
+        assertTrue(corpo.get("timestamp").isValueNode());
+        ((ObjectNode) corpo).remove("timestamp");
+        ((ObjectNode) esperado).remove("timestamp");
+        assertEquals(esperado, corpo);
+    }
+
+    @Test
+    public void testCaracteresEspeciaisSaoEscapados() throws Exception {
+        JsonNode corpo = objectMapper.readTree(corpoErro.renderizarSemTimestamp(HttpStatus.UNAUTHORIZED,
+                "Não autorizado", "mensagem com \"aspas\"\ne quebra", "/api/v1/x\"y"));
+
+        assertEquals(401, corpo.get("status").asInt());
+        assertEquals("mensagem com \"aspas\"\ne quebra", corpo.get("message").asText());
+        assertEquals("/api/v1/x\"y", corpo.get("path").asText());
+        assertFalse(corpo.has("timestamp"));
+    }
+
+    @Test
+    public void testMensagemNulaECacheReaproveitado() throws Exception {
+        byte[] primeiro = corpoErro.renderizarSemTimestamp(HttpStatus.BAD_REQUEST, "Requisição inválida", null, "/a");
+        byte[] segundo = corpoErro.renderizarSemTimestamp(HttpStatus.BAD_REQUEST, "Requisição inválida", null, "/a");
+
+        assertArrayEquals(primeiro, segundo);
+        assertTrue(objectMapper.readTree(primeiro).get("message").isNull());
+    }
+
+    @Test
+    public void testExcecoesDeDominioNaoPreenchemStackTrace() {
+        assertEquals(0, new BadRequestException("Código de acesso inválido").getStackTrace().length);
+        assertEquals(0, new ResourceNotFoundException("Entrega", "id", 1L).getStackTrace().length);
+        assertEquals(0, new ResourceAlreadyExistsException("Entrega", "código de rastreio", "BR1").getStackTrace().length);
+    }
+}
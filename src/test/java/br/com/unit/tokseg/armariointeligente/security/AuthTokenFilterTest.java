@@ -0,0 +1,147 @@
+package br.com.unit.tokseg.armariointeligente.security;
+
+import br.com.unit.tokseg.armariointeligente.repository.TokenRevogadoRepository;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class AuthTokenFilterTest {
+
+    private static final String SEGREDO = "segredoDeTesteComTamanhoSuficienteParaHs512AssinaturaDeTokensJwt0123456789";
+
+    @Mock
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Mock
+    private TokenVersionService tokenVersionService;
+
+    @Mock
+    private TokenRevogadoRepository tokenRevogadoRepository;
+
+    private TokenRevogacaoService tokenRevogacaoService;
+
+    private JwtUtils jwtUtils;
+
+    private AuthTokenFilter filter;
+
+    private UserDetailsImpl principal;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SEGREDO);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 60000);
+        ReflectionTestUtils.setField(jwtUtils, "jwtKeyStore", new JwtKeyStore());
+        jwtUtils.init();
+
+        filter = new AuthTokenFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtils", jwtUtils);
+        ReflectionTestUtils.setField(filter, "userDetailsService", userDetailsService);
+        ReflectionTestUtils.setField(filter, "tokenVersionService", tokenVersionService);
+        tokenRevogacaoService = new TokenRevogacaoService(tokenRevogadoRepository, 100, 0.01,
+                Duration.ofHours(1), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(filter, "tokenRevogacaoService", tokenRevogacaoService);
+        ReflectionTestUtils.setField(filter, "principalCache",
+                new PrincipalCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry()));
+
+        principal = new UserDetailsImpl(7L, "Maria Oliveira", "maria.oliveira@exemplo.com", "hash",
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_ENTREGADOR")), true, 3L);
+    }
+
+    @AfterEach
+    public void limparContexto() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void testTokenAutocontidoNaoConsultaBanco() throws Exception {
+        when(tokenVersionService.isVersaoValida(7L, 3L)).thenReturn(true);
+
+        executarFiltro(gerarToken());
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        UserDetailsImpl autenticado = (UserDetailsImpl) authentication.getPrincipal();
+        assertEquals(7L, autenticado.getId());
+        assertEquals("maria.oliveira@exemplo.com", autenticado.getUsername());
+        assertTrue(autenticado.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_ENTREGADOR")));
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+    }
+
+    @Test
+    public void testTokenComVersaoRevogada() throws Exception {
+        when(tokenVersionService.isVersaoValida(7L, 3L)).thenReturn(false);
+
+        executarFiltro(gerarToken());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    public void testTokenRevogadoNoLogoutEhRecusado() throws Exception {
+        when(tokenVersionService.isVersaoValida(7L, 3L)).thenReturn(true);
+        String token = gerarToken();
+        TokenClaims claims = jwtUtils.verificarToken(token).orElseThrow();
+        tokenRevogacaoService.revogar(claims);
+        when(tokenRevogadoRepository.existsById(claims.getId())).thenReturn(true);
+
+        executarFiltro(token);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    public void testTokenLegadoUsaCacheDePrincipais() throws Exception {
+        when(userDetailsService.loadUserByUsername("maria.oliveira@exemplo.com")).thenReturn(principal);
+        String legado = Jwts.builder()
+                .setSubject("maria.oliveira@exemplo.com")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(Keys.hmacShaKeyFor(SEGREDO.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS512)
+                .compact();
+
+        executarFiltro(legado);
+        SecurityContextHolder.clearContext();
+        executarFiltro(legado);
+
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(userDetailsService, times(1)).loadUserByUsername("maria.oliveira@exemplo.com");
+        verify(tokenVersionService, never()).isVersaoValida(anyLong(), anyLong());
+    }
+
+    private String gerarToken() {
+        return jwtUtils.generateJwtToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    private void executarFiltro(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+    }
+}
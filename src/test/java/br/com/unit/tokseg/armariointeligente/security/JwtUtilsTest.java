@@ -0,0 +1,126 @@
+package br.com.unit.tokseg.armariointeligente.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtUtilsTest {
+
+    private static final String SEGREDO = "segredoDeTesteComTamanhoSuficienteParaHs512AssinaturaDeTokensJwt0123456789";
+
+    private JwtUtils jwtUtils;
+
+    private UserDetailsImpl principal;
+
+    @BeforeEach
+    public void setup() {
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SEGREDO);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 60000);
+        ReflectionTestUtils.setField(jwtUtils, "jwtKeyStore", new JwtKeyStore());
+        jwtUtils.init();
+
+        principal = new UserDetailsImpl(1L, "Admin Sistema", "admin@smartlocker.com", "hash",
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_ADMINISTRADOR")), true, 0L);
+    }
+
+    @Test
+    public void testVerificarTokenDevolveClaims() {
+        String token = gerarToken();
+
+        Optional<TokenClaims> claims = jwtUtils.verificarToken(token);
+
+        assertTrue(claims.isPresent());
+        assertEquals("admin@smartlocker.com", claims.get().getSubject());
+        assertEquals(1L, claims.get().getUsuarioId());
+        assertEquals("ADMINISTRADOR", claims.get().getTipoUsuario());
+        assertTrue(claims.get().isSelfContained());
+    }
+
+    @Test
+    public void testTokenEmCacheDevolveMesmasClaims() {
+        String token = gerarToken();
+
+        TokenClaims primeira = jwtUtils.verificarToken(token).orElseThrow();
+        TokenClaims segunda = jwtUtils.verificarToken(token).orElseThrow();
+
+        assertSame(primeira, segunda);
+    }
+
+    @Test
+    public void testPayloadAdulteradoComAssinaturaEmCacheEhRecusado() {
+        String token = gerarToken();
+        assertTrue(jwtUtils.verificarToken(token).isPresent());
+
+        String[] partes = token.split("\\.");
+        String payload = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                "{\"sub\":\"outro@exemplo.com\",\"uid\":99,\"tipo\":\"ADMINISTRADOR\",\"ver\":0}"
+                        .getBytes(StandardCharsets.UTF_8));
+        String adulterado = partes[0] + "." + payload + "." + partes[2];
+
+        assertFalse(jwtUtils.verificarToken(adulterado).isPresent());
+    }
+
+    @Test
+    public void testTokenExpiradoEhRecusado() {
+        String expirado = Jwts.builder()
+                .setSubject("admin@smartlocker.com")
+                .setIssuedAt(new Date(System.currentTimeMillis() - 120000))
+                .setExpiration(new Date(System.currentTimeMillis() - 60000))
+                .signWith(Keys.hmacShaKeyFor(SEGREDO.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS512)
+                .compact();
+
+        assertFalse(jwtUtils.verificarToken(expirado).isPresent());
+        assertFalse(jwtUtils.validateJwtToken(expirado));
+    }
+
+    @Test
+    public void testTokenEs256LevaKidEEhVerificadoPelaChavePublica() {
+        JwtKeyStore keyStore = new JwtKeyStore();
+        keyStore.setAlgoritmo(JwtKeyStore.ES256);
+        keyStore.init();
+        ReflectionTestUtils.setField(jwtUtils, "jwtKeyStore", keyStore);
+
+        String token = gerarToken();
+        String cabecalho = new String(Base64.getUrlDecoder().decode(token.split("\\.")[0]), StandardCharsets.UTF_8);
+
+        assertTrue(cabecalho.contains("\"alg\":\"ES256\""));
+        assertTrue(cabecalho.contains("\"kid\":\"" + keyStore.getChaveAtiva() + "\""));
+        assertTrue(jwtUtils.verificarToken(token).isPresent());
+        assertTrue(keyStore.getJwks().toString().contains("kid=" + keyStore.getChaveAtiva()));
+    }
+
+    @Test
+    public void testTokenEs256ComKidDesconhecidoEhRecusado() {
+        JwtKeyStore emissor = new JwtKeyStore();
+        emissor.setAlgoritmo(JwtKeyStore.ES256);
+        emissor.init();
+        JwtKeyStore verificador = new JwtKeyStore();
+        verificador.setAlgoritmo(JwtKeyStore.ES256);
+        verificador.init();
+
+        ReflectionTestUtils.setField(jwtUtils, "jwtKeyStore", emissor);
+        String token = gerarToken();
+        ReflectionTestUtils.setField(jwtUtils, "jwtKeyStore", verificador);
+
+        assertFalse(jwtUtils.verificarToken(token).isPresent());
+    }
+
+    private String gerarToken() {
+        return jwtUtils.generateJwtToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+}
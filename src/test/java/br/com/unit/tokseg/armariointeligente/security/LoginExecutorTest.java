@@ -0,0 +1,106 @@
+package br.com.unit.tokseg.armariointeligente.security;
+
+import br.com.unit.tokseg.armariointeligente.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class LoginExecutorTest {
+
+    @Mock
+    private AuthenticationManager authenticationManager;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private LoginExecutor loginExecutor;
+
+    private CountDownLatch liberar;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        loginExecutor = new LoginExecutor(authenticationManager, 1, 1, 1, meterRegistry);
+
+        // Cada verificação fica presa até o teste liberar, simulando um BCrypt lento
+        liberar = new CountDownLatch(1);
+        when(authenticationManager.authenticate(any())).thenAnswer(invocation -> {
+            liberar.await(5, TimeUnit.SECONDS);
+            Authentication pedido = invocation.getArgument(0);
+            return new UsernamePasswordAuthenticationToken(pedido.getPrincipal(), null, Collections.emptyList());
+        });
+    }
+
+    @AfterEach
+    public void tearDown() {
+        liberar.countDown();
+        loginExecutor.encerrar();
+    }
+
+    @Test
+    public void testLoginsSimultaneosIdenticosCompartilhamUmaVerificacao() throws Exception {
+        CompletableFuture<Authentication> primeiro = loginExecutor.autenticar("entregador@exemplo.com", "senha123");
+        CompletableFuture<Authentication> segundo = loginExecutor.autenticar("entregador@exemplo.com", "senha123");
+
+        assertSame(primeiro, segundo);
+        liberar.countDown();
+
+        assertEquals("entregador@exemplo.com", primeiro.get(5, TimeUnit.SECONDS).getName());
+        verify(authenticationManager, times(1)).authenticate(any());
+        assertEquals(1.0, meterRegistry.counter("auth.login.compartilhados").count());
+    }
+
+    @Test
+    public void testSenhaDiferenteNaoCompartilhaVerificacao() throws Exception {
+        CompletableFuture<Authentication> correta = loginExecutor.autenticar("entregador@exemplo.com", "senha123");
+        CompletableFuture<Authentication> errada = loginExecutor.autenticar("entregador@exemplo.com", "outra");
+
+        assertNotSame(correta, errada);
+        liberar.countDown();
+        correta.get(5, TimeUnit.SECONDS);
+        errada.get(5, TimeUnit.SECONDS);
+
+        verify(authenticationManager, times(2)).authenticate(any());
+    }
+
+    @Test
+    public void testFilaCheiaRecusaImediatamente() {
+        // Uma thread ocupada e uma posição de fila: o terceiro login distinto é recusado
+        loginExecutor.autenticar("a@exemplo.com", "senha");
+        loginExecutor.autenticar("b@exemplo.com", "senha");
+
+        TooManyRequestsException recusa = assertThrows(TooManyRequestsException.class,
+                () -> loginExecutor.autenticar("c@exemplo.com", "senha"));
+
+        assertEquals(1, recusa.getRetryAfterSegundos());
+        assertEquals(1.0, meterRegistry.counter("auth.login.rejeitados").count());
+    }
+
+    @Test
+    public void testFalhaDeAutenticacaoChegaAoChamador() {
+        reset(authenticationManager);
+        when(authenticationManager.authenticate(any())).thenThrow(new BadCredentialsException("Credenciais inválidas"));
+
+        CompletableFuture<Authentication> futuro = loginExecutor.autenticar("entregador@exemplo.com", "errada");
+
+        ExecutionException erro = assertThrows(ExecutionException.class, () -> futuro.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(BadCredentialsException.class, erro.getCause());
+    }
+}
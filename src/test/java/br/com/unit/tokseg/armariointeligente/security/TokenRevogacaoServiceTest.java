@@ -0,0 +1,88 @@
+package br.com.unit.tokseg.armariointeligente.security;
+
+import br.com.unit.tokseg.armariointeligente.model.TokenRevogado;
+import br.com.unit.tokseg.armariointeligente.repository.TokenRevogadoRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class TokenRevogacaoServiceTest {
+
+    @Mock
+    private TokenRevogadoRepository tokenRevogadoRepository;
+
+    private TokenRevogacaoService tokenRevogacaoService;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        tokenRevogacaoService = new TokenRevogacaoService(tokenRevogadoRepository, 1000, 0.01,
+                Duration.ofHours(1), new SimpleMeterRegistry());
+    }
+
+    @Test
+    public void testRevogarPersisteERecusaToken() {
+        TokenClaims claims = claims("jti-revogado", 60000);
+        when(tokenRevogadoRepository.existsById("jti-revogado")).thenReturn(false, true);
+
+        tokenRevogacaoService.revogar(claims);
+
+        verify(tokenRevogadoRepository).save(argThat(revogado ->
+                revogado.getJti().equals("jti-revogado") && revogado.getUsuarioId().equals(7L)));
+        assertTrue(tokenRevogacaoService.isRevogado(claims));
+    }
+
+    @Test
+    public void testTokenNaoRevogadoNaoConsultaBanco() {
+        tokenRevogacaoService.revogar(claims("jti-revogado", 60000));
+        clearInvocations(tokenRevogadoRepository);
+
+        assertFalse(tokenRevogacaoService.isRevogado(claims("jti-valido", 60000)));
+        verify(tokenRevogadoRepository, never()).existsById(anyString());
+    }
+
+    @Test
+    public void testSincronizacaoTrazRevogacoesDeOutrasInstancias() {
+        TokenClaims claims = claims("jti-outra-instancia", 60000);
+        LocalDateTime expiraEm = LocalDateTime.ofInstant(claims.getExpiraEm().toInstant(), ZoneId.systemDefault());
+        when(tokenRevogadoRepository.findByExpiraEmAfter(any())).thenReturn(Collections.singletonList(
+                new TokenRevogado("jti-outra-instancia", 7L, expiraEm, LocalDateTime.now())));
+        when(tokenRevogadoRepository.existsById("jti-outra-instancia")).thenReturn(true);
+
+        assertFalse(tokenRevogacaoService.isRevogado(claims));
+        tokenRevogacaoService.sincronizar();
+
+        assertTrue(tokenRevogacaoService.isRevogado(claims));
+    }
+
+    @Test
+    public void testTokenJaExpiradoNaoEhPersistido() {
+        tokenRevogacaoService.revogar(claims("jti-expirado", -1000));
+
+        verify(tokenRevogadoRepository, never()).save(any());
+    }
+
+    private TokenClaims claims(String jti, long expiraEmMs) {
+        Claims claims = Jwts.claims()
+                .setId(jti)
+                .setSubject("maria.oliveira@exemplo.com")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + expiraEmMs));
+        claims.put(JwtUtils.CLAIM_USUARIO_ID, 7L);
+        return TokenClaims.of(claims);
+    }
+}
@@ -0,0 +1,103 @@
+package br.com.unit.tokseg.armariointeligente.service;
+
+import br.com.unit.tokseg.armariointeligente.exception.BadRequestException;
+import br.com.unit.tokseg.armariointeligente.exception.ResourceNotFoundException;
+import br.com.unit.tokseg.armariointeligente.model.Compartimento;
+import br.com.unit.tokseg.armariointeligente.repository.ArmarioRepository;
+import br.com.unit.tokseg.armariointeligente.repository.CompartimentoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class AlocacaoCompartimentoServiceTest {
+
+    @Mock
+    private CompartimentoRepository compartimentoRepository;
+
+    @Mock
+    private ArmarioRepository armarioRepository;
+
+    @Mock
+    private ContadoresCondominio contadoresCondominio;
+
+    @InjectMocks
+    private AlocacaoCompartimentoService alocacaoCompartimentoService;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+
+        alocacaoCompartimentoService.registrar(1L, 10L, "1", "P", true);
+        alocacaoCompartimentoService.registrar(2L, 10L, "2", "M", false);
+        alocacaoCompartimentoService.registrar(3L, 10L, "3", "G", false);
+        alocacaoCompartimentoService.registrar(4L, 20L, "4", "P", false);
+    }
+
+    @Test
+    public void testRetiraMenorTamanhoQueComporta() {
+        // P está ocupado no armário 10: o menor livre que comporta um pacote P é o M
+        assertEquals(Optional.of(2L), alocacaoCompartimentoService.retirarLivre(10L, "p"));
+        assertEquals(Optional.of(3L), alocacaoCompartimentoService.retirarLivre(10L, "P"));
+        assertEquals(Optional.empty(), alocacaoCompartimentoService.retirarLivre(10L, "P"));
+    }
+
+    @Test
+    public void testPacoteGrandeNaoUsaCompartimentoMenor() {
+        assertEquals(Optional.empty(), alocacaoCompartimentoService.retirarLivre(20L, "G"));
+        assertEquals(1, alocacaoCompartimentoService.contarLivres(20L, "P"));
+    }
+
+    @Test
+    public void testCompartimentoRecusadoContinuaLivre() {
+        // O M tem reserva prestes a começar: a entrega vai para o G e o M segue disponível para a reserva
+        assertEquals(Optional.of(3L), alocacaoCompartimentoService.retirarLivre(10L, "P", id -> id == 2L));
+        assertEquals(Optional.empty(), alocacaoCompartimentoService.retirarLivre(10L, "P", id -> id == 2L));
+        assertEquals(1, alocacaoCompartimentoService.contarLivres(10L, "M"));
+    }
+
+    @Test
+    public void testAtualizarOcupacaoDevolveAoIndice() {
+        alocacaoCompartimentoService.atualizarOcupacao(1L, false);
+
+        assertEquals(Optional.of(1L), alocacaoCompartimentoService.retirarLivre(10L, "P"));
+
+        alocacaoCompartimentoService.atualizarOcupacao(2L, true);
+        assertEquals(Optional.of(3L), alocacaoCompartimentoService.retirarLivre(10L, "M"));
+    }
+
+    @Test
+    public void testReservarPulaCompartimentoOcupadoPorOutraInstancia() {
+        Compartimento reservadoNoBanco = new Compartimento();
+        reservadoNoBanco.setId(3L);
+        reservadoNoBanco.setOcupado(true);
+        // O compartimento 2 foi ocupado por outra instância: o UPDATE condicional não o altera
+        when(compartimentoRepository.ocuparSeLivre(2L)).thenReturn(0);
+        when(compartimentoRepository.ocuparSeLivre(3L)).thenReturn(1);
+        when(compartimentoRepository.findById(3L)).thenReturn(Optional.of(reservadoNoBanco));
+
+        Compartimento reservado = alocacaoCompartimentoService.reservar(10L, "M");
+
+        assertEquals(3L, reservado.getId());
+        verify(compartimentoRepository, never()).findById(2L);
+        verify(compartimentoRepository, never()).save(any(Compartimento.class));
+    }
+
+    @Test
+    public void testReservarSemLivresOuArmarioInexistente() {
+        alocacaoCompartimentoService.retirarLivre(20L, "P");
+        when(armarioRepository.existsById(20L)).thenReturn(true);
+        when(armarioRepository.existsById(99L)).thenReturn(false);
+
+        assertThrows(BadRequestException.class, () -> alocacaoCompartimentoService.reservar(20L, "P"));
+        assertThrows(ResourceNotFoundException.class, () -> alocacaoCompartimentoService.reservar(99L, "P"));
+        assertThrows(BadRequestException.class, () -> alocacaoCompartimentoService.reservar(20L, "XG"));
+    }
+}
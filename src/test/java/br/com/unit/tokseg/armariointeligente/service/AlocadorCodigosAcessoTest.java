@@ -0,0 +1,129 @@
+package br.com.unit.tokseg.armariointeligente.service;
+
+import br.com.unit.tokseg.armariointeligente.exception.BadRequestException;
+import br.com.unit.tokseg.armariointeligente.repository.CompartimentoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AlocadorCodigosAcessoTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlocadorCodigosAcessoTest.class);
+
+    @Mock
+    private CompartimentoRepository compartimentoRepository;
+
+    @InjectMocks
+    private AlocadorCodigosAcesso alocador;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    public void testReservaRecusaCodigoJaEmUsoNoMesmoArmario() {
+        assertTrue(alocador.reservar(1L, "123456"));
+        assertFalse(alocador.reservar(1L, "123456"));
+        // Outro armário tem seu próprio conjunto de códigos
+        assertTrue(alocador.reservar(2L, "123456"));
+        assertFalse(alocador.reservar(1L, "012345"));
+    }
+
+    @Test
+    public void testLiberarPermiteReutilizar() {
+        alocador.reservar(1L, "123456");
+        alocador.liberar(1L, "123456");
+
+        assertFalse(alocador.emUso(1L, "123456"));
+        assertTrue(alocador.reservar(1L, "123456"));
+        assertEquals(1, alocador.contarEmUso(1L));
+    }
+
+    @Test
+    public void testCodigoForaDaFaixaInvalido() {
+        assertThrows(BadRequestException.class, () -> AlocadorCodigosAcesso.validar("099999"));
+        assertThrows(BadRequestException.class, () -> AlocadorCodigosAcesso.validar("12345a"));
+        AlocadorCodigosAcesso.validar("999999");
+    }
+
+    @Test
+    public void testArmarioQuaseCheioEncontraOsUltimosLivres() {
+        // Só os extremos da faixa ficam livres: a busca precisa dar a volta no mapa
+        for (int codigo = 100001; codigo < 999999; codigo++) {
+            assertTrue(alocador.reservar(1L, String.valueOf(codigo)));
+        }
+
+        Set<String> ultimos = Set.of(alocador.alocar(1L), alocador.alocar(1L));
+
+        assertEquals(Set.of("100000", "999999"), ultimos);
+        assertEquals(AlocadorCodigosAcesso.TOTAL_CODIGOS, alocador.contarEmUso(1L));
+        assertThrows(IllegalStateException.class, () -> alocador.alocar(1L));
+    }
+
+    @Test
+    public void testCarregarMarcaCodigosExistentes() {
+        CompartimentoRepository.CodigoCompartimento existente = new CompartimentoRepository.CodigoCompartimento() {
+            public Long getArmarioId() { return 1L; }
+            public String getCodigoAcesso() { return "123456"; }
+        };
+        org.mockito.Mockito.when(compartimentoRepository.findCodigos()).thenReturn(List.of(existente));
+
+        alocador.carregar();
+
+        assertTrue(alocador.emUso(1L, "123456"));
+    }
+
+    // Vazão sob disputa: várias threads sorteando no mesmo armário, sem repetição
+    @Test
+    public void testAlocacaoConcorrenteSemRepeticao() throws Exception {
+        int threads = 8;
+        int porThread = 25000;
+        Set<String> sorteados = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch largada = new CountDownLatch(1);
+        CountDownLatch fim = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                try {
+                    largada.await();
+                    Set<String> locais = new HashSet<>();
+                    for (int i = 0; i < porThread; i++) {
+                        locais.add(alocador.alocar(1L));
+                    }
+                    sorteados.addAll(locais);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    fim.countDown();
+                }
+            });
+        }
+
+        long inicio = System.nanoTime();
+        largada.countDown();
+        assertTrue(fim.await(60, TimeUnit.SECONDS));
+        long duracaoMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+        executor.shutdown();
+
+        logger.info("Alocação de códigos: {} códigos em {} ms com {} threads ({} códigos/s)",
+                threads * porThread, duracaoMs, threads, threads * porThread * 1000L / duracaoMs);
+        assertEquals(threads * porThread, sorteados.size());
+        assertEquals(threads * porThread, alocador.contarEmUso(1L));
+    }
+}
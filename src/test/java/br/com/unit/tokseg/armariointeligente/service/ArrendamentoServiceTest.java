@@ -0,0 +1,108 @@
+package br.com.unit.tokseg.armariointeligente.service;
+
+import br.com.unit.tokseg.armariointeligente.repository.ArrendamentoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Duas "instâncias" da aplicação disputando o mesmo arrendamento no mesmo banco
+@SpringBootTest
+public class ArrendamentoServiceTest {
+
+    private static final String NOME = "teste-arrendamento";
+
+    @Autowired
+    private ArrendamentoRepository arrendamentoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Relógio comum às duas instâncias, avançado pelo teste
+    private final RelogioAjustavel relogio = new RelogioAjustavel(Instant.now());
+
+    @AfterEach
+    public void limpar() {
+        arrendamentoRepository.deleteById(NOME);
+    }
+
+    @Test
+    public void testUmaInstanciaPorVez() {
+        ArrendamentoService a = instancia("a");
+        ArrendamentoService b = instancia("b");
+
+        assertTrue(adquirir(a, Duration.ofMinutes(1)));
+        assertFalse(adquirir(b, Duration.ofMinutes(1)));
+        // A dona renova
+        assertTrue(adquirir(a, Duration.ofMinutes(1)));
+        assertEquals("a", arrendamentoRepository.findById(NOME).orElseThrow().getDono());
+
+        // Só a dona libera
+        emTransacao(() -> b.liberar(NOME));
+        assertFalse(adquirir(b, Duration.ofMinutes(1)));
+        emTransacao(() -> a.liberar(NOME));
+        assertTrue(adquirir(b, Duration.ofMinutes(1)));
+    }
+
+    @Test
+    public void testArrendamentoExpiradoPassaParaOutraInstancia() {
+        ArrendamentoService a = instancia("a");
+        ArrendamentoService b = instancia("b");
+
+        assertTrue(adquirir(a, Duration.ofMinutes(1)));
+        relogio.avancar(Duration.ofSeconds(59));
+        assertFalse(adquirir(b, Duration.ofMinutes(1)));
+        relogio.avancar(Duration.ofSeconds(2));
+        assertTrue(adquirir(b, Duration.ofMinutes(1)));
+        assertFalse(adquirir(a, Duration.ofMinutes(1)));
+    }
+
+    private ArrendamentoService instancia(String nome) {
+        return new ArrendamentoService(arrendamentoRepository, nome, relogio);
+    }
+
+    private boolean adquirir(ArrendamentoService instancia, Duration duracao) {
+        return new TransactionTemplate(transactionManager).execute(status -> instancia.adquirir(NOME, duracao));
+    }
+
+    private void emTransacao(Runnable acao) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> acao.run());
+    }
+
+    private static class RelogioAjustavel extends Clock {
+
+        private Instant agora;
+
+        RelogioAjustavel(Instant agora) {
+            this.agora = agora;
+        }
+
+        void avancar(Duration duracao) {
+            agora = agora.plus(duracao);
+        }
+
+        @Override
+        public Instant instant() {
+            return agora;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.systemDefault();
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
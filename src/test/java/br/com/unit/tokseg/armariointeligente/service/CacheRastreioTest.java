@@ -0,0 +1,60 @@
+package br.com.unit.tokseg.armariointeligente.service;
+
+import br.com.unit.tokseg.armariointeligente.model.RastreioEntrega;
+import br.com.unit.tokseg.armariointeligente.model.StatusEntrega;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CacheRastreioTest {
+
+    private final CacheRastreio cacheRastreio = new CacheRastreio(100, Duration.ofMinutes(1));
+
+    @Test
+    public void testConsultaRepetidaNaoVaiAoBanco() {
+        AtomicInteger consultas = new AtomicInteger();
+        RastreioEntrega rastreio = rastreio("BR123");
+
+        cacheRastreio.buscar("BR123", codigo -> {
+            consultas.incrementAndGet();
+            return Optional.of(rastreio);
+        });
+        Optional<RastreioEntrega> segunda = cacheRastreio.buscar("BR123", codigo -> {
+            consultas.incrementAndGet();
+            return Optional.of(rastreio);
+        });
+
+        assertEquals(rastreio, segunda.orElseThrow());
+        assertEquals(1, consultas.get());
+    }
+
+    @Test
+    public void testInvalidacaoENaoEncontradaVoltamAoBanco() {
+        AtomicInteger consultas = new AtomicInteger();
+
+        assertTrue(cacheRastreio.buscar("NAO-EXISTE", codigo -> {
+            consultas.incrementAndGet();
+            return Optional.empty();
+        }).isEmpty());
+        cacheRastreio.buscar("NAO-EXISTE", codigo -> {
+            consultas.incrementAndGet();
+            return Optional.of(rastreio(codigo));
+        });
+        cacheRastreio.invalidar("NAO-EXISTE");
+        cacheRastreio.buscar("NAO-EXISTE", codigo -> {
+            consultas.incrementAndGet();
+            return Optional.empty();
+        });
+
+        assertEquals(3, consultas.get());
+    }
+
+    private static RastreioEntrega rastreio(String codigoRastreio) {
+        return new RastreioEntrega(1L, codigoRastreio, StatusEntrega.ENTREGUE, null, null, null,
+                null, null, null, null, null, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,131 @@
+package br.com.unit.tokseg.armariointeligente.service;
+
+import br.com.unit.tokseg.armariointeligente.model.Armario;
+import br.com.unit.tokseg.armariointeligente.model.Compartimento;
+import br.com.unit.tokseg.armariointeligente.model.Condominio;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CacheReferenciaTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CacheReferencia cacheReferencia = new CacheReferencia(100, Duration.ofMinutes(1), meterRegistry);
+
+    @Test
+    public void testConsultaRepetidaNaoVaiAoBancoEContaOsAcertos() {
+        AtomicInteger consultas = new AtomicInteger();
+        Condominio condominio = condominio(1L, "Residencial Sol");
+
+        cacheReferencia.condominio(1L, id -> {
+            consultas.incrementAndGet();
+            return Optional.of(condominio);
+        });
+        Optional<Condominio> segunda = cacheReferencia.condominio(1L, id -> {
+            consultas.incrementAndGet();
+            return Optional.of(condominio);
+        });
+
+        assertEquals("Residencial Sol", segunda.orElseThrow().getNome());
+        assertEquals(1, consultas.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets")
+                .tag("cache", "referencia.condominios").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets")
+                .tag("cache", "referencia.condominios").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    public void testAusenciaNaoFicaGuardada() {
+        AtomicInteger consultas = new AtomicInteger();
+
+        assertTrue(cacheReferencia.condominioPorNome("Novo", nome -> {
+            consultas.incrementAndGet();
+            return Optional.empty();
+        }).isEmpty());
+        assertTrue(cacheReferencia.condominioPorNome("Novo", nome -> {
+            consultas.incrementAndGet();
+            return Optional.of(condominio(2L, "Novo"));
+        }).isPresent());
+
+        assertEquals(2, consultas.get());
+    }
+
+    @Test
+    public void testInvalidacaoPeloIdLimpaAChaveNatural() {
+        AtomicInteger consultas = new AtomicInteger();
+        Condominio condominio = condominio(1L, "Residencial Sol");
+        cacheReferencia.condominioPorNome("Residencial Sol", nome -> {
+            consultas.incrementAndGet();
+            return Optional.of(condominio);
+        });
+
+        cacheReferencia.invalidarCondominio(1L);
+        // Renomeado: o nome antigo não pode continuar apontando para o condomínio
+        assertTrue(cacheReferencia.condominioPorNome("Residencial Sol", nome -> {
+            consultas.incrementAndGet();
+            return Optional.empty();
+        }).isEmpty());
+
+        assertEquals(2, consultas.get());
+    }
+
+    @Test
+    public void testDevolveCopiasIndependentesDaEntidadeConsultada() {
+        Condominio gerenciado = condominio(1L, "Residencial Sol");
+        Condominio primeira = cacheReferencia.condominio(1L, id -> Optional.of(gerenciado)).orElseThrow();
+
+        // Nem a entidade de quem consultou nem uma cópia devolvida alteram o que está guardado
+        gerenciado.setNome("Alterado na sessão");
+        primeira.setNome("Alterado por quem leu");
+        Condominio segunda = cacheReferencia.condominio(1L, id -> Optional.empty()).orElseThrow();
+
+        assertNotSame(gerenciado, primeira);
+        assertNotSame(primeira, segunda);
+        assertEquals("Residencial Sol", segunda.getNome());
+    }
+
+    @Test
+    public void testCondominioInvalidaOsArmariosQueOGuardam() {
+        AtomicInteger consultas = new AtomicInteger();
+        Armario armario = new Armario();
+        armario.setId(10L);
+        armario.setIdentificacao("A1");
+        armario.setCondominio(condominio(1L, "Residencial Sol"));
+        Compartimento compartimento = new Compartimento();
+        compartimento.setId(100L);
+
+        cacheReferencia.armarioPorIdentificacao("A1", 1L, (identificacao, condominioId) -> {
+            consultas.incrementAndGet();
+            return Optional.of(armario);
+        });
+        assertEquals(Optional.of(100L), cacheReferencia.compartimentoPorNumero("01", 10L, (numero, armarioId) -> {
+            consultas.incrementAndGet();
+            return Optional.of(compartimento);
+        }));
+
+        cacheReferencia.invalidarCondominio(1L);
+        assertEquals("Residencial Sol", cacheReferencia.armarioPorIdentificacao("A1", 1L, (identificacao, condominioId) -> {
+            consultas.incrementAndGet();
+            return Optional.of(armario);
+        }).orElseThrow().getCondominio().getNome());
+        // O número do compartimento não depende do condomínio
+        cacheReferencia.compartimentoPorNumero("01", 10L, (numero, armarioId) -> {
+            consultas.incrementAndGet();
+            return Optional.empty();
+        });
+
+        assertEquals(3, consultas.get());
+    }
+
+    private static Condominio condominio(Long id, String nome) {
+        Condominio condominio = new Condominio();
+        condominio.setId(id);
+        condominio.setNome(nome);
+        return condominio;
+    }
+}
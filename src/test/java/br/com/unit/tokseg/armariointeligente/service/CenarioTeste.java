@@ -0,0 +1,101 @@
+package br.com.unit.tokseg.armariointeligente.service;
+
+import br.com.unit.tokseg.armariointeligente.model.Armario;
+import br.com.unit.tokseg.armariointeligente.model.Compartimento;
+import br.com.unit.tokseg.armariointeligente.model.Entrega;
+import br.com.unit.tokseg.armariointeligente.model.StatusEntrega;
+import br.com.unit.tokseg.armariointeligente.model.Usuario;
+import br.com.unit.tokseg.armariointeligente.repository.ArmarioRepository;
+import br.com.unit.tokseg.armariointeligente.repository.CompartimentoRepository;
+import br.com.unit.tokseg.armariointeligente.repository.EntregaRepository;
+import br.com.unit.tokseg.armariointeligente.repository.UsuarioRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.context.annotation.Scope;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Dados dos testes de integração sobre o banco da carga inicial: usuários e armário de exemplo, mais os
+// compartimentos e entregas criados pelo teste, apagados em limpar(). Uma instância por teste (protótipo);
+// quem cria reservas ou outras linhas que apontam para os compartimentos apaga essas antes de limpar().
+@Component
+@Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
+public class CenarioTeste {
+
+    @Autowired
+    private ArmarioRepository armarioRepository;
+
+    @Autowired
+    private CompartimentoRepository compartimentoRepository;
+
+    @Autowired
+    private EntregaRepository entregaRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    private final List<Long> compartimentos = new ArrayList<>();
+    private final List<Long> entregas = new ArrayList<>();
+
+    public Usuario entregador() {
+        return usuarioRepository.findByEmail("maria.oliveira@exemplo.com").orElseThrow();
+    }
+
+    public Usuario morador() {
+        return usuarioRepository.findByEmail("joao.silva@exemplo.com").orElseThrow();
+    }
+
+    public Armario armario() {
+        return armarioRepository.findAll().get(0);
+    }
+
+    public Compartimento compartimento(String numero, String tamanho, boolean ocupado) {
+        return compartimentos(List.of(numero), tamanho, ocupado).get(0);
+    }
+
+    // Salvos de uma vez, no armário de exemplo
+    public List<Compartimento> compartimentos(List<String> numeros, String tamanho, boolean ocupado) {
+        Armario armario = armario();
+        List<Compartimento> novos = new ArrayList<>();
+        for (String numero : numeros) {
+            Compartimento compartimento = new Compartimento();
+            compartimento.setNumero(numero);
+            compartimento.setTamanho(tamanho);
+            compartimento.setOcupado(ocupado);
+            compartimento.setArmario(armario);
+            novos.add(compartimento);
+        }
+        List<Compartimento> salvos = compartimentoRepository.saveAll(novos);
+        salvos.forEach(compartimento -> compartimentos.add(compartimento.getId()));
+        return salvos;
+    }
+
+    // Ainda não salva: o teste completa os campos e passa a lista para salvar()
+    public Entrega entrega(String codigoRastreio, LocalDateTime dataEntrega, StatusEntrega status,
+                           Compartimento compartimento, Usuario entregador, Usuario destinatario) {
+        Entrega entrega = new Entrega();
+        entrega.setCodigoRastreio(codigoRastreio);
+        entrega.setDataEntrega(dataEntrega);
+        entrega.setStatus(status);
+        entrega.setCompartimento(compartimento);
+        entrega.setEntregador(entregador);
+        entrega.setDestinatario(destinatario);
+        return entrega;
+    }
+
+    public List<Entrega> salvar(List<Entrega> novas) {
+        List<Entrega> salvas = entregaRepository.saveAll(novas);
+        salvas.forEach(entrega -> entregas.add(entrega.getId()));
+        return salvas;
+    }
+
+    public void limpar() {
+        entregaRepository.deleteAllByIdInBatch(entregas);
+        compartimentoRepository.deleteAllById(compartimentos);
+        entregas.clear();
+        compartimentos.clear();
+    }
+}
@@ -1,17 +1,21 @@
 package br.com.unit.tokseg.armariointeligente.service;
 
 import br.com.unit.tokseg.armariointeligente.exception.BadRequestException;
+import br.com.unit.tokseg.armariointeligente.exception.ResourceAlreadyExistsException;
 import br.com.unit.tokseg.armariointeligente.exception.ResourceNotFoundException;
 import br.com.unit.tokseg.armariointeligente.model.Armario;
 import br.com.unit.tokseg.armariointeligente.model.Compartimento;
 import br.com.unit.tokseg.armariointeligente.repository.ArmarioRepository;
 import br.com.unit.tokseg.armariointeligente.repository.CompartimentoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -28,6 +32,15 @@ public class CompartimentoServiceTest {
     @Mock
     private ArmarioRepository armarioRepository;
 
+    @Mock
+    private AlocacaoCompartimentoService alocacaoCompartimentoService;
+
+    @Mock
+    private IndiceCodigosAcesso indiceCodigosAcesso;
+
+    @Mock
+    private AlocadorCodigosAcesso alocadorCodigosAcesso;
+
     @InjectMocks
     private CompartimentoService compartimentoService;
 
@@ -37,6 +50,8 @@ public class CompartimentoServiceTest {
     @BeforeEach
     public void setup() {
         MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(compartimentoService, "cacheReferencia",
+                new CacheReferencia(100, Duration.ofMinutes(1), new SimpleMeterRegistry()));
 
         armario = new Armario();
         armario.setId(1L);
@@ -56,6 +71,7 @@ public class CompartimentoServiceTest {
         when(armarioRepository.findById(anyLong())).thenReturn(Optional.of(armario));
         when(compartimentoRepository.findByNumeroAndArmarioId(anyString(), anyLong())).thenReturn(Optional.empty());
         when(compartimentoRepository.save(any(Compartimento.class))).thenReturn(compartimento);
+        when(alocadorCodigosAcesso.reservar(1L, "123456")).thenReturn(true);
 
         Compartimento resultado = compartimentoService.criarCompartimento(compartimento);
 
@@ -113,11 +129,24 @@ public class CompartimentoServiceTest {
     public void testGerarNovoCodigoAcesso() {
         when(compartimentoRepository.findById(anyLong())).thenReturn(Optional.of(compartimento));
         when(compartimentoRepository.save(any(Compartimento.class))).thenReturn(compartimento);
+        when(alocadorCodigosAcesso.alocar(1L)).thenReturn("654321");
 
         Compartimento resultado = compartimentoService.gerarNovoCodigoAcesso(1L);
 
         assertNotNull(resultado);
         assertNotNull(resultado.getCodigoAcesso());
         verify(compartimentoRepository, times(1)).save(any(Compartimento.class));
+        // Sem transação ativa a liberação do código anterior é imediata
+        verify(alocadorCodigosAcesso).liberar(1L, "123456");
+    }
+
+    @Test
+    public void testCriarCompartimentoComCodigoEmUso() {
+        when(armarioRepository.findById(anyLong())).thenReturn(Optional.of(armario));
+        when(compartimentoRepository.findByNumeroAndArmarioId(anyString(), anyLong())).thenReturn(Optional.empty());
+        when(alocadorCodigosAcesso.reservar(1L, "123456")).thenReturn(false);
+
+        assertThrows(ResourceAlreadyExistsException.class, () -> compartimentoService.criarCompartimento(compartimento));
+        verify(compartimentoRepository, never()).save(any(Compartimento.class));
     }
 }
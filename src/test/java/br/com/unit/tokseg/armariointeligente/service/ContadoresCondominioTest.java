@@ -0,0 +1,156 @@
+package br.com.unit.tokseg.armariointeligente.service;
+
+import br.com.unit.tokseg.armariointeligente.model.ResumoCondominio;
+import br.com.unit.tokseg.armariointeligente.model.StatusEntrega;
+import br.com.unit.tokseg.armariointeligente.model.StatusReserva;
+import br.com.unit.tokseg.armariointeligente.repository.ArmarioRepository;
+import br.com.unit.tokseg.armariointeligente.repository.CompartimentoRepository;
+import br.com.unit.tokseg.armariointeligente.repository.EntregaRepository;
+import br.com.unit.tokseg.armariointeligente.repository.ReservaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ContadoresCondominioTest {
+
+    @Mock
+    private ArmarioRepository armarioRepository;
+
+    @Mock
+    private CompartimentoRepository compartimentoRepository;
+
+    @Mock
+    private EntregaRepository entregaRepository;
+
+    @Mock
+    private ReservaRepository reservaRepository;
+
+    @InjectMocks
+    private ContadoresCondominio contadores;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        // Condomínio 1 com os armários 10 e 11; condomínio 2 com o armário 20
+        List<ArmarioRepository.CondominioArmario> armarios = List.of(armario(10L, 1L), armario(11L, 1L), armario(20L, 2L));
+        List<CompartimentoRepository.EstadoCompartimento> compartimentos = List.of(
+                compartimento(100L, 10L, true), compartimento(101L, 10L, false),
+                compartimento(110L, 11L, false), compartimento(200L, 20L, true));
+        List<EntregaRepository.ContagemEntregas> entregas = List.of(
+                contagemEntregas(10L, StatusEntrega.ENTREGUE, 1L), contagemEntregas(11L, StatusEntrega.RETIRADO, 5L));
+        when(armarioRepository.findCondominiosDosArmarios()).thenReturn(armarios);
+        when(compartimentoRepository.findEstados()).thenReturn(compartimentos);
+        when(entregaRepository.contarPorArmarioEStatus()).thenReturn(entregas);
+        when(reservaRepository.contarPorArmarioEStatus()).thenReturn(List.of());
+        contadores.carregar();
+    }
+
+    @Test
+    public void testCargaAgregaArmariosPorCondominio() {
+        ResumoCondominio resumo = contadores.resumo(1L).orElseThrow();
+
+        assertEquals(2, resumo.getCompartimentosLivres());
+        assertEquals(1, resumo.getCompartimentosOcupados());
+        assertEquals(1L, resumo.getEntregas().get(StatusEntrega.ENTREGUE));
+        assertEquals(5L, resumo.getEntregas().get(StatusEntrega.RETIRADO));
+        assertEquals(0L, resumo.getEntregas().get(StatusEntrega.EXPIRADO));
+        assertEquals(0L, resumo.getReservas().get(StatusReserva.CONFIRMADA));
+        assertTrue(contadores.resumo(99L).isEmpty());
+    }
+
+    @Test
+    public void testTransicoesAtualizamOsContadores() {
+        contadores.entregaAlterada(10L, null, StatusEntrega.ENTREGUE);
+        contadores.entregaAlterada(10L, StatusEntrega.ENTREGUE, StatusEntrega.RETIRADO);
+        contadores.reservaAlterada(11L, null, StatusReserva.CONFIRMADA);
+        contadores.compartimentoAtualizado(101L, 10L, true);
+        // Repetido: o compartimento já está ocupado e nada muda
+        contadores.compartimentoAtualizado(101L, 10L, true);
+
+        ResumoCondominio resumo = contadores.resumo(1L).orElseThrow();
+        assertEquals(1L, resumo.getEntregas().get(StatusEntrega.ENTREGUE));
+        assertEquals(6L, resumo.getEntregas().get(StatusEntrega.RETIRADO));
+        assertEquals(1L, resumo.getReservas().get(StatusReserva.CONFIRMADA));
+        assertEquals(1, resumo.getCompartimentosLivres());
+        assertEquals(2, resumo.getCompartimentosOcupados());
+
+        contadores.compartimentoRemovido(110L);
+        assertEquals(0, contadores.resumo(1L).orElseThrow().getCompartimentosLivres());
+    }
+
+    @Test
+    public void testArmarioQueMudaDeCondominioLevaAsContagens() {
+        contadores.armarioRegistrado(11L, 2L);
+
+        assertEquals(1, contadores.resumo(1L).orElseThrow().getCompartimentosLivres());
+        assertEquals(0L, contadores.resumo(1L).orElseThrow().getEntregas().get(StatusEntrega.RETIRADO));
+        ResumoCondominio destino = contadores.resumo(2L).orElseThrow();
+        assertEquals(1, destino.getCompartimentosLivres());
+        assertEquals(1, destino.getCompartimentosOcupados());
+        assertEquals(5L, destino.getEntregas().get(StatusEntrega.RETIRADO));
+    }
+
+    @Test
+    public void testReconciliacaoCorrigeDesvios() {
+        contadores.entregaAlterada(20L, null, StatusEntrega.ENTREGUE);
+        assertEquals(1L, contadores.resumo(2L).orElseThrow().getEntregas().get(StatusEntrega.ENTREGUE));
+
+        // A entrega não chegou ao banco: a reconciliação volta ao valor real
+        contadores.reconciliar();
+
+        assertEquals(0L, contadores.resumo(2L).orElseThrow().getEntregas().get(StatusEntrega.ENTREGUE));
+    }
+
+    @Test
+    public void testMudancasDuranteAReconciliacaoNaoSePerdem() {
+        // Commits que chegam enquanto as contagens de entregas são lidas do banco, depois da consulta
+        when(entregaRepository.contarPorArmarioEStatus()).thenAnswer(invocacao -> {
+            contadores.entregaAlterada(20L, null, StatusEntrega.ENTREGUE);
+            contadores.compartimentoAtualizado(200L, 20L, false);
+            return List.of(contagemEntregas(10L, StatusEntrega.ENTREGUE, 1L), contagemEntregas(11L, StatusEntrega.RETIRADO, 5L));
+        });
+
+        contadores.reconciliar();
+
+        ResumoCondominio resumo = contadores.resumo(2L).orElseThrow();
+        assertEquals(1L, resumo.getEntregas().get(StatusEntrega.ENTREGUE));
+        assertEquals(1, resumo.getCompartimentosLivres());
+        assertEquals(0, resumo.getCompartimentosOcupados());
+        assertEquals(1L, contadores.resumo(1L).orElseThrow().getEntregas().get(StatusEntrega.ENTREGUE));
+
+        // Fora da reconciliação nada fica registrado: a seguinte parte só do banco
+        when(entregaRepository.contarPorArmarioEStatus()).thenReturn(List.of());
+        contadores.reconciliar();
+        assertEquals(0L, contadores.resumo(2L).orElseThrow().getEntregas().get(StatusEntrega.ENTREGUE));
+    }
+
+    private static ArmarioRepository.CondominioArmario armario(Long armarioId, Long condominioId) {
+        ArmarioRepository.CondominioArmario armario = mock(ArmarioRepository.CondominioArmario.class);
+        when(armario.getArmarioId()).thenReturn(armarioId);
+        when(armario.getCondominioId()).thenReturn(condominioId);
+        return armario;
+    }
+
+    private static CompartimentoRepository.EstadoCompartimento compartimento(Long id, Long armarioId, boolean ocupado) {
+        CompartimentoRepository.EstadoCompartimento estado = mock(CompartimentoRepository.EstadoCompartimento.class);
+        when(estado.getId()).thenReturn(id);
+        when(estado.getArmarioId()).thenReturn(armarioId);
+        when(estado.getOcupado()).thenReturn(ocupado);
+        return estado;
+    }
+
+    private static EntregaRepository.ContagemEntregas contagemEntregas(Long armarioId, StatusEntrega status, Long total) {
+        EntregaRepository.ContagemEntregas contagem = mock(EntregaRepository.ContagemEntregas.class);
+        when(contagem.getArmarioId()).thenReturn(armarioId);
+        when(contagem.getStatus()).thenReturn(status);
+        when(contagem.getTotal()).thenReturn(total);
+        return contagem;
+    }
+}
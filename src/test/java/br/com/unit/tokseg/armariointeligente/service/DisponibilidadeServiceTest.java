@@ -0,0 +1,180 @@
+package br.com.unit.tokseg.armariointeligente.service;
+
+import br.com.unit.tokseg.armariointeligente.exception.BadRequestException;
+import br.com.unit.tokseg.armariointeligente.exception.ResourceNotFoundException;
+import br.com.unit.tokseg.armariointeligente.model.CandidatoCompartimento;
+import br.com.unit.tokseg.armariointeligente.repository.ArmarioRepository;
+import br.com.unit.tokseg.armariointeligente.repository.ReservaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+// Índice de alocação e agenda de reservas reais; só os repositórios são simulados
+public class DisponibilidadeServiceTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(DisponibilidadeServiceTest.class);
+
+    @Mock
+    private ReservaRepository reservaRepository;
+
+    @Mock
+    private ArmarioRepository armarioRepository;
+
+    @Mock
+    private ContadoresCondominio contadoresCondominio;
+
+    @Mock
+    private ReservaRecorrenteService reservaRecorrenteService;
+
+    private AlocacaoCompartimentoService alocacao;
+    private AgendaReservas agenda;
+    private DisponibilidadeService disponibilidade;
+
+    private final LocalDateTime amanha = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.DAYS);
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        alocacao = new AlocacaoCompartimentoService();
+        ReflectionTestUtils.setField(alocacao, "contadoresCondominio", contadoresCondominio);
+        agenda = new AgendaReservas();
+        ReflectionTestUtils.setField(agenda, "reservaRepository", reservaRepository);
+        disponibilidade = new DisponibilidadeService();
+        ReflectionTestUtils.setField(disponibilidade, "alocacaoCompartimentoService", alocacao);
+        ReflectionTestUtils.setField(disponibilidade, "agendaReservas", agenda);
+        ReflectionTestUtils.setField(disponibilidade, "armarioRepository", armarioRepository);
+        ReflectionTestUtils.setField(disponibilidade, "reservaRecorrenteService", reservaRecorrenteService);
+        when(armarioRepository.existsById(any())).thenReturn(true);
+    }
+
+    @Test
+    public void testRanqueiaPorTamanhoEPorFolgaNaAgenda() {
+        alocacao.registrar(1L, 10L, "G1", "G", false);
+        alocacao.registrar(2L, 10L, "M1", "M", false);
+        alocacao.registrar(3L, 10L, "M2", "M", false);
+        alocacao.registrar(4L, 10L, "M3", "M", false);
+        alocacao.registrar(5L, 10L, "P1", "P", false);
+        alocacao.registrar(6L, 10L, "M4", "M", true); // entrega guardada: sem hora para sair
+        List<ReservaRepository.IntervaloReserva> intervalos = List.of(
+                // M2 termina às 14h, encostado na janela; M3 tem reserva das 15h às 16h, em conflito
+                new Intervalo(100L, 3L, amanha.plusHours(10), amanha.plusHours(14)),
+                new Intervalo(101L, 4L, amanha.plusHours(15), amanha.plusHours(16)));
+        when(reservaRepository.findIntervalosVigentes(any(), any())).thenReturn(intervalos);
+        agenda.carregar();
+
+        List<CandidatoCompartimento> candidatos = disponibilidade.buscar(10L, "m", amanha.plusHours(14), amanha.plusHours(18));
+
+        assertEquals(List.of(3L, 2L, 1L), candidatos.stream().map(CandidatoCompartimento::getCompartimentoId).toList());
+        assertEquals(0L, candidatos.get(0).getFolgaAntesMinutos());
+        assertNull(candidatos.get(0).getFolgaDepoisMinutos());
+        assertEquals("M1", candidatos.get(1).getNumero());
+    }
+
+    @Test
+    public void testOcorrenciaDeReservaRecorrenteExcluiOCompartimento() {
+        alocacao.registrar(1L, 10L, "M1", "M", false);
+        alocacao.registrar(2L, 10L, "M2", "M", false);
+        when(reservaRecorrenteService.compartimentosEmConflito(eq(10L), any(), any())).thenReturn(Set.of(1L));
+
+        List<CandidatoCompartimento> candidatos = disponibilidade.buscar(10L, "M", amanha.plusHours(8), amanha.plusHours(9));
+
+        assertEquals(List.of(2L), candidatos.stream().map(CandidatoCompartimento::getCompartimentoId).toList());
+    }
+
+    @Test
+    public void testOcupadoPorReservaEmAndamentoServeDepoisDoFim() {
+        LocalDateTime agora = LocalDateTime.now();
+        alocacao.registrar(1L, 10L, "M1", "M", true);
+        List<ReservaRepository.IntervaloReserva> intervalos =
+                List.of(new Intervalo(100L, 1L, agora.minusHours(1), agora.plusHours(1)));
+        when(reservaRepository.findIntervalosVigentes(any(), any())).thenReturn(intervalos);
+        agenda.carregar();
+
+        assertTrue(disponibilidade.buscar(10L, "M", agora, agora.plusHours(2)).isEmpty());
+        List<CandidatoCompartimento> depois = disponibilidade.buscar(10L, "M", agora.plusHours(1), agora.plusHours(2));
+        assertEquals(1, depois.size());
+        assertFalse(depois.get(0).isLivreAgora());
+    }
+
+    @Test
+    public void testJanelaInvalidaEArmarioInexistente() {
+        assertThrows(BadRequestException.class,
+                () -> disponibilidade.buscar(10L, "M", amanha.plusHours(2), amanha.plusHours(1)));
+        assertThrows(BadRequestException.class,
+                () -> disponibilidade.buscar(10L, "XL", amanha, amanha.plusHours(1)));
+        when(armarioRepository.existsById(99L)).thenReturn(false);
+        assertThrows(ResourceNotFoundException.class,
+                () -> disponibilidade.buscar(99L, "M", amanha, amanha.plusHours(1)));
+    }
+
+    @Test
+    public void testArmarioComCentenasDeCompartimentos() {
+        // 600 compartimentos, cada um com 20 reservas de uma hora espalhadas pelos próximos dias
+        List<ReservaRepository.IntervaloReserva> intervalos = new ArrayList<>();
+        long reservaId = 0;
+        for (long id = 1; id <= 600; id++) {
+            alocacao.registrar(id, 10L, "C" + id, id % 3 == 0 ? "G" : id % 3 == 1 ? "M" : "P", id % 7 == 0);
+            for (int i = 0; i < 20; i++) {
+                LocalDateTime inicio = amanha.plusHours((id + i * 5) % 72);
+                intervalos.add(new Intervalo(++reservaId, id, inicio, inicio.plusHours(1)));
+            }
+        }
+        when(reservaRepository.findIntervalosVigentes(any(), any())).thenReturn(intervalos);
+        agenda.carregar();
+
+        for (int i = 0; i < 2000; i++) {
+            disponibilidade.buscar(10L, "M", amanha.plusHours(i % 48), amanha.plusHours(i % 48 + 2));
+        }
+        int consultas = 5000;
+        long inicio = System.nanoTime();
+        int encontrados = 0;
+        for (int i = 0; i < consultas; i++) {
+            encontrados += disponibilidade.buscar(10L, "M", amanha.plusHours(i % 48), amanha.plusHours(i % 48 + 2)).size();
+        }
+        double microsPorConsulta = (System.nanoTime() - inicio) / 1000.0 / consultas;
+
+        logger.info("Disponibilidade: 600 compartimentos, {} janelas, {} µs por consulta, {} candidatos em média",
+                intervalos.size(), String.format("%.1f", microsPorConsulta), encontrados / consultas);
+        // O tempo só vai para o log: teste unitário não depende da velocidade da máquina
+        assertTrue(encontrados > 0);
+    }
+
+    private record Intervalo(Long id, Long compartimentoId, LocalDateTime inicio, LocalDateTime fim)
+            implements ReservaRepository.IntervaloReserva {
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public Long getCompartimentoId() {
+            return compartimentoId;
+        }
+
+        @Override
+        public LocalDateTime getDataInicio() {
+            return inicio;
+        }
+
+        @Override
+        public LocalDateTime getDataFim() {
+            return fim;
+        }
+    }
+}
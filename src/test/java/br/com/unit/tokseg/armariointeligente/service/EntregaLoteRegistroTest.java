@@ -0,0 +1,64 @@
+package br.com.unit.tokseg.armariointeligente.service;
+
+import br.com.unit.tokseg.armariointeligente.model.Compartimento;
+import br.com.unit.tokseg.armariointeligente.model.EntregaLoteRequest;
+import br.com.unit.tokseg.armariointeligente.model.ResultadoEntregaLote;
+import br.com.unit.tokseg.armariointeligente.model.StatusEntrega;
+import br.com.unit.tokseg.armariointeligente.model.Usuario;
+import br.com.unit.tokseg.armariointeligente.repository.EntregaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Lote contra o banco real: um código gravado sem passar por esta instância (como faria outra
+// instância antes da recarga do filtro) é rejeitado só no item dele
+@SpringBootTest
+public class EntregaLoteRegistroTest {
+
+    @Autowired
+    private EntregaService entregaService;
+
+    @Autowired
+    private EntregaRepository entregaRepository;
+
+    @Autowired
+    private CenarioTeste cenario;
+
+    private final List<Long> registradas = new ArrayList<>();
+
+    @AfterEach
+    public void limpar() {
+        entregaRepository.deleteAllById(registradas);
+        registradas.clear();
+        cenario.limpar();
+    }
+
+    @Test
+    public void testCodigoDeOutraInstanciaNaoDerrubaOLote() {
+        Usuario entregador = cenario.entregador();
+        Usuario morador = cenario.morador();
+        List<Compartimento> compartimentos = cenario.compartimentos(List.of("LT-0", "LT-1", "LT-2"), "M", false);
+        // Gravado direto no repositório: o filtro de códigos desta instância não fica sabendo
+        cenario.salvar(List.of(cenario.entrega("LOTE-OUTRA-INSTANCIA", LocalDateTime.now(), StatusEntrega.RETIRADO,
+                compartimentos.get(0), entregador, morador)));
+
+        ResultadoEntregaLote resultado = entregaService.registrarLote(new EntregaLoteRequest(entregador.getId(), List.of(
+                new EntregaLoteRequest.Item(compartimentos.get(1).getId(), "LOTE-OUTRA-INSTANCIA", morador.getId(), null),
+                new EntregaLoteRequest.Item(compartimentos.get(2).getId(), "LOTE-NOVO", morador.getId(), null))));
+        resultado.getItens().stream()
+                .filter(ResultadoEntregaLote.Item::isSucesso)
+                .forEach(item -> registradas.add(item.getEntregaId()));
+
+        assertEquals(1, resultado.getRegistradas());
+        assertTrue(resultado.getItens().get(0).getErro().contains("já existe"));
+        assertTrue(resultado.getItens().get(1).isSucesso());
+        assertTrue(entregaRepository.existsByCodigoRastreio("LOTE-NOVO"));
+    }
+}
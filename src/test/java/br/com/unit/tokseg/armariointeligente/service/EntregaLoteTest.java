@@ -0,0 +1,208 @@
+package br.com.unit.tokseg.armariointeligente.service;
+
+import br.com.unit.tokseg.armariointeligente.exception.BadRequestException;
+import br.com.unit.tokseg.armariointeligente.model.*;
+import br.com.unit.tokseg.armariointeligente.repository.CompartimentoRepository;
+import br.com.unit.tokseg.armariointeligente.repository.EntregaRepository;
+import br.com.unit.tokseg.armariointeligente.repository.UsuarioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class EntregaLoteTest {
+
+    @Mock
+    private EntregaRepository entregaRepository;
+
+    @Mock
+    private CompartimentoRepository compartimentoRepository;
+
+    @Mock
+    private UsuarioRepository usuarioRepository;
+
+    @Mock
+    private CompartimentoService compartimentoService;
+
+    @Mock
+    private AlocacaoCompartimentoService alocacaoCompartimentoService;
+
+    @Mock
+    private IndiceCodigosAcesso indiceCodigosAcesso;
+
+    @Mock
+    private AgendaExpiracaoEntregas agendaExpiracaoEntregas;
+
+    @Mock
+    private FiltroCodigosRastreio filtroCodigosRastreio;
+
+    @Mock
+    private CacheRastreio cacheRastreio;
+
+    @Mock
+    private ContadoresCondominio contadoresCondominio;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private AgendaReservas agendaReservas;
+
+    @Mock
+    private ReservaRecorrenteService reservaRecorrenteService;
+
+    @InjectMocks
+    private EntregaService entregaService;
+
+    private Usuario entregador;
+    private Usuario destinatario;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(entregaService, "tamanhoMaximoLote", 3);
+        ReflectionTestUtils.setField(entregaService, "permanenciaEsperada", Duration.ofDays(1));
+
+        TipoUsuario tipoEntregador = new TipoUsuario();
+        tipoEntregador.setNome("Entregador");
+        entregador = new Usuario("Entregador", "entregador@exemplo.com", "senha", "79999999999", tipoEntregador);
+        ReflectionTestUtils.setField(entregador, "id", 1L);
+        destinatario = new Usuario("João Silva", "joao.silva@exemplo.com", "senha", "79988888888", new TipoUsuario());
+        ReflectionTestUtils.setField(destinatario, "id", 2L);
+
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(entregador));
+        when(usuarioRepository.findAllById(any())).thenReturn(List.of(destinatario));
+        when(transactionTemplate.execute(any())).thenAnswer(invocacao ->
+                invocacao.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    public void testItensInvalidosNaoImpedemOsDemais() {
+        Compartimento livre = compartimento(10L, false);
+        Compartimento ocupado = compartimento(11L, true);
+        when(entregaRepository.findCodigosRastreioExistentes(any())).thenReturn(List.of("JA-EXISTE"));
+        when(compartimentoRepository.findAllByIdParaOcupacao(any())).thenReturn(List.of(livre, ocupado));
+        when(compartimentoRepository.ocuparTodosSeLivres(any())).thenReturn(1);
+
+        EntregaLoteRequest requisicao = new EntregaLoteRequest(1L, List.of(
+                new EntregaLoteRequest.Item(10L, "NOVO-1", 2L, null),
+                new EntregaLoteRequest.Item(11L, "NOVO-2", 2L, null),
+                new EntregaLoteRequest.Item(12L, "JA-EXISTE", 2L, null)));
+
+        ResultadoEntregaLote resultado = entregaService.registrarLote(requisicao);
+
+        assertEquals(1, resultado.getRegistradas());
+        assertEquals(2, resultado.getRejeitadas());
+        assertTrue(resultado.getItens().get(0).isSucesso());
+        assertEquals("O compartimento selecionado já está ocupado", resultado.getItens().get(1).getErro());
+        assertTrue(resultado.getItens().get(2).getErro().contains("já existe"));
+
+        // Uma consulta por conjunto e um único UPDATE de ocupação para o lote inteiro
+        verify(compartimentoRepository).ocuparTodosSeLivres(List.of(10L));
+        // Todos os códigos vão ao banco em uma consulta, inclusive os que o filtro ainda não conhece
+        verify(entregaRepository, times(1)).findCodigosRastreioExistentes(Set.of("NOVO-1", "NOVO-2", "JA-EXISTE"));
+        verify(filtroCodigosRastreio, never()).podeExistir(any());
+        verify(usuarioRepository, times(1)).findAllById(any());
+        verify(entregaRepository).saveAllAndFlush(argThat(novas -> ((List<Entrega>) novas).size() == 1));
+        verify(alocacaoCompartimentoService).atualizarOcupacao(10L, true);
+        verify(indiceCodigosAcesso).ativar(10L, 1L, "123456");
+        verify(filtroCodigosRastreio).adicionar("NOVO-1");
+    }
+
+    @Test
+    public void testCodigoRegistradoEmParaleloViraErroDoItem() {
+        when(compartimentoRepository.findAllByIdParaOcupacao(any()))
+                .thenReturn(List.of(compartimento(10L, false), compartimento(11L, false)));
+        when(compartimentoRepository.ocuparTodosSeLivres(any())).thenReturn(2, 1);
+        // Outra instância registra "PARALELO" entre a consulta e o INSERT da primeira tentativa
+        when(entregaRepository.findCodigosRastreioExistentes(any())).thenReturn(List.of(), List.of("PARALELO"));
+        when(entregaRepository.saveAllAndFlush(any()))
+                .thenThrow(new DataIntegrityViolationException("Violação de " + Entrega.UK_CODIGO_RASTREIO))
+                .thenAnswer(invocacao -> invocacao.getArgument(0));
+
+        EntregaLoteRequest requisicao = new EntregaLoteRequest(1L, List.of(
+                new EntregaLoteRequest.Item(10L, "NOVO-1", 2L, null),
+                new EntregaLoteRequest.Item(11L, "PARALELO", 2L, null)));
+
+        ResultadoEntregaLote resultado = entregaService.registrarLote(requisicao);
+
+        assertEquals(1, resultado.getRegistradas());
+        assertTrue(resultado.getItens().get(0).isSucesso());
+        assertTrue(resultado.getItens().get(1).getErro().contains("já existe"));
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(compartimentoRepository).ocuparTodosSeLivres(List.of(10L));
+    }
+
+    @Test
+    public void testCompartimentoComReservaProximaERecusadoNoItem() {
+        when(compartimentoRepository.findAllByIdParaOcupacao(any()))
+                .thenReturn(List.of(compartimento(10L, false), compartimento(11L, false), compartimento(12L, false)));
+        when(compartimentoRepository.ocuparTodosSeLivres(any())).thenReturn(1);
+        when(agendaReservas.haConflito(eq(11L), any(), any())).thenReturn(true);
+        when(reservaRecorrenteService.compartimentosEmConflito(eq(1L), any(), any())).thenReturn(Set.of(12L));
+
+        ResultadoEntregaLote resultado = entregaService.registrarLote(new EntregaLoteRequest(1L, List.of(
+                new EntregaLoteRequest.Item(10L, "A", 2L, null),
+                new EntregaLoteRequest.Item(11L, "B", 2L, null),
+                new EntregaLoteRequest.Item(12L, "C", 2L, null))));
+
+        assertEquals(1, resultado.getRegistradas());
+        assertTrue(resultado.getItens().get(1).getErro().contains("reserva"));
+        assertTrue(resultado.getItens().get(2).getErro().contains("reserva"));
+        verify(compartimentoRepository).ocuparTodosSeLivres(List.of(10L));
+        // Os três compartimentos estão no mesmo armário: uma consulta de séries
+        verify(reservaRecorrenteService, times(1)).compartimentosEmConflito(any(), any(), any());
+    }
+
+    @Test
+    public void testRepeticoesDentroDoLoteSaoRejeitadas() {
+        when(compartimentoRepository.findAllByIdParaOcupacao(any()))
+                .thenReturn(List.of(compartimento(10L, false), compartimento(11L, false)));
+        when(compartimentoRepository.ocuparTodosSeLivres(any())).thenReturn(1);
+
+        EntregaLoteRequest requisicao = new EntregaLoteRequest(1L, List.of(
+                new EntregaLoteRequest.Item(10L, "A", 2L, null),
+                new EntregaLoteRequest.Item(11L, "A", 2L, null),
+                new EntregaLoteRequest.Item(10L, "B", 2L, null)));
+
+        ResultadoEntregaLote resultado = entregaService.registrarLote(requisicao);
+
+        assertEquals(1, resultado.getRegistradas());
+        assertEquals("Código de rastreio repetido no lote", resultado.getItens().get(1).getErro());
+        assertEquals("Compartimento repetido no lote", resultado.getItens().get(2).getErro());
+    }
+
+    @Test
+    public void testLoteAcimaDoLimiteERecusado() {
+        EntregaLoteRequest.Item item = new EntregaLoteRequest.Item(10L, "A", 2L, null);
+        EntregaLoteRequest requisicao = new EntregaLoteRequest(1L, List.of(item, item, item, item));
+
+        assertThrows(BadRequestException.class, () -> entregaService.registrarLote(requisicao));
+        verifyNoInteractions(compartimentoRepository);
+    }
+
+    private Compartimento compartimento(Long id, boolean ocupado) {
+        Compartimento compartimento = new Compartimento();
+        compartimento.setId(id);
+        compartimento.setOcupado(ocupado);
+        compartimento.setCodigoAcesso("123456");
+        Armario armario = new Armario();
+        armario.setId(1L);
+        compartimento.setArmario(armario);
+        return compartimento;
+    }
+}
@@ -0,0 +1,76 @@
+package br.com.unit.tokseg.armariointeligente.service;
+
+import br.com.unit.tokseg.armariointeligente.repository.EntregaRepository;
+import br.com.unit.tokseg.armariointeligente.security.ContextoAcesso;
+import br.com.unit.tokseg.armariointeligente.security.UserDetailsImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class EntregaServiceImplTest {
+
+    @Mock
+    private EntregaRepository entregaRepository;
+
+    @Spy
+    private ContextoAcesso contextoAcesso = new ContextoAcesso();
+
+    @InjectMocks
+    private EntregaServiceImpl entregaServiceImpl;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+
+        UserDetailsImpl principal = new UserDetailsImpl(2L, "João Silva", "joao.silva@exemplo.com", null,
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_CLIENTE")));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @AfterEach
+    public void limparContexto() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void testIsDestinatarioConsultaApenasOId() {
+        when(entregaRepository.findDestinatarioIdById(1L)).thenReturn(Optional.of(2L));
+
+        assertTrue(entregaServiceImpl.isDestinatario(1L));
+        verify(entregaRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    public void testIsDestinatarioReaproveitaConsultaNaMesmaRequisicao() {
+        when(entregaRepository.findDestinatarioIdById(1L)).thenReturn(Optional.of(2L));
+
+        entregaServiceImpl.isDestinatario(1L);
+        entregaServiceImpl.isDestinatario(1L);
+
+        verify(entregaRepository, times(1)).findDestinatarioIdById(1L);
+    }
+
+    @Test
+    public void testOutroDestinatarioOuEntregaInexistente() {
+        when(entregaRepository.findDestinatarioIdById(1L)).thenReturn(Optional.of(3L));
+        when(entregaRepository.findDestinatarioIdById(99L)).thenReturn(Optional.empty());
+
+        assertFalse(entregaServiceImpl.isDestinatario(1L));
+        assertFalse(entregaServiceImpl.isDestinatario(99L));
+    }
+}
@@ -0,0 +1,116 @@
+package br.com.unit.tokseg.armariointeligente.service;
+
+import br.com.unit.tokseg.armariointeligente.model.Armario;
+import br.com.unit.tokseg.armariointeligente.model.Compartimento;
+import br.com.unit.tokseg.armariointeligente.model.Condominio;
+import br.com.unit.tokseg.armariointeligente.model.Entrega;
+import br.com.unit.tokseg.armariointeligente.model.StatusEntrega;
+import br.com.unit.tokseg.armariointeligente.repository.EntregaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ExpiracaoEntregaServiceTest {
+
+    @Mock
+    private EntregaRepository entregaRepository;
+
+    @Mock
+    private CompartimentoService compartimentoService;
+
+    @Mock
+    private IndiceCodigosAcesso indiceCodigosAcesso;
+
+    @Mock
+    private CacheRastreio cacheRastreio;
+
+    @Mock
+    private ContadoresCondominio contadoresCondominio;
+
+    @InjectMocks
+    private ExpiracaoEntregaService expiracaoEntregaService;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(expiracaoEntregaService, "diasRetencaoPadrao", 7);
+    }
+
+    @Test
+    public void testExpiraVencidasELiberaCompartimento() {
+        Entrega vencida = entrega(1L, 10L, LocalDateTime.now().minusDays(4), 3);
+        when(entregaRepository.findParaExpiracao(List.of(1L), StatusEntrega.ENTREGUE)).thenReturn(List.of(vencida));
+
+        Map<Long, LocalDateTime> adiadas = expiracaoEntregaService.expirar(List.of(1L));
+
+        assertTrue(adiadas.isEmpty());
+        assertEquals(StatusEntrega.EXPIRADO, vencida.getStatus());
+        verify(compartimentoService).atualizarStatusCompartimento(10L, false);
+        verify(compartimentoService).gerarNovoCodigoAcesso(10L);
+        verify(indiceCodigosAcesso).desativar(10L);
+    }
+
+    @Test
+    public void testDevolvePrazoDasQueAindaNaoVenceram() {
+        LocalDateTime dataEntrega = LocalDateTime.now().minusDays(4);
+        Entrega comRetencaoMaior = entrega(2L, 20L, dataEntrega, 10);
+        when(entregaRepository.findParaExpiracao(anyCollection(), eq(StatusEntrega.ENTREGUE)))
+                .thenReturn(List.of(comRetencaoMaior));
+
+        Map<Long, LocalDateTime> adiadas = expiracaoEntregaService.expirar(List.of(2L));
+
+        assertEquals(Map.of(2L, dataEntrega.plusDays(10)), adiadas);
+        assertEquals(StatusEntrega.ENTREGUE, comRetencaoMaior.getStatus());
+        verifyNoInteractions(compartimentoService, indiceCodigosAcesso);
+    }
+
+    @Test
+    public void testCondominioSemRetencaoUsaOPadrao() {
+        Entrega recente = entrega(3L, 30L, LocalDateTime.now().minusDays(6), null);
+        Entrega antiga = entrega(4L, 40L, LocalDateTime.now().minusDays(8), null);
+        when(entregaRepository.findParaExpiracao(anyCollection(), eq(StatusEntrega.ENTREGUE)))
+                .thenReturn(List.of(recente, antiga));
+
+        Map<Long, LocalDateTime> adiadas = expiracaoEntregaService.expirar(List.of(3L, 4L));
+
+        assertEquals(1, adiadas.size());
+        assertTrue(adiadas.containsKey(3L));
+        assertEquals(StatusEntrega.EXPIRADO, antiga.getStatus());
+        verify(compartimentoService).atualizarStatusCompartimento(40L, false);
+        verify(compartimentoService, never()).atualizarStatusCompartimento(eq(30L), anyBoolean());
+    }
+
+    @Test
+    public void testListaVaziaNaoConsultaOBanco() {
+        assertTrue(expiracaoEntregaService.expirar(List.of()).isEmpty());
+        verifyNoInteractions(entregaRepository);
+    }
+
+    private Entrega entrega(Long id, Long compartimentoId, LocalDateTime dataEntrega, Integer diasRetencao) {
+        Condominio condominio = new Condominio();
+        condominio.setDiasRetencao(diasRetencao);
+        Armario armario = new Armario();
+        armario.setCondominio(condominio);
+        Compartimento compartimento = new Compartimento();
+        compartimento.setId(compartimentoId);
+        compartimento.setArmario(armario);
+
+        Entrega entrega = new Entrega();
+        entrega.setId(id);
+        entrega.setCompartimento(compartimento);
+        entrega.setDataEntrega(dataEntrega);
+        entrega.setStatus(StatusEntrega.ENTREGUE);
+        return entrega;
+    }
+}
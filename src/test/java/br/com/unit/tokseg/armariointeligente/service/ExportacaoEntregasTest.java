@@ -0,0 +1,103 @@
+package br.com.unit.tokseg.armariointeligente.service;
+
+import br.com.unit.tokseg.armariointeligente.exception.BadRequestException;
+import br.com.unit.tokseg.armariointeligente.model.Compartimento;
+import br.com.unit.tokseg.armariointeligente.model.Entrega;
+import br.com.unit.tokseg.armariointeligente.model.StatusEntrega;
+import br.com.unit.tokseg.armariointeligente.model.Usuario;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class ExportacaoEntregasTest {
+
+    // Mais de dois blocos de leitura, para passar pela limpeza do contexto de persistência
+    private static final int TOTAL = 1100;
+
+    @Autowired
+    private ExportacaoEntregasService exportacaoEntregasService;
+
+    @Autowired
+    private CenarioTeste cenario;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Compartimento compartimento;
+
+    private final LocalDateTime inicio = LocalDateTime.of(2019, 5, 1, 0, 0);
+
+    @BeforeEach
+    public void setup() {
+        Usuario entregador = cenario.entregador();
+        Usuario destinatario = cenario.morador();
+        compartimento = cenario.compartimento("EX-1", "G", false);
+
+        List<Entrega> novas = new ArrayList<>();
+        for (int i = 0; i < TOTAL; i++) {
+            Entrega entrega = cenario.entrega("EXPORTACAO-" + i, inicio.plusMinutes(i), StatusEntrega.RETIRADO,
+                    compartimento, entregador, destinatario);
+            entrega.setObservacao(i == 0 ? "Portaria, bloco \"B\"" : null);
+            novas.add(entrega);
+        }
+        cenario.salvar(novas);
+    }
+
+    @AfterEach
+    public void limpar() {
+        cenario.limpar();
+    }
+
+    @Test
+    public void testExportaNdjsonEmOrdemCronologica() throws Exception {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+
+        long linhas = exportacaoEntregasService.exportar(inicio, inicio.plusMinutes(TOTAL - 1),
+                ExportacaoEntregasService.Formato.NDJSON, saida);
+
+        String[] registros = saida.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(TOTAL, linhas);
+        assertEquals(TOTAL, registros.length);
+        JsonNode primeiro = objectMapper.readTree(registros[0]);
+        assertEquals("EXPORTACAO-0", primeiro.get("codigoRastreio").asText());
+        assertEquals("EX-1", primeiro.get("compartimento").asText());
+        assertEquals("Portaria, bloco \"B\"", primeiro.get("observacao").asText());
+        assertEquals("EXPORTACAO-" + (TOTAL - 1), objectMapper.readTree(registros[TOTAL - 1]).get("codigoRastreio").asText());
+    }
+
+    @Test
+    public void testExportaCsvComCabecalhoEEscape() throws Exception {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+
+        long linhas = exportacaoEntregasService.exportar(inicio, inicio.plusMinutes(9),
+                ExportacaoEntregasService.Formato.CSV, saida);
+
+        String[] registros = saida.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(10, linhas);
+        assertEquals(11, registros.length);
+        assertTrue(registros[0].startsWith("id,codigoRastreio,status"));
+        assertTrue(registros[1].contains(",EXPORTACAO-0,RETIRADO,"));
+        assertTrue(registros[1].endsWith(",\"Portaria, bloco \"\"B\"\"\""));
+    }
+
+    @Test
+    public void testFormatoEPeriodoInvalidos() {
+        assertEquals(ExportacaoEntregasService.Formato.CSV, ExportacaoEntregasService.Formato.de(" CSV "));
+        assertThrows(BadRequestException.class, () -> ExportacaoEntregasService.Formato.de("xml"));
+        assertThrows(BadRequestException.class,
+                () -> exportacaoEntregasService.validarPeriodo(inicio.plusDays(1), inicio));
+    }
+}
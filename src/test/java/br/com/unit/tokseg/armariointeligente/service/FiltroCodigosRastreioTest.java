@@ -0,0 +1,63 @@
+package br.com.unit.tokseg.armariointeligente.service;
+
+import br.com.unit.tokseg.armariointeligente.repository.EntregaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class FiltroCodigosRastreioTest {
+
+    @Mock
+    private EntregaRepository entregaRepository;
+
+    @InjectMocks
+    private FiltroCodigosRastreio filtroCodigosRastreio;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(filtroCodigosRastreio, "capacidadeMinima", 1000);
+        ReflectionTestUtils.setField(filtroCodigosRastreio, "taxaFalsoPositivo", 0.001);
+    }
+
+    @Test
+    public void testAntesDaCargaTudoPodeExistir() {
+        assertTrue(filtroCodigosRastreio.podeExistir("QUALQUER"));
+    }
+
+    @Test
+    public void testCodigosCarregadosERegistradosSaoReconhecidos() {
+        when(entregaRepository.count()).thenReturn(2L);
+        when(entregaRepository.streamCodigosRastreio()).thenReturn(Stream.of("BR123", "BR456"));
+        filtroCodigosRastreio.carregar();
+
+        assertTrue(filtroCodigosRastreio.podeExistir("BR123"));
+        assertTrue(filtroCodigosRastreio.podeExistir("BR456"));
+        assertFalse(filtroCodigosRastreio.podeExistir("BR789"));
+
+        filtroCodigosRastreio.adicionar("BR789");
+        assertTrue(filtroCodigosRastreio.podeExistir("BR789"));
+    }
+
+    @Test
+    public void testSincronizacaoTrazCodigosDeOutrasInstancias() {
+        when(entregaRepository.count()).thenReturn(0L);
+        when(entregaRepository.streamCodigosRastreio()).thenReturn(Stream.empty());
+        filtroCodigosRastreio.carregar();
+        when(entregaRepository.findCodigosRastreioDesde(any())).thenReturn(List.of("OUTRA-1"));
+
+        filtroCodigosRastreio.sincronizar();
+
+        assertTrue(filtroCodigosRastreio.podeExistir("OUTRA-1"));
+    }
+}
@@ -0,0 +1,86 @@
+package br.com.unit.tokseg.armariointeligente.service;
+
+import br.com.unit.tokseg.armariointeligente.model.StatusEntrega;
+import br.com.unit.tokseg.armariointeligente.repository.EntregaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class IndiceCodigosAcessoTest {
+
+    @Mock
+    private EntregaRepository entregaRepository;
+
+    @InjectMocks
+    private IndiceCodigosAcesso indiceCodigosAcesso;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        EntregaRepository.CodigoAtivo ativo = mock(EntregaRepository.CodigoAtivo.class);
+        when(ativo.getCompartimentoId()).thenReturn(1L);
+        when(ativo.getArmarioId()).thenReturn(10L);
+        when(ativo.getCodigoAcesso()).thenReturn("123456");
+        when(entregaRepository.findCodigosAtivos(StatusEntrega.ENTREGUE)).thenReturn(List.of(ativo));
+        indiceCodigosAcesso.carregar();
+        clearInvocations(entregaRepository);
+    }
+
+    @Test
+    public void testResolveCodigoAtivoSomenteNoProprioArmario() {
+        assertEquals(1L, indiceCodigosAcesso.resolver(10L, "123456"));
+        assertNull(indiceCodigosAcesso.resolver(20L, "123456"));
+        assertNull(indiceCodigosAcesso.resolver(10L, "654321"));
+        verifyNoInteractions(entregaRepository);
+    }
+
+    @Test
+    public void testCodigoMalformadoERecusado() {
+        assertNull(indiceCodigosAcesso.resolver(10L, "12345"));
+        assertNull(indiceCodigosAcesso.resolver(10L, "12345a"));
+        assertNull(indiceCodigosAcesso.resolver(10L, null));
+    }
+
+    @Test
+    public void testTrocaDeCodigoInvalidaOAnterior() {
+        indiceCodigosAcesso.atualizar(1L, 10L, "777777");
+
+        assertNull(indiceCodigosAcesso.resolver(10L, "123456"));
+        assertEquals(1L, indiceCodigosAcesso.resolver(10L, "777777"));
+        assertEquals(1, indiceCodigosAcesso.contarAtivos(10L));
+    }
+
+    @Test
+    public void testRetiradaDesativaEAtualizacaoNaoReativa() {
+        indiceCodigosAcesso.desativar(1L);
+        // Compartimento sem entrega aguardando: um novo código não entra no índice
+        indiceCodigosAcesso.atualizar(1L, 10L, "777777");
+
+        assertNull(indiceCodigosAcesso.resolver(10L, "123456"));
+        assertNull(indiceCodigosAcesso.resolver(10L, "777777"));
+        assertEquals(0, indiceCodigosAcesso.contarAtivos(10L));
+    }
+
+    @Test
+    public void testMuitosCodigosNoMesmoArmario() {
+        for (long id = 100; id < 5100; id++) {
+            indiceCodigosAcesso.ativar(id, 30L, String.valueOf(100000 + id * 7));
+        }
+        for (long id = 100; id < 5100; id += 2) {
+            indiceCodigosAcesso.desativar(id);
+        }
+
+        for (long id = 100; id < 5100; id++) {
+            Long esperado = id % 2 == 0 ? null : id;
+            assertEquals(esperado, indiceCodigosAcesso.resolver(30L, String.valueOf(100000 + id * 7)));
+        }
+        assertEquals(2500, indiceCodigosAcesso.contarAtivos(30L));
+    }
+}
@@ -0,0 +1,81 @@
+package br.com.unit.tokseg.armariointeligente.service;
+
+import br.com.unit.tokseg.armariointeligente.exception.TooManyRequestsException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LimiteTentativasRetiradaTest {
+
+    private static final Long ARMARIO = 1L;
+    private static final Long OUTRO_ARMARIO = 2L;
+
+    // Relógio controlado pelo teste: a janela avança sem esperar
+    private final AtomicLong agora = new AtomicLong();
+
+    private LimiteTentativasRetirada limite;
+
+    @BeforeEach
+    public void setup() {
+        limite = new LimiteTentativasRetirada(3, 5, Duration.ofMinutes(15), agora::get);
+    }
+
+    @Test
+    public void testUsuarioBloqueadoAposFalhasEmQualquerArmario() {
+        limite.registrarFalha(10L, ARMARIO);
+        limite.registrarFalha(10L, ARMARIO);
+        limite.verificar(10L, ARMARIO);
+        limite.registrarFalha(10L, OUTRO_ARMARIO);
+
+        TooManyRequestsException recusa = assertThrows(TooManyRequestsException.class,
+                () -> limite.verificar(10L, OUTRO_ARMARIO));
+        assertEquals(15 * 60, recusa.getRetryAfterSegundos());
+        // Outro usuário no mesmo armário continua tentando
+        assertDoesNotThrow(() -> limite.verificar(11L, ARMARIO));
+    }
+
+    @Test
+    public void testArmarioBloqueadoAposFalhasDeVariosUsuarios() {
+        for (long usuario = 10; usuario < 15; usuario++) {
+            limite.registrarFalha(usuario, ARMARIO);
+        }
+
+        assertThrows(TooManyRequestsException.class, () -> limite.verificar(20L, ARMARIO));
+        assertThrows(TooManyRequestsException.class, () -> limite.verificar(null, ARMARIO));
+        assertDoesNotThrow(() -> limite.verificar(20L, OUTRO_ARMARIO));
+    }
+
+    @Test
+    public void testBloqueioTerminaComAJanela() {
+        for (int i = 0; i < 3; i++) {
+            limite.registrarFalha(10L, ARMARIO);
+        }
+        agora.addAndGet(TimeUnit.MINUTES.toNanos(10));
+
+        TooManyRequestsException recusa = assertThrows(TooManyRequestsException.class,
+                () -> limite.verificar(10L, ARMARIO));
+        assertEquals(5 * 60, recusa.getRetryAfterSegundos());
+
+        agora.addAndGet(TimeUnit.MINUTES.toNanos(5));
+        assertDoesNotThrow(() -> limite.verificar(10L, ARMARIO));
+    }
+
+    @Test
+    public void testAcertoZeraSoOUsuario() {
+        limite.registrarFalha(10L, ARMARIO);
+        limite.registrarFalha(10L, ARMARIO);
+        limite.registrarSucesso(10L);
+        limite.registrarFalha(10L, ARMARIO);
+        limite.registrarFalha(10L, ARMARIO);
+
+        assertDoesNotThrow(() -> limite.verificar(10L, ARMARIO));
+        // As quatro falhas continuam contando para o armário
+        limite.registrarFalha(11L, ARMARIO);
+        assertThrows(TooManyRequestsException.class, () -> limite.verificar(12L, ARMARIO));
+    }
+}
@@ -0,0 +1,147 @@
+package br.com.unit.tokseg.armariointeligente.service;
+
+import br.com.unit.tokseg.armariointeligente.model.Compartimento;
+import br.com.unit.tokseg.armariointeligente.model.ConsultaEntregasRequest;
+import br.com.unit.tokseg.armariointeligente.model.Entrega;
+import br.com.unit.tokseg.armariointeligente.model.EntregaResumo;
+import br.com.unit.tokseg.armariointeligente.model.Pagina;
+import br.com.unit.tokseg.armariointeligente.model.StatusEntrega;
+import br.com.unit.tokseg.armariointeligente.model.Usuario;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Comparação entre a listagem de entidades com as associações carregadas uma a uma (o comportamento
+// anterior, com @ManyToOne ansioso) e a listagem por EntregaResumo: instruções executadas e tamanho do
+// JSON para 1000 entregas. Contexto com estatísticas e banco só dele, como RegistroEntregaConsultasTest.
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.datasource.url=jdbc:h2:mem:listagementregasconsultas"
+})
+public class ListagemEntregasConsultasTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ListagemEntregasConsultasTest.class);
+
+    private static final int ENTREGAS = 1000;
+    private static final int COMPARTIMENTOS = 50;
+    private static final int TAMANHO_PAGINA = 500;
+
+    @Autowired
+    private EntregaService entregaService;
+
+    @Autowired
+    private CenarioTeste cenario;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Statistics estatisticas;
+
+    // Período isolado: nenhuma outra entrega do banco cai nele
+    private final LocalDateTime inicio = LocalDateTime.of(2001, 1, 1, 0, 0);
+    private final LocalDateTime fim = inicio.plusDays(1);
+
+    @BeforeEach
+    public void setup() {
+        estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Usuario entregador = cenario.entregador();
+        Usuario destinatario = cenario.morador();
+        List<String> numeros = new ArrayList<>();
+        for (int i = 0; i < COMPARTIMENTOS; i++) {
+            numeros.add("LC-" + i);
+        }
+        List<Compartimento> novosCompartimentos = cenario.compartimentos(numeros, "P", false);
+
+        List<Entrega> novas = new ArrayList<>();
+        for (int i = 0; i < ENTREGAS; i++) {
+            novas.add(cenario.entrega("LISTAGEM-" + i, inicio.plusSeconds(i), StatusEntrega.ENTREGUE,
+                    novosCompartimentos.get(i % COMPARTIMENTOS), entregador, destinatario));
+        }
+        cenario.salvar(novas);
+    }
+
+    @AfterEach
+    public void limpar() {
+        cenario.limpar();
+    }
+
+    @Test
+    public void testListagemPorResumoUsaUmaInstrucaoPorPaginaEEncolheAResposta() {
+        estatisticas.clear();
+        byte[] antes = transactionTemplate.execute(status -> serializar(listarEntidadesCompletas()));
+        long instrucoesAntes = estatisticas.getPrepareStatementCount();
+
+        estatisticas.clear();
+        List<EntregaResumo> resumos = new ArrayList<>();
+        int paginas = 0;
+        String cursor = null;
+        do {
+            Pagina<EntregaResumo> pagina = entregaService.listarEntregasPorPeriodo(new ConsultaEntregasRequest(cursor, TAMANHO_PAGINA, inicio, fim));
+            resumos.addAll(pagina.getItens());
+            cursor = pagina.getProximoCursor();
+            paginas++;
+        } while (cursor != null);
+        long instrucoesDepois = estatisticas.getPrepareStatementCount();
+        byte[] depois = serializar(resumos);
+
+        logger.info("Listagem de {} entregas: entidades {} instruções e {} bytes; resumos {} instruções e {} bytes",
+                ENTREGAS, instrucoesAntes, antes.length, instrucoesDepois, depois.length);
+
+        assertEquals(ENTREGAS, resumos.size());
+        assertEquals(paginas, instrucoesDepois);
+        assertTrue(instrucoesAntes > COMPARTIMENTOS, "a listagem de entidades deveria carregar cada compartimento");
+        assertTrue(depois.length < antes.length / 2,
+                "resumos com " + depois.length + " bytes contra " + antes.length + " bytes das entidades");
+    }
+
+    // O que as listagens faziam antes: a consulta das entregas e, para cada compartimento e usuário
+    // distinto, uma consulta a mais; a resposta levava o grafo inteiro
+    private List<Entrega> listarEntidadesCompletas() {
+        List<Entrega> encontradas = entityManager.createQuery(
+                        "select e from Entrega e where e.dataEntrega between :inicio and :fim order by e.dataEntrega desc, e.id desc",
+                        Entrega.class)
+                .setParameter("inicio", inicio)
+                .setParameter("fim", fim)
+                .getResultList();
+        for (Entrega entrega : encontradas) {
+            entrega.setCompartimento((Compartimento) Hibernate.unproxy(entrega.getCompartimento()));
+            entrega.setEntregador((Usuario) Hibernate.unproxy(entrega.getEntregador()));
+            entrega.setDestinatario((Usuario) Hibernate.unproxy(entrega.getDestinatario()));
+        }
+        return encontradas;
+    }
+
+    private byte[] serializar(Object valor) {
+        try {
+            return objectMapper.writeValueAsBytes(valor);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
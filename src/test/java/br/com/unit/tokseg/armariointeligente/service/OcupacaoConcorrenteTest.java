@@ -0,0 +1,153 @@
+package br.com.unit.tokseg.armariointeligente.service;
+
+import br.com.unit.tokseg.armariointeligente.exception.BadRequestException;
+import br.com.unit.tokseg.armariointeligente.model.Compartimento;
+import br.com.unit.tokseg.armariointeligente.repository.CompartimentoRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Centenas de threads disputando poucos compartimentos: cada um deve ser ocupado exatamente uma vez
+@SpringBootTest
+public class OcupacaoConcorrenteTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(OcupacaoConcorrenteTest.class);
+
+    private static final int THREADS = 200;
+    private static final int COMPARTIMENTOS = 5;
+
+    @Autowired
+    private CompartimentoService compartimentoService;
+
+    @Autowired
+    private CompartimentoRepository compartimentoRepository;
+
+    @Autowired
+    private CenarioTeste cenario;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    public void limpar() {
+        cenario.limpar();
+    }
+
+    @Test
+    public void testUpdateCondicionalNaoOcupaDuasVezes() throws Exception {
+        List<Long> ids = criarCompartimentos("UPD");
+
+        Resultado resultado = disputar(ids, id -> {
+            try {
+                compartimentoService.ocupar(id);
+                return true;
+            } catch (BadRequestException e) {
+                return false;
+            }
+        });
+
+        logger.info("UPDATE condicional: {} tentativas em {} ms ({} ops/s), {} conflitos",
+                THREADS, resultado.duracaoMs(), resultado.opsPorSegundo(), resultado.conflitos().get());
+        for (Long id : ids) {
+            assertEquals(1, resultado.sucessos().get(id).get(), "Compartimento " + id + " ocupado mais de uma vez");
+            assertTrue(compartimentoRepository.findById(id).orElseThrow().getOcupado());
+        }
+        assertEquals(THREADS - COMPARTIMENTOS, resultado.conflitos().get());
+    }
+
+    // Referência para comparação: SELECT ... FOR UPDATE seguido da escrita
+    @Test
+    public void testBloqueioPessimistaParaComparacao() throws Exception {
+        List<Long> ids = criarCompartimentos("PES");
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+
+        Resultado resultado = disputar(ids, id -> transacao.execute(status -> {
+            Compartimento compartimento = entityManager.find(Compartimento.class, id, LockModeType.PESSIMISTIC_WRITE);
+            if (Boolean.TRUE.equals(compartimento.getOcupado())) {
+                return false;
+            }
+            compartimento.setOcupado(true);
+            return true;
+        }));
+
+        logger.info("Bloqueio pessimista: {} tentativas em {} ms ({} ops/s), {} conflitos, {} falhas de bloqueio",
+                THREADS, resultado.duracaoMs(), resultado.opsPorSegundo(), resultado.conflitos().get(),
+                resultado.falhas().get());
+        for (Long id : ids) {
+            assertTrue(resultado.sucessos().get(id).get() <= 1, "Compartimento " + id + " ocupado mais de uma vez");
+        }
+    }
+
+    private List<Long> criarCompartimentos(String prefixo) {
+        List<String> numeros = new ArrayList<>();
+        for (int i = 0; i < COMPARTIMENTOS; i++) {
+            numeros.add(prefixo + "-" + i);
+        }
+        return cenario.compartimentos(numeros, "M", false).stream().map(Compartimento::getId).toList();
+    }
+
+    private Resultado disputar(List<Long> ids, Function<Long, Boolean> ocupar) throws InterruptedException {
+        ConcurrentHashMap<Long, AtomicInteger> sucessos = new ConcurrentHashMap<>();
+        ids.forEach(id -> sucessos.put(id, new AtomicInteger()));
+        AtomicInteger conflitos = new AtomicInteger();
+        AtomicInteger falhas = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch largada = new CountDownLatch(1);
+        CountDownLatch fim = new CountDownLatch(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            Long id = ids.get(i % ids.size());
+            executor.execute(() -> {
+                try {
+                    largada.await();
+                    if (ocupar.apply(id)) {
+                        sucessos.get(id).incrementAndGet();
+                    } else {
+                        conflitos.incrementAndGet();
+                    }
+                } catch (Exception e) {
+                    falhas.incrementAndGet();
+                } finally {
+                    fim.countDown();
+                }
+            });
+        }
+
+        long inicio = System.nanoTime();
+        largada.countDown();
+        assertTrue(fim.await(60, TimeUnit.SECONDS));
+        long duracaoMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+        executor.shutdown();
+        return new Resultado(sucessos, conflitos, falhas, duracaoMs);
+    }
+
+    private record Resultado(ConcurrentHashMap<Long, AtomicInteger> sucessos, AtomicInteger conflitos,
+                             AtomicInteger falhas, long duracaoMs) {
+
+        long opsPorSegundo() {
+            return THREADS * 1000L / duracaoMs;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package br.com.unit.tokseg.armariointeligente.service;
+
+import br.com.unit.tokseg.armariointeligente.exception.BadRequestException;
+import br.com.unit.tokseg.armariointeligente.model.Compartimento;
+import br.com.unit.tokseg.armariointeligente.model.ConsultaEntregasRequest;
+import br.com.unit.tokseg.armariointeligente.model.Entrega;
+import br.com.unit.tokseg.armariointeligente.model.EntregaResumo;
+import br.com.unit.tokseg.armariointeligente.model.Pagina;
+import br.com.unit.tokseg.armariointeligente.model.StatusEntrega;
+import br.com.unit.tokseg.armariointeligente.model.Usuario;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class PaginacaoEntregasTest {
+
+    @Autowired
+    private EntregaService entregaService;
+
+    @Autowired
+    private CenarioTeste cenario;
+
+    private Compartimento compartimento;
+
+    // Do mais recente para o mais antigo, na ordem em que a listagem deve devolvê-las
+    private final List<Long> esperadas = new ArrayList<>();
+
+    private final LocalDateTime base = LocalDateTime.of(2020, 3, 10, 12, 0);
+
+    @BeforeEach
+    public void setup() {
+        Usuario entregador = cenario.entregador();
+        Usuario destinatario = cenario.morador();
+        compartimento = cenario.compartimento("PG-1", "M", true);
+
+        // Várias entregas por instante: a página precisa desempatar pelo id sem repetir nem pular
+        List<Entrega> novas = new ArrayList<>();
+        for (int i = 0; i < 23; i++) {
+            novas.add(cenario.entrega("PAGINA-" + i, base.plusMinutes(i / 3),
+                    i % 2 == 0 ? StatusEntrega.ENTREGUE : StatusEntrega.RETIRADO, compartimento, entregador, destinatario));
+        }
+        cenario.salvar(novas).stream()
+                .sorted((a, b) -> a.getDataEntrega().equals(b.getDataEntrega())
+                        ? b.getId().compareTo(a.getId())
+                        : b.getDataEntrega().compareTo(a.getDataEntrega()))
+                .forEach(entrega -> esperadas.add(entrega.getId()));
+    }
+
+    @AfterEach
+    public void limpar() {
+        cenario.limpar();
+        esperadas.clear();
+    }
+
+    @Test
+    public void testPercorreTodasAsPaginasSemRepetirNemPular() {
+        List<Long> lidas = new ArrayList<>();
+        String cursor = null;
+        int paginas = 0;
+        do {
+            Pagina<EntregaResumo> pagina = entregaService.listarEntregasPorCompartimento(compartimento.getId(), new ConsultaEntregasRequest(cursor, 5, null, null));
+            assertTrue(pagina.getItens().size() <= 5);
+            pagina.getItens().forEach(entrega -> lidas.add(entrega.getId()));
+            cursor = pagina.getProximoCursor();
+            paginas++;
+        } while (cursor != null);
+
+        assertEquals(esperadas, lidas);
+        assertEquals(5, paginas);
+    }
+
+    @Test
+    public void testFiltroDePeriodoEStatus() {
+        LocalDateTime inicio = base.plusMinutes(2);
+        LocalDateTime fim = base.plusMinutes(4);
+
+        Pagina<EntregaResumo> pagina = entregaService.listarEntregasPorPeriodo(new ConsultaEntregasRequest(null, 100, inicio, fim));
+        List<EntregaResumo> doCompartimento = pagina.getItens().stream()
+                .filter(entrega -> entrega.getCompartimentoId().equals(compartimento.getId()))
+                .toList();
+        assertEquals(9, doCompartimento.size());
+        assertNull(pagina.getProximoCursor());
+
+        Pagina<EntregaResumo> entregues = entregaService.listarEntregasPorStatus(StatusEntrega.ENTREGUE, new ConsultaEntregasRequest(null, 100, inicio, fim));
+        assertTrue(entregues.getItens().stream().allMatch(entrega -> entrega.getStatus() == StatusEntrega.ENTREGUE
+                && !entrega.getDataEntrega().isBefore(inicio) && !entrega.getDataEntrega().isAfter(fim)));
+    }
+
+    @Test
+    public void testTamanhoLimitadoECursorInvalido() {
+        assertThrows(BadRequestException.class,
+                () -> entregaService.listarEntregasPorCompartimento(compartimento.getId(), new ConsultaEntregasRequest("nao-e-um-cursor", 5, null, null)));
+        assertThrows(BadRequestException.class,
+                () -> entregaService.listarEntregasPorCompartimento(compartimento.getId(), new ConsultaEntregasRequest(null, 0, null, null)));
+        assertThrows(BadRequestException.class,
+                () -> entregaService.listarEntregasPorPeriodo(new ConsultaEntregasRequest(null, null, base.plusDays(1), base)));
+        // Também nas listagens em que o período é opcional
+        assertThrows(BadRequestException.class,
+                () -> entregaService.listarEntregasPorCompartimento(compartimento.getId(), new ConsultaEntregasRequest(null, null, base.plusDays(1), base)));
+        assertThrows(BadRequestException.class,
+                () -> entregaService.listarEntregasPorPeriodo(new ConsultaEntregasRequest(null, null, base, null)));
+    }
+}
@@ -0,0 +1,116 @@
+package br.com.unit.tokseg.armariointeligente.service;
+
+import br.com.unit.tokseg.armariointeligente.exception.ResourceAlreadyExistsException;
+import br.com.unit.tokseg.armariointeligente.model.Compartimento;
+import br.com.unit.tokseg.armariointeligente.model.Entrega;
+import br.com.unit.tokseg.armariointeligente.model.Usuario;
+import br.com.unit.tokseg.armariointeligente.repository.CompartimentoRepository;
+import br.com.unit.tokseg.armariointeligente.repository.EntregaRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Regressão do plano de consultas de registrarEntrega: se alguém reintroduzir uma consulta
+// prévia ou um carregamento extra, a contagem de instruções passa do limite e o teste falha.
+// O contexto é diferente do dos outros testes e usa um banco só dele, com o nome da classe: recriar
+// o esquema em um banco compartilhado reiniciaria a sequência de entregas por baixo de outro contexto.
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.datasource.url=jdbc:h2:mem:registroentregaconsultas"
+})
+public class RegistroEntregaConsultasTest {
+
+    // Séries recorrentes do compartimento, UPDATE de ocupação, SELECT das referências e INSERT
+    private static final int MAXIMO_INSTRUCOES = 4;
+
+    @Autowired
+    private EntregaService entregaService;
+
+    @Autowired
+    private EntregaRepository entregaRepository;
+
+    @Autowired
+    private CompartimentoRepository compartimentoRepository;
+
+    @Autowired
+    private CenarioTeste cenario;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics estatisticas;
+
+    private Usuario entregador;
+    private Usuario destinatario;
+
+    // Registradas pelo serviço, fora do cenário: apagadas antes dos compartimentos
+    private final List<Long> entregas = new ArrayList<>();
+
+    @BeforeEach
+    public void setup() {
+        estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        entregador = cenario.entregador();
+        destinatario = cenario.morador();
+        // Aquecimento: garante um bloco de ids da sequência já alocado antes da medição
+        registrar("AQUECIMENTO-1", novoCompartimento("QC-0"));
+    }
+
+    @AfterEach
+    public void limpar() {
+        entregaRepository.deleteAllById(entregas);
+        entregas.clear();
+        cenario.limpar();
+    }
+
+    @Test
+    public void testRegistrarEntregaUsaNoMaximoQuatroInstrucoes() {
+        Long compartimentoId = novoCompartimento("QC-1");
+
+        estatisticas.clear();
+        Entrega registrada = registrar("CONSULTAS-1", compartimentoId);
+        long instrucoes = estatisticas.getPrepareStatementCount();
+
+        assertNotNull(registrada.getId());
+        assertTrue(registrada.getCompartimento().getOcupado());
+        assertEquals("Entregador", registrada.getEntregador().getTipoUsuario().getNome());
+        assertTrue(instrucoes <= MAXIMO_INSTRUCOES,
+                "registrarEntrega executou " + instrucoes + " instruções (máximo " + MAXIMO_INSTRUCOES + ")");
+    }
+
+    @Test
+    public void testCodigoRepetidoViolaRestricaoEDesfazOcupacao() {
+        Long compartimentoId = novoCompartimento("QC-2");
+
+        assertThrows(ResourceAlreadyExistsException.class, () -> registrar("AQUECIMENTO-1", compartimentoId));
+
+        assertFalse(compartimentoRepository.findById(compartimentoId).orElseThrow().getOcupado());
+    }
+
+    private Entrega registrar(String codigoRastreio, Long compartimentoId) {
+        Compartimento compartimento = new Compartimento();
+        compartimento.setId(compartimentoId);
+        Entrega entrega = new Entrega();
+        entrega.setCodigoRastreio(codigoRastreio);
+        entrega.setCompartimento(compartimento);
+        entrega.setEntregador(entregador);
+        entrega.setDestinatario(destinatario);
+
+        Entrega registrada = entregaService.registrarEntrega(entrega);
+        entregas.add(registrada.getId());
+        return registrada;
+    }
+
+    private Long novoCompartimento(String numero) {
+        return cenario.compartimento(numero, "P", false).getId();
+    }
+}
@@ -0,0 +1,196 @@
+package br.com.unit.tokseg.armariointeligente.service;
+
+import br.com.unit.tokseg.armariointeligente.exception.BadRequestException;
+import br.com.unit.tokseg.armariointeligente.model.Compartimento;
+import br.com.unit.tokseg.armariointeligente.model.Reserva;
+import br.com.unit.tokseg.armariointeligente.model.ReservaRecorrente;
+import br.com.unit.tokseg.armariointeligente.model.ReservaResumo;
+import br.com.unit.tokseg.armariointeligente.model.StatusReserva;
+import br.com.unit.tokseg.armariointeligente.model.Usuario;
+import br.com.unit.tokseg.armariointeligente.repository.CompartimentoRepository;
+import br.com.unit.tokseg.armariointeligente.repository.ReservaRecorrenteRepository;
+import br.com.unit.tokseg.armariointeligente.repository.ReservaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class ReservaRecorrenteTest {
+
+    @Autowired
+    private ReservaRecorrenteService reservaRecorrenteService;
+
+    @Autowired
+    private ReservaService reservaService;
+
+    @Autowired
+    private ReservaRecorrenteRepository reservaRecorrenteRepository;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    @Autowired
+    private CompartimentoRepository compartimentoRepository;
+
+    @Autowired
+    private CenarioTeste cenario;
+
+    private Compartimento compartimento;
+    private Usuario cliente;
+
+    private final LocalDate segunda = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+
+    private final List<Long> series = new ArrayList<>();
+    private final List<Long> reservas = new ArrayList<>();
+
+    @BeforeEach
+    public void setup() {
+        cliente = cenario.morador();
+        compartimento = cenario.compartimento("RR-1", "M", false);
+    }
+
+    @AfterEach
+    public void limpar() {
+        // Ocorrências materializadas: as séries do teste ficam nas próximas semanas
+        for (Long serie : series) {
+            reservaRepository.findResumosPorRecorrenciaEPeriodo(serie, segunda.minusWeeks(1).atStartOfDay(),
+                    segunda.plusYears(1).atStartOfDay()).forEach(reserva -> reservas.add(reserva.getId()));
+        }
+        reservaRepository.deleteAllById(reservas);
+        reservaRecorrenteRepository.deleteAllById(series);
+        series.clear();
+        reservas.clear();
+        cenario.limpar();
+    }
+
+    @Test
+    public void testOcorrenciasConflitamEApareceNaListagem() {
+        ReservaRecorrente serie = criarSerie("freq=weekly;byday=MO,TU,WE,TH,FR", segunda, segunda.plusWeeks(4),
+                LocalTime.of(8, 0), LocalTime.of(9, 0));
+        assertEquals("FREQ=WEEKLY;BYDAY=MO,TU,WE,TH,FR", serie.getRegra());
+
+        // Quarta-feira da terceira semana, sobre a ocorrência; o sábado está livre
+        LocalDateTime quarta = segunda.plusWeeks(2).plusDays(2).atTime(8, 30);
+        assertThrows(BadRequestException.class, () -> reservar(quarta, quarta.plusHours(1)));
+        reservar(segunda.plusDays(5).atTime(8, 30), segunda.plusDays(5).atTime(10, 0));
+        // Encostada no fim da ocorrência
+        reservar(segunda.atTime(9, 0), segunda.atTime(10, 0));
+
+        // Outra série no mesmo horário conflita; em outro horário, não
+        assertThrows(BadRequestException.class, () -> criarSerie("FREQ=DAILY", segunda.plusWeeks(1),
+                segunda.plusWeeks(2), LocalTime.of(8, 45), LocalTime.of(9, 15)));
+        assertThrows(BadRequestException.class, () -> criarSerie("FREQ=DAILY", segunda.minusDays(1),
+                segunda, LocalTime.of(9, 30), LocalTime.of(10, 0)));
+        criarSerie("FREQ=DAILY", segunda.plusWeeks(1), segunda.plusWeeks(2), LocalTime.of(12, 0), LocalTime.of(13, 0));
+
+        List<ReservaResumo> semana = reservaService.listarReservasPorPeriodo(segunda.atStartOfDay(),
+                segunda.plusDays(6).atTime(23, 59));
+        List<ReservaResumo> ocorrencias = semana.stream()
+                .filter(reserva -> serie.getId().equals(reserva.getRecorrenciaId()))
+                .toList();
+        assertEquals(5, ocorrencias.size());
+        assertTrue(ocorrencias.stream().allMatch(reserva -> reserva.getId() == null
+                && reserva.getCompartimentoId().equals(compartimento.getId())
+                && reserva.getArmarioId().equals(compartimento.getArmario().getId())
+                && reserva.getUsuarioNome().equals(cliente.getNome())));
+        assertEquals(segunda.atTime(8, 0), ocorrencias.get(0).getDataInicio());
+
+        // Série cancelada libera o horário
+        reservaRecorrenteService.cancelarReservaRecorrente(serie.getId());
+        reservar(quarta, quarta.plusHours(1));
+    }
+
+    @Test
+    public void testOcorrenciaMaterializadaQuandoComeca() {
+        LocalDate dia = segunda.plusDays(1);
+        ReservaRecorrente serie = criarSerie("FREQ=DAILY", dia, dia.plusDays(10), LocalTime.of(11, 0), LocalTime.of(13, 0));
+
+        assertEquals(0, reservaRecorrenteService.materializar(dia.atTime(10, 59)));
+        assertEquals(1, reservaRecorrenteService.materializar(dia.atTime(12, 0)));
+        // Uma vez só por ocorrência
+        assertEquals(0, reservaRecorrenteService.materializar(dia.atTime(12, 1)));
+
+        List<ReservaResumo> doDia = reservaRecorrenteService.listarOcorrencias(serie.getId(), dia.atStartOfDay(),
+                dia.plusDays(1).atStartOfDay().minusSeconds(1));
+        assertEquals(1, doDia.size());
+        assertNotNull(doDia.get(0).getId());
+        Reserva materializada = reservaRepository.findById(doDia.get(0).getId()).orElseThrow();
+        assertEquals(StatusReserva.ATIVA, materializada.getStatus());
+        assertEquals(dia.atTime(13, 0), materializada.getDataFim());
+        assertTrue(compartimentoRepository.findById(compartimento.getId()).orElseThrow().getOcupado());
+
+        // Daí em diante, segue o ciclo das reservas avulsas
+        reservaService.encerrarReservas(dia.atTime(13, 0), 500);
+        assertEquals(StatusReserva.CONCLUIDA, reservaRepository.findById(materializada.getId()).orElseThrow().getStatus());
+        assertFalse(compartimentoRepository.findById(compartimento.getId()).orElseThrow().getOcupado());
+    }
+
+    @Test
+    public void testOcorrenciaCanceladaLiberaOHorario() {
+        LocalDate dia = segunda.plusDays(1);
+        ReservaRecorrente serie = criarSerie("FREQ=DAILY", dia, dia.plusDays(10), LocalTime.of(11, 0), LocalTime.of(13, 0));
+        assertEquals(1, reservaRecorrenteService.materializar(dia.atTime(11, 30)));
+        Long ocorrencia = reservaRecorrenteService.listarOcorrencias(serie.getId(), dia.atStartOfDay(),
+                dia.atTime(23, 59)).get(0).getId();
+
+        reservaService.cancelarReserva(ocorrencia);
+
+        // Só o dia cancelado é liberado; o seguinte continua com a série
+        reservar(dia.atTime(12, 0), dia.atTime(12, 30));
+        assertThrows(BadRequestException.class, () -> reservar(dia.plusDays(1).atTime(12, 0), dia.plusDays(1).atTime(12, 30)));
+    }
+
+    @Test
+    public void testOcorrenciaComCompartimentoOcupadoNaoPassaPorConcluida() {
+        LocalDate dia = segunda.plusDays(1);
+        ReservaRecorrente serie = criarSerie("FREQ=DAILY", dia, dia.plusDays(10), LocalTime.of(11, 0), LocalTime.of(13, 0));
+        compartimento.setOcupado(true);
+        compartimentoRepository.save(compartimento);
+
+        // A ocorrência fica registrada, aguardando o compartimento, em vez de sumir
+        assertEquals(0, reservaRecorrenteService.materializar(dia.atTime(11, 30)));
+        List<ReservaResumo> doDia = reservaRecorrenteService.listarOcorrencias(serie.getId(), dia.atStartOfDay(),
+                dia.atTime(23, 59));
+        assertEquals(1, doDia.size());
+        assertEquals(StatusReserva.CONFIRMADA, doDia.get(0).getStatus());
+        assertEquals(1, reservaService.iniciarReservas(dia.atTime(11, 30), 0L, 500).adiadas());
+
+        reservaService.encerrarReservas(dia.atTime(13, 0), 500);
+        assertEquals(StatusReserva.NAO_ATENDIDA, reservaRepository.findById(doDia.get(0).getId()).orElseThrow().getStatus());
+    }
+
+    private ReservaRecorrente criarSerie(String regra, LocalDate inicio, LocalDate fim, LocalTime horaInicio, LocalTime horaFim) {
+        ReservaRecorrente serie = new ReservaRecorrente();
+        serie.setRegra(regra);
+        serie.setDataInicio(inicio);
+        serie.setDataFim(fim);
+        serie.setHoraInicio(horaInicio);
+        serie.setHoraFim(horaFim);
+        serie.setCompartimento(compartimento);
+        serie.setUsuario(cliente);
+        ReservaRecorrente criada = reservaRecorrenteService.criarReservaRecorrente(serie);
+        series.add(criada.getId());
+        return criada;
+    }
+
+    private void reservar(LocalDateTime inicio, LocalDateTime fim) {
+        Reserva reserva = new Reserva();
+        reserva.setDataInicio(inicio);
+        reserva.setDataFim(fim);
+        reserva.setCompartimento(compartimento);
+        reserva.setUsuario(cliente);
+        reservas.add(reservaService.criarReserva(reserva).getId());
+    }
+}
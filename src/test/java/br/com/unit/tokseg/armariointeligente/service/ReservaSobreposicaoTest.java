@@ -0,0 +1,175 @@
+package br.com.unit.tokseg.armariointeligente.service;
+
+import br.com.unit.tokseg.armariointeligente.exception.BadRequestException;
+import br.com.unit.tokseg.armariointeligente.model.Compartimento;
+import br.com.unit.tokseg.armariointeligente.model.Entrega;
+import br.com.unit.tokseg.armariointeligente.model.Reserva;
+import br.com.unit.tokseg.armariointeligente.model.StatusReserva;
+import br.com.unit.tokseg.armariointeligente.model.Usuario;
+import br.com.unit.tokseg.armariointeligente.repository.CompartimentoRepository;
+import br.com.unit.tokseg.armariointeligente.repository.ReservaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class ReservaSobreposicaoTest {
+
+    @Autowired
+    private ReservaService reservaService;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    @Autowired
+    private CompartimentoRepository compartimentoRepository;
+
+    @Autowired
+    private CenarioTeste cenario;
+
+    @Autowired
+    private EntregaService entregaService;
+
+    private Compartimento compartimento;
+    private Usuario cliente;
+
+    private final LocalDateTime amanha = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+
+    private final List<Long> reservas = new ArrayList<>();
+
+    @BeforeEach
+    public void setup() {
+        cliente = cenario.morador();
+        compartimento = cenario.compartimento("RS-1", "M", false);
+    }
+
+    @AfterEach
+    public void limpar() {
+        reservaRepository.deleteAllById(reservas);
+        reservas.clear();
+        cenario.limpar();
+    }
+
+    @Test
+    public void testSobreposicaoRejeitadaEJanelaAdjacenteAceita() {
+        Reserva primeira = reservar(amanha.plusHours(14), amanha.plusHours(18));
+
+        assertThrows(BadRequestException.class, () -> reservar(amanha.plusHours(17), amanha.plusHours(19)));
+        assertThrows(BadRequestException.class, () -> reservar(amanha.plusHours(15), amanha.plusHours(16)));
+        assertThrows(BadRequestException.class, () -> reservar(amanha.plusHours(18), amanha.plusHours(18)));
+
+        // [14h, 18h) e [18h, 20h) apenas se encostam
+        reservar(amanha.plusHours(18), amanha.plusHours(20));
+        reservar(amanha.plusHours(12), amanha.plusHours(14));
+
+        // Reserva futura não ocupa o compartimento antes da janela
+        assertFalse(compartimentoRepository.findById(compartimento.getId()).orElseThrow().getOcupado());
+
+        reservaService.cancelarReserva(primeira.getId());
+        reservar(amanha.plusHours(15), amanha.plusHours(17));
+    }
+
+    // Segundos inteiros: o H2 arredonda os nanossegundos ao gravar, e o fim da janela deve ser exato
+    @Test
+    public void testJanelaOcupaEDesocupaOCompartimento() {
+        LocalDateTime agora = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        Long id = salvar(compartimento, agora.minusMinutes(5), agora.plusHours(1));
+
+        ReservaService.LoteReservas iniciadas = reservaService.iniciarReservas(agora, 0L, 500);
+        assertTrue(iniciadas.alteradas() >= 1);
+        assertEquals(StatusReserva.ATIVA, reservaRepository.findById(id).orElseThrow().getStatus());
+        assertTrue(compartimentoRepository.findById(compartimento.getId()).orElseThrow().getOcupado());
+
+        reservaService.encerrarReservas(agora.plusHours(1), 500);
+        assertEquals(StatusReserva.CONCLUIDA, reservaRepository.findById(id).orElseThrow().getStatus());
+        assertFalse(compartimentoRepository.findById(compartimento.getId()).orElseThrow().getOcupado());
+    }
+
+    @Test
+    public void testCompartimentoOcupadoAdiaOInicioDaJanela() {
+        LocalDateTime agora = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        compartimento.setOcupado(true);
+        compartimentoRepository.save(compartimento);
+        Long id = salvar(compartimento, agora.minusMinutes(5), agora.plusHours(1));
+
+        ReservaService.LoteReservas lote = reservaService.iniciarReservas(agora, 0L, 500);
+        assertTrue(lote.adiadas() >= 1);
+        assertEquals(StatusReserva.CONFIRMADA, reservaRepository.findById(id).orElseThrow().getStatus());
+
+        // Encerrar uma reserva que nunca ficou ativa não mexe no compartimento e não a conta como concluída
+        reservaService.encerrarReservas(agora.plusHours(1), 500);
+        assertEquals(StatusReserva.NAO_ATENDIDA, reservaRepository.findById(id).orElseThrow().getStatus());
+        assertTrue(compartimentoRepository.findById(compartimento.getId()).orElseThrow().getOcupado());
+    }
+
+    @Test
+    public void testLotesPequenosProcessamTodasAsJanelas() {
+        LocalDateTime agora = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        List<Compartimento> extras = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            Compartimento extra = cenario.compartimento("RS-L" + i, "P", false);
+            extras.add(extra);
+            ids.add(salvar(extra, agora.minusMinutes(1), agora.plusMinutes(30)));
+        }
+        Long depoisDe = 0L;
+        ReservaService.LoteReservas lote;
+        do {
+            lote = reservaService.iniciarReservas(agora, depoisDe, 3);
+            depoisDe = lote.ultimoId();
+        } while (lote.lidas() == 3);
+        reservaRepository.findAllById(ids).forEach(r -> assertEquals(StatusReserva.ATIVA, r.getStatus()));
+
+        do {
+            lote = reservaService.encerrarReservas(agora.plusMinutes(30), 3);
+        } while (lote.lidas() == 3);
+        reservaRepository.findAllById(ids).forEach(r -> assertEquals(StatusReserva.CONCLUIDA, r.getStatus()));
+        compartimentoRepository.findAllById(extras.stream().map(Compartimento::getId).toList())
+                .forEach(c -> assertFalse(c.getOcupado()));
+    }
+
+    @Test
+    public void testRegistroDiretoRecusaCompartimentoComReservaProxima() {
+        reservar(LocalDateTime.now().plusHours(2), LocalDateTime.now().plusHours(3));
+        Entrega entrega = new Entrega();
+        entrega.setCodigoRastreio("RS-RESERVADO");
+        entrega.setCompartimento(compartimento);
+        entrega.setEntregador(cenario.entregador());
+        entrega.setDestinatario(cliente);
+
+        assertThrows(BadRequestException.class, () -> entregaService.registrarEntrega(entrega));
+        assertFalse(compartimentoRepository.findById(compartimento.getId()).orElseThrow().getOcupado());
+    }
+
+    private Long salvar(Compartimento alvo, LocalDateTime inicio, LocalDateTime fim) {
+        Reserva reserva = new Reserva();
+        reserva.setDataInicio(inicio);
+        reserva.setDataFim(fim);
+        reserva.setStatus(StatusReserva.CONFIRMADA);
+        reserva.setCompartimento(alvo);
+        reserva.setUsuario(cliente);
+        Long id = reservaRepository.save(reserva).getId();
+        reservas.add(id);
+        return id;
+    }
+
+    private Reserva reservar(LocalDateTime inicio, LocalDateTime fim) {
+        Reserva reserva = new Reserva();
+        reserva.setDataInicio(inicio);
+        reserva.setDataFim(fim);
+        reserva.setCompartimento(compartimento);
+        reserva.setUsuario(cliente);
+        Reserva criada = reservaService.criarReserva(reserva);
+        reservas.add(criada.getId());
+        return criada;
+    }
+}
@@ -0,0 +1,72 @@
+package br.com.unit.tokseg.armariointeligente.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ArvoreIntervalosTest {
+
+    @Test
+    public void testIntervalosSemiabertos() {
+        ArvoreIntervalos arvore = new ArvoreIntervalos();
+        arvore.inserir(1L, 10, 20);
+        arvore.inserir(2L, 30, 40);
+
+        // Encostar no fim ou no início não é sobreposição
+        assertFalse(arvore.sobrepoe(20, 30));
+        assertFalse(arvore.sobrepoe(0, 10));
+        assertFalse(arvore.sobrepoe(40, 50));
+        assertTrue(arvore.sobrepoe(19, 21));
+        assertTrue(arvore.sobrepoe(5, 45));
+        assertTrue(arvore.sobrepoe(32, 33));
+        assertEquals(List.of(1L, 2L), arvore.sobrepostos(15, 35));
+        assertThrows(IllegalArgumentException.class, () -> arvore.inserir(3L, 50, 50));
+    }
+
+    @Test
+    public void testRemoverLiberaOIntervalo() {
+        ArvoreIntervalos arvore = new ArvoreIntervalos();
+        arvore.inserir(1L, 10, 20);
+        arvore.inserir(2L, 10, 15);
+
+        assertTrue(arvore.remover(1L, 10));
+        assertFalse(arvore.remover(1L, 10));
+        assertFalse(arvore.sobrepoe(15, 20));
+        assertTrue(arvore.sobrepoe(14, 20));
+        assertEquals(1, arvore.tamanho());
+    }
+
+    @Test
+    public void testConfereComBuscaLinearAposInsercoesERemocoes() {
+        Random random = new Random(42);
+        ArvoreIntervalos arvore = new ArvoreIntervalos();
+        List<long[]> intervalos = new ArrayList<>();
+        for (long id = 0; id < 2000; id++) {
+            long inicio = random.nextInt(100_000);
+            long fim = inicio + 1 + random.nextInt(500);
+            arvore.inserir(id, inicio, fim);
+            intervalos.add(new long[]{id, inicio, fim});
+        }
+        for (int i = 0; i < 1000; i++) {
+            long[] removido = intervalos.remove(random.nextInt(intervalos.size()));
+            assertTrue(arvore.remover(removido[0], removido[1]));
+        }
+        assertEquals(intervalos.size(), arvore.tamanho());
+
+        for (int i = 0; i < 2000; i++) {
+            long inicio = random.nextInt(100_000);
+            long fim = inicio + 1 + random.nextInt(200);
+            List<Long> esperados = intervalos.stream()
+                    .filter(intervalo -> intervalo[1] < fim && inicio < intervalo[2])
+                    .sorted((a, b) -> a[1] != b[1] ? Long.compare(a[1], b[1]) : Long.compare(a[0], b[0]))
+                    .map(intervalo -> intervalo[0])
+                    .toList();
+            assertEquals(esperados, arvore.sobrepostos(inicio, fim));
+            assertEquals(!esperados.isEmpty(), arvore.sobrepoe(inicio, fim));
+        }
+    }
+}
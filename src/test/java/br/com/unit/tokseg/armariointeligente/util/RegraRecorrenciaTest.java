@@ -0,0 +1,63 @@
+package br.com.unit.tokseg.armariointeligente.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RegraRecorrenciaTest {
+
+    // Segunda-feira
+    private static final LocalDate INICIO = LocalDate.of(2024, 1, 1);
+
+    @Test
+    public void testDiasUteis() {
+        RegraRecorrencia regra = RegraRecorrencia.interpretar("freq=weekly;byday=MO,TU,WE,TH,FR");
+
+        List<LocalDate> dias = regra.dias(INICIO, INICIO.plusYears(1), INICIO.plusDays(5), INICIO.plusDays(13));
+        assertEquals(5, dias.size());
+        assertTrue(dias.stream().noneMatch(dia -> dia.getDayOfWeek() == DayOfWeek.SATURDAY
+                || dia.getDayOfWeek() == DayOfWeek.SUNDAY));
+        assertEquals("FREQ=WEEKLY;BYDAY=MO,TU,WE,TH,FR", regra.toString());
+    }
+
+    @Test
+    public void testIntervaloEFimDaSerie() {
+        RegraRecorrencia quinzenal = RegraRecorrencia.interpretar("FREQ=WEEKLY;INTERVAL=2;BYDAY=WE");
+        assertEquals(List.of(LocalDate.of(2024, 1, 3), LocalDate.of(2024, 1, 17)),
+                quinzenal.dias(INICIO, null, INICIO, LocalDate.of(2024, 1, 28)));
+
+        RegraRecorrencia diaSim = RegraRecorrencia.interpretar("FREQ=DAILY;INTERVAL=2");
+        assertEquals(List.of(LocalDate.of(2024, 1, 5), LocalDate.of(2024, 1, 7)),
+                diaSim.dias(INICIO, LocalDate.of(2024, 1, 7), LocalDate.of(2024, 1, 4), LocalDate.of(2024, 1, 31)));
+
+        // Sem BYDAY, a semanal repete o dia da semana do início
+        assertTrue(RegraRecorrencia.interpretar("FREQ=WEEKLY").ocorreEm(INICIO.plusWeeks(30), INICIO));
+        assertFalse(RegraRecorrencia.interpretar("FREQ=WEEKLY").ocorreEm(INICIO.minusWeeks(1), INICIO));
+    }
+
+    @Test
+    public void testExpansaoNaoDependeDoTamanhoDaSerie() {
+        RegraRecorrencia regra = RegraRecorrencia.interpretar("FREQ=WEEKLY;INTERVAL=3;BYDAY=MO,TH");
+        LocalDate distante = INICIO.plusYears(200);
+        // Confere com a contagem desde o início da série, feita à mão
+        List<LocalDate> esperados = INICIO.datesUntil(distante.plusDays(28))
+                .filter(dia -> !dia.isBefore(distante))
+                .filter(dia -> (dia.toEpochDay() - INICIO.toEpochDay()) / 7 % 3 == 0)
+                .filter(dia -> dia.getDayOfWeek() == DayOfWeek.MONDAY || dia.getDayOfWeek() == DayOfWeek.THURSDAY)
+                .toList();
+        assertEquals(esperados, regra.dias(INICIO, null, distante, distante.plusDays(27)));
+    }
+
+    @Test
+    public void testRegrasInvalidas() {
+        assertThrows(IllegalArgumentException.class, () -> RegraRecorrencia.interpretar("BYDAY=MO"));
+        assertThrows(IllegalArgumentException.class, () -> RegraRecorrencia.interpretar("FREQ=MONTHLY"));
+        assertThrows(IllegalArgumentException.class, () -> RegraRecorrencia.interpretar("FREQ=DAILY;INTERVAL=0"));
+        assertThrows(IllegalArgumentException.class, () -> RegraRecorrencia.interpretar("FREQ=WEEKLY;BYDAY=XX"));
+        assertThrows(IllegalArgumentException.class, () -> RegraRecorrencia.interpretar("FREQ=DAILY;COUNT=3"));
+    }
+}
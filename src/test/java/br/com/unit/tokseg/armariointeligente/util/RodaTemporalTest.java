@@ -0,0 +1,81 @@
+package br.com.unit.tokseg.armariointeligente.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RodaTemporalTest {
+
+    private static final long TIQUE = 1000;
+
+    @Test
+    public void testVenceNoTiqueDoPrazo() {
+        RodaTemporal roda = new RodaTemporal(TIQUE, 8, 3, 0);
+        roda.agendar(1L, 5 * TIQUE);
+        roda.agendar(2L, 5 * TIQUE + 1);
+
+        assertTrue(roda.avancar(4 * TIQUE).isEmpty());
+        assertEquals(List.of(1L), roda.avancar(5 * TIQUE));
+        assertEquals(List.of(2L), roda.avancar(6 * TIQUE));
+        assertEquals(0, roda.tamanho());
+    }
+
+    @Test
+    public void testPrazosDistantesDescemDeNivel() {
+        RodaTemporal roda = new RodaTemporal(TIQUE, 8, 3, 0);
+        // Nível 1 (8..63 tiques) e nível 2 (64..511 tiques)
+        roda.agendar(1L, 20 * TIQUE);
+        roda.agendar(2L, 64 * TIQUE);
+        roda.agendar(3L, 300 * TIQUE);
+
+        List<Long> vencidos = new ArrayList<>();
+        for (long t = 1; t <= 400; t++) {
+            for (Long id : roda.avancar(t * TIQUE)) {
+                vencidos.add(id);
+                long esperado = id == 1L ? 20 : id == 2L ? 64 : 300;
+                assertEquals(esperado, t, "Entrega " + id + " venceu fora do tique");
+            }
+        }
+        assertEquals(List.of(1L, 2L, 3L), vencidos);
+    }
+
+    @Test
+    public void testSaltoGrandeEntregaTudoQueVenceu() {
+        RodaTemporal roda = new RodaTemporal(TIQUE, 8, 3, 0);
+        for (long i = 1; i <= 100; i++) {
+            roda.agendar(i, i * 5 * TIQUE);
+        }
+
+        assertEquals(40, roda.avancar(200 * TIQUE).size());
+        assertEquals(60, roda.tamanho());
+        assertEquals(60, roda.avancar(500 * TIQUE).size());
+    }
+
+    @Test
+    public void testPrazoJaVencidoSaiNoProximoAvanco() {
+        RodaTemporal roda = new RodaTemporal(TIQUE, 8, 3, 10 * TIQUE);
+        roda.agendar(1L, 3 * TIQUE);
+
+        assertEquals(List.of(1L), roda.avancar(10 * TIQUE));
+    }
+
+    @Test
+    public void testPrazoAlemDoAlcanceEReinserido() {
+        // Alcance de 8^2 = 64 tiques
+        RodaTemporal roda = new RodaTemporal(TIQUE, 8, 2, 0);
+        roda.agendar(1L, 150 * TIQUE);
+
+        assertTrue(roda.avancar(149 * TIQUE).isEmpty());
+        assertEquals(1, roda.tamanho());
+        assertEquals(List.of(1L), roda.avancar(150 * TIQUE));
+    }
+
+    @Test
+    public void testConfiguracaoInvalida() {
+        assertThrows(IllegalArgumentException.class, () -> new RodaTemporal(TIQUE, 10, 3, 0));
+        assertThrows(IllegalArgumentException.class, () -> new RodaTemporal(0, 8, 3, 0));
+    }
+}